@@ -172,8 +172,8 @@ public class AccessGateFilter extends OncePerRequestFilter {
     private boolean populateContext(JwtAuthenticationToken jwtAuth, HttpServletResponse response) {
         // Use shared service for identity extraction and allowlist matching (same as AuthMeController)
         var identity = authContextService.extractIdentity(jwtAuth.getToken());
-        var matchResult = authContextService.matchAllowlist(identity);
-
+        var lookup = authContextService.lookupAllowlist(identity);
+        var matchResult = lookup.result();
 
         if (identity.issuer() == null || identity.subject() == null) {
             if (response != null) {
@@ -212,9 +212,11 @@ public class AccessGateFilter extends OncePerRequestFilter {
             return false;
         }
 
-        // Create/update user identity
-        userIdentityService.createOrUpdate(identity.issuer(), identity.subject(), identity.email(), identity.displayName());
-        userIdentityService.updateLastLogin(identity.issuer(), identity.subject());
+        // Create/update user identity; on a cache hit it was recorded within the cache TTL
+        if (!lookup.fromCache()) {
+            userIdentityService.createOrUpdate(identity.issuer(), identity.subject(), identity.email(), identity.displayName());
+            userIdentityService.updateLastLogin(identity.issuer(), identity.subject());
+        }
 
         // Populate user context
         userContext.setIssuer(identity.issuer());
@@ -0,0 +1,44 @@
+package com.atlas.api.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access check shared by the /admin endpoints: the X-LIRA-ADMIN-KEY header matching lira.admin.key,
+ * or a SYSTEM_ADMIN / ADMIN user authenticated via OIDC.
+ */
+@Component
+public class AdminAccess {
+    private final String adminKey;
+    private final UserContext userContext;
+
+    public AdminAccess(@Value("${lira.admin.key:}") String adminKey, UserContext userContext) {
+        this.adminKey = adminKey;
+        this.userContext = userContext;
+    }
+
+    /**
+     * Check authorization (either admin key OR SYSTEM_ADMIN via OIDC)
+     */
+    public boolean isAuthorized(String providedKey) {
+        return isValidAdminKey(providedKey) || isSystemAdmin();
+    }
+
+    /**
+     * True if the configured admin key is set and equals the provided one.
+     */
+    public boolean isValidAdminKey(String providedKey) {
+        return adminKey != null && !adminKey.isEmpty() && adminKey.equals(providedKey);
+    }
+
+    /**
+     * Check if current user is SYSTEM_ADMIN (for OIDC-authenticated requests)
+     */
+    public boolean isSystemAdmin() {
+        if (!userContext.isAuthenticated()) {
+            return false;
+        }
+        String role = userContext.getRole();
+        return "SYSTEM_ADMIN".equals(role) || "ADMIN".equals(role);
+    }
+}
@@ -0,0 +1,52 @@
+package com.atlas.api.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Guards the Prometheus scrape endpoint, whose series are tagged with ruleset ids, component names and
+ * table names: the scraper must send the admin key in X-LIRA-ADMIN-KEY (see {@link AdminAccess}).
+ * Runs after AccessGateFilter, so in permit-all mode the local SYSTEM_ADMIN user is let through.
+ */
+@Component
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+    private final AdminAccess adminAccess;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public MetricsScrapeFilter(AdminAccess adminAccess) {
+        this.adminAccess = adminAccess;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // With context-path=/api, requestURI may be /api/... or just /... depending on servlet container
+        String path = request.getRequestURI();
+        return !path.equals("/api/actuator/prometheus") && !path.equals("/actuator/prometheus");
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!adminAccess.isAuthorized(request.getHeader("X-LIRA-ADMIN-KEY"))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            response.setContentType("application/json");
+            objectMapper.writeValue(response.getWriter(), Map.of(
+                "error", "FORBIDDEN",
+                "message", "System administrator access required"
+            ));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
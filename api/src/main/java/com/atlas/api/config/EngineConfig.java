@@ -1,15 +1,51 @@
 package com.atlas.api.config;
 
+import com.atlas.api.service.EvaluationMetrics;
+import com.atlas.api.service.RuleProfiler;
+import com.atlas.api.service.ShadowEvaluation;
 import com.atlas.engine.eval.DefaultEvaluator;
 import com.atlas.engine.eval.Evaluator;
+import com.atlas.engine.expr.ParseCache;
+import com.atlas.engine.spi.EvaluationListener;
 import com.atlas.engine.spi.TableService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 @Configuration
 public class EngineConfig {
+    /**
+     * The engine's evaluator, instrumented for metrics and the profiler. Also injected directly where its
+     * compiled plans are needed (plan explain). Also sizes the engine's process-wide parse cache.
+     */
     @Bean
-    public Evaluator evaluator(TableService tableService) {
-        return new DefaultEvaluator(tableService); // from engine module
+    public DefaultEvaluator defaultEvaluator(TableService tableService, EvaluationMetrics metrics, RuleProfiler profiler,
+                                             @Value("${app.engine.parse-cache.max-entries:10000}") int parseCacheMaxEntries) {
+        ParseCache.setMaxEntries(parseCacheMaxEntries);
+        return new DefaultEvaluator(tableService,
+                EvaluationListener.of(metrics.listener(), profiler.listener())); // from engine module
+    }
+
+    /**
+     * DefaultEvaluator, or with app.engine.shadow.enabled a bean named "candidateEvaluator" serving
+     * requests while DefaultEvaluator checks a sample of them (see ShadowEvaluation).
+     */
+    @Bean
+    @Primary
+    public Evaluator evaluator(DefaultEvaluator reference, TableService tableService, ShadowEvaluation shadow,
+                               @Qualifier("candidateEvaluator") ObjectProvider<Evaluator> candidate) {
+        if (!shadow.enabled()) {
+            return reference;
+        }
+        Evaluator fast = candidate.getIfAvailable();
+        if (fast == null) {
+            System.err.println("[shadow] app.engine.shadow.enabled is set but there is no candidateEvaluator bean; "
+                    + "serving DefaultEvaluator only");
+            return reference;
+        }
+        return shadow.wrap(fast, reference, new DefaultEvaluator(tableService));
     }
 }
@@ -1,6 +1,7 @@
 package com.atlas.api.config;
 
 import com.atlas.api.auth.AccessGateFilter;
+import com.atlas.api.auth.MetricsScrapeFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationContext;
@@ -32,13 +33,16 @@ import java.util.List;
 public class SecurityConfig {
 
     private final AccessGateFilter accessGateFilter;
+    private final MetricsScrapeFilter metricsScrapeFilter;
     private final ApplicationContext applicationContext;
     
     @Value("${app.security.mode:oidc}")
     private String securityMode;
 
-    public SecurityConfig(AccessGateFilter accessGateFilter, ApplicationContext applicationContext) {
+    public SecurityConfig(AccessGateFilter accessGateFilter, MetricsScrapeFilter metricsScrapeFilter,
+                          ApplicationContext applicationContext) {
         this.accessGateFilter = accessGateFilter;
+        this.metricsScrapeFilter = metricsScrapeFilter;
         this.applicationContext = applicationContext;
     }
 
@@ -65,6 +69,7 @@ public class SecurityConfig {
             // Local development mode: permit all requests without authentication
             // Still add AccessGateFilter to populate UserContext with default values
             http.addFilterBefore(accessGateFilter, org.springframework.security.web.access.ExceptionTranslationFilter.class);
+            http.addFilterAfter(metricsScrapeFilter, AccessGateFilter.class);
             
             http
                     .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -95,6 +100,10 @@ public class SecurityConfig {
                 // This ensures it runs after BearerTokenAuthenticationFilter
                 // We add it before ExceptionTranslationFilter to ensure it runs after authentication
                 http.addFilterBefore(accessGateFilter, org.springframework.security.web.access.ExceptionTranslationFilter.class);
+                // Metrics scrape requires the admin key; checked after the gate has populated UserContext
+                http.addFilterAfter(metricsScrapeFilter, AccessGateFilter.class);
+            } else {
+                http.addFilterBefore(metricsScrapeFilter, org.springframework.security.web.access.ExceptionTranslationFilter.class);
             }
 
             http
@@ -106,6 +115,8 @@ public class SecurityConfig {
                             auth
                                     // Health endpoint for ALB / monitoring (under context-path /api)
                                     .requestMatchers("/actuator/health/**", "/actuator/info/**").permitAll()
+                                    // Metrics scrape endpoint - admin key check happens in MetricsScrapeFilter
+                                    .requestMatchers("/actuator/prometheus").permitAll()
                                     // Auth endpoints - require JWT but are not blocked by allowlist
                                     .requestMatchers("/auth/me", "/auth/debug-claims").authenticated()
                                     // Admin endpoints - permit all (admin key check happens in controller)
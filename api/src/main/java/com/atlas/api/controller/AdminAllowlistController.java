@@ -1,8 +1,7 @@
 package com.atlas.api.controller;
 
-import com.atlas.api.auth.UserContext;
+import com.atlas.api.auth.AdminAccess;
 import com.atlas.api.service.AllowlistService;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,35 +13,14 @@ import java.util.UUID;
 @RequestMapping("/admin/allowlist")
 public class AdminAllowlistController {
     private final AllowlistService allowlistService;
-    private final String adminKey;
-    private final UserContext userContext;
+    private final AdminAccess adminAccess;
 
     public AdminAllowlistController(
         AllowlistService allowlistService,
-        @Value("${lira.admin.key:}") String adminKey,
-        UserContext userContext
+        AdminAccess adminAccess
     ) {
         this.allowlistService = allowlistService;
-        this.adminKey = adminKey;
-        this.userContext = userContext;
-    }
-    
-    /**
-     * Check if current user is SYSTEM_ADMIN (for OIDC-authenticated requests)
-     */
-    private boolean isSystemAdmin() {
-        if (!userContext.isAuthenticated()) {
-            return false;
-        }
-        String role = userContext.getRole();
-        return "SYSTEM_ADMIN".equals(role) || "ADMIN".equals(role);
-    }
-    
-    /**
-     * Check authorization (either admin key OR SYSTEM_ADMIN via OIDC)
-     */
-    private boolean isAuthorized(String providedKey) {
-        return isValidAdminKey(providedKey) || isSystemAdmin();
+        this.adminAccess = adminAccess;
     }
 
     @PostMapping
@@ -50,7 +28,7 @@ public class AdminAllowlistController {
         @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
         @RequestBody CreateAllowlistRequest request
     ) {
-        if (!isAuthorized(providedKey)) {
+        if (!adminAccess.isAuthorized(providedKey)) {
             return ResponseEntity.status(403).body(Map.of(
                 "error", "FORBIDDEN",
                 "message", "System administrator access required"
@@ -87,7 +65,7 @@ public class AdminAllowlistController {
     public ResponseEntity<List<Map<String, Object>>> listAllowlistEntries(
         @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey
     ) {
-        if (!isAuthorized(providedKey)) {
+        if (!adminAccess.isAuthorized(providedKey)) {
             return ResponseEntity.status(403).body(List.of());
         }
 
@@ -115,7 +93,7 @@ public class AdminAllowlistController {
         @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
         @PathVariable String id
     ) {
-        if (!isAuthorized(providedKey)) {
+        if (!adminAccess.isAuthorized(providedKey)) {
             return ResponseEntity.status(403).body(Map.of(
                 "error", "FORBIDDEN",
                 "message", "System administrator access required"
@@ -139,7 +117,7 @@ public class AdminAllowlistController {
         @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
         @PathVariable String id
     ) {
-        if (!isAuthorized(providedKey)) {
+        if (!adminAccess.isAuthorized(providedKey)) {
             return ResponseEntity.status(403).body(Map.of(
                 "error", "FORBIDDEN",
                 "message", "System administrator access required"
@@ -164,7 +142,7 @@ public class AdminAllowlistController {
         @PathVariable String id,
         @RequestBody ReplaceTenantsRequest request
     ) {
-        if (!isAuthorized(providedKey)) {
+        if (!adminAccess.isAuthorized(providedKey)) {
             return ResponseEntity.status(403).body(Map.of(
                 "error", "FORBIDDEN",
                 "message", "System administrator access required"
@@ -183,10 +161,6 @@ public class AdminAllowlistController {
         }
     }
 
-    private boolean isValidAdminKey(String providedKey) {
-        return adminKey != null && !adminKey.isEmpty() && adminKey.equals(providedKey);
-    }
-
     public record CreateAllowlistRequest(
         String email,
         String mode,
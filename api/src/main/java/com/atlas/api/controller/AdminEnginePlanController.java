@@ -0,0 +1,68 @@
+package com.atlas.api.controller;
+
+import com.atlas.api.auth.AdminAccess;
+import com.atlas.api.service.RulesService;
+import com.atlas.engine.eval.DefaultEvaluator;
+import com.atlas.engine.model.RuleSet;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/admin/engine/plan")
+public class AdminEnginePlanController {
+    private final DefaultEvaluator evaluator;
+    private final RulesService rules;
+    private final AdminAccess adminAccess;
+
+    public AdminEnginePlanController(
+        DefaultEvaluator evaluator,
+        RulesService rules,
+        AdminAccess adminAccess
+    ) {
+        this.evaluator = evaluator;
+        this.rules = rules;
+        this.adminAccess = adminAccess;
+    }
+
+    /**
+     * Compiled plan of a tenant's ruleset: node counts before and after hash-consing, invariant subtrees
+     * and, per shared subexpression, the evaluations sharing has saved since the plan was built.
+     * Without {@code rulesetId} the tenant's active ruleset is used.
+     */
+    @GetMapping("/{tenantId}")
+    public ResponseEntity<Map<String, Object>> explain(
+        @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
+        @PathVariable String tenantId,
+        @RequestParam(required = false) String rulesetId
+    ) {
+        if (!adminAccess.isAuthorized(providedKey)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "error", "FORBIDDEN",
+                "message", "System administrator access required"
+            ));
+        }
+
+        RuleSet ruleset;
+        try {
+            ruleset = rulesetId != null
+                ? rules.getById(tenantId, rulesetId)
+                : rules.getActive(tenantId, LocalDate.now());
+        } catch (NoSuchElementException | IllegalStateException e) {
+            return ResponseEntity.status(404).body(Map.of(
+                "error", "NOT_FOUND",
+                "message", e.getMessage()
+            ));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("tenantId", tenantId);
+        body.put("rulesetId", ruleset.getId());
+        body.put("plan", evaluator.plan(ruleset).explain());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,73 @@
+package com.atlas.api.controller;
+
+import com.atlas.api.auth.AdminAccess;
+import com.atlas.api.repo.RulesetJdbcRepo;
+import com.atlas.api.service.RuleProfiler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/admin/profiler")
+public class AdminProfilerController {
+    private final RuleProfiler profiler;
+    private final RulesetJdbcRepo rulesetRepo;
+    private final AdminAccess adminAccess;
+
+    public AdminProfilerController(
+        RuleProfiler profiler,
+        RulesetJdbcRepo rulesetRepo,
+        AdminAccess adminAccess
+    ) {
+        this.profiler = profiler;
+        this.rulesetRepo = rulesetRepo;
+        this.adminAccess = adminAccess;
+    }
+
+    /**
+     * Hottest components of a tenant's ruleset over the last {@code windowMinutes}, by cumulative time.
+     * Without {@code rulesetId} the tenant's active ruleset is used.
+     */
+    @GetMapping("/{tenantId}/hot-components")
+    public ResponseEntity<Map<String, Object>> hotComponents(
+        @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
+        @PathVariable String tenantId,
+        @RequestParam(required = false) String rulesetId,
+        @RequestParam(defaultValue = "20") int top,
+        @RequestParam(defaultValue = "15") int windowMinutes
+    ) {
+        if (!adminAccess.isAuthorized(providedKey)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "error", "FORBIDDEN",
+                "message", "System administrator access required"
+            ));
+        }
+        if (top <= 0 || windowMinutes <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "top and windowMinutes must be positive"));
+        }
+
+        Optional<String> resolved = rulesetId != null
+            ? rulesetRepo.findById(tenantId, rulesetId).map(RulesetJdbcRepo.RulesetRow::ruleset_id)
+            : rulesetRepo.findActiveRulesetId(tenantId);
+        if (resolved.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of(
+                "error", "NOT_FOUND",
+                "message", rulesetId != null
+                    ? "Ruleset " + rulesetId + " not found for tenant " + tenantId
+                    : "No active ruleset for tenant " + tenantId
+            ));
+        }
+
+        int window = Math.min(windowMinutes, profiler.retentionMinutes());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("tenantId", tenantId);
+        body.put("rulesetId", resolved.get());
+        body.put("profilerEnabled", profiler.enabled());
+        body.put("windowMinutes", window);
+        body.put("components", profiler.top(resolved.get(), top, window));
+        return ResponseEntity.ok(body);
+    }
+}
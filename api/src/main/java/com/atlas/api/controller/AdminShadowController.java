@@ -0,0 +1,63 @@
+package com.atlas.api.controller;
+
+import com.atlas.api.auth.AdminAccess;
+import com.atlas.api.service.ShadowEvaluation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/engine/shadow")
+public class AdminShadowController {
+    private final ShadowEvaluation shadow;
+    private final AdminAccess adminAccess;
+
+    public AdminShadowController(
+        ShadowEvaluation shadow,
+        AdminAccess adminAccess
+    ) {
+        this.shadow = shadow;
+        this.adminAccess = adminAccess;
+    }
+
+    /**
+     * Shadow comparison counters per ruleset, fallback state and the latest mismatches with their diffs.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> report(
+        @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey
+    ) {
+        if (!adminAccess.isAuthorized(providedKey)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(shadow.report());
+    }
+
+    /**
+     * Clear a ruleset's mismatch count and serve it from the candidate engine again.
+     */
+    @PostMapping("/{rulesetId}/reset")
+    public ResponseEntity<Map<String, Object>> reset(
+        @RequestHeader(value = "X-LIRA-ADMIN-KEY", required = false) String providedKey,
+        @PathVariable String rulesetId
+    ) {
+        if (!adminAccess.isAuthorized(providedKey)) {
+            return forbidden();
+        }
+        if (!shadow.reset(rulesetId)) {
+            return ResponseEntity.status(404).body(Map.of(
+                "error", "NOT_FOUND",
+                "message", "No shadow comparisons recorded for ruleset " + rulesetId
+            ));
+        }
+        return ResponseEntity.ok(Map.of("rulesetId", rulesetId, "reset", true));
+    }
+
+    private static ResponseEntity<Map<String, Object>> forbidden() {
+        return ResponseEntity.status(403).body(Map.of(
+            "error", "FORBIDDEN",
+            "message", "System administrator access required"
+        ));
+    }
+}
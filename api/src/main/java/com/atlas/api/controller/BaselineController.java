@@ -22,7 +22,7 @@ public class BaselineController {
 
     /**
      * GET /baseline/summary
-     * Get baseline payroll summary
+     * Get baseline payroll summary (served from the baseline snapshot for the current inputs)
      */
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getSummary(
@@ -34,7 +34,10 @@ public class BaselineController {
         }
         
         BaselineService.BaselineSummaryDto summary = baselineService.calculateBaselineSummary(tenantId, asOfDate, rulesetId);
-        
+        return ResponseEntity.ok(summaryResponse(tenantId, summary));
+    }
+
+    private Map<String, Object> summaryResponse(String tenantId, BaselineService.BaselineSummaryDto summary) {
         // Format calculatedAt as ISO-8601 string for proper frontend parsing
         String calculatedAtStr = summary.calculatedAt() != null 
             ? summary.calculatedAt().toInstant().toString() 
@@ -49,13 +52,14 @@ public class BaselineController {
         response.put("activeRulesetId", summary.activeRulesetId());
         response.put("asOfDate", summary.asOfDate().toString());
         response.put("calculatedAt", calculatedAtStr);
-        
-        return ResponseEntity.ok(response);
+        // Growth vs the previous snapshot of the active ruleset (null when there is none)
+        response.put("growthRate", baselineService.calculateGrowthRate(tenantId, summary.asOfDate(), summary.totalPayroll()));
+        return response;
     }
 
     /**
      * GET /baseline/trend
-     * Get payroll trend (last 12 months)
+     * Get payroll trend (last 12 months, from baseline snapshot history)
      */
     @GetMapping("/trend")
     public ResponseEntity<List<Map<String, Object>>> getTrend(
@@ -87,7 +91,10 @@ public class BaselineController {
         }
         
         BaselineService.BaselineBreakdownDto breakdown = baselineService.getPayrollBreakdown(tenantId, asOfDate, rulesetId);
-        
+        return ResponseEntity.ok(breakdownResponse(breakdown));
+    }
+
+    private Map<String, Object> breakdownResponse(BaselineService.BaselineBreakdownDto breakdown) {
         Map<String, Object> categoryMap = new java.util.LinkedHashMap<>();
         breakdown.categoryTotals().forEach((category, amount) -> {
             categoryMap.put(category, amount);
@@ -100,7 +107,28 @@ public class BaselineController {
             ? breakdown.calculatedAt().toInstant().toString() 
             : java.time.Instant.now().toString();
         response.put("calculatedAt", calculatedAtStr);
+        return response;
+    }
+
+    /**
+     * GET /baseline/dashboard
+     * Summary, breakdown and full simulation computed from a single evaluation pass
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboard(
+            @RequestParam String tenantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(required = false) String rulesetId) {
+        if (asOfDate == null) {
+            asOfDate = LocalDate.now();
+        }
+        
+        BaselineService.DashboardDto dashboard = baselineService.getDashboard(tenantId, asOfDate, rulesetId);
         
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("summary", summaryResponse(tenantId, dashboard.summary()));
+        response.put("breakdown", breakdownResponse(dashboard.breakdown()));
+        response.put("fullSimulation", fullSimulationResponse(dashboard.fullSimulation()));
         return ResponseEntity.ok(response);
     }
 
@@ -129,7 +157,10 @@ public class BaselineController {
         }
         
         BaselineService.FullSimulationResultDto result = baselineService.runFullSimulation(tenantId, rulesetId, asOfDate);
-        
+        return ResponseEntity.ok(fullSimulationResponse(result));
+    }
+
+    private Map<String, Object> fullSimulationResponse(BaselineService.FullSimulationResultDto result) {
         // Convert to response map
         List<Map<String, Object>> employeeResults = result.employeeResults().stream()
             .map(emp -> {
@@ -160,8 +191,7 @@ public class BaselineController {
             ? result.calculatedAt().toInstant().toString() 
             : java.time.Instant.now().toString();
         response.put("calculatedAt", calculatedAtStr);
-        
-        return ResponseEntity.ok(response);
+        return response;
     }
 }
 
@@ -1,9 +1,12 @@
 package com.atlas.api.controller;
 
+import com.atlas.api.service.EmployeeImportService;
 import com.atlas.api.service.EmployeeService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,9 +14,11 @@ import java.util.Map;
 @RequestMapping("/employees")
 public class EmployeeController {
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeImportService employeeImportService) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
     }
 
     /**
@@ -74,6 +79,42 @@ public class EmployeeController {
         }
     }
 
+    /**
+     * Bulk create-or-update from a JSON array of {employeeId, name, data} or, with Content-Type text/csv,
+     * a CSV with a header row. Invalid rows are reported per row and do not stop the import.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importEmployees(
+            @RequestParam String tenantId,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            InputStream body) {
+        try {
+            boolean csv = contentType != null && contentType.toLowerCase().contains("csv");
+            EmployeeImportService.ImportResult result = csv
+                ? employeeImportService.importCsv(tenantId, body)
+                : employeeImportService.importJson(tenantId, body);
+
+            List<Map<String, Object>> errors = result.errors().stream()
+                .map(error -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("row", error.row());
+                    row.put("employeeId", error.employeeId());
+                    row.put("error", error.error());
+                    return row;
+                })
+                .toList();
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("inserted", result.inserted());
+            response.put("updated", result.updated());
+            response.put("failed", result.failed());
+            response.put("errors", errors);
+            response.put("errorsTruncated", result.errorsTruncated());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Update an employee
      */
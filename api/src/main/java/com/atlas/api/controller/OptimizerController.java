@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -30,8 +31,16 @@ public class OptimizerController {
      *   "extraBudget": 1300000,
      *   "strategy": "FLAT_RAISE_ON_BASE",
      *   "targetComponent": "Base",
-     *   "asOfDate": "2024-01-01" (optional, defaults to today)
+     *   "asOfDate": "2024-01-01" (optional, defaults to today),
+     *   "sampling": {                  (optional: search on a stratified sample, then refine on everyone)
+     *     "sampleSize": 1000,
+     *     "finalTolerance": 0.01,      (optional, defaults to the strategy tolerance)
+     *     "strataFields": ["Department"]
+     *   }
      * }
+     *
+     * When sampling ran, the response has a "sampling" object comparing the sampled estimate with
+     * the exact full-population cost at the sampled optimum.
      */
     @PostMapping("/optimize")
     public ResponseEntity<?> optimize(@RequestBody Map<String, Object> request) {
@@ -47,6 +56,8 @@ public class OptimizerController {
             String tableComponent = (String) request.get("tableComponent");
             @SuppressWarnings("unchecked")
             Map<String, Object> focusMap = (Map<String, Object>) request.get("focus");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> samplingMap = (Map<String, Object>) request.get("sampling");
             Object asOfDateObj = request.get("asOfDate");
 
             if (tenantId == null || tenantId.isBlank()) {
@@ -116,9 +127,27 @@ public class OptimizerController {
                 }
             }
 
+            OptimizerService.SamplingOptions sampling = null;
+            if (samplingMap != null) {
+                Integer sampleSize = samplingMap.get("sampleSize") != null
+                        ? Integer.valueOf(String.valueOf(samplingMap.get("sampleSize")))
+                        : null;
+                if (sampleSize != null && sampleSize <= 0) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "sampling.sampleSize must be positive"));
+                }
+                BigDecimal finalTolerance = samplingMap.get("finalTolerance") != null
+                        ? new BigDecimal(String.valueOf(samplingMap.get("finalTolerance")))
+                        : null;
+                @SuppressWarnings("unchecked")
+                List<String> strataFields = samplingMap.get("strataFields") instanceof List
+                        ? (List<String>) samplingMap.get("strataFields")
+                        : null;
+                sampling = new OptimizerService.SamplingOptions(sampleSize, finalTolerance, strataFields);
+            }
+
             OptimizerService.OptimizationResultDto result = optimizerService.optimize(
                 tenantId, rulesetId, extraBudget, strategy, targetComponent, 
-                targetGroup, newComponentName, targetTable, tableComponent, focus, asOfDate
+                targetGroup, newComponentName, targetTable, tableComponent, focus, sampling, asOfDate
             );
 
             // Convert to response map
@@ -183,6 +212,22 @@ public class OptimizerController {
             // Calculate extra cost used
             BigDecimal extraCostUsed = result.optimized().totalCost().subtract(result.baseline().totalCost());
             response.put("extraCostUsed", extraCostUsed.toPlainString());
+
+            // Sampling pre-search report
+            if (result.sampling() != null) {
+                OptimizerService.SamplingReport report = result.sampling();
+                Map<String, Object> samplingReport = new LinkedHashMap<>();
+                samplingReport.put("sampleSize", report.sampleSize());
+                samplingReport.put("populationSize", report.populationSize());
+                samplingReport.put("strata", report.strata());
+                samplingReport.put("sampleParameter", report.sampleParameter().toPlainString());
+                samplingReport.put("sampleEstimatedCost", report.sampleEstimatedCost().toPlainString());
+                samplingReport.put("exactCost", report.exactCost().toPlainString());
+                samplingReport.put("estimateDifference", report.estimateDifference().toPlainString());
+                samplingReport.put("estimateDifferencePercent", report.estimateDifferencePercent().toPlainString());
+                samplingReport.put("finalParameter", report.finalParameter().toPlainString());
+                response.put("sampling", samplingReport);
+            }
             
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
@@ -66,7 +66,7 @@ public class RulesEditorController {
                                                      @RequestBody(required = false) ValidateRequest req) {
         try {
             RuleSet rs = edit.getRuleset(tenantId, rulesetId);
-            return ResponseEntity.ok(validator.validate(rs, req));
+            return ResponseEntity.ok(validator.validate(tenantId, rulesetId, rs, req));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
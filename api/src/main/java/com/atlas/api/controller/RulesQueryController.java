@@ -16,13 +16,10 @@ import java.util.Map;
 @RequestMapping("/rulesets")
 public class RulesQueryController {
     private final RulesService rules;
-    private final com.atlas.api.service.RulesServiceDb rulesDb;
     private final com.atlas.api.repo.RulesetJdbcRepo rulesetRepo;
     
-    public RulesQueryController(RulesService rules, com.atlas.api.service.RulesServiceDb rulesDb,
-                                 com.atlas.api.repo.RulesetJdbcRepo rulesetRepo) { 
+    public RulesQueryController(RulesService rules, com.atlas.api.repo.RulesetJdbcRepo rulesetRepo) { 
         this.rules = rules; 
-        this.rulesDb = rulesDb;
         this.rulesetRepo = rulesetRepo;
     }
 
@@ -37,7 +34,9 @@ public class RulesQueryController {
                         "ruleSets", list.stream()
                                 .map(rs -> {
                                     // Get ruleset name from database
-                                    String name = rulesDb.getRulesetName(tenantId, rs.getId());
+                                    String name = rulesetRepo.findById(tenantId, rs.getId())
+                                            .map(com.atlas.api.repo.RulesetJdbcRepo.RulesetRow::name)
+                                            .orElse(rs.getId());
                                     return Map.of(
                                             "rulesetId", rs.getId(),
                                             "name", name != null ? name : rs.getId(),
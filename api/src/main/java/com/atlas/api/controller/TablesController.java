@@ -1,9 +1,12 @@
 package com.atlas.api.controller;
 
+import com.atlas.api.service.ResultCache;
+import com.atlas.api.tables.TableImportService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -13,10 +16,15 @@ import java.util.Map;
 @RequestMapping("/tables")
 public class TablesController {
     private final NamedParameterJdbcTemplate jdbc;
+    private final ResultCache resultCache;
+    private final TableImportService tableImportService;
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
 
-    public TablesController(NamedParameterJdbcTemplate jdbc) {
+    public TablesController(NamedParameterJdbcTemplate jdbc, ResultCache resultCache,
+                            TableImportService tableImportService) {
         this.jdbc = jdbc;
+        this.resultCache = resultCache;
+        this.tableImportService = tableImportService;
     }
 
     @PostMapping("/{tenantId}/{component}/{tableName}")
@@ -26,12 +34,8 @@ public class TablesController {
                                        @RequestBody Map<String,Object> body) {
         String description = (String) body.getOrDefault("description", "");
         String columns = toJson(body.get("columns")); // array of {name,type}
-        jdbc.update("""
-            INSERT INTO comp_table(tenant_id, component_target, table_name, description, columns_json)
-            VALUES(:t,:c,:n,:d,CAST(:cols AS JSONB))
-            ON CONFLICT (tenant_id, component_target, table_name)
-            DO UPDATE SET description=:d, columns_json=CAST(:cols AS JSONB)
-            """, Map.of("t",tenantId,"c",component,"n",tableName,"d",description,"cols",columns));
+        tableImportService.defineTable(tenantId, component, tableName, description, columns);
+        resultCache.invalidateTenant(tenantId);
         return ResponseEntity.ok(Map.of("status","OK"));
     }
 
@@ -41,39 +45,29 @@ public class TablesController {
                                         @PathVariable String tableName,
                                         @RequestBody Map<String,Object> body) {
         var rows = (List<Map<String,Object>>) body.get("rows");
-        
-        // First, delete all existing rows for this table (replace-all strategy)
-        jdbc.update("""
-            DELETE FROM comp_table_row
-             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-            """, Map.of("t", tenantId, "c", component, "n", tableName));
-        
-        // Then insert all the new rows
-        int count = 0;
-        for (var r : rows) {
-            // Parse to LocalDate (ISO-8601 "yyyy-MM-dd")
-            var ef = java.time.LocalDate.parse(String.valueOf(r.getOrDefault("effectiveFrom","1900-01-01")));
-            var et = java.time.LocalDate.parse(String.valueOf(r.getOrDefault("effectiveTo","9999-12-31")));
-
-            var keysJson = toJson(r.get("keys"));
-            var val      = new java.math.BigDecimal(String.valueOf(r.get("value")));
-
-            var params = new org.springframework.jdbc.core.namedparam.MapSqlParameterSource()
-                    .addValue("t", tenantId)
-                    .addValue("c", component)
-                    .addValue("n", tableName)
-                    .addValue("ef", ef)   // <-- LocalDate; the driver maps this to DATE
-                    .addValue("et", et)   // <-- LocalDate
-                    .addValue("keys", keysJson)
-                    .addValue("val", val);
-
-            count += jdbc.update("""
-            INSERT INTO comp_table_row(tenant_id, component_target, table_name,
-                                       effective_from, effective_to, keys_json, value)
-            VALUES(:t,:c,:n, :ef, :et, CAST(:keys AS JSONB), :val)
-            """, params);
+        try {
+            // Replace-all: validated and swapped in one transaction
+            int count = tableImportService.replaceRows(tenantId, component, tableName, rows);
+            resultCache.invalidateTenant(tenantId);
+            return ResponseEntity.ok(Map.of("upserted", count));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Bulk replace streamed from the request body ({"rows":[...]} or a bare array), for large tables
+    @PostMapping("/{tenantId}/{component}/{tableName}/rows/import")
+    public ResponseEntity<?> importRows(@PathVariable String tenantId,
+                                        @PathVariable String component,
+                                        @PathVariable String tableName,
+                                        InputStream body) {
+        try {
+            int count = tableImportService.importRows(tenantId, component, tableName, body);
+            resultCache.invalidateTenant(tenantId);
+            return ResponseEntity.ok(Map.of("imported", count));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        return ResponseEntity.ok(Map.of("upserted", count));
     }
 
 
@@ -204,19 +198,11 @@ public class TablesController {
     public ResponseEntity<?> deleteTable(@PathVariable String tenantId,
                                        @PathVariable String component,
                                        @PathVariable String tableName) {
-        // First delete all rows
-        jdbc.update("""
-            DELETE FROM comp_table_row
-             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-            """, Map.of("t", tenantId, "c", component, "n", tableName));
-        
-        // Then delete the table definition
-        int deleted = jdbc.update("""
-            DELETE FROM comp_table
-             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-            """, Map.of("t", tenantId, "c", component, "n", tableName));
+        // Rows and definition in one transaction
+        boolean deleted = tableImportService.deleteTable(tenantId, component, tableName);
+        resultCache.invalidateTenant(tenantId);
         
-        if (deleted == 0) {
+        if (!deleted) {
             return ResponseEntity.notFound().build();
         }
         
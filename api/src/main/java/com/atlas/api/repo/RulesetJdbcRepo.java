@@ -72,14 +72,63 @@ public class RulesetJdbcRepo {
                 .addValue("n", name).addValue("s", status));
     }
 
+    /**
+     * Replace all rules of a ruleset (one DELETE plus one batched INSERT) and bump its content version.
+     */
     public void replaceRules(String rulesetId, List<Map<String,Object>> rules) {
         jdbc.update("DELETE FROM rule WHERE ruleset_id=:r", Map.of("r", rulesetId));
         var sql = """
       INSERT INTO rule (ruleset_id, target, expression, depends_on, meta, effective_from, effective_to)
       VALUES (:r,:target,:expr,CAST(:deps AS jsonb),CAST(:meta AS jsonb),:from,:to)
     """;
-        for (var m : rules) {
-            var ps = new MapSqlParameterSource()
+        if (!rules.isEmpty()) {
+            jdbc.batchUpdate(sql, ruleParams(rulesetId, rules));
+        }
+        bumpContentVersion(rulesetId);
+    }
+
+    /**
+     * Apply a rule diff: delete {@code removedTargets}, insert or update {@code upserts} (by target) in one
+     * batch, and bump the content version. No-op (version unchanged) when there is nothing to apply.
+     */
+    public void applyRuleChanges(String rulesetId, List<Map<String,Object>> upserts, Collection<String> removedTargets) {
+        if (upserts.isEmpty() && removedTargets.isEmpty()) return;
+        if (!removedTargets.isEmpty()) {
+            jdbc.update("DELETE FROM rule WHERE ruleset_id=:r AND target IN (:targets)",
+                    Map.of("r", rulesetId, "targets", new ArrayList<>(removedTargets)));
+        }
+        if (!upserts.isEmpty()) {
+            var sql = """
+      INSERT INTO rule (ruleset_id, target, expression, depends_on, meta, effective_from, effective_to)
+      VALUES (:r,:target,:expr,CAST(:deps AS jsonb),CAST(:meta AS jsonb),:from,:to)
+      ON CONFLICT (ruleset_id, target) DO UPDATE
+      SET expression=EXCLUDED.expression, depends_on=EXCLUDED.depends_on, meta=EXCLUDED.meta,
+          effective_from=EXCLUDED.effective_from, effective_to=EXCLUDED.effective_to
+    """;
+            jdbc.batchUpdate(sql, ruleParams(rulesetId, upserts));
+        }
+        bumpContentVersion(rulesetId);
+    }
+
+    /**
+     * Content version, renewed by every rule write; lets caches tell that the rules changed.
+     */
+    public long findContentVersion(String rulesetId) {
+        var list = jdbc.queryForList("SELECT content_version FROM ruleset WHERE ruleset_id=:r",
+                Map.of("r", rulesetId), Long.class);
+        return list.isEmpty() ? 0L : list.get(0);
+    }
+
+    private void bumpContentVersion(String rulesetId) {
+        jdbc.update("UPDATE ruleset SET content_version = nextval('ruleset_content_version_seq') WHERE ruleset_id=:r",
+                Map.of("r", rulesetId));
+    }
+
+    private static SqlParameterSource[] ruleParams(String rulesetId, List<Map<String,Object>> rules) {
+        var batch = new SqlParameterSource[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            var m = rules.get(i);
+            batch[i] = new MapSqlParameterSource()
                     .addValue("r", rulesetId)
                     .addValue("target", m.get("target"))
                     .addValue("expr", m.get("expression"))
@@ -87,8 +136,8 @@ public class RulesetJdbcRepo {
                     .addValue("meta", m.getOrDefault("meta", "{}"))
                     .addValue("from", m.get("effective_from"))
                     .addValue("to", m.get("effective_to"));
-            jdbc.update(sql, ps);
         }
+        return batch;
     }
 
     public void setActive(String tenantId, String rulesetId) {
@@ -0,0 +1,86 @@
+package com.atlas.api.service;
+
+import com.atlas.api.service.AuthContextService.AllowlistMatchResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-TTL memo of allowlist matches per token identity, so authorizing a request does not hit
+ * access_allowlist / allowlist_tenants every time.
+ *
+ * Key: (issuer, subject, email claim) - the email is part of the key because an unbound entry is
+ * matched by email. Unknown identities are cached too (negative entries), for the same TTL.
+ *
+ * Every allowlist write calls {@link #invalidateAll}; it also bumps a generation so a lookup that
+ * read the old rows while the write was in flight does not put its stale result back.
+ */
+@Service
+public class AllowlistCache {
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public AllowlistCache(@Value("${app.security.allowlist-cache-ttl-seconds:30}") long ttlSeconds) {
+        this.ttlNanos = Math.max(0, ttlSeconds) * 1_000_000_000L;
+    }
+
+    public boolean enabled() {
+        return ttlNanos > 0;
+    }
+
+    /**
+     * Cached match for this identity, or null when absent or expired.
+     */
+    public AllowlistMatchResult get(String issuer, String subject, String email) {
+        if (!enabled()) return null;
+        Key key = new Key(issuer, subject, email);
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.result();
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before looking the identity up.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String issuer, String subject, String email, AllowlistMatchResult result, long lookupGeneration) {
+        if (!enabled()) return;
+        if (entries.size() >= MAX_ENTRIES) {
+            long now = System.nanoTime();
+            entries.values().removeIf(e -> now - e.expiresAt() > 0);
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+        }
+        entries.put(new Key(issuer, subject, email), new Entry(result, System.nanoTime() + ttlNanos));
+        // An allowlist write landed during the lookup: the result may predate it
+        if (generation.get() != lookupGeneration) {
+            entries.remove(new Key(issuer, subject, email));
+        }
+    }
+
+    /**
+     * Allowlist entries, their status or their tenants changed.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private record Key(String issuer, String subject, String email) {}
+
+    private record Entry(AllowlistMatchResult result, long expiresAt) {}
+}
@@ -3,6 +3,8 @@ package com.atlas.api.service;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -14,9 +16,11 @@ import java.util.UUID;
 @Service
 public class AllowlistService {
     private final NamedParameterJdbcTemplate jdbc;
+    private final AllowlistCache allowlistCache;
 
-    public AllowlistService(NamedParameterJdbcTemplate jdbc) {
+    public AllowlistService(NamedParameterJdbcTemplate jdbc, AllowlistCache allowlistCache) {
         this.jdbc = jdbc;
+        this.allowlistCache = allowlistCache;
     }
 
     public record AllowlistEntry(
@@ -186,6 +190,7 @@ public class AllowlistService {
             );
         });
         
+        invalidateCache();
         return created.get(0);
     }
 
@@ -193,6 +198,7 @@ public class AllowlistService {
     public void updateStatus(UUID id, String status) {
         String sql = "UPDATE access_allowlist SET status = :status WHERE id = :id";
         jdbc.update(sql, Map.of("id", id, "status", status));
+        invalidateCache();
     }
 
     @Transactional
@@ -205,6 +211,20 @@ public class AllowlistService {
         if (tenantIds != null && !tenantIds.isEmpty()) {
             insertTenantIds(id, tenantIds);
         }
+        invalidateCache();
+    }
+
+    // Drop cached matches now and again once the write is visible to other connections
+    private void invalidateCache() {
+        allowlistCache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    allowlistCache.invalidateAll();
+                }
+            });
+        }
     }
 
     private void insertTenantIds(UUID allowlistId, List<String> tenantIds) {
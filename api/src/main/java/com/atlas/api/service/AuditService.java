@@ -1,27 +1,106 @@
 package com.atlas.api.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for recording audit log events for tenant administrative actions.
+ *
+ * Events are written asynchronously: logEvent puts them on a bounded in-memory queue (after commit
+ * when called inside a transaction, so rolled-back actions are not audited) and a background writer
+ * inserts them in JDBC batches. When the queue stays full the caller writes its event itself, so
+ * events are never dropped. The queue is flushed on shutdown, and before the audit log is read.
+ *
+ * Every insert runs in its own transaction (REQUIRES_NEW): a caller writing from afterCommit still has
+ * the finished transaction's connection bound, and an insert joining it would never be committed.
+ *
+ * Metrics: atlas.audit.queue_depth, atlas.audit.write_latency (per batch), atlas.audit.overflow.
  */
 @Service
 public class AuditService {
+    private static final String INSERT_SQL = """
+        INSERT INTO tenant_audit_log (
+            id, tenant_id, created_at, actor_user_identity_id, actor_source,
+            action_type, target_type, target_id, diff_json, notes, correlation_id
+        )
+        VALUES (
+            :id, :tenantId, :createdAt, :actorUserIdentityId, :actorSource,
+            :actionType, :targetType, :targetId, :diffJson::jsonb, :notes, :correlationId
+        )
+        """;
+    private static final long OFFER_TIMEOUT_MS = 50;
+    private static final long FLUSH_TIMEOUT_MS = 5_000;
+
     private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate ownTransaction;
     private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final BlockingQueue<MapSqlParameterSource> queue;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final Timer writeLatency;
+    private final Counter overflow;
+    private final Thread writer;
+    private volatile boolean running = true;
 
-    public AuditService(NamedParameterJdbcTemplate jdbc) {
+    public AuditService(NamedParameterJdbcTemplate jdbc,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                        @Value("${app.audit.batch-size:200}") int batchSize) {
         this.jdbc = jdbc;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.objectMapper = new ObjectMapper();
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        Gauge.builder("atlas.audit.queue_depth", queue, BlockingQueue::size)
+            .description("Audit events waiting for the background writer").register(meterRegistry);
+        this.writeLatency = Timer.builder("atlas.audit.write_latency")
+            .description("Time to insert one batch of audit events").register(meterRegistry);
+        this.overflow = Counter.builder("atlas.audit.overflow")
+            .description("Audit events written on the caller thread because the queue was full").register(meterRegistry);
+        this.writer = new Thread(this::drainLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        try {
+            writer.join(FLUSH_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the writer did not get to
+        drainNow();
     }
 
     public record AuditLogEntry(
@@ -40,7 +119,6 @@ public class AuditService {
     /**
      * Log an audit event
      */
-    @Transactional
     public void logEvent(
         String tenantId,
         String actorUserIdentityId,
@@ -57,7 +135,6 @@ public class AuditService {
     /**
      * Log an audit event with correlation ID
      */
-    @Transactional
     public void logEvent(
         String tenantId,
         String actorUserIdentityId,
@@ -69,17 +146,6 @@ public class AuditService {
         String notes,
         String correlationId
     ) {
-        String sql = """
-            INSERT INTO tenant_audit_log (
-                id, tenant_id, actor_user_identity_id, actor_source,
-                action_type, target_type, target_id, diff_json, notes, correlation_id
-            )
-            VALUES (
-                :id, :tenantId, :actorUserIdentityId, :actorSource,
-                :actionType, :targetType, :targetId, :diffJson::jsonb, :notes, :correlationId
-            )
-            """;
-        
         UUID actorId = actorUserIdentityId != null ? UUID.fromString(actorUserIdentityId) : null;
         String diffJsonStr = null;
         try {
@@ -91,24 +157,116 @@ public class AuditService {
             diffJsonStr = "{}";
         }
         
-        jdbc.update(sql, Map.of(
-            "id", UUID.randomUUID(),
-            "tenantId", tenantId,
-            "actorUserIdentityId", actorId,
-            "actorSource", actorSource,
-            "actionType", actionType,
-            "targetType", targetType,
-            "targetId", targetId != null ? targetId : "",
-            "diffJson", diffJsonStr != null ? diffJsonStr : "{}",
-            "notes", notes != null ? notes : "",
-            "correlationId", correlationId != null ? correlationId : ""
-        ));
+        // Timestamp taken now, not when the writer gets to it
+        MapSqlParameterSource event = new MapSqlParameterSource()
+            .addValue("id", UUID.randomUUID())
+            .addValue("tenantId", tenantId)
+            .addValue("createdAt", Timestamp.from(Instant.now()))
+            .addValue("actorUserIdentityId", actorId)
+            .addValue("actorSource", actorSource)
+            .addValue("actionType", actionType)
+            .addValue("targetType", targetType)
+            .addValue("targetId", targetId != null ? targetId : "")
+            .addValue("diffJson", diffJsonStr != null ? diffJsonStr : "{}")
+            .addValue("notes", notes != null ? notes : "")
+            .addValue("correlationId", correlationId != null ? correlationId : "");
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    /**
+     * Wait until every event logged before this call has been written (bounded wait).
+     */
+    public void flush() {
+        long target = submitted.get();
+        drainNow();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MS;
+        while (completed.get() < target && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void enqueue(MapSqlParameterSource event) {
+        submitted.incrementAndGet();
+        boolean queued;
+        try {
+            queued = running && queue.offer(event, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            // Backpressure: the caller pays for its own insert instead of losing the event
+            overflow.increment();
+            writeBatch(List.of(event));
+        }
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            MapSqlParameterSource first;
+            try {
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) continue;
+            List<MapSqlParameterSource> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            writeBatch(batch);
+        }
+    }
+
+    private void drainNow() {
+        List<MapSqlParameterSource> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void writeBatch(List<MapSqlParameterSource> batch) {
+        long start = System.nanoTime();
+        try {
+            ownTransaction.executeWithoutResult(status ->
+                jdbc.batchUpdate(INSERT_SQL, batch.toArray(new SqlParameterSource[0])));
+        } catch (Exception e) {
+            // One bad row (e.g. unknown actor) must not take the rest of the batch with it
+            System.err.println("Audit batch of " + batch.size() + " failed, retrying row by row: " + e.getMessage());
+            for (MapSqlParameterSource event : batch) {
+                try {
+                    ownTransaction.executeWithoutResult(status -> jdbc.update(INSERT_SQL, event));
+                } catch (Exception rowError) {
+                    System.err.println("Dropping audit event " + event.getValue("actionType") + " for tenant "
+                        + event.getValue("tenantId") + ": " + rowError.getMessage());
+                }
+            }
+        } finally {
+            writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            completed.addAndGet(batch.size());
+        }
     }
 
     /**
      * Get audit log entries for a tenant
      */
     public List<AuditLogEntry> getAuditLog(String tenantId, int limit) {
+        flush();
         String sql = """
             SELECT 
                 id, tenant_id, created_at,
@@ -16,9 +16,11 @@ import java.util.Optional;
 public class AuthContextService {
     private static final Logger log = LoggerFactory.getLogger(AuthContextService.class);
     private final AllowlistService allowlistService;
+    private final AllowlistCache allowlistCache;
 
-    public AuthContextService(AllowlistService allowlistService) {
+    public AuthContextService(AllowlistService allowlistService, AllowlistCache allowlistCache) {
         this.allowlistService = allowlistService;
+        this.allowlistCache = allowlistCache;
     }
 
     public record ExtractedIdentity(
@@ -34,6 +36,14 @@ public class AuthContextService {
         Optional<AllowlistEntry> entry
     ) {}
 
+    /**
+     * Allowlist match plus whether it was served from the identity cache.
+     */
+    public record MatchLookup(
+        AllowlistMatchResult result,
+        boolean fromCache
+    ) {}
+
     /**
      * Extract identity from JWT token.
      */
@@ -50,6 +60,30 @@ public class AuthContextService {
      * Returns match result with method used and entry if found.
      */
     public AllowlistMatchResult matchAllowlist(ExtractedIdentity identity) {
+        return lookupAllowlist(identity).result();
+    }
+
+    /**
+     * Same as {@link #matchAllowlist}, served from the identity cache when possible.
+     * Identities without issuer+subject are never cached.
+     */
+    public MatchLookup lookupAllowlist(ExtractedIdentity identity) {
+        boolean cacheable = identity.issuer() != null && identity.subject() != null;
+        if (cacheable) {
+            var cached = allowlistCache.get(identity.issuer(), identity.subject(), identity.email());
+            if (cached != null) {
+                return new MatchLookup(cached, true);
+            }
+        }
+        long generation = allowlistCache.generation();
+        var result = queryAllowlist(identity);
+        if (cacheable) {
+            allowlistCache.put(identity.issuer(), identity.subject(), identity.email(), result, generation);
+        }
+        return new MatchLookup(result, false);
+    }
+
+    private AllowlistMatchResult queryAllowlist(ExtractedIdentity identity) {
         String issuer = identity.issuer();
         String subject = identity.subject();
         String email = identity.email();
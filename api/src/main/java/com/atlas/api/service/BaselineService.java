@@ -8,6 +8,8 @@ import com.atlas.engine.model.EvalContext;
 import com.atlas.engine.model.EvaluationResult;
 import com.atlas.engine.model.ComponentResult;
 import com.atlas.engine.model.RuleSet;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +18,10 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BaselineService {
@@ -26,11 +32,23 @@ public class BaselineService {
     private final NamedParameterJdbcTemplate jdbc;
     private final RulesetJdbcRepo rulesetRepo;
     private final ComponentGroupsService componentGroupsService;
+    private final BaselineSnapshotService snapshots;
+    private final ResultCache resultCache;
+    private final EvaluationMetrics metrics;
+
+    // Snapshot keys served recently; the refresher recomputes them in the background when inputs change
+    private final Map<SnapshotRequest, Long> watched = new ConcurrentHashMap<>();
+    private final Set<SnapshotRequest> refreshing = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService refresher;
 
     public BaselineService(Evaluator evaluator, RulesService rules, 
                            EmployeeService employeeService, ScenarioService scenarioService,
                            NamedParameterJdbcTemplate jdbc, RulesetJdbcRepo rulesetRepo,
-                           ComponentGroupsService componentGroupsService) {
+                           ComponentGroupsService componentGroupsService,
+                           BaselineSnapshotService snapshots,
+                           ResultCache resultCache,
+                           EvaluationMetrics metrics,
+                           @Value("${app.baseline.snapshot-refresh-seconds:60}") long refreshSeconds) {
         this.evaluator = evaluator;
         this.rules = rules;
         this.employeeService = employeeService;
@@ -38,173 +56,242 @@ public class BaselineService {
         this.jdbc = jdbc;
         this.rulesetRepo = rulesetRepo;
         this.componentGroupsService = componentGroupsService;
+        this.snapshots = snapshots;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
+        if (refreshSeconds > 0) {
+            this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "baseline-snapshot-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            this.refresher.scheduleWithFixedDelay(this::refreshWatchedSnapshots, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        } else {
+            this.refresher = null;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
     }
 
     /**
-     * Calculate baseline payroll summary for all employees using a specific ruleset
+     * Baseline payroll summary for all employees using a specific ruleset.
+     * Served from the snapshot for the current input versions; computed and stored on a miss.
      */
     public BaselineSummaryDto calculateBaselineSummary(String tenantId, LocalDate asOfDate, String rulesetId) {
+        BaselineSnapshotService.Snapshot snapshot = currentSnapshot(tenantId, asOfDate, rulesetId);
+        return new BaselineSummaryDto(
+            snapshot.totalPayroll().setScale(2, RoundingMode.HALF_UP),
+            snapshot.avgPerEmployee().setScale(2, RoundingMode.HALF_UP),
+            snapshot.employeeCount(),
+            snapshot.rulesetName(),
+            snapshot.rulesetId(),
+            snapshot.asOfDate(),
+            snapshot.calculatedAt()
+        );
+    }
+
+    /**
+     * Latest valid snapshot for the request: matching ruleset version and population version.
+     * On a miss the snapshot is computed synchronously and stored. Every served key is watched so
+     * later input changes are picked up by the background refresher before the next read.
+     */
+    private BaselineSnapshotService.Snapshot currentSnapshot(String tenantId, LocalDate asOfDate, String rulesetId) {
+        SnapshotRequest request = new SnapshotRequest(tenantId, asOfDate, rulesetId);
+        watched.put(request, System.currentTimeMillis());
         RuleSet ruleset = rulesetId != null ? rules.getById(tenantId, rulesetId) : rules.getActive(tenantId, asOfDate);
-        List<EmployeeService.EmployeeDto> employees = employeeService.listEmployees(tenantId);
-        
-        // Ensure deterministic order: sort by employeeId as a safety measure
-        // (Database query already orders, but this ensures consistency even if query changes)
-        employees = new ArrayList<>(employees);
-        employees.sort(Comparator
-            .comparing((EmployeeService.EmployeeDto e) -> e.name() != null ? e.name() : "")
-            .thenComparing(EmployeeService.EmployeeDto::employeeId));
-        
-        // Get group ordering once for all employees
-        Map<String, Integer> groupOrdering = getGroupOrdering();
-        
-        // Initialize with scale 2 for consistent currency precision
-        BigDecimal totalPayroll = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-        Map<String, BigDecimal> componentTotals = new LinkedHashMap<>();
-        int employeeCount = employees.size();
-        
-        // Calculate payroll for each employee
-        for (EmployeeService.EmployeeDto emp : employees) {
+        BaselineSnapshotService.InputVersions versions = snapshots.currentVersions(tenantId, ruleset);
+        return snapshots.findValid(tenantId, ruleset.getId(), asOfDate, versions)
+            .orElseGet(() -> snapshots.save(computeSnapshot(tenantId, asOfDate, ruleset, versions, isActive(tenantId, asOfDate, rulesetId, ruleset))));
+    }
+
+    private boolean isActive(String tenantId, LocalDate asOfDate, String rulesetId, RuleSet ruleset) {
+        if (rulesetId == null) return true;
+        try {
+            return ruleset.getId().equals(rules.getActive(tenantId, asOfDate).getId());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Background refresh: recompute watched snapshots whose inputs changed. Keys not read for a day
+     * are dropped from the watch list.
+     */
+    private void refreshWatchedSnapshots() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        watched.entrySet().removeIf(e -> e.getValue() < cutoff);
+        for (SnapshotRequest request : new ArrayList<>(watched.keySet())) {
+            if (!refreshing.add(request)) continue;
             try {
-                // Convert employee data to EmployeeInput
-                EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
-                
-                // Evaluate using selected ruleset
-                EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(asOfDate, empInput), groupOrdering);
-                EvaluationResult result = evaluator.evaluateAll(ruleset, ctx);
-                
-                // Use result.total() which is calculated deterministically in the evaluator
-                // But also verify by recalculating from components in sorted order for consistency
-                // Initialize with scale 2 for consistent precision
-                BigDecimal employeeTotal = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-                List<String> componentNames = new ArrayList<>(result.components().keySet());
-                Collections.sort(componentNames); // Deterministic alphabetical order
-                for (String component : componentNames) {
-                    ComponentResult value = result.components().get(component);
-                    // Normalize to scale 2 for consistent currency precision
-                    BigDecimal amount = value.amount().setScale(2, RoundingMode.HALF_UP);
-                    employeeTotal = employeeTotal.add(amount).setScale(2, RoundingMode.HALF_UP);
-                    // Normalize component totals to scale 2
-                    componentTotals.merge(component, amount, (a, b) -> a.add(b).setScale(2, RoundingMode.HALF_UP));
+                RuleSet ruleset = request.rulesetId() != null
+                    ? rules.getById(request.tenantId(), request.rulesetId())
+                    : rules.getActive(request.tenantId(), request.asOfDate());
+                BaselineSnapshotService.InputVersions versions = snapshots.currentVersions(request.tenantId(), ruleset);
+                if (snapshots.findValid(request.tenantId(), ruleset.getId(), request.asOfDate(), versions).isEmpty()) {
+                    snapshots.save(computeSnapshot(request.tenantId(), request.asOfDate(), ruleset, versions,
+                        isActive(request.tenantId(), request.asOfDate(), request.rulesetId(), ruleset)));
                 }
-                
-                // Use the recalculated total to ensure consistency
-                // (result.total() should match, but this ensures we're using the same calculation order)
-                // Normalize to scale 2 after each addition
-                totalPayroll = totalPayroll.add(employeeTotal).setScale(2, RoundingMode.HALF_UP);
             } catch (Exception e) {
-                // Log error but continue with other employees
-                System.err.println("Error calculating payroll for employee " + emp.employeeId() + ": " + e.getMessage());
+                System.err.println("Error refreshing baseline snapshot for tenant " + request.tenantId() + ": " + e.getMessage());
+                watched.remove(request);
+            } finally {
+                refreshing.remove(request);
             }
         }
-        
-        // Final normalization: ensure totalPayroll is at scale 2
-        totalPayroll = totalPayroll.setScale(2, RoundingMode.HALF_UP);
-        
+    }
+
+    /**
+     * Evaluate the population once and collect both the summary totals (per-component amounts at
+     * scale 2) and the breakdown totals (per group display name, in display order).
+     */
+    private BaselineSnapshotService.Snapshot computeSnapshot(String tenantId, LocalDate asOfDate, RuleSet ruleset,
+                                                             BaselineSnapshotService.InputVersions versions,
+                                                             boolean activeRuleset) {
+        PayrollAggregators.Totals totals = new PayrollAggregators.Totals();
+        PayrollAggregators.ComponentTotals componentTotals = new PayrollAggregators.ComponentTotals();
+        PayrollAggregators.GroupTotals groupTotals = groupTotals(ruleset);
+        int employeeCount = aggregate(tenantId, ruleset, asOfDate, totals, componentTotals, groupTotals);
+        return toSnapshot(tenantId, asOfDate, ruleset, versions, activeRuleset, employeeCount, totals, componentTotals, groupTotals);
+    }
+
+    private BaselineSnapshotService.Snapshot toSnapshot(String tenantId, LocalDate asOfDate, RuleSet ruleset,
+                                                        BaselineSnapshotService.InputVersions versions,
+                                                        boolean activeRuleset, int employeeCount,
+                                                        PayrollAggregators.Totals totals,
+                                                        PayrollAggregators.ComponentTotals componentTotals,
+                                                        PayrollAggregators.GroupTotals groupTotals) {
+        BigDecimal totalPayroll = totals.total();
         BigDecimal avgPerEmployee = employeeCount > 0 
             ? totalPayroll.divide(BigDecimal.valueOf(employeeCount), 2, RoundingMode.HALF_UP)
             : BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
         
-        // Get ruleset name from database
-        String rulesetName = rulesetRepo.findById(tenantId, ruleset.getId())
-            .map(row -> row.name() != null ? row.name() : ruleset.getId())
-            .orElse(ruleset.getId());
-        
-        return new BaselineSummaryDto(
+        return new BaselineSnapshotService.Snapshot(
+            0L,
+            tenantId,
+            ruleset.getId(),
+            rulesetName(tenantId, ruleset.getId()),
+            versions.rulesetVersion(),
+            versions.populationVersion(),
+            asOfDate,
+            activeRuleset,
             totalPayroll,
             avgPerEmployee,
             employeeCount,
-            rulesetName,
-            ruleset.getId(),
-            asOfDate,
+            componentTotals.totals(),
+            groupTotals.totals(),
             new Date()
         );
     }
 
     /**
-     * Get payroll trend data (last 12 months)
-     * For now, returns empty list as we don't have historical baseline snapshots yet
+     * Single evaluation pass: evaluates every employee of the tenant once and feeds the result to
+     * all given aggregators. Employees are visited in a deterministic order (name, then id).
+     *
+     * @return number of employees in the population (including failed evaluations)
      */
-    public List<BaselineTrendPointDto> getPayrollTrend(String tenantId) {
-        // TODO: Implement when baseline snapshot system is added
-        // For now, return empty list
-        return new ArrayList<>();
-    }
-
-    /**
-     * Get payroll composition breakdown by component groups
-     */
-    public BaselineBreakdownDto getPayrollBreakdown(String tenantId, LocalDate asOfDate, String rulesetId) {
-        RuleSet ruleset = rulesetId != null ? rules.getById(tenantId, rulesetId) : rules.getActive(tenantId, asOfDate);
+    public int aggregate(String tenantId, RuleSet ruleset, LocalDate asOfDate,
+                         PayrollAggregators.Aggregator... aggregators) {
         List<EmployeeService.EmployeeDto> employees = employeeService.listEmployees(tenantId);
         
         // Ensure deterministic order: sort by employeeId as a safety measure
+        // (Database query already orders, but this ensures consistency even if query changes)
         employees = new ArrayList<>(employees);
         employees.sort(Comparator
             .comparing((EmployeeService.EmployeeDto e) -> e.name() != null ? e.name() : "")
             .thenComparing(EmployeeService.EmployeeDto::employeeId));
         
-        // Get component groups from database
-        List<ComponentGroupsService.GroupDto> groups = componentGroupsService.getAllGroups();
-        Map<String, String> groupNameToDisplayName = new LinkedHashMap<>();
-        Map<String, Integer> groupDisplayOrder = new LinkedHashMap<>();
-        // Use LinkedHashMap to preserve insertion order from database (deterministic)
-        Map<String, Integer> groupOrdering = new LinkedHashMap<>(); // For evaluator (lowercase keys)
-        for (ComponentGroupsService.GroupDto group : groups) {
-            groupNameToDisplayName.put(group.groupName(), group.displayName());
-            groupDisplayOrder.put(group.groupName(), group.displayOrder());
-            groupOrdering.put(group.groupName().toLowerCase(), group.displayOrder());
-        }
+        // Group ordering travels with the ruleset (loaded once, versioned by ComponentGroupsService)
+        RuleSet orderedRuleset = componentGroupsService.withGroupOrdering(ruleset);
         
-        // Build component name -> group name mapping from ruleset rules
-        // Use LinkedHashMap to preserve rule order (deterministic)
+        long start = System.nanoTime();
+        for (EmployeeService.EmployeeDto emp : employees) {
+            EvaluationResult result;
+            try {
+                EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
+                EvalContext ctx = Mappers.toEvalContext(asOfDate, empInput);
+                result = resultCache.evaluate(tenantId, orderedRuleset, ctx, evaluator);
+            } catch (Exception e) {
+                // Log error but continue with other employees
+                System.err.println("Error calculating payroll for employee " + emp.employeeId() + ": " + e.getMessage());
+                for (PayrollAggregators.Aggregator aggregator : aggregators) {
+                    aggregator.failed(emp, e);
+                }
+                continue;
+            }
+            
+            // Component amounts normalized to scale 2 in deterministic order (alphabetical);
+            // the employee total is recalculated from them for consistency
+            Map<String, BigDecimal> components = new LinkedHashMap<>();
+            BigDecimal employeeTotal = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+            List<String> componentNames = new ArrayList<>(result.components().keySet());
+            Collections.sort(componentNames);
+            for (String component : componentNames) {
+                ComponentResult value = result.components().get(component);
+                BigDecimal amount = value.amount().setScale(2, RoundingMode.HALF_UP);
+                components.put(component, amount);
+                employeeTotal = employeeTotal.add(amount).setScale(2, RoundingMode.HALF_UP);
+            }
+            Map<String, BigDecimal> view = Collections.unmodifiableMap(components);
+            for (PayrollAggregators.Aggregator aggregator : aggregators) {
+                aggregator.accept(emp, result, view, employeeTotal);
+            }
+        }
+        metrics.bulkCompleted("baseline", employees.size(), System.nanoTime() - start);
+        return employees.size();
+    }
+
+    private PayrollAggregators.GroupTotals groupTotals(RuleSet ruleset) {
+        return new PayrollAggregators.GroupTotals(componentGroupsService.getAllGroups(), componentToGroup(ruleset));
+    }
+
+    private String rulesetName(String tenantId, String rulesetId) {
+        return rulesetRepo.findById(tenantId, rulesetId)
+            .map(row -> row.name() != null ? row.name() : rulesetId)
+            .orElse(rulesetId);
+    }
+
+    /**
+     * Component name -> lowercase group name from rule meta ("core" when unset), in rule order.
+     */
+    private Map<String, String> componentToGroup(RuleSet ruleset) {
         Map<String, String> componentToGroup = new LinkedHashMap<>();
         for (com.atlas.engine.model.Rule rule : ruleset.getRules()) {
-            String componentName = rule.getTarget();
             Map<String, String> meta = rule.getMeta();
             String groupName = meta != null ? meta.get("group") : null;
             if (groupName == null || groupName.isEmpty()) {
                 groupName = "core"; // Default to "core" if no group specified
             }
             // Normalize group name to lowercase to match database
-            groupName = groupName.toLowerCase();
-            componentToGroup.put(componentName, groupName);
+            componentToGroup.put(rule.getTarget(), groupName.toLowerCase());
         }
-        
-        // Initialize category totals with all groups from database, ordered by display_order
-        Map<String, BigDecimal> categoryTotals = new LinkedHashMap<>();
-        groups.stream()
-            .sorted(Comparator.comparingInt(ComponentGroupsService.GroupDto::displayOrder))
-            .forEach(group -> {
-                categoryTotals.put(group.displayName(), BigDecimal.ZERO);
-            });
-        
-        // Calculate for each employee and group components by their actual groups
-        for (EmployeeService.EmployeeDto emp : employees) {
-            try {
-                EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
-                EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(asOfDate, empInput), groupOrdering);
-                EvaluationResult result = evaluator.evaluateAll(ruleset, ctx);
-                
-                // Group components by their actual component groups
-                // Process in deterministic order (alphabetical)
-                List<String> componentNames = new ArrayList<>(result.components().keySet());
-                Collections.sort(componentNames);
-                for (String component : componentNames) {
-                    ComponentResult value = result.components().get(component);
-                    String groupName = componentToGroup.getOrDefault(component, "core");
-                    String displayName = groupNameToDisplayName.getOrDefault(groupName, groupName);
-                    // If group doesn't exist in database, use the group name as-is
-                    if (!categoryTotals.containsKey(displayName)) {
-                        categoryTotals.put(displayName, BigDecimal.ZERO);
-                    }
-                    categoryTotals.merge(displayName, value.amount(), BigDecimal::add);
-                }
-            } catch (Exception e) {
-                System.err.println("Error calculating breakdown for employee " + emp.employeeId() + ": " + e.getMessage());
-            }
+        return componentToGroup;
+    }
+
+    /**
+     * Payroll trend over the last 12 months, from the active-ruleset snapshot history
+     * (latest snapshot per as-of month). Months without a snapshot are omitted.
+     */
+    public List<BaselineTrendPointDto> getPayrollTrend(String tenantId) {
+        LocalDate from = LocalDate.now().withDayOfMonth(1).minusMonths(11);
+        DateTimeFormatter monthFormat = DateTimeFormatter.ofPattern("yyyy-MM");
+        List<BaselineTrendPointDto> trend = new ArrayList<>();
+        for (BaselineSnapshotService.Snapshot snapshot : snapshots.monthlyHistory(tenantId, from)) {
+            trend.add(new BaselineTrendPointDto(snapshot.asOfDate().format(monthFormat), snapshot.totalPayroll()));
         }
-        
-        return new BaselineBreakdownDto(categoryTotals, new Date());
+        return trend;
+    }
+
+    /**
+     * Get payroll composition breakdown by component groups (served from the current snapshot)
+     */
+    public BaselineBreakdownDto getPayrollBreakdown(String tenantId, LocalDate asOfDate, String rulesetId) {
+        BaselineSnapshotService.Snapshot snapshot = currentSnapshot(tenantId, asOfDate, rulesetId);
+        return new BaselineBreakdownDto(new LinkedHashMap<>(snapshot.groupTotals()), snapshot.calculatedAt());
     }
 
     /**
@@ -221,13 +308,19 @@ public class BaselineService {
     }
 
     /**
-     * Calculate growth rate compared to previous baseline
+     * Growth rate (percent, 2 decimals) of {@code currentBaseline} against the most recent
+     * active-ruleset snapshot with an earlier as-of date.
      * Returns null if no previous baseline exists
      */
-    public Double calculateGrowthRate(String tenantId, BigDecimal currentBaseline) {
-        // TODO: Implement when baseline snapshot system is added
-        // For now, return null (N/A)
-        return null;
+    public Double calculateGrowthRate(String tenantId, LocalDate asOfDate, BigDecimal currentBaseline) {
+        return snapshots.findPreviousActive(tenantId, asOfDate)
+            .map(BaselineSnapshotService.Snapshot::totalPayroll)
+            .filter(previous -> previous.signum() != 0)
+            .map(previous -> currentBaseline.subtract(previous)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(previous, 2, RoundingMode.HALF_UP)
+                .doubleValue())
+            .orElse(null);
     }
 
     /**
@@ -236,109 +329,62 @@ public class BaselineService {
      */
     public FullSimulationResultDto runFullSimulation(String tenantId, String rulesetId, LocalDate asOfDate) {
         RuleSet ruleset = rules.getById(tenantId, rulesetId);
-        List<EmployeeService.EmployeeDto> employees = employeeService.listEmployees(tenantId);
-        
-        // Ensure deterministic order: sort by employeeId as a safety measure
-        // (Database query already orders, but this ensures consistency even if query changes)
-        employees = new ArrayList<>(employees);
-        employees.sort(Comparator
-            .comparing((EmployeeService.EmployeeDto e) -> e.name() != null ? e.name() : "")
-            .thenComparing(EmployeeService.EmployeeDto::employeeId));
-        
-        List<EmployeeSimulationResult> employeeResults = new ArrayList<>();
-        Map<String, BigDecimal> componentTotals = new LinkedHashMap<>();
-        // Initialize grandTotal with scale 2 to ensure consistent precision
-        BigDecimal grandTotal = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-        
-        // Get group ordering once for all employees
-        Map<String, Integer> groupOrdering = getGroupOrdering();
-        
-        // Calculate for each employee
-        for (EmployeeService.EmployeeDto emp : employees) {
-            try {
-                EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
-                EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(asOfDate, empInput), groupOrdering);
-                EvaluationResult result = evaluator.evaluateAll(ruleset, ctx);
-                
-                // Build component map in deterministic order (alphabetical)
-                Map<String, BigDecimal> components = new LinkedHashMap<>();
-                List<String> componentNames = new ArrayList<>(result.components().keySet());
-                Collections.sort(componentNames);
-                // Initialize employeeTotal with scale 2 for consistent precision
-                BigDecimal employeeTotal = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-                for (String component : componentNames) {
-                    ComponentResult value = result.components().get(component);
-                    // Normalize amount to scale 2 to ensure consistent precision
-                    BigDecimal amount = value.amount().setScale(2, RoundingMode.HALF_UP);
-                    components.put(component, amount);
-                    // Normalize component totals to scale 2
-                    componentTotals.merge(component, amount, (a, b) -> a.add(b).setScale(2, RoundingMode.HALF_UP));
-                    employeeTotal = employeeTotal.add(amount).setScale(2, RoundingMode.HALF_UP);
-                }
-                
-                employeeResults.add(new EmployeeSimulationResult(
-                    emp.employeeId(),
-                    emp.name(),
-                    employeeTotal, // Use recalculated total for consistency
-                    components
-                ));
-                
-                // Normalize grandTotal to scale 2 after each addition
-                grandTotal = grandTotal.add(employeeTotal).setScale(2, RoundingMode.HALF_UP);
-            } catch (Exception e) {
-                System.err.println("Error calculating payroll for employee " + emp.employeeId() + ": " + e.getMessage());
-                // Add employee with zero total on error
-                employeeResults.add(new EmployeeSimulationResult(
-                    emp.employeeId(),
-                    emp.name(),
-                    BigDecimal.ZERO,
-                    new LinkedHashMap<>()
-                ));
-            }
-        }
-        
-        // Get ruleset name
-        String rulesetName = rulesetRepo.findById(tenantId, rulesetId)
-            .map(row -> row.name() != null ? row.name() : rulesetId)
-            .orElse(rulesetId);
-        
-        // Final normalization: ensure grandTotal is at scale 2 for consistent currency precision
-        grandTotal = grandTotal.setScale(2, RoundingMode.HALF_UP);
-        
-        // Also normalize all component totals to scale 2
-        Map<String, BigDecimal> normalizedComponentTotals = new LinkedHashMap<>();
-        for (Map.Entry<String, BigDecimal> entry : componentTotals.entrySet()) {
-            normalizedComponentTotals.put(entry.getKey(), entry.getValue().setScale(2, RoundingMode.HALF_UP));
-        }
-        
+        PayrollAggregators.Totals totals = new PayrollAggregators.Totals();
+        PayrollAggregators.ComponentTotals componentTotals = new PayrollAggregators.ComponentTotals();
+        PayrollAggregators.EmployeeRows rows = new PayrollAggregators.EmployeeRows();
+        int employeeCount = aggregate(tenantId, ruleset, asOfDate, totals, componentTotals, rows);
+        return toFullSimulation(tenantId, ruleset.getId(), asOfDate, employeeCount, totals, componentTotals, rows);
+    }
+
+    /**
+     * Summary, breakdown and full simulation from one evaluation pass. The pass also refreshes the
+     * baseline snapshot for the current inputs, so later summary/breakdown reads are served from it.
+     */
+    public DashboardDto getDashboard(String tenantId, LocalDate asOfDate, String rulesetId) {
+        RuleSet ruleset = rulesetId != null ? rules.getById(tenantId, rulesetId) : rules.getActive(tenantId, asOfDate);
+        BaselineSnapshotService.InputVersions versions = snapshots.currentVersions(tenantId, ruleset);
+        watched.put(new SnapshotRequest(tenantId, asOfDate, rulesetId), System.currentTimeMillis());
+
+        PayrollAggregators.Totals totals = new PayrollAggregators.Totals();
+        PayrollAggregators.ComponentTotals componentTotals = new PayrollAggregators.ComponentTotals();
+        PayrollAggregators.GroupTotals groupTotals = groupTotals(ruleset);
+        PayrollAggregators.EmployeeRows rows = new PayrollAggregators.EmployeeRows();
+        int employeeCount = aggregate(tenantId, ruleset, asOfDate, totals, componentTotals, groupTotals, rows);
+
+        BaselineSnapshotService.Snapshot snapshot = snapshots.save(toSnapshot(tenantId, asOfDate, ruleset, versions,
+            isActive(tenantId, asOfDate, rulesetId, ruleset), employeeCount, totals, componentTotals, groupTotals));
+        return new DashboardDto(
+            new BaselineSummaryDto(
+                snapshot.totalPayroll(),
+                snapshot.avgPerEmployee(),
+                snapshot.employeeCount(),
+                snapshot.rulesetName(),
+                snapshot.rulesetId(),
+                snapshot.asOfDate(),
+                snapshot.calculatedAt()
+            ),
+            new BaselineBreakdownDto(snapshot.groupTotals(), snapshot.calculatedAt()),
+            toFullSimulation(tenantId, ruleset.getId(), asOfDate, employeeCount, totals, componentTotals, rows)
+        );
+    }
+
+    private FullSimulationResultDto toFullSimulation(String tenantId, String rulesetId, LocalDate asOfDate,
+                                                     int employeeCount,
+                                                     PayrollAggregators.Totals totals,
+                                                     PayrollAggregators.ComponentTotals componentTotals,
+                                                     PayrollAggregators.EmployeeRows rows) {
         return new FullSimulationResultDto(
             rulesetId,
-            rulesetName,
+            rulesetName(tenantId, rulesetId),
             asOfDate,
-            employeeResults,
-            normalizedComponentTotals,
-            grandTotal,
-            employees.size(),
+            rows.rows(),
+            new LinkedHashMap<>(componentTotals.totals()),
+            totals.total(),
+            employeeCount,
             new Date()
         );
     }
     
-    private Map<String, Integer> getGroupOrdering() {
-        // Use LinkedHashMap to preserve insertion order from database (deterministic)
-        Map<String, Integer> ordering = new LinkedHashMap<>();
-        for (ComponentGroupsService.GroupDto group : componentGroupsService.getAllGroups()) {
-            ordering.put(group.groupName().toLowerCase(), group.displayOrder());
-        }
-        return ordering;
-    }
-    
-    private EvalContext addGroupOrdering(EvalContext ctx, Map<String, Integer> groupOrdering) {
-        // Use LinkedHashMap to preserve input order (deterministic)
-        Map<String, Object> inputs = new LinkedHashMap<>(ctx.inputs());
-        inputs.put("_groupOrdering", groupOrdering);
-        return new EvalContext(inputs, ctx.periodDate());
-    }
-
     // DTOs
     public record BaselineSummaryDto(
         BigDecimal totalPayroll,
@@ -350,6 +396,8 @@ public class BaselineService {
         Date calculatedAt
     ) {}
 
+    private record SnapshotRequest(String tenantId, LocalDate asOfDate, String rulesetId) {}
+
     public record BaselineTrendPointDto(
         String month, // YYYY-MM format
         BigDecimal totalPayroll
@@ -360,6 +408,12 @@ public class BaselineService {
         Date calculatedAt
     ) {}
 
+    public record DashboardDto(
+        BaselineSummaryDto summary,
+        BaselineBreakdownDto breakdown,
+        FullSimulationResultDto fullSimulation
+    ) {}
+
     public record EmployeeSimulationResult(
         String employeeId,
         String employeeName,
@@ -0,0 +1,223 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.RuleSet;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Persistence for materialized baseline snapshots (table baseline_snapshot).
+ *
+ * A snapshot is keyed by tenant, ruleset, as-of date and two input versions:
+ * - ruleset version: hash of the ruleset's rules plus the tenant's table rows and the component groups
+ * - population version: the tenant's population version counter (see EmployeeService#bumpPopulationVersion)
+ * A snapshot is valid while both versions still match the current inputs.
+ */
+@Service
+public class BaselineSnapshotService {
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BaselineSnapshotService(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Current input versions for a ruleset. Rules are hashed in memory (they are already loaded); the
+     * tables part is the tenant's table-data version that every table write bumps (see TableDataVersion),
+     * and the small component_groups table is fingerprinted in the database (count + content hash). The
+     * population version is the counter employee writes bump (the update time tells a recreated tenant's
+     * counter apart). None of it scales with the number of table rows or employees.
+     */
+    public InputVersions currentVersions(String tenantId, RuleSet ruleset) {
+        String sql = """
+            SELECT
+              coalesce((SELECT version::text FROM tenant_table_version WHERE tenant_id = :tenantId), '0')
+              || '#' ||
+              (SELECT count(*) || ':' || coalesce(sum(hashtext(
+                        group_name || '|' || display_name || '|' || display_order)::bigint), 0)
+                 FROM component_groups) AS tables_version,
+              coalesce((SELECT version || ':' || extract(epoch FROM updated_at)
+                          FROM tenant_population_version WHERE tenant_id = :tenantId), '0') AS population_version
+            """;
+        return jdbc.queryForObject(sql, Map.of("tenantId", tenantId), (rs, rowNum) -> new InputVersions(
+            RulesetFingerprint.sha256(RulesetFingerprint.of(ruleset) + "#" + rs.getString("tables_version")),
+            RulesetFingerprint.sha256(rs.getString("population_version"))
+        ));
+    }
+
+    /**
+     * Snapshot for exactly these input versions, if one was stored.
+     */
+    public Optional<Snapshot> findValid(String tenantId, String rulesetId, LocalDate asOfDate, InputVersions versions) {
+        String sql = """
+            SELECT snapshot_id, tenant_id, ruleset_id, ruleset_name, ruleset_version, population_version,
+                   as_of_date, active_ruleset, total_payroll, avg_per_employee, employee_count,
+                   component_totals, group_totals, calculated_at
+            FROM baseline_snapshot
+            WHERE tenant_id = :tenantId
+              AND ruleset_id = :rulesetId
+              AND as_of_date = :asOfDate
+              AND ruleset_version = :rulesetVersion
+              AND population_version = :populationVersion
+            """;
+        Map<String, Object> params = Map.of(
+            "tenantId", tenantId,
+            "rulesetId", rulesetId,
+            "asOfDate", Date.valueOf(asOfDate),
+            "rulesetVersion", versions.rulesetVersion(),
+            "populationVersion", versions.populationVersion()
+        );
+        return jdbc.query(sql, params, (rs, rowNum) -> mapSnapshot(rs)).stream().findFirst();
+    }
+
+    /**
+     * Store a snapshot. Recomputing the same key replaces the stored totals.
+     */
+    public Snapshot save(Snapshot snapshot) {
+        String sql = """
+            INSERT INTO baseline_snapshot (tenant_id, ruleset_id, ruleset_name, ruleset_version, population_version,
+                                           as_of_date, active_ruleset, total_payroll, avg_per_employee, employee_count,
+                                           component_totals, group_totals, calculated_at)
+            VALUES (:tenantId, :rulesetId, :rulesetName, :rulesetVersion, :populationVersion,
+                    :asOfDate, :activeRuleset, :totalPayroll, :avgPerEmployee, :employeeCount,
+                    :componentTotals::jsonb, :groupTotals::jsonb, :calculatedAt)
+            ON CONFLICT (tenant_id, ruleset_id, ruleset_version, population_version, as_of_date) DO UPDATE
+            SET ruleset_name = EXCLUDED.ruleset_name,
+                active_ruleset = baseline_snapshot.active_ruleset OR EXCLUDED.active_ruleset,
+                total_payroll = EXCLUDED.total_payroll,
+                avg_per_employee = EXCLUDED.avg_per_employee,
+                employee_count = EXCLUDED.employee_count,
+                component_totals = EXCLUDED.component_totals,
+                group_totals = EXCLUDED.group_totals,
+                calculated_at = EXCLUDED.calculated_at
+            """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("tenantId", snapshot.tenantId())
+            .addValue("rulesetId", snapshot.rulesetId())
+            .addValue("rulesetName", snapshot.rulesetName())
+            .addValue("rulesetVersion", snapshot.rulesetVersion())
+            .addValue("populationVersion", snapshot.populationVersion())
+            .addValue("asOfDate", Date.valueOf(snapshot.asOfDate()))
+            .addValue("activeRuleset", snapshot.activeRuleset())
+            .addValue("totalPayroll", snapshot.totalPayroll())
+            .addValue("avgPerEmployee", snapshot.avgPerEmployee())
+            .addValue("employeeCount", snapshot.employeeCount())
+            .addValue("componentTotals", writeTotals(snapshot.componentTotals()))
+            .addValue("groupTotals", writeTotals(snapshot.groupTotals()))
+            .addValue("calculatedAt", new java.sql.Timestamp(snapshot.calculatedAt().getTime()));
+        jdbc.update(sql, params);
+        return snapshot;
+    }
+
+    /**
+     * Active-ruleset history: the most recent snapshot per as-of month, oldest month first,
+     * for months on or after {@code fromDate}.
+     */
+    public List<Snapshot> monthlyHistory(String tenantId, LocalDate fromDate) {
+        String sql = """
+            SELECT DISTINCT ON (date_trunc('month', as_of_date))
+                   snapshot_id, tenant_id, ruleset_id, ruleset_name, ruleset_version, population_version,
+                   as_of_date, active_ruleset, total_payroll, avg_per_employee, employee_count,
+                   component_totals, group_totals, calculated_at
+            FROM baseline_snapshot
+            WHERE tenant_id = :tenantId
+              AND active_ruleset
+              AND as_of_date >= :fromDate
+            ORDER BY date_trunc('month', as_of_date), as_of_date DESC, calculated_at DESC
+            """;
+        return jdbc.query(sql, Map.of("tenantId", tenantId, "fromDate", Date.valueOf(fromDate)),
+            (rs, rowNum) -> mapSnapshot(rs));
+    }
+
+    /**
+     * Most recent active-ruleset snapshot with an as-of date before {@code beforeDate}.
+     */
+    public Optional<Snapshot> findPreviousActive(String tenantId, LocalDate beforeDate) {
+        String sql = """
+            SELECT snapshot_id, tenant_id, ruleset_id, ruleset_name, ruleset_version, population_version,
+                   as_of_date, active_ruleset, total_payroll, avg_per_employee, employee_count,
+                   component_totals, group_totals, calculated_at
+            FROM baseline_snapshot
+            WHERE tenant_id = :tenantId
+              AND active_ruleset
+              AND as_of_date < :beforeDate
+            ORDER BY as_of_date DESC, calculated_at DESC
+            LIMIT 1
+            """;
+        return jdbc.query(sql, Map.of("tenantId", tenantId, "beforeDate", Date.valueOf(beforeDate)),
+            (rs, rowNum) -> mapSnapshot(rs)).stream().findFirst();
+    }
+
+    private Snapshot mapSnapshot(ResultSet rs) throws SQLException {
+        return new Snapshot(
+            rs.getLong("snapshot_id"),
+            rs.getString("tenant_id"),
+            rs.getString("ruleset_id"),
+            rs.getString("ruleset_name"),
+            rs.getString("ruleset_version"),
+            rs.getString("population_version"),
+            rs.getDate("as_of_date").toLocalDate(),
+            rs.getBoolean("active_ruleset"),
+            rs.getBigDecimal("total_payroll"),
+            rs.getBigDecimal("avg_per_employee"),
+            rs.getInt("employee_count"),
+            readTotals(rs.getString("component_totals")),
+            readTotals(rs.getString("group_totals")),
+            new java.util.Date(rs.getTimestamp("calculated_at").getTime())
+        );
+    }
+
+    // Totals are stored as an array of {key, amount} so display order survives JSONB
+    private String writeTotals(Map<String, BigDecimal> totals) {
+        List<Map<String, String>> entries = new ArrayList<>();
+        totals.forEach((key, amount) -> entries.add(Map.of("key", key, "amount", amount.toPlainString())));
+        try {
+            return objectMapper.writeValueAsString(entries);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize snapshot totals", e);
+        }
+    }
+
+    private Map<String, BigDecimal> readTotals(String json) {
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        if (json == null || json.isBlank()) return totals;
+        try {
+            List<Map<String, String>> entries = objectMapper.readValue(json, new TypeReference<List<Map<String, String>>>() {});
+            for (Map<String, String> entry : entries) {
+                totals.put(entry.get("key"), new BigDecimal(entry.get("amount")));
+            }
+            return totals;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse snapshot totals", e);
+        }
+    }
+
+    public record InputVersions(String rulesetVersion, String populationVersion) {}
+
+    public record Snapshot(
+        long snapshotId,
+        String tenantId,
+        String rulesetId,
+        String rulesetName,
+        String rulesetVersion,
+        String populationVersion,
+        LocalDate asOfDate,
+        boolean activeRuleset,
+        BigDecimal totalPayroll,
+        BigDecimal avgPerEmployee,
+        int employeeCount,
+        Map<String, BigDecimal> componentTotals,   // per component, alphabetical
+        Map<String, BigDecimal> groupTotals,       // per group display name, display order
+        java.util.Date calculatedAt
+    ) {}
+}
@@ -1,19 +1,41 @@
 package com.atlas.api.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ComponentGroupsService {
     private final NamedParameterJdbcTemplate jdbc;
+    private final ResultCache resultCache;
+    private final long checkNanos;
 
-    public ComponentGroupsService(NamedParameterJdbcTemplate jdbc) {
+    // Groups and the derived evaluator ordering. Reloaded by create/update/delete, and when the table's
+    // row count or last update time changes (checked at most every app.groups.check-ms), so edits made
+    // through another instance are picked up as well
+    private volatile Snapshot snapshot;
+    private volatile long checkedAt;
+
+    public ComponentGroupsService(NamedParameterJdbcTemplate jdbc, ResultCache resultCache,
+                                  @Value("${app.groups.check-ms:1000}") long checkMillis) {
         this.jdbc = jdbc;
+        this.resultCache = resultCache;
+        this.checkNanos = TimeUnit.MILLISECONDS.toNanos(checkMillis);
     }
 
+    private record Snapshot(String stamp, List<GroupDto> groups, GroupOrdering ordering) {}
+
+    /**
+     * Evaluator group ordering (lowercase group name -> display order).
+     */
+    public record GroupOrdering(Map<String, Integer> ordering) {}
+
     public record GroupDto(
         String groupName,
         String displayName,
@@ -31,6 +53,76 @@ public class ComponentGroupsService {
     }
 
     public List<GroupDto> getAllGroups() {
+        return snapshot().groups();
+    }
+
+    public GroupOrdering getGroupOrdering() {
+        return snapshot().ordering();
+    }
+
+    /**
+     * Attach the current group ordering to a ruleset as evaluator metadata.
+     */
+    public com.atlas.engine.model.RuleSet withGroupOrdering(com.atlas.engine.model.RuleSet ruleset) {
+        GroupOrdering ordering = getGroupOrdering();
+        return ruleset.withGroupOrdering(ordering.ordering());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - checkedAt < checkNanos) {
+            return current;
+        }
+        boolean changed;
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && System.nanoTime() - checkedAt < checkNanos) {
+                return current;
+            }
+            String stamp = stamp();
+            changed = current != null && !current.stamp().equals(stamp);
+            if (current == null || changed) {
+                current = load(stamp);
+                snapshot = current;
+            }
+            checkedAt = System.nanoTime();
+        }
+        if (changed) {
+            // Edited through another instance
+            resultCache.invalidateAll();
+        }
+        return current;
+    }
+
+    /**
+     * Reload after a change; evaluation results depending on the old ordering are dropped.
+     */
+    private void reload() {
+        synchronized (this) {
+            snapshot = load(stamp());
+            checkedAt = System.nanoTime();
+        }
+        resultCache.invalidateAll();
+    }
+
+    // Changes with every insert (count, updated_at default), update (updated_at) and delete (count)
+    private String stamp() {
+        return jdbc.queryForObject(
+            "SELECT count(*) || ':' || coalesce(max(updated_at)::text, '') FROM component_groups",
+            Map.of(), String.class);
+    }
+
+    private Snapshot load(String stamp) {
+        List<GroupDto> groups = List.copyOf(queryGroups());
+        // Use LinkedHashMap to preserve insertion order from database (deterministic)
+        Map<String, Integer> ordering = new LinkedHashMap<>();
+        for (GroupDto group : groups) {
+            ordering.put(group.groupName().toLowerCase(), group.displayOrder());
+        }
+        return new Snapshot(stamp, groups, new GroupOrdering(Collections.unmodifiableMap(ordering)));
+    }
+
+    private List<GroupDto> queryGroups() {
         String sql = """
             SELECT group_name, display_name, color, display_order
             FROM component_groups
@@ -113,6 +205,8 @@ public class ComponentGroupsService {
             throw new IllegalArgumentException("Failed to update group: " + groupName);
         }
 
+        // Group ordering feeds every evaluation
+        reload();
         return results.get(0);
     }
 
@@ -147,6 +241,7 @@ public class ComponentGroupsService {
         if (rowsAffected == 0) {
             throw new IllegalArgumentException("Failed to delete group: " + groupName);
         }
+        reload();
     }
 
     public GroupDto createGroup(String groupName, String displayName, String color, int displayOrder) {
@@ -172,6 +267,7 @@ public class ComponentGroupsService {
             )
         );
 
+        reload();
         return results.get(0);
     }
 }
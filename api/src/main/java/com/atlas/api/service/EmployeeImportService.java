@@ -0,0 +1,344 @@
+package com.atlas.api.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Bulk employee import: rows are read from a stream (JSON array or CSV) and upserted in batches with one
+ * multi-row {@code INSERT ... ON CONFLICT} per batch.
+ *
+ * Rows are validated before they reach the database; a row that is invalid (or that the database
+ * rejects when its batch is retried row by row) is reported with its row number and skipped, the rest
+ * of the import goes on. IDs are case-insensitive like in EmployeeService#createEmployee: a row whose
+ * ID matches an existing employee in another case updates that employee. Within one import a repeated
+ * ID is an error for the later row.
+ *
+ * The tenant's population version is bumped once at the end (not per batch), so baseline snapshots
+ * are recomputed once per import.
+ */
+@Service
+public class EmployeeImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int batchSize;
+
+    public EmployeeImportService(NamedParameterJdbcTemplate jdbc,
+                                 EmployeeService employeeService,
+                                 @Value("${app.employee-import.batch-size:500}") int batchSize) {
+        this.jdbc = jdbc;
+        this.employeeService = employeeService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public record ImportRow(int rowNumber, String employeeId, String name, Map<String, Object> data) {}
+
+    public record RowError(int row, String employeeId, String error) {}
+
+    public record ImportResult(int inserted, int updated, int failed, List<RowError> errors, boolean errorsTruncated) {}
+
+    /**
+     * Import a JSON array of {employeeId, name, data} objects.
+     */
+    public ImportResult importJson(String tenantId, InputStream body) {
+        Importer importer = new Importer(requireTenant(tenantId));
+        int rowNumber = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Body must be a JSON array of employees");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                rowNumber++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    importer.reject(rowNumber, null, "row must be an object");
+                    continue;
+                }
+                importer.add(jsonRow(rowNumber, objectMapper.readTree(parser)));
+            }
+        } catch (IOException e) {
+            // Rows before the damage are already in; report where reading stopped
+            importer.reject(rowNumber + 1, null, "malformed JSON, import stopped here: " + e.getMessage());
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Import CSV with a header row. Columns "employeeId" and "name" map to the employee; every other
+     * column goes into data (numbers and true/false are typed, empty cells are left out).
+     */
+    public ImportResult importCsv(String tenantId, InputStream body) {
+        Importer importer = new Importer(requireTenant(tenantId));
+        int rowNumber = 0;
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.next();
+            if (header == null) throw new IllegalArgumentException("CSV body is empty");
+            header.replaceAll(String::trim);
+            if (header.get(0).startsWith("\uFEFF")) header.set(0, header.get(0).substring(1));
+            int idColumn = header.indexOf("employeeId");
+            int nameColumn = header.indexOf("name");
+            if (idColumn < 0) throw new IllegalArgumentException("CSV header must have an employeeId column");
+            List<String> cells;
+            while ((cells = csv.next()) != null) {
+                rowNumber++;
+                if (cells.size() == 1 && cells.get(0).isEmpty()) continue; // blank line
+                if (cells.size() != header.size()) {
+                    importer.reject(rowNumber, idColumn < cells.size() ? cells.get(idColumn) : null,
+                        "expected " + header.size() + " columns, got " + cells.size());
+                    continue;
+                }
+                Map<String, Object> data = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    if (i == idColumn || i == nameColumn || cells.get(i).isEmpty()) continue;
+                    data.put(header.get(i), typed(cells.get(i)));
+                }
+                String name = nameColumn >= 0 && !cells.get(nameColumn).isEmpty() ? cells.get(nameColumn) : null;
+                importer.add(new ImportRow(rowNumber, cells.get(idColumn).trim(), name, data));
+            }
+        } catch (IOException e) {
+            importer.reject(rowNumber + 1, null, "unreadable CSV, import stopped here: " + e.getMessage());
+        }
+        return importer.finish();
+    }
+
+    private String requireTenant(String tenantId) {
+        if (tenantId == null || tenantId.isBlank()) {
+            throw new IllegalArgumentException("tenantId is required");
+        }
+        var found = jdbc.queryForList("SELECT tenant_id FROM tenant WHERE tenant_id = :tenantId",
+            Map.of("tenantId", tenantId), String.class);
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException("Tenant not found: " + tenantId);
+        }
+        return tenantId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImportRow jsonRow(int rowNumber, JsonNode node) {
+        JsonNode id = node.get("employeeId");
+        JsonNode name = node.get("name");
+        JsonNode data = node.get("data");
+        return new ImportRow(
+            rowNumber,
+            id != null && !id.isNull() ? id.asText().trim() : null,
+            name != null && !name.isNull() ? name.asText() : null,
+            data == null || data.isNull() ? Map.of()
+                : data.isObject() ? objectMapper.convertValue(data, Map.class) : null
+        );
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static Object typed(String cell) {
+        String value = cell.trim();
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return cell;
+        }
+    }
+
+    /**
+     * Collects rows into batches, writes them and keeps the per-row outcome.
+     */
+    private final class Importer {
+        private final String tenantId;
+        private final List<ImportRow> pending = new ArrayList<>();
+        private final Set<String> seenIds = new HashSet<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int inserted;
+        private int updated;
+        private int failed;
+
+        Importer(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        void add(ImportRow row) {
+            if (row.employeeId() == null || row.employeeId().isEmpty()) {
+                reject(row.rowNumber(), null, "employeeId is required");
+            } else if (row.data() == null) {
+                reject(row.rowNumber(), row.employeeId(), "data must be an object");
+            } else if (!seenIds.add(row.employeeId().toLowerCase(Locale.ROOT))) {
+                reject(row.rowNumber(), row.employeeId(), "duplicate employeeId in this import");
+            } else {
+                pending.add(row);
+                if (pending.size() >= batchSize) flush();
+            }
+        }
+
+        void reject(int rowNumber, String employeeId, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(rowNumber, employeeId, error));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            if (inserted + updated > 0) {
+                employeeService.bumpPopulationVersion(tenantId);
+            }
+            return new ImportResult(inserted, updated, failed, List.copyOf(errors), failed > errors.size());
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) return;
+            List<ImportRow> batch = List.copyOf(pending);
+            pending.clear();
+            try {
+                countResults(upsert(batch));
+            } catch (RuntimeException batchError) {
+                // Find the rows the database rejects; the others still go in
+                for (ImportRow row : batch) {
+                    try {
+                        countResults(upsert(List.of(row)));
+                    } catch (RuntimeException rowError) {
+                        reject(row.rowNumber(), row.employeeId(), rootMessage(rowError));
+                    }
+                }
+            }
+        }
+
+        private void countResults(List<Boolean> results) {
+            for (boolean wasInserted : results) {
+                if (wasInserted) inserted++; else updated++;
+            }
+        }
+
+        /**
+         * One multi-row upsert. IDs that exist in another case are written to the existing ID.
+         *
+         * @return per written row, true when it was inserted (false = updated)
+         */
+        private List<Boolean> upsert(List<ImportRow> batch) {
+            Map<String, String> existingByLower = new HashMap<>();
+            List<String> lowerIds = batch.stream().map(r -> r.employeeId().toLowerCase(Locale.ROOT)).toList();
+            jdbc.query("""
+                SELECT employee_id FROM employee
+                WHERE tenant_id = :tenantId AND LOWER(employee_id) IN (:ids)
+                """, Map.of("tenantId", tenantId, "ids", lowerIds),
+                (rs, rowNum) -> existingByLower.put(rs.getString(1).toLowerCase(Locale.ROOT), rs.getString(1)));
+
+            StringBuilder values = new StringBuilder();
+            Map<String, Object> params = new HashMap<>();
+            params.put("tenantId", tenantId);
+            for (int i = 0; i < batch.size(); i++) {
+                ImportRow row = batch.get(i);
+                if (i > 0) values.append(", ");
+                values.append("(:id").append(i).append(", :tenantId, :name").append(i)
+                    .append(", CAST(:data").append(i).append(" AS jsonb), now(), now())");
+                params.put("id" + i, existingByLower.getOrDefault(row.employeeId().toLowerCase(Locale.ROOT), row.employeeId()));
+                params.put("name" + i, row.name());
+                params.put("data" + i, toJson(row.data()));
+            }
+            String sql = """
+                INSERT INTO employee (employee_id, tenant_id, name, data_json, created_at, updated_at)
+                VALUES %s
+                ON CONFLICT (employee_id, tenant_id) DO UPDATE
+                SET name = EXCLUDED.name, data_json = EXCLUDED.data_json, updated_at = now()
+                RETURNING (xmax = 0) AS inserted
+                """.formatted(values);
+            return jdbc.query(sql, params, (rs, rowNum) -> rs.getBoolean("inserted"));
+        }
+
+        private String toJson(Map<String, Object> data) {
+            try {
+                return objectMapper.writeValueAsString(data);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("data is not serializable: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas, quotes ("")
+     * and line breaks.
+     */
+    private static final class CsvReader {
+        private final Reader reader;
+        private int peeked = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) throw new IOException("unterminated quoted field");
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c == '\r') {
+                    if (peek() == '\n') read();
+                    break;
+                } else {
+                    cell.append((char) c);
+                }
+                c = read();
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) peeked = reader.read();
+            return peeked;
+        }
+    }
+}
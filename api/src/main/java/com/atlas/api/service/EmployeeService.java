@@ -142,6 +142,7 @@ public class EmployeeService {
                 throw new RuntimeException("Failed to create employee: no result returned");
             }
             
+            bumpPopulationVersion(tenantId);
             return results.get(0);
         } catch (RuntimeException e) {
             // If it's already a RuntimeException with a message, preserve it
@@ -193,6 +194,9 @@ public class EmployeeService {
                     }
                 });
             
+            if (!employees.isEmpty()) {
+                bumpPopulationVersion(tenantId);
+            }
             return employees.stream().findFirst();
         } catch (Exception e) {
             throw new RuntimeException("Failed to update employee", e);
@@ -209,9 +213,26 @@ public class EmployeeService {
             """;
         
         int deleted = jdbc.update(sql, Map.of("tenantId", tenantId, "employeeId", employeeId));
+        if (deleted > 0) {
+            bumpPopulationVersion(tenantId);
+        }
         return deleted > 0;
     }
 
+    /**
+     * Mark the tenant's employee population as changed (baseline snapshots are keyed on this version).
+     * Bulk writers call it once when they are done.
+     */
+    public void bumpPopulationVersion(String tenantId) {
+        String sql = """
+            INSERT INTO tenant_population_version (tenant_id, version, updated_at)
+            VALUES (:tenantId, 1, now())
+            ON CONFLICT (tenant_id) DO UPDATE
+            SET version = tenant_population_version.version + 1, updated_at = now()
+            """;
+        jdbc.update(sql, Map.of("tenantId", tenantId));
+    }
+
     /**
      * DTO for employee data
      */
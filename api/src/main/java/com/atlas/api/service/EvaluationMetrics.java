@@ -0,0 +1,159 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.expr.ParseCache;
+import com.atlas.engine.model.RuleSet;
+import com.atlas.engine.spi.EvaluationListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer binding of the engine's {@link EvaluationListener}, scraped through /actuator/prometheus.
+ *
+ * Meters:
+ *   atlas.engine.evaluation{ruleset}             - evaluateAll latency (histogram)
+ *   atlas.engine.components{ruleset}             - rules computed
+ *   atlas.engine.component{ruleset,component}    - per-rule latency (count/sum/max; app.metrics.engine.component-timers)
+ *   atlas.engine.errors{ruleset,component}       - rules that failed and were zeroed
+ *   atlas.engine.table_lookup{table,result}      - TBL latency; result = hit, miss (zero) or error
+ *   atlas.bulk.employees{operation}              - employees evaluated by bulk passes; rate() = employees/sec
+ *   atlas.bulk.duration{operation}               - bulk pass latency
+ *   atlas.bulk.throughput{operation}             - employees/sec of the last completed pass
+ *   atlas.engine.parse_cache.requests{result}    - expression parses; result = hit or miss
+ *   atlas.engine.parse_cache.evictions           - parsed expressions evicted to stay within the bound
+ *   atlas.engine.parse_cache.size                - parsed expressions cached
+ *
+ * Meters are cached per tag set so the hot path is a map lookup and a record.
+ */
+@Service
+public class EvaluationMetrics implements EvaluationListener {
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final boolean componentTimers;
+    private final Map<String, Timer> evaluationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> componentCounters = new ConcurrentHashMap<>();
+    private final Map<List<String>, Timer> componentTimersByName = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<List<String>, Timer> lookupTimers = new ConcurrentHashMap<>();
+    private final Map<String, Bulk> bulkMeters = new ConcurrentHashMap<>();
+
+    public EvaluationMetrics(MeterRegistry registry,
+                             @Value("${app.metrics.engine.enabled:true}") boolean enabled,
+                             @Value("${app.metrics.engine.component-timers:false}") boolean componentTimers) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.componentTimers = componentTimers;
+        if (enabled) {
+            registerParseCache();
+        }
+    }
+
+    /**
+     * Listener to hand to the evaluator: this binding, or {@link EvaluationListener#NONE} when disabled.
+     */
+    public EvaluationListener listener() {
+        return enabled ? this : EvaluationListener.NONE;
+    }
+
+    @Override
+    public void evaluationFinished(RuleSet rules, int componentsEvaluated, long nanos) {
+        String ruleset = rulesetTag(rules);
+        evaluationTimers.computeIfAbsent(ruleset, r -> Timer.builder("atlas.engine.evaluation")
+                .tag("ruleset", r).description("evaluateAll latency per employee")
+                .publishPercentileHistogram().register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+        componentCounters.computeIfAbsent(ruleset, r -> Counter.builder("atlas.engine.components")
+                .tag("ruleset", r).description("Rules computed by the evaluator").register(registry))
+            .increment(componentsEvaluated);
+    }
+
+    @Override
+    public void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {
+        if (!componentTimers) return;
+        componentTimersByName.computeIfAbsent(List.of(rulesetTag(rules), component), k -> Timer.builder("atlas.engine.component")
+                .tag("ruleset", k.get(0)).tag("component", k.get(1)).description("Latency of one rule")
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void componentFailed(RuleSet rules, String component, Exception error) {
+        errorCounters.computeIfAbsent(List.of(rulesetTag(rules), component), k -> Counter.builder("atlas.engine.errors")
+                .tag("ruleset", k.get(0)).tag("component", k.get(1))
+                .description("Rules that failed during evaluation and were set to zero").register(registry))
+            .increment();
+    }
+
+    @Override
+    public void tableLookup(String tenantId, String componentTarget, String tableName, List<Object> keys,
+                            BigDecimal value, long nanos) {
+        boolean hit = value != null && value.signum() != 0;
+        lookupTimer(tableName, hit ? "hit" : "miss").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void tableLookupFailed(String tenantId, String componentTarget, String tableName,
+                                  RuntimeException error, long nanos) {
+        lookupTimer(tableName, "error").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A bulk pass (simulation, baseline aggregation, ...) evaluated {@code employees} employees in {@code nanos}.
+     */
+    public void bulkCompleted(String operation, int employees, long nanos) {
+        if (!enabled) return;
+        Bulk bulk = bulkMeters.computeIfAbsent(operation, this::newBulk);
+        bulk.employees().increment(employees);
+        bulk.duration().record(nanos, TimeUnit.NANOSECONDS);
+        double perSecond = nanos > 0 ? employees * 1e9 / nanos : 0.0;
+        bulk.lastThroughput().set(Double.doubleToLongBits(perSecond));
+    }
+
+    private Timer lookupTimer(String tableName, String result) {
+        return lookupTimers.computeIfAbsent(List.of(String.valueOf(tableName), result), k -> Timer.builder("atlas.engine.table_lookup")
+                .tag("table", k.get(0)).tag("result", k.get(1))
+                .description("TBL lookup latency; a miss is a lookup that returned zero")
+                .publishPercentileHistogram().register(registry));
+    }
+
+    private void registerParseCache() {
+        FunctionCounter.builder("atlas.engine.parse_cache.requests", ParseCache.class, c -> ParseCache.stats().hits())
+            .tag("result", "hit").description("Expression parses answered from the parse cache").register(registry);
+        FunctionCounter.builder("atlas.engine.parse_cache.requests", ParseCache.class, c -> ParseCache.stats().misses())
+            .tag("result", "miss").description("Expression parses that ran the parser").register(registry);
+        FunctionCounter.builder("atlas.engine.parse_cache.evictions", ParseCache.class, c -> ParseCache.stats().evictions())
+            .description("Parsed expressions evicted from the parse cache").register(registry);
+        Gauge.builder("atlas.engine.parse_cache.size", ParseCache.class, c -> ParseCache.stats().size())
+            .description("Parsed expressions in the parse cache").register(registry);
+    }
+
+    private Bulk newBulk(String operation) {
+        AtomicLong lastThroughput = new AtomicLong(Double.doubleToLongBits(0.0));
+        Gauge.builder("atlas.bulk.throughput", lastThroughput, bits -> Double.longBitsToDouble(bits.get()))
+            .tag("operation", operation).description("Employees per second of the last completed bulk pass")
+            .register(registry);
+        return new Bulk(
+            Counter.builder("atlas.bulk.employees").tag("operation", operation)
+                .description("Employees evaluated by bulk passes").register(registry),
+            Timer.builder("atlas.bulk.duration").tag("operation", operation)
+                .description("Duration of bulk passes").register(registry),
+            lastThroughput);
+    }
+
+    private static String rulesetTag(RuleSet rules) {
+        return rules.getId() != null ? rules.getId() : "unknown";
+    }
+
+    private record Bulk(Counter employees, Timer duration, AtomicLong lastThroughput) {}
+}
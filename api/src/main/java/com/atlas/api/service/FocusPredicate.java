@@ -0,0 +1,153 @@
+package com.atlas.api.service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Focus-group definition compiled into a typed predicate over employee inputs.
+ *
+ * Semantics follow the segmented-raise DSL condition it replaces: conditions are AND-ed; a numeric
+ * condition is {@code min <= value <= max} (either bound optional); a string condition matches any of
+ * its non-blank values. Conditions without bounds / values are ignored, and a definition with no usable
+ * condition matches nobody. Field names are canonicalized to EvalContext keys (first letter upper case).
+ * An employee missing the field, or with a non-numeric value for a numeric condition, is not a member.
+ *
+ * The same predicate can usually be pushed down to Postgres as a filter on {@code employee.data_json}
+ * (see {@link #toSql}), resolving the data_json aliases of the standard fields the way
+ * Mappers#toEmployeeInput does.
+ */
+public final class FocusPredicate {
+    // Canonical input -> data_json keys in lookup order (Mappers#toEmployeeInput)
+    private static final Map<String, List<String>> STANDARD_FIELDS = Map.ofEntries(
+        Map.entry("BaseSalary", List.of("base", "BaseSalary")),
+        Map.entry("Hours", List.of("hours", "Hours")),
+        Map.entry("Rate", List.of("rate", "Rate")),
+        Map.entry("Sales", List.of("sales", "Sales")),
+        Map.entry("PerformanceRating", List.of("performance", "PerformanceRating")),
+        Map.entry("YearsOfService", List.of("yearsOfService", "YearsOfService")),
+        Map.entry("HasFamily", List.of("hasFamily", "HasFamily")),
+        Map.entry("IsManager", List.of("isManager", "IsManager")),
+        Map.entry("Department", List.of("department", "Department")),
+        Map.entry("Status", List.of("status", "Status"))
+    );
+    // Standard fields converted to numbers on the way in (their text form differs from data_json)
+    private static final Set<String> NUMERIC_STANDARD_FIELDS = Set.of(
+        "BaseSalary", "Hours", "Rate", "Sales", "PerformanceRating", "YearsOfService", "HasFamily", "IsManager");
+    private static final String NUMERIC_PATTERN = "^\\s*-?[0-9]+(\\.[0-9]+)?([eE][-+]?[0-9]+)?\\s*$";
+
+    private final List<Condition> conditions;
+
+    private FocusPredicate(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    public static FocusPredicate compile(OptimizerService.FocusDefinition focus) {
+        List<Condition> conditions = new ArrayList<>();
+        if (focus != null && focus.conditions() != null) {
+            for (OptimizerService.FocusCondition c : focus.conditions()) {
+                if (c == null || c.field() == null || c.field().isEmpty()) continue;
+                String field = c.field().substring(0, 1).toUpperCase(Locale.ROOT) + c.field().substring(1);
+                String type = c.fieldType() != null ? c.fieldType().toLowerCase(Locale.ROOT) : "string";
+                if ("number".equals(type)) {
+                    if (c.minValue() != null || c.maxValue() != null) {
+                        conditions.add(new NumberRange(field, c.minValue(), c.maxValue()));
+                    }
+                } else if (c.values() != null) {
+                    Set<String> values = new LinkedHashSet<>();
+                    for (String v : c.values()) {
+                        if (v != null && !v.isBlank()) values.add(v);
+                    }
+                    if (!values.isEmpty()) {
+                        conditions.add(new AnyOf(field, values));
+                    }
+                }
+            }
+        }
+        return new FocusPredicate(List.copyOf(conditions));
+    }
+
+    /**
+     * True when the definition has no usable condition (nobody is in focus).
+     */
+    public boolean matchesNobody() {
+        return conditions.isEmpty();
+    }
+
+    public boolean test(Map<String, Object> inputs) {
+        if (conditions.isEmpty()) return false;
+        for (Condition condition : conditions) {
+            if (!condition.test(inputs.get(condition.field()))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * SQL filter over {@code data_json} equivalent to {@link #test}, with its parameters added to
+     * {@code params}. Empty when some condition cannot be expressed exactly in SQL (string match on a
+     * numeric standard field, whose input text is the converted number rather than the stored JSON).
+     */
+    public Optional<String> toSql(Map<String, Object> params) {
+        if (conditions.isEmpty()) return Optional.of("false");
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            Condition condition = conditions.get(i);
+            String value = jsonValue(condition.field());
+            String prefix = "focus" + i;
+            if (condition instanceof NumberRange range) {
+                String number = "(CASE WHEN " + value + " ~ '" + NUMERIC_PATTERN + "' THEN (" + value + ")::numeric END)";
+                List<String> bounds = new ArrayList<>();
+                if (range.min() != null) {
+                    bounds.add(number + " >= :" + prefix + "Min");
+                    params.put(prefix + "Min", range.min());
+                }
+                if (range.max() != null) {
+                    bounds.add(number + " <= :" + prefix + "Max");
+                    params.put(prefix + "Max", range.max());
+                }
+                parts.add("(" + String.join(" AND ", bounds) + ")");
+            } else if (condition instanceof AnyOf anyOf) {
+                if (NUMERIC_STANDARD_FIELDS.contains(anyOf.field())) {
+                    return Optional.empty();
+                }
+                parts.add(value + " IN (:" + prefix + "Values)");
+                params.put(prefix + "Values", new ArrayList<>(anyOf.values()));
+            }
+        }
+        return Optional.of(String.join(" AND ", parts));
+    }
+
+    private static String jsonValue(String field) {
+        List<String> keys = STANDARD_FIELDS.getOrDefault(field, List.of(field));
+        List<String> lookups = new ArrayList<>();
+        for (String key : keys) {
+            lookups.add("data_json ->> '" + key.replace("'", "''") + "'");
+        }
+        return lookups.size() == 1 ? lookups.get(0) : "COALESCE(" + String.join(", ", lookups) + ")";
+    }
+
+    private sealed interface Condition permits NumberRange, AnyOf {
+        String field();
+        boolean test(Object value);
+    }
+
+    private record NumberRange(String field, BigDecimal min, BigDecimal max) implements Condition {
+        @Override
+        public boolean test(Object value) {
+            if (value == null) return false;
+            BigDecimal number;
+            try {
+                number = value instanceof BigDecimal bd ? bd : new BigDecimal(String.valueOf(value).trim());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            return (min == null || number.compareTo(min) >= 0) && (max == null || number.compareTo(max) <= 0);
+        }
+    }
+
+    private record AnyOf(String field, Set<String> values) implements Condition {
+        @Override
+        public boolean test(Object value) {
+            return value != null && values.contains(String.valueOf(value));
+        }
+    }
+}
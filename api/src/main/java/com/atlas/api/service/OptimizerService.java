@@ -3,14 +3,19 @@ package com.atlas.api.service;
 import com.atlas.api.model.dto.EmployeeInput;
 import com.atlas.api.model.mapper.Mappers;
 import com.atlas.api.repo.RulesetJdbcRepo;
+import com.atlas.api.tables.ScaledTableOverlay;
 import com.atlas.api.tables.TableServiceDb;
 import com.atlas.engine.eval.DefaultEvaluator;
 import com.atlas.engine.eval.Evaluator;
+import com.atlas.engine.expr.Functions;
 import com.atlas.engine.model.EvalContext;
 import com.atlas.engine.model.EvaluationResult;
 import com.atlas.engine.model.Rule;
 import com.atlas.engine.model.RuleSet;
 import com.atlas.engine.spi.TableService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +23,13 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,7 +49,14 @@ public class OptimizerService {
     private final ComponentGroupsService componentGroupsService;
     private final RulesetJdbcRepo rulesetRepo;
     private final NamedParameterJdbcTemplate jdbc;
-    private final TableServiceDb tableServiceDb;
+    private final ObjectProvider<TableServiceDb> tableServiceDb; // postgres profile only
+    private final ResultCache resultCache;
+    // Candidates evaluated per search round (k-ary bracketing) and the pool they run on
+    private final int searchParallelism;
+    private final ExecutorService searchPool;
+    private static final int DEFAULT_SAMPLE_SIZE = 1000;
+    // Full-population refinement window around the sampled optimum, as a fraction of the search range
+    private static final BigDecimal REFINE_WINDOW = new BigDecimal("0.05");
     private static final Pattern TBL_PATTERN = Pattern.compile("TBL\\(\"([^\"]+)\"");
 
     public OptimizerService(Evaluator evaluator, RulesService rules,
@@ -46,7 +64,9 @@ public class OptimizerService {
                            ComponentGroupsService componentGroupsService,
                            RulesetJdbcRepo rulesetRepo,
                            NamedParameterJdbcTemplate jdbc,
-                           TableServiceDb tableServiceDb) {
+                           ObjectProvider<TableServiceDb> tableServiceDb,
+                           ResultCache resultCache,
+                           @Value("${app.optimizer.search-parallelism:0}") int searchParallelism) {
         this.evaluator = evaluator;
         this.rules = rules;
         this.employeeService = employeeService;
@@ -54,6 +74,22 @@ public class OptimizerService {
         this.rulesetRepo = rulesetRepo;
         this.jdbc = jdbc;
         this.tableServiceDb = tableServiceDb;
+        this.resultCache = resultCache;
+        // 0 = one candidate per available core (capped), 1 = sequential binary search
+        this.searchParallelism = searchParallelism > 0
+            ? searchParallelism
+            : Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.searchPool = Executors.newFixedThreadPool(this.searchParallelism, r -> {
+            Thread t = new Thread(r, "optimizer-search-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searchPool.shutdownNow();
     }
 
     /**
@@ -80,16 +116,22 @@ public class OptimizerService {
                                          String targetTable,
                                          String tableComponent,
                                          FocusDefinition focus,
+                                         SamplingOptions sampling,
                                          LocalDate asOfDate) {
         if (asOfDate == null) {
             asOfDate = LocalDate.now();
         }
 
         // Get the ruleset
-        RuleSet originalRuleset = rules.getById(tenantId, rulesetId);
+        RuleSet originalRuleset = componentGroupsService.withGroupOrdering(rules.getById(tenantId, rulesetId));
         
-        // Calculate baseline
-        PayrollSummary baseline = calculatePayrollSummary(tenantId, originalRuleset, asOfDate, null);
+        // Calculate baseline (per-employee results are kept for incremental search passes)
+        PopulationPass baselinePass = evaluatePopulation(tenantId, originalRuleset, asOfDate, null, null, null);
+        PayrollSummary baseline = baselinePass.summary();
+
+        // Optional sampling pre-search: coarse search on a stratified sample, refined on the full population
+        SamplingPlan samplingPlan = sampling != null ? buildSamplingPlan(baselinePass, sampling, focus) : null;
+        SamplingReport samplingReport = null;
         
         // Get ruleset name
         String rulesetName = rulesetRepo.findById(tenantId, rulesetId)
@@ -109,10 +151,12 @@ public class OptimizerService {
                 }
                 
                 // Find optimal raise percentage using binary search
-                BigDecimal optimalPercentage = findOptimalRaisePercentage(
-                    tenantId, originalRuleset, targetComponent, asOfDate,
-                    baseline.totalCost, extraBudget
+                BudgetSolve raiseSolve = findOptimalRaisePercentage(
+                    originalRuleset, targetComponent, asOfDate,
+                    baselinePass, extraBudget, samplingPlan
                 );
+                BigDecimal optimalPercentage = raiseSolve.parameter();
+                samplingReport = raiseSolve.sampling();
 
                 // Calculate optimized payroll with the optimal percentage
                 RuleSet optimizedRuleset = applyRaisePlan(originalRuleset, targetComponent, optimalPercentage);
@@ -160,11 +204,13 @@ public class OptimizerService {
                 // Find optimal base percentage for non-focus group; focus group gets higher raise based on weight
                 SegmentedRaiseResult segmented = findOptimalSegmentedRaisePercentage(
                     tenantId, originalRuleset, targetComponent, asOfDate,
-                    baseline.totalCost, extraBudget, focus);
+                    baselinePass, extraBudget, focus, samplingPlan);
+                samplingReport = segmented.sampling();
 
                 // Apply segmented raise plan with the chosen base percentage
-                RuleSet segmentedRuleset = applySegmentedRaisePlan(originalRuleset, targetComponent, segmented.basePercent(), focus);
-                optimized = calculatePayrollSummary(tenantId, segmentedRuleset, asOfDate, null);
+                SegmentedPlan segmentedPlan = applySegmentedRaisePlan(
+                    originalRuleset, targetComponent, segmented.basePercent(), focus, segmented.membership());
+                optimized = evaluatePopulation(tenantId, segmentedPlan, asOfDate, null, null, null).summary();
 
                 // Build human-readable description from all focus conditions
                 StringBuilder desc = new StringBuilder();
@@ -219,7 +265,7 @@ public class OptimizerService {
                 }
                 
                 // Validate group exists
-                Map<String, Integer> groupOrdering = getGroupOrdering();
+                Map<String, Integer> groupOrdering = componentGroupsService.getGroupOrdering().ordering();
                 String normalizedGroup = targetGroup.toLowerCase();
                 if (!groupOrdering.containsKey(normalizedGroup)) {
                     throw new IllegalArgumentException("Group '" + targetGroup + "' not found");
@@ -231,10 +277,12 @@ public class OptimizerService {
                     : "NewComponent_" + targetGroup;
                 
                 // Find optimal scalar value using binary search
-                BigDecimal optimalScalar = findOptimalNewComponentValue(
-                    tenantId, originalRuleset, normalizedGroup, finalComponentName, asOfDate,
-                    baseline.totalCost, extraBudget
+                BudgetSolve scalarSolve = findOptimalNewComponentValue(
+                    originalRuleset, normalizedGroup, finalComponentName, asOfDate,
+                    baselinePass, extraBudget, samplingPlan
                 );
+                BigDecimal optimalScalar = scalarSolve.parameter();
+                samplingReport = scalarSolve.sampling();
                 
                 // Calculate optimized payroll with the new component
                 RuleSet rulesetWithNewComponent = addNewComponent(originalRuleset, normalizedGroup, finalComponentName, optimalScalar);
@@ -296,16 +344,25 @@ public class OptimizerService {
                     );
                 }
                 
-                // Find optimal increase factor using binary search
-                BigDecimal optimalIncreaseFactor = findOptimalTableIncreaseFactor(
-                    tenantId, originalRuleset, tableComponent, targetTable, asOfDate,
-                    baseline.totalCost, extraBudget
+                // Load the table once; every candidate factor is a scaled view over it
+                TableServiceDb tables = tableServiceDb.getIfAvailable();
+                if (tables == null) {
+                    throw new IllegalArgumentException("Table strategies need the database table service (postgres profile)");
+                }
+                ScaledTableOverlay tableOverlay = tables.loadScaledOverlay(
+                    tenantId, tableComponent, targetTable, asOfDate
+                );
+
+                // Find optimal increase factor
+                BudgetSolve factorSolve = findOptimalTableIncreaseFactor(
+                    tableOverlay, originalRuleset, tableComponent, asOfDate,
+                    baselinePass, extraBudget, samplingPlan
                 );
+                BigDecimal optimalIncreaseFactor = factorSolve.parameter();
+                samplingReport = factorSolve.sampling();
                 
                 // Calculate optimized payroll with increased table values
-                TableService modifiedTableService = createModifiedTableService(
-                    tenantId, tableComponent, targetTable, asOfDate, optimalIncreaseFactor
-                );
+                TableService modifiedTableService = tableOverlay.withFactor(optimalIncreaseFactor);
                 optimized = calculatePayrollSummary(tenantId, originalRuleset, asOfDate, modifiedTableService);
                 
                 adjustmentPlan = new AdjustmentPlan(
@@ -336,7 +393,8 @@ public class OptimizerService {
             baseline,
             optimized,
             asOfDate,
-            new Date()
+            new Date(),
+            samplingReport
         );
     }
 
@@ -345,35 +403,89 @@ public class OptimizerService {
      * Optionally uses a custom TableService for table modifications.
      */
     private PayrollSummary calculatePayrollSummary(String tenantId, RuleSet ruleset, LocalDate asOfDate, TableService customTableService) {
-        List<EmployeeService.EmployeeDto> employees = employeeService.listEmployees(tenantId);
-        
-        // Get group ordering
-        Map<String, Integer> groupOrdering = getGroupOrdering();
+        return evaluatePopulation(tenantId, ruleset, asOfDate, customTableService, null, null).summary();
+    }
+
+    private PopulationPass evaluatePopulation(String tenantId, RuleSet ruleset, LocalDate asOfDate,
+                                              TableService customTableService,
+                                              PopulationPass previous, Set<String> changedComponents) {
+        return evaluatePopulation(tenantId, new SegmentedPlan(ruleset, null, null), asOfDate,
+            customTableService, previous, changedComponents);
+    }
+
+    /**
+     * Evaluate a candidate ruleset incrementally against the baseline pass: per employee only the
+     * changed components and their downstream closure (dependents, group sums, toggle groups such as
+     * tax) are recomputed, everything upstream is reused from the baseline results.
+     */
+    private PayrollSummary calculateIncrementalSummary(PopulationPass baseline, RuleSet ruleset, LocalDate asOfDate,
+                                                       TableService customTableService, Set<String> changedComponents) {
+        return evaluatePopulation(null, ruleset, asOfDate, customTableService, baseline, changedComponents).summary();
+    }
+
+    /**
+     * Evaluate every employee and aggregate totals. With a {@code previous} pass the employee list,
+     * group ordering and contexts are reused and evaluation is incremental (see calculateIncrementalSummary).
+     */
+    private PopulationPass evaluatePopulation(String tenantId, SegmentedPlan plan, LocalDate asOfDate,
+                                              TableService customTableService,
+                                              PopulationPass previous, Set<String> changedComponents) {
+        RuleSet ruleset = plan.others();
+        List<EmployeeService.EmployeeDto> employees = previous != null
+            ? previous.employees()
+            : employeeService.listEmployees(tenantId);
         
         // Use custom evaluator if custom table service is provided
         Evaluator eval = customTableService != null 
             ? new DefaultEvaluator(customTableService)
             : evaluator;
+
+        Map<String, EvalContext> contexts = previous != null ? previous.contexts() : new HashMap<>();
+        Map<String, EvaluationResult> results = new HashMap<>();
+        // Sample passes scale each employee up to the headcount of their stratum
+        Map<String, BigDecimal> weights = previous != null ? previous.weights() : null;
+
+        // Downstream closure of the change depends only on the ruleset structure: compute it once per pass
+        Set<String> affected = null;
+        if (previous != null && changedComponents != null && eval instanceof DefaultEvaluator && !contexts.isEmpty()) {
+            affected = ((DefaultEvaluator) eval).downstreamOf(ruleset, contexts.values().iterator().next(), changedComponents);
+        }
         
         BigDecimal totalCost = BigDecimal.ZERO;
         Map<String, BigDecimal> componentTotals = new LinkedHashMap<>();
-        int employeeCount = employees.size();
+        // Sample passes represent the whole population
+        int employeeCount = weights != null ? previous.summary().employeeCount() : employees.size();
         
         // Calculate for each employee
         for (EmployeeService.EmployeeDto emp : employees) {
             try {
-                EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
-                EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(asOfDate, empInput), groupOrdering);
-                EvaluationResult result = eval.evaluateAll(ruleset, ctx);
+                EvalContext ctx = contexts.get(emp.employeeId());
+                if (ctx == null) {
+                    EmployeeInput empInput = Mappers.toEmployeeInput(emp.employeeId(), emp.data());
+                    ctx = Mappers.toEvalContext(asOfDate, empInput);
+                    if (previous == null) {
+                        contexts.put(emp.employeeId(), ctx);
+                    }
+                }
+                EvaluationResult baselineResult = previous != null ? previous.results().get(emp.employeeId()) : null;
+                RuleSet employeeRuleset = plan.rulesetFor(emp.employeeId());
+                EvaluationResult result = affected != null && baselineResult != null
+                    ? ((DefaultEvaluator) eval).evaluateAll(employeeRuleset, ctx, baselineResult, affected)
+                    : previous == null && customTableService == null && plan.membership() == null
+                        // Baseline pass: memoized (candidate rulesets are one-off and bypass the cache)
+                        ? resultCache.evaluate(tenantId, employeeRuleset, ctx, eval)
+                        : eval.evaluateAll(employeeRuleset, ctx);
+                results.put(emp.employeeId(), result);
+                BigDecimal weight = weights != null ? weights.getOrDefault(emp.employeeId(), BigDecimal.ONE) : BigDecimal.ONE;
                 
-                totalCost = totalCost.add(result.total());
+                totalCost = totalCost.add(result.total().multiply(weight));
                 
                 // Aggregate component totals in deterministic order (alphabetical)
                 List<String> componentNames = new ArrayList<>(result.components().keySet());
                 Collections.sort(componentNames);
                 for (String component : componentNames) {
                     com.atlas.engine.model.ComponentResult value = result.components().get(component);
-                    componentTotals.merge(component, value.amount(), BigDecimal::add);
+                    componentTotals.merge(component, value.amount().multiply(weight), BigDecimal::add);
                 }
             } catch (Exception e) {
                 System.err.println("Error calculating payroll for employee " + emp.employeeId() + ": " + e.getMessage());
@@ -384,12 +496,13 @@ public class OptimizerService {
             ? totalCost.divide(BigDecimal.valueOf(employeeCount), 2, RoundingMode.HALF_UP)
             : BigDecimal.ZERO;
         
-        return new PayrollSummary(
+        PayrollSummary summary = new PayrollSummary(
             totalCost,
             avgPerEmployee,
             employeeCount,
             componentTotals
         );
+        return new PopulationPass(employees, contexts, results, weights, summary);
     }
 
     /**
@@ -436,7 +549,7 @@ public class OptimizerService {
             })
             .collect(Collectors.toList());
         
-        return new RuleSet(originalRuleset.getId(), modifiedRules);
+        return originalRuleset.withRules(modifiedRules);
     }
 
     /**
@@ -460,476 +573,530 @@ public class OptimizerService {
         );
         
         newRules.add(newRule);
-        return new RuleSet(originalRuleset.getId(), newRules);
+        return originalRuleset.withRules(newRules);
     }
 
     /**
-     * Find optimal raise percentage using binary search.
+     * Find optimal raise percentage. Tries the analytic (probe and fit) solve first
+     * and falls back to a bracketing search inside the bracket narrowed by the probes.
      */
-    private BigDecimal findOptimalRaisePercentage(String tenantId, RuleSet originalRuleset,
-                                                  String targetComponent, LocalDate asOfDate,
-                                                  BigDecimal baselineCost, BigDecimal extraBudget) {
+    private BudgetSolve findOptimalRaisePercentage(RuleSet originalRuleset,
+                                                   String targetComponent, LocalDate asOfDate,
+                                                   PopulationPass baseline, BigDecimal extraBudget,
+                                                   SamplingPlan samplingPlan) {
+        BigDecimal baselineCost = baseline.summary().totalCost();
         BigDecimal targetCost = baselineCost.add(extraBudget).max(baselineCost);
         
         BigDecimal minPercent = BigDecimal.ZERO;
         BigDecimal maxPercent = BigDecimal.valueOf(100);
         BigDecimal tolerance = BigDecimal.valueOf(0.01);
-        BigDecimal bestPercent = BigDecimal.ZERO;
-        BigDecimal bestDiff = extraBudget.abs();
-        
-        int maxIterations = 50;
-        int iterations = 0;
-        
-        while (iterations < maxIterations && maxPercent.subtract(minPercent).compareTo(tolerance) > 0) {
-            BigDecimal midPercent = minPercent.add(maxPercent).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-            
-            RuleSet testRuleset = applyRaisePlan(originalRuleset, targetComponent, midPercent);
-            PayrollSummary testSummary = calculatePayrollSummary(tenantId, testRuleset, asOfDate, null);
-            BigDecimal testCost = testSummary.totalCost();
-            BigDecimal diff = testCost.subtract(targetCost).abs();
-            
-            if (diff.compareTo(bestDiff) < 0) {
-                bestDiff = diff;
-                bestPercent = midPercent;
-            }
-            
-            if (testCost.compareTo(targetCost) < 0) {
-                minPercent = midPercent;
-            } else {
-                maxPercent = midPercent;
-            }
-            
-            iterations++;
-        }
-        
-        return bestPercent.setScale(2, RoundingMode.HALF_UP);
+        BiFunction<PopulationPass, BigDecimal, BigDecimal> costAt = (pass, percent) -> calculateIncrementalSummary(
+            pass, applyRaisePlan(originalRuleset, targetComponent, percent), asOfDate, null, Set.of(targetComponent)).totalCost();
+
+        BudgetSolve solve = solveForBudget(costAt, baseline, samplingPlan, targetCost, minPercent, maxPercent, 4, tolerance, extraBudget);
+        return new BudgetSolve(solve.parameter().setScale(2, RoundingMode.HALF_UP), solve.sampling());
     }
 
     /**
-     * Find optimal scalar value for new component using binary search.
+     * Find optimal scalar value for new component. Analytic solve first, bracketing search as fallback.
      */
-    private BigDecimal findOptimalNewComponentValue(String tenantId, RuleSet originalRuleset,
-                                                    String targetGroup, String componentName, LocalDate asOfDate,
-                                                    BigDecimal baselineCost, BigDecimal extraBudget) {
+    private BudgetSolve findOptimalNewComponentValue(RuleSet originalRuleset,
+                                                     String targetGroup, String componentName, LocalDate asOfDate,
+                                                     PopulationPass baseline, BigDecimal extraBudget,
+                                                     SamplingPlan samplingPlan) {
+        BigDecimal baselineCost = baseline.summary().totalCost();
         BigDecimal targetCost = baselineCost.add(extraBudget);
         
-        // Binary search bounds: 0 to a reasonable max (e.g., extraBudget / employeeCount * 2)
-        int employeeCount = employeeService.listEmployees(tenantId).size();
+        // Search bounds: 0 to a reasonable max (e.g., extraBudget / employeeCount * 2)
+        int employeeCount = baseline.summary().employeeCount();
         BigDecimal maxValue = employeeCount > 0 
             ? extraBudget.divide(BigDecimal.valueOf(employeeCount), 2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(2))
             : BigDecimal.valueOf(100000);
         
         BigDecimal minValue = BigDecimal.ZERO;
         BigDecimal tolerance = BigDecimal.valueOf(0.01);
-        BigDecimal bestValue = BigDecimal.ZERO;
-        BigDecimal bestDiff = extraBudget.abs();
-        
-        int maxIterations = 50;
-        int iterations = 0;
-        
-        while (iterations < maxIterations && maxValue.subtract(minValue).compareTo(tolerance) > 0) {
-            BigDecimal midValue = minValue.add(maxValue).divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
-            
-            RuleSet testRuleset = addNewComponent(originalRuleset, targetGroup, componentName, midValue);
-            PayrollSummary testSummary = calculatePayrollSummary(tenantId, testRuleset, asOfDate, null);
-            BigDecimal testCost = testSummary.totalCost();
-            BigDecimal diff = testCost.subtract(targetCost).abs();
-            
-            if (diff.compareTo(bestDiff) < 0) {
-                bestDiff = diff;
-                bestValue = midValue;
-            }
-            
-            if (testCost.compareTo(targetCost) < 0) {
-                minValue = midValue;
-            } else {
-                maxValue = midValue;
-            }
-            
-            iterations++;
-        }
-        
-        return bestValue.setScale(2, RoundingMode.HALF_UP);
+        BiFunction<PopulationPass, BigDecimal, BigDecimal> costAt = (pass, value) -> calculateIncrementalSummary(
+            pass, addNewComponent(originalRuleset, targetGroup, componentName, value), asOfDate, null, Set.of(componentName)).totalCost();
+
+        BudgetSolve solve = solveForBudget(costAt, baseline, samplingPlan, targetCost, minValue, maxValue, 2, tolerance, extraBudget);
+        return new BudgetSolve(solve.parameter().setScale(2, RoundingMode.HALF_UP), solve.sampling());
     }
 
     /**
-     * Find optimal table increase factor using binary search.
+     * Find optimal table increase factor. Analytic solve first, bracketing search as fallback.
      */
-    private BigDecimal findOptimalTableIncreaseFactor(String tenantId, RuleSet originalRuleset,
-                                                     String tableComponent, String tableName, LocalDate asOfDate,
-                                                     BigDecimal baselineCost, BigDecimal extraBudget) {
+    private BudgetSolve findOptimalTableIncreaseFactor(ScaledTableOverlay tableOverlay, RuleSet originalRuleset,
+                                                       String tableComponent, LocalDate asOfDate,
+                                                       PopulationPass baseline, BigDecimal extraBudget,
+                                                       SamplingPlan samplingPlan) {
+        BigDecimal baselineCost = baseline.summary().totalCost();
         BigDecimal targetCost = baselineCost.add(extraBudget);
         
-        // Binary search bounds: 0% to 500% increase (5x the original value)
+        // Search bounds: 0% to 500% increase (5x the original value)
         // This allows for very large increases if needed to meet the budget
         BigDecimal minFactor = BigDecimal.ZERO;
         BigDecimal maxFactor = BigDecimal.valueOf(5); // 500% increase (5x multiplier)
         BigDecimal tolerance = BigDecimal.valueOf(0.0001); // 0.01% tolerance
-        BigDecimal bestFactor = BigDecimal.ZERO;
-        BigDecimal bestDiff = extraBudget.abs();
-        
-        int maxIterations = 50;
-        int iterations = 0;
-        
-        while (iterations < maxIterations && maxFactor.subtract(minFactor).compareTo(tolerance) > 0) {
-            BigDecimal midFactor = minFactor.add(maxFactor).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-            
-            TableService testTableService = createModifiedTableService(tenantId, tableComponent, tableName, asOfDate, midFactor);
-            PayrollSummary testSummary = calculatePayrollSummary(tenantId, originalRuleset, asOfDate, testTableService);
-            BigDecimal testCost = testSummary.totalCost();
-            BigDecimal diff = testCost.subtract(targetCost).abs();
-            
-            if (diff.compareTo(bestDiff) < 0) {
-                bestDiff = diff;
-                bestFactor = midFactor;
-            }
-            
-            if (testCost.compareTo(targetCost) < 0) {
-                minFactor = midFactor;
-            } else {
-                maxFactor = midFactor;
-            }
-            
-            iterations++;
-        }
-        
-        return bestFactor.setScale(4, RoundingMode.HALF_UP);
+        BiFunction<PopulationPass, BigDecimal, BigDecimal> costAt = (pass, factor) -> calculateIncrementalSummary(
+            pass, originalRuleset, asOfDate, tableOverlay.withFactor(factor), Set.of(tableComponent)).totalCost();
+
+        BudgetSolve solve = solveForBudget(costAt, baseline, samplingPlan, targetCost, minFactor, maxFactor, 4, tolerance, extraBudget);
+        return new BudgetSolve(solve.parameter().setScale(4, RoundingMode.HALF_UP), solve.sampling());
     }
 
     /**
-     * Find optimal segmented raise percentages using binary search on the base (non-focus) percentage.
+     * Find optimal segmented raise percentages by solving for the base (non-focus) percentage
+     * (analytic solve first, bracketing search as fallback).
      * Focus group percentage is derived as basePercent * weight.
      */
     private SegmentedRaiseResult findOptimalSegmentedRaisePercentage(String tenantId,
                                                                      RuleSet originalRuleset,
                                                                      String targetComponent,
                                                                      LocalDate asOfDate,
-                                                                     BigDecimal baselineCost,
+                                                                     PopulationPass baseline,
                                                                      BigDecimal extraBudget,
-                                                                     FocusDefinition focus) {
+                                                                     FocusDefinition focus,
+                                                                     SamplingPlan samplingPlan) {
+        BigDecimal baselineCost = baseline.summary().totalCost();
         BigDecimal targetCost = baselineCost.add(extraBudget);
 
         BigDecimal minPercent = BigDecimal.ZERO;
         BigDecimal maxPercent = BigDecimal.valueOf(100);
         BigDecimal tolerance = BigDecimal.valueOf(0.01);
-        BigDecimal bestPercent = BigDecimal.ZERO;
-        BigDecimal bestDiff = extraBudget.abs();
+        // Focus membership never changes during the run: resolve it once
+        FocusMembership membership = resolveFocusMembership(baseline, FocusPredicate.compile(focus));
+        BiFunction<PopulationPass, BigDecimal, BigDecimal> costAt = (pass, percent) -> evaluatePopulation(
+            null, applySegmentedRaisePlan(originalRuleset, targetComponent, percent, focus, membership),
+            asOfDate, null, pass, Set.of(targetComponent)).summary().totalCost();
 
-        int maxIterations = 50;
-        int iterations = 0;
+        BudgetSolve solve = solveForBudget(costAt, baseline, samplingPlan, targetCost, minPercent, maxPercent, 4, tolerance, extraBudget);
 
-        while (iterations < maxIterations && maxPercent.subtract(minPercent).compareTo(tolerance) > 0) {
-            BigDecimal midPercent = minPercent.add(maxPercent).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
+        BigDecimal basePercent = solve.parameter().setScale(2, RoundingMode.HALF_UP);
+        BigDecimal weight = focus.weight() != null ? focus.weight() : BigDecimal.ONE;
+        BigDecimal focusPercent = basePercent.multiply(weight).setScale(2, RoundingMode.HALF_UP);
+        return new SegmentedRaiseResult(basePercent, focusPercent, solve.sampling(), membership);
+    }
 
-            RuleSet testRuleset = applySegmentedRaisePlan(originalRuleset, targetComponent, midPercent, focus);
-            PayrollSummary testSummary = calculatePayrollSummary(tenantId, testRuleset, asOfDate, null);
-            BigDecimal testCost = testSummary.totalCost();
-            BigDecimal diff = testCost.subtract(targetCost).abs();
+    /**
+     * Solve a strategy parameter for the budget: analytic solve, then bracketing search.
+     *
+     * With a sampling plan the whole search first runs on the stratified sample (targeting the same
+     * extra cost on top of the sample's scaled baseline), then a few full-population passes refine
+     * the result in a small window around the sampled optimum down to the final tolerance.
+     */
+    private BudgetSolve solveForBudget(BiFunction<PopulationPass, BigDecimal, BigDecimal> costAt,
+                                       PopulationPass baseline, SamplingPlan samplingPlan,
+                                       BigDecimal targetCost, BigDecimal lower, BigDecimal upper,
+                                       int scale, BigDecimal tolerance, BigDecimal extraBudget) {
+        Function<BigDecimal, BigDecimal> fullCostAt = p -> costAt.apply(baseline, p);
+        BigDecimal baselineCost = baseline.summary().totalCost();
 
-            if (diff.compareTo(bestDiff) < 0) {
-                bestDiff = diff;
-                bestPercent = midPercent;
-            }
+        if (samplingPlan == null) {
+            AnalyticSolve analytic = solveAnalytically(
+                fullCostAt, baselineCost, targetCost, lower, upper, scale, tolerance, extraBudget.abs());
+            return new BudgetSolve(analytic.solution() != null
+                ? analytic.solution()
+                : bracketSearch(fullCostAt, targetCost, analytic, scale, tolerance), null);
+        }
 
-            if (testCost.compareTo(targetCost) < 0) {
-                minPercent = midPercent;
-            } else {
-                maxPercent = midPercent;
-            }
+        // 1) Search on the sample
+        PopulationPass sample = samplingPlan.sample();
+        Function<BigDecimal, BigDecimal> sampleCostAt = p -> costAt.apply(sample, p);
+        BigDecimal sampleBaseline = sample.summary().totalCost();
+        BigDecimal sampleTarget = sampleBaseline.add(targetCost.subtract(baselineCost));
+        AnalyticSolve sampled = solveAnalytically(
+            sampleCostAt, sampleBaseline, sampleTarget, lower, upper, scale, tolerance, extraBudget.abs());
+        BigDecimal sampleParameter = sampled.solution() != null
+            ? sampled.solution()
+            : bracketSearch(sampleCostAt, sampleTarget, sampled, scale, tolerance);
+        BigDecimal sampleEstimate = sampleCostAt.apply(sampleParameter).subtract(sampleBaseline).add(baselineCost);
 
-            iterations++;
+        // 2) Refine on the full population around the sampled optimum
+        BigDecimal finalTolerance = samplingPlan.options().finalTolerance() != null
+            ? samplingPlan.options().finalTolerance()
+            : tolerance;
+        BigDecimal exactAtSample = fullCostAt.apply(sampleParameter);
+        BigDecimal best = sampleParameter;
+        BigDecimal bestDiff = exactAtSample.subtract(targetCost).abs();
+        BigDecimal window = upper.subtract(lower).multiply(REFINE_WINDOW);
+        BigDecimal lo;
+        BigDecimal hi;
+        if (exactAtSample.compareTo(targetCost) < 0) {
+            lo = sampleParameter;
+            hi = upper.min(sampleParameter.add(window)).setScale(scale, RoundingMode.HALF_UP);
+            BigDecimal costHi = fullCostAt.apply(hi);
+            if (costHi.subtract(targetCost).abs().compareTo(bestDiff) < 0) {
+                bestDiff = costHi.subtract(targetCost).abs();
+                best = hi;
+            }
+            if (costHi.compareTo(targetCost) < 0) {
+                // Sample was too far off: the optimum lies beyond the window
+                lo = hi;
+                hi = upper;
+            }
+        } else {
+            hi = sampleParameter;
+            lo = lower.max(sampleParameter.subtract(window)).setScale(scale, RoundingMode.HALF_UP);
+            BigDecimal costLo = fullCostAt.apply(lo);
+            if (costLo.subtract(targetCost).abs().compareTo(bestDiff) < 0) {
+                bestDiff = costLo.subtract(targetCost).abs();
+                best = lo;
+            }
+            if (costLo.compareTo(targetCost) >= 0) {
+                hi = lo;
+                lo = lower;
+            }
         }
+        BigDecimal parameter = bracketSearch(fullCostAt, targetCost,
+            new AnalyticSolve(null, lo, hi, best, bestDiff), scale, finalTolerance);
 
-        BigDecimal basePercent = bestPercent.setScale(2, RoundingMode.HALF_UP);
-        BigDecimal weight = focus.weight() != null ? focus.weight() : BigDecimal.ONE;
-        BigDecimal focusPercent = basePercent.multiply(weight).setScale(2, RoundingMode.HALF_UP);
-        return new SegmentedRaiseResult(basePercent, focusPercent);
+        BigDecimal difference = sampleEstimate.subtract(exactAtSample);
+        SamplingReport report = new SamplingReport(
+            sample.employees().size(),
+            baseline.employees().size(),
+            samplingPlan.strata(),
+            sampleParameter,
+            sampleEstimate.setScale(2, RoundingMode.HALF_UP),
+            exactAtSample.setScale(2, RoundingMode.HALF_UP),
+            difference.setScale(2, RoundingMode.HALF_UP),
+            exactAtSample.signum() != 0
+                ? difference.multiply(BigDecimal.valueOf(100)).divide(exactAtSample, 4, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO,
+            parameter
+        );
+        return new BudgetSolve(parameter, report);
     }
 
     /**
-     * Apply segmented raise plan to a ruleset in-memory.
-     * Focus group gets basePercent * weight, others get basePercent.
+     * Build a stratified sample of the baseline population. Strata are the values of the strata
+     * fields (Department by default) combined with focus membership per focus condition, so the
+     * segmented strategies keep the focus/non-focus mix. Each stratum gets a proportional share
+     * (at least one employee), picked deterministically at even spacing by employee id, and each
+     * sampled employee is weighted by stratum size / picked count.
+     *
+     * Returns null when the population is not larger than the requested sample.
      */
-    private RuleSet applySegmentedRaisePlan(RuleSet originalRuleset,
-                                            String targetComponent,
-                                            BigDecimal basePercent,
-                                            FocusDefinition focus) {
-        BigDecimal weight = focus.weight() != null ? focus.weight() : BigDecimal.ONE;
-
-        // Build condition expression based on focus dimension
-        String condition = buildFocusConditionExpression(focus);
+    private SamplingPlan buildSamplingPlan(PopulationPass baseline, SamplingOptions options, FocusDefinition focus) {
+        int sampleSize = options.sampleSize() != null && options.sampleSize() > 0
+            ? options.sampleSize()
+            : DEFAULT_SAMPLE_SIZE;
+        int population = baseline.employees().size();
+        if (population <= sampleSize) {
+            return null;
+        }
+        List<String> strataFields = options.strataFields() != null && !options.strataFields().isEmpty()
+            ? options.strataFields()
+            : List.of("Department");
 
-        // Focus and non-focus multipliers
-        String baseMultiplier = "(1 + " + basePercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP) + ")";
-        String focusMultiplier = "(1 + " +
-                basePercent.multiply(weight).divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP) + ")";
+        Map<String, List<EmployeeService.EmployeeDto>> strata = new TreeMap<>();
+        for (EmployeeService.EmployeeDto emp : baseline.employees()) {
+            EvalContext ctx = baseline.contexts().get(emp.employeeId());
+            if (ctx == null || !baseline.results().containsKey(emp.employeeId())) continue;
+            strata.computeIfAbsent(stratumKey(ctx, strataFields, focus), k -> new ArrayList<>()).add(emp);
+        }
 
-        List<Rule> modifiedRules = originalRuleset.getRules().stream()
-            .map(rule -> {
-                if (!rule.getTarget().equals(targetComponent)) {
-                    return rule;
+        List<EmployeeService.EmployeeDto> sampled = new ArrayList<>();
+        Map<String, EvaluationResult> results = new HashMap<>();
+        Map<String, BigDecimal> weights = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        Map<String, BigDecimal> componentTotals = new LinkedHashMap<>();
+        for (List<EmployeeService.EmployeeDto> members : strata.values()) {
+            members.sort(Comparator.comparing(EmployeeService.EmployeeDto::employeeId));
+            int picks = Math.max(1, Math.min(members.size(),
+                (int) Math.round((double) sampleSize * members.size() / population)));
+            BigDecimal weight = BigDecimal.valueOf(members.size())
+                .divide(BigDecimal.valueOf(picks), 10, RoundingMode.HALF_UP);
+            for (int i = 0; i < picks; i++) {
+                EmployeeService.EmployeeDto emp = members.get((int) ((long) i * members.size() / picks));
+                EvaluationResult result = baseline.results().get(emp.employeeId());
+                sampled.add(emp);
+                results.put(emp.employeeId(), result);
+                weights.put(emp.employeeId(), weight);
+                total = total.add(result.total().multiply(weight));
+                for (Map.Entry<String, com.atlas.engine.model.ComponentResult> entry : result.components().entrySet()) {
+                    componentTotals.merge(entry.getKey(), entry.getValue().amount().multiply(weight), BigDecimal::add);
                 }
+            }
+        }
 
-                String originalExpr = rule.getExpression();
-                String trimmedExpr = originalExpr.trim();
+        PayrollSummary summary = new PayrollSummary(
+            total,
+            population > 0 ? total.divide(BigDecimal.valueOf(population), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+            population,
+            componentTotals
+        );
+        PopulationPass sample = new PopulationPass(sampled, baseline.contexts(), results, weights, summary);
+        return new SamplingPlan(sample, options, strata.size());
+    }
 
-                String wrappedExpr;
-                // Handle simple self-reference specially
-                if (trimmedExpr.equals(targetComponent)) {
-                    wrappedExpr = targetComponent;
+    private String stratumKey(EvalContext ctx, List<String> strataFields, FocusDefinition focus) {
+        StringBuilder key = new StringBuilder();
+        for (String field : strataFields) {
+            key.append(ctx.inputs().get(field)).append('|');
+        }
+        if (focus != null && focus.conditions() != null) {
+            for (FocusCondition c : focus.conditions()) {
+                if (c == null || c.field() == null || c.field().isEmpty()) continue;
+                String field = c.field().substring(0, 1).toUpperCase(Locale.ROOT) + c.field().substring(1);
+                Object value = ctx.inputs().get(field);
+                if ("number".equalsIgnoreCase(c.fieldType())) {
+                    boolean inRange = false;
+                    try {
+                        BigDecimal number = value != null ? new BigDecimal(String.valueOf(value)) : null;
+                        inRange = number != null
+                            && (c.minValue() == null || number.compareTo(c.minValue()) >= 0)
+                            && (c.maxValue() == null || number.compareTo(c.maxValue()) <= 0);
+                    } catch (NumberFormatException ignored) {
+                        // Non-numeric value: outside the focus range
+                    }
+                    key.append(inRange);
                 } else {
-                    wrappedExpr = "(" + originalExpr + ")";
+                    key.append(value);
                 }
-
-                // Use IF ... THEN ... ELSE ... syntax expected by the new DSL parser
-                // Example: IF YearsOfService >= 1 AND YearsOfService <= 3 THEN RoleStipend * 1.05 ELSE RoleStipend * 1.02
-                String newExpr = "IF " + condition + " THEN " +
-                        wrappedExpr + " * " + focusMultiplier + " ELSE " +
-                        wrappedExpr + " * " + baseMultiplier;
-
-                return new Rule(
-                    rule.getTarget(),
-                    newExpr,
-                    rule.getDependsOn(),
-                    rule.getEffectiveFrom(),
-                    rule.getEffectiveTo(),
-                    rule.getMeta() != null ? new HashMap<>(rule.getMeta()) : new HashMap<>()
-                );
-            })
-            .collect(Collectors.toList());
-
-        return new RuleSet(originalRuleset.getId(), modifiedRules);
+                key.append('|');
+            }
+        }
+        return key.toString();
     }
 
     /**
-     * Build an expression condition for the focus group based on the focus definition.
-     * Each FocusCondition is converted to a DSL predicate, and all predicates are AND-ed together.
+     * K-ary bracketing search: each round evaluates k evenly spaced candidates inside the bracket
+     * in parallel and narrows the bracket by a factor of k + 1 (k = 1 is plain binary search).
+     *
+     * Results are processed in candidate order, so best-diff tracking (strictly smaller diff wins)
+     * and the new bracket are deterministic regardless of which evaluation finishes first.
      */
-    private String buildFocusConditionExpression(FocusDefinition focus) {
-        if (focus == null || focus.conditions() == null || focus.conditions().isEmpty()) {
-            // No valid focus – condition that is always false
-            return "0 = 1";
-        }
-
-        List<String> parts = new ArrayList<>();
-        for (FocusCondition c : focus.conditions()) {
-            if (c == null || c.field() == null || c.field().isEmpty()) continue;
+    private BigDecimal bracketSearch(Function<BigDecimal, BigDecimal> costAt,
+                                     BigDecimal targetCost, AnalyticSolve start,
+                                     int scale, BigDecimal tolerance) {
+        BigDecimal min = start.lower();
+        BigDecimal max = start.upper();
+        BigDecimal best = start.best();
+        BigDecimal bestDiff = start.bestDiff();
+        int k = searchParallelism;
 
-            // Canonicalize field name to match EvalContext keys (e.g., YearsOfService, Role, etc.)
-            String rawField = c.field();
-            String field = rawField.substring(0, 1).toUpperCase(Locale.ROOT) + rawField.substring(1);
-            String type = c.fieldType() != null ? c.fieldType().toLowerCase(Locale.ROOT) : "string";
+        int maxRounds = 50;
+        int rounds = 0;
 
-            if ("number".equals(type)) {
-                StringBuilder cond = new StringBuilder();
-                if (c.minValue() != null) {
-                    cond.append(field).append(" >= ").append(c.minValue());
+        while (rounds < maxRounds && max.subtract(min).compareTo(tolerance) > 0) {
+            BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(k + 1L), scale + 2, RoundingMode.HALF_UP);
+            List<BigDecimal> candidates = new ArrayList<>();
+            for (int i = 1; i <= k; i++) {
+                BigDecimal candidate = min.add(step.multiply(BigDecimal.valueOf(i))).setScale(scale, RoundingMode.HALF_UP);
+                if (candidate.compareTo(min) > 0 && candidate.compareTo(max) < 0
+                        && (candidates.isEmpty() || candidate.compareTo(candidates.get(candidates.size() - 1)) > 0)) {
+                    candidates.add(candidate);
                 }
-                if (c.maxValue() != null) {
-                    if (cond.length() > 0) {
-                        cond.append(" AND ");
-                    }
-                    cond.append(field).append(" <= ").append(c.maxValue());
+            }
+            if (candidates.isEmpty()) {
+                break; // bracket narrower than the parameter scale
+            }
+
+            List<BigDecimal> costs = evaluateCandidates(costAt, candidates);
+
+            // Best-diff tracking over all candidates, strictly smaller diff wins (lowest candidate on ties)
+            for (int i = 0; i < candidates.size(); i++) {
+                BigDecimal diff = costs.get(i).subtract(targetCost).abs();
+                if (diff.compareTo(bestDiff) < 0) {
+                    bestDiff = diff;
+                    best = candidates.get(i);
                 }
-                if (cond.length() > 0) {
-                    parts.add(cond.toString());
+            }
+
+            // New bracket: last candidate below target .. first candidate at or above it
+            BigDecimal newMin = min;
+            BigDecimal newMax = max;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (costs.get(i).compareTo(targetCost) < 0) {
+                    newMin = candidates.get(i);
+                } else {
+                    newMax = candidates.get(i);
+                    break;
                 }
-            } else if (c.values() != null && !c.values().isEmpty()) {
-                parts.add(buildEqualsAnyCondition(field, c.values()));
             }
-        }
+            min = newMin;
+            max = newMax;
 
-        if (parts.isEmpty()) {
-            // All conditions were invalid/empty – no focus
-            return "0 = 1";
+            rounds++;
         }
 
-        return String.join(" AND ", parts);
+        return best;
     }
 
-    private String buildEqualsAnyCondition(String field, List<String> values) {
-        if (values == null || values.isEmpty()) {
-            // No specific values: treat everyone as focus
-            return "1 = 1";
+    /**
+     * Evaluate candidate parameters on the search pool; results are returned in candidate order.
+     */
+    private List<BigDecimal> evaluateCandidates(Function<BigDecimal, BigDecimal> costAt,
+                                                List<BigDecimal> candidates) {
+        if (candidates.size() == 1) {
+            return List.of(costAt.apply(candidates.get(0)));
+        }
+        List<Future<BigDecimal>> futures = new ArrayList<>();
+        for (BigDecimal candidate : candidates) {
+            futures.add(searchPool.submit(() -> {
+                try {
+                    return costAt.apply(candidate);
+                } finally {
+                    Functions.clearTbl();
+                }
+            }));
         }
-        return values.stream()
-            .filter(v -> v != null && !v.isBlank())
-            .map(v -> field + " = \"" + v.replace("\"", "\\\"") + "\"")
-            .collect(Collectors.joining(" OR ", "(", ")"));
+        List<BigDecimal> costs = new ArrayList<>();
+        try {
+            for (Future<BigDecimal> future : futures) {
+                costs.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Optimizer search interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Optimizer candidate evaluation failed", cause);
+        }
+        return costs;
     }
 
     /**
-     * Create a TableService wrapper that applies an increase factor to table values.
-     * Only affects rows effective from the given date onward.
+     * Analytic solve for a budget target when total cost responds (piecewise-)linearly to the
+     * strategy parameter, which holds for raises, flat new components and table factors.
+     *
+     * The cost at the lower bound is the baseline (parameter 0 leaves payroll unchanged), so one
+     * probe gives the slope and the budget can be solved for directly. The prediction is verified
+     * with a real evaluation and refined with up to two secant steps for piecewise responses
+     * (e.g. MIN/MAX caps or bracket tables). If it still misses, the probes are returned as a
+     * narrowed bracket plus best-so-far so the binary search can continue from there.
+     *
+     * @param costAt evaluates total payroll cost for a parameter value
+     * @param scale scale the candidate parameter is rounded to (same as the search midpoints)
+     * @param tolerance parameter tolerance of the search; its cost-equivalent is the acceptance band
+     * @param initialDiff starting best diff (same as the binary search)
      */
-    private TableService createModifiedTableService(String tenantId, String componentTarget, 
-                                                   String tableName, LocalDate effectiveFrom, 
-                                                   BigDecimal increaseFactor) {
-        // Load table definition to get column order
-        String columnsJson = jdbc.query("""
-            SELECT columns_json
-              FROM comp_table
-             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-            """,
-            Map.of("t", tenantId, "c", componentTarget, "n", tableName),
-            rs -> rs.next() ? rs.getString(1) : null);
-        
-        if (columnsJson == null) {
-            throw new IllegalArgumentException("Table '" + tableName + "' not found for component '" + componentTarget + "'");
+    private AnalyticSolve solveAnalytically(Function<BigDecimal, BigDecimal> costAt,
+                                            BigDecimal baselineCost, BigDecimal targetCost,
+                                            BigDecimal lower, BigDecimal upper, int scale,
+                                            BigDecimal tolerance, BigDecimal initialDiff) {
+        BigDecimal best = lower;
+        BigDecimal bestDiff = initialDiff;
+
+        // Budget not above baseline: nothing to distribute
+        if (targetCost.compareTo(baselineCost) <= 0) {
+            return new AnalyticSolve(lower, lower, upper, best, bestDiff);
         }
-        
-        // Parse column order
-        List<String> columnOrder = parseColumnOrder(columnsJson);
-        
-        // Load all rows for this table
-        List<TableRow> allRows = jdbc.query("""
-            SELECT effective_from, effective_to, keys_json, value
-              FROM comp_table_row
-             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-             ORDER BY effective_from, keys_json
-            """,
-            Map.of("t", tenantId, "c", componentTarget, "n", tableName),
-            (rs, i) -> new TableRow(
-                rs.getDate("effective_from").toLocalDate(),
-                rs.getDate("effective_to").toLocalDate(),
-                rs.getString("keys_json"),
-                rs.getBigDecimal("value")
-            ));
-        
-        // Build a modified row list: split rows that start before effectiveFrom
-        // For rows with effective_from < effectiveFrom but effective on effectiveFrom:
-        // - Keep original row but truncate effective_to to (effectiveFrom - 1 day)
-        // - Add new row starting from effectiveFrom with increased value
-        List<TableRow> modifiedRows = new ArrayList<>();
-        for (TableRow row : allRows) {
-            // Check if this row is effective on the target date
-            if (effectiveFrom.compareTo(row.effectiveFrom()) >= 0 && 
-                effectiveFrom.compareTo(row.effectiveTo()) <= 0) {
-                // This row is effective on the target date
-                if (row.effectiveFrom().compareTo(effectiveFrom) < 0) {
-                    // Row starts before target date - need to split it
-                    // 1. Keep original row but end it the day before target date
-                    modifiedRows.add(new TableRow(
-                        row.effectiveFrom(),
-                        effectiveFrom.minusDays(1),
-                        row.keysJson(),
-                        row.value() // Original value for period before target date
-                    ));
-                    // 2. Add new row starting from target date with increased value
-                    modifiedRows.add(new TableRow(
-                        effectiveFrom,
-                        row.effectiveTo(),
-                        row.keysJson(),
-                        row.value().multiply(BigDecimal.ONE.add(increaseFactor)) // Increased value
-                    ));
-                } else {
-                    // Row starts on or after target date - just increase the value
-                    modifiedRows.add(new TableRow(
-                        row.effectiveFrom(),
-                        row.effectiveTo(),
-                        row.keysJson(),
-                        row.value().multiply(BigDecimal.ONE.add(increaseFactor)) // Increased value
-                    ));
-                }
+
+        BigDecimal prevParam = lower;
+        BigDecimal prevCost = baselineCost;
+        // First probe a quarter into the range: typical budgets land well below the upper bound
+        BigDecimal param = lower.add(upper.subtract(lower).divide(BigDecimal.valueOf(4), scale, RoundingMode.HALF_UP));
+
+        int maxProbes = 4; // slope probe + prediction + two secant refinements
+        for (int probe = 0; probe < maxProbes; probe++) {
+            BigDecimal cost = costAt.apply(param);
+            BigDecimal diff = cost.subtract(targetCost).abs();
+            if (diff.compareTo(bestDiff) < 0) {
+                bestDiff = diff;
+                best = param;
+            }
+            // Narrow the bracket exactly as the binary search would
+            if (cost.compareTo(targetCost) < 0) {
+                lower = lower.max(param);
             } else {
-                // Row is not effective on target date - keep as-is
-                modifiedRows.add(row);
+                upper = upper.min(param);
             }
-        }
-        
-        // Return a wrapper TableService that uses modified rows
-        return new TableService() {
-            @Override
-            public BigDecimal lookup(String tId, String cTarget, String tName,
-                                   List<Object> keys, LocalDate onDate) {
-                // Only modify if this is the target table
-                if (tName.equals(tableName) && cTarget.equals(componentTarget)) {
-                    // Search in modified rows
-                    for (TableRow row : modifiedRows) {
-                        // Check if date is in range
-                        if (onDate.compareTo(row.effectiveFrom()) >= 0 && 
-                            onDate.compareTo(row.effectiveTo()) <= 0) {
-                            // Check if keys match
-                            if (matchesKeys(columnOrder, keys, row.keysJson())) {
-                                return row.value();
-                            }
-                        }
-                    }
-                    // No match found in modified rows - delegate to base service
-                    return tableServiceDb.lookup(tId, cTarget, tName, keys, onDate);
-                } else {
-                    // Delegate to base service for other tables
-                    return tableServiceDb.lookup(tId, cTarget, tName, keys, onDate);
-                }
+
+            BigDecimal paramDelta = param.subtract(prevParam);
+            BigDecimal costDelta = cost.subtract(prevCost);
+            if (costDelta.signum() * paramDelta.signum() <= 0) {
+                // Flat or non-monotone response: the linear model does not apply
+                break;
             }
-        };
+            BigDecimal slope = costDelta.divide(paramDelta, java.math.MathContext.DECIMAL64);
+
+            // Accept once the cost is within the budget-equivalent of the search tolerance
+            BigDecimal acceptBand = slope.multiply(tolerance).max(BigDecimal.valueOf(0.01));
+            if (diff.compareTo(acceptBand) <= 0) {
+                return new AnalyticSolve(param, lower, upper, best, bestDiff);
+            }
+
+            BigDecimal next = param.add(targetCost.subtract(cost).divide(slope, scale, RoundingMode.HALF_UP));
+            if (next.compareTo(lower) < 0 || next.compareTo(upper) > 0 || next.compareTo(param) == 0) {
+                break;
+            }
+            prevParam = param;
+            prevCost = cost;
+            param = next;
+        }
+
+        return new AnalyticSolve(null, lower, upper, best, bestDiff);
     }
-    
+
     /**
-     * Parse column order from JSON.
+     * Apply segmented raise plan to a ruleset in-memory.
+     * Focus group gets basePercent * weight, others get basePercent; each employee is evaluated with
+     * the ruleset of their side of the focus membership.
      */
-    private List<String> parseColumnOrder(String columnsJson) {
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            var arr = mapper.readTree(columnsJson);
-            List<String> names = new ArrayList<>();
-            arr.forEach(n -> names.add(n.get("name").asText()));
-            return names;
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Bad columns_json", e);
-        }
+    private SegmentedPlan applySegmentedRaisePlan(RuleSet originalRuleset,
+                                                  String targetComponent,
+                                                  BigDecimal basePercent,
+                                                  FocusDefinition focus,
+                                                  FocusMembership membership) {
+        BigDecimal weight = focus.weight() != null ? focus.weight() : BigDecimal.ONE;
+        return new SegmentedPlan(
+            applyRaisePlan(originalRuleset, targetComponent, basePercent),
+            applyRaisePlan(originalRuleset, targetComponent, basePercent.multiply(weight)),
+            membership
+        );
     }
-    
+
     /**
-     * Check if keys match a row's keys_json.
+     * Focus membership of the baseline population as a bitset over the employee list. The predicate
+     * is pushed down to the employee table when it can be expressed in SQL; otherwise (or if the
+     * query fails) it is evaluated once per employee against the baseline contexts.
      */
-    private boolean matchesKeys(List<String> columnOrder, List<Object> lookupKeys, String keysJson) {
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            var node = mapper.readTree(keysJson);
-            
-            if (columnOrder.size() != lookupKeys.size()) {
-                return false;
-            }
-            
-            for (int i = 0; i < columnOrder.size(); i++) {
-                String col = columnOrder.get(i);
-                Object val = lookupKeys.get(i);
-                var keyNode = node.get(col);
-                if (keyNode == null) return false;
-
-                // Check if this is a range object (has min or max property)
-                if (keyNode.isObject() && (keyNode.has("min") || keyNode.has("max")) && val instanceof Number num) {
-                    double v = num.doubleValue();
-                    boolean matches = true;
-                    
-                    // Check min bound (if present) - inclusive: v >= min
-                    if (keyNode.has("min") && !keyNode.get("min").isNull()) {
-                        double min = keyNode.get("min").asDouble();
-                        if (v < min) {
-                            matches = false;
-                        }
-                    }
-                    
-                    // Check max bound (if present) - exclusive: v < max
-                    if (matches && keyNode.has("max") && !keyNode.get("max").isNull()) {
-                        double max = keyNode.get("max").asDouble();
-                        if (v >= max) {
-                            matches = false;
-                        }
-                    }
-                    
-                    if (!matches) return false;
-                } else {
-                    // Exact match for non-range values
-                    String s = String.valueOf(val);
-                    if (!Objects.equals(keyNode.asText(), s)) return false;
+    private FocusMembership resolveFocusMembership(PopulationPass baseline, FocusPredicate predicate) {
+        List<EmployeeService.EmployeeDto> employees = baseline.employees();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < employees.size(); i++) {
+            index.put(employees.get(i).employeeId(), i);
+        }
+        BitSet members = new BitSet(employees.size());
+        if (predicate.matchesNobody() || employees.isEmpty()) {
+            return new FocusMembership(index, members);
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        Optional<String> filter = predicate.toSql(params);
+        if (filter.isPresent()) {
+            params.put("tenantId", employees.get(0).tenantId());
+            String sql = """
+                SELECT employee_id
+                FROM employee
+                WHERE tenant_id = :tenantId
+                  AND (%s)
+                """.formatted(filter.get());
+            try {
+                for (String employeeId : jdbc.queryForList(sql, params, String.class)) {
+                    Integer i = index.get(employeeId);
+                    if (i != null) members.set(i);
                 }
+                return new FocusMembership(index, members);
+            } catch (Exception e) {
+                System.err.println("Focus filter pushdown failed, evaluating in memory: " + e.getMessage());
+                members.clear();
+            }
+        }
+
+        for (int i = 0; i < employees.size(); i++) {
+            EvalContext ctx = baseline.contexts().get(employees.get(i).employeeId());
+            if (ctx != null && predicate.test(ctx.inputs())) {
+                members.set(i);
             }
-            return true;
-        } catch (Exception e) {
-            return false;
         }
+        return new FocusMembership(index, members);
     }
 
     /**
@@ -946,20 +1113,6 @@ public class OptimizerService {
         return tableNames;
     }
 
-    private Map<String, Integer> getGroupOrdering() {
-        Map<String, Integer> ordering = new HashMap<>();
-        for (ComponentGroupsService.GroupDto group : componentGroupsService.getAllGroups()) {
-            ordering.put(group.groupName().toLowerCase(), group.displayOrder());
-        }
-        return ordering;
-    }
-    
-    private EvalContext addGroupOrdering(EvalContext ctx, Map<String, Integer> groupOrdering) {
-        Map<String, Object> inputs = new HashMap<>(ctx.inputs());
-        inputs.put("_groupOrdering", groupOrdering);
-        return new EvalContext(inputs, ctx.periodDate());
-    }
-
     // DTOs
     public record PayrollSummary(
         BigDecimal totalCost,
@@ -989,10 +1142,55 @@ public class OptimizerService {
         PayrollSummary baseline,
         PayrollSummary optimized,
         LocalDate asOfDate,
-        Date calculatedAt
+        Date calculatedAt,
+        SamplingReport sampling       // null unless the sampling pre-search ran
+    ) {}
+
+    /**
+     * Sampling pre-search options (request "sampling" object).
+     */
+    public record SamplingOptions(
+        Integer sampleSize,            // employees in the stratified sample (default 1000)
+        BigDecimal finalTolerance,     // parameter tolerance of the full-population refinement
+        List<String> strataFields      // input fields to stratify by (default Department)
+    ) {}
+
+    /**
+     * How the sampled estimate compared to the exact full-population result.
+     */
+    public record SamplingReport(
+        int sampleSize,
+        int populationSize,
+        int strata,
+        BigDecimal sampleParameter,        // optimum found on the sample
+        BigDecimal sampleEstimatedCost,    // sample-scaled total cost at sampleParameter
+        BigDecimal exactCost,              // full-population total cost at sampleParameter
+        BigDecimal estimateDifference,     // sampleEstimatedCost - exactCost
+        BigDecimal estimateDifferencePercent,
+        BigDecimal finalParameter          // optimum after full-population refinement
     ) {}
     
-    private record TableRow(LocalDate effectiveFrom, LocalDate effectiveTo, String keysJson, BigDecimal value) {}
+    /**
+     * One evaluation pass over the population. The baseline pass keeps employees, contexts and
+     * per-employee results so optimizer iterations can re-evaluate incrementally.
+     */
+    private record PopulationPass(
+        List<EmployeeService.EmployeeDto> employees,
+        Map<String, EvalContext> contexts,
+        Map<String, EvaluationResult> results,
+        Map<String, BigDecimal> weights,   // per-employee scale-up for sample passes, null for full passes
+        PayrollSummary summary
+    ) {}
+
+    /**
+     * Stratified sample used by the sampling pre-search.
+     */
+    private record SamplingPlan(PopulationPass sample, SamplingOptions options, int strata) {}
+
+    /**
+     * Solved strategy parameter plus the sampling report when the pre-search ran.
+     */
+    private record BudgetSolve(BigDecimal parameter, SamplingReport sampling) {}
 
     /**
      * Definition of a focus group for segmented strategies.
@@ -1017,11 +1215,45 @@ public class OptimizerService {
         BigDecimal weight
     ) {}
 
+    /**
+     * Outcome of the analytic solve: the accepted parameter (null when the fit missed) and
+     * the bracket / best-so-far the binary search fallback should continue from.
+     */
+    private record AnalyticSolve(
+        BigDecimal solution,
+        BigDecimal lower,
+        BigDecimal upper,
+        BigDecimal best,
+        BigDecimal bestDiff
+    ) {}
+
     /**
      * Result of segmented raise search: base (others) and focus percentages.
      */
     private record SegmentedRaiseResult(
         BigDecimal basePercent,
-        BigDecimal focusPercent
+        BigDecimal focusPercent,
+        SamplingReport sampling,
+        FocusMembership membership
     ) {}
+
+    /**
+     * Focus membership by employee: bit i is set when the i-th baseline employee is in focus.
+     */
+    private record FocusMembership(Map<String, Integer> index, BitSet members) {
+        boolean contains(String employeeId) {
+            Integer i = index.get(employeeId);
+            return i != null && members.get(i);
+        }
+    }
+
+    /**
+     * Rulesets of a pass: {@code others} for everyone, or {@code focus} for members when segmented.
+     * Both share the same structure, so the downstream closure computed from {@code others} holds.
+     */
+    private record SegmentedPlan(RuleSet others, RuleSet focus, FocusMembership membership) {
+        RuleSet rulesetFor(String employeeId) {
+            return membership != null && membership.contains(employeeId) ? focus : others;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.ComponentResult;
+import com.atlas.engine.model.EvaluationResult;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Aggregators fed by a single evaluation pass over the population (see BaselineService#aggregate).
+ * Each employee is evaluated once and its result is handed to every aggregator of the pass, so the
+ * summary, breakdown and per-employee views can be built together.
+ */
+public final class PayrollAggregators {
+    private PayrollAggregators() {}
+
+    public interface Aggregator {
+        /**
+         * One evaluated employee.
+         *
+         * @param components component amounts at scale 2, alphabetical order
+         * @param employeeTotal sum of {@code components} at scale 2
+         */
+        void accept(EmployeeService.EmployeeDto employee, EvaluationResult result,
+                    Map<String, BigDecimal> components, BigDecimal employeeTotal);
+
+        /**
+         * Evaluation failed for this employee (already logged by the pass).
+         */
+        default void failed(EmployeeService.EmployeeDto employee, Exception e) {}
+    }
+
+    /**
+     * Grand total (scale 2) plus evaluated/failed counts.
+     */
+    public static final class Totals implements Aggregator {
+        private BigDecimal total = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        private int evaluated;
+        private int failed;
+
+        @Override
+        public void accept(EmployeeService.EmployeeDto employee, EvaluationResult result,
+                           Map<String, BigDecimal> components, BigDecimal employeeTotal) {
+            // Normalize to scale 2 after each addition
+            total = total.add(employeeTotal).setScale(2, RoundingMode.HALF_UP);
+            evaluated++;
+        }
+
+        @Override
+        public void failed(EmployeeService.EmployeeDto employee, Exception e) {
+            failed++;
+        }
+
+        public BigDecimal total() { return total; }
+        public int evaluated() { return evaluated; }
+        public int failed() { return failed; }
+    }
+
+    /**
+     * Per-component totals (scale 2), in first-seen alphabetical order.
+     */
+    public static final class ComponentTotals implements Aggregator {
+        private final Map<String, BigDecimal> totals = new LinkedHashMap<>();
+
+        @Override
+        public void accept(EmployeeService.EmployeeDto employee, EvaluationResult result,
+                           Map<String, BigDecimal> components, BigDecimal employeeTotal) {
+            components.forEach((component, amount) ->
+                totals.merge(component, amount, (a, b) -> a.add(b).setScale(2, RoundingMode.HALF_UP)));
+        }
+
+        public Map<String, BigDecimal> totals() { return totals; }
+    }
+
+    /**
+     * Per-group totals keyed by group display name. All known groups are present in display order
+     * (zero when unused); components of unknown groups are added under the group name as-is.
+     * Uses the unrounded component amounts.
+     */
+    public static final class GroupTotals implements Aggregator {
+        private final Map<String, String> componentToGroup;
+        private final Map<String, String> groupNameToDisplayName = new LinkedHashMap<>();
+        private final Map<String, BigDecimal> totals = new LinkedHashMap<>();
+
+        /**
+         * @param componentToGroup component name -> lowercase group name ("core" when unset)
+         */
+        public GroupTotals(List<ComponentGroupsService.GroupDto> groups, Map<String, String> componentToGroup) {
+            this.componentToGroup = componentToGroup;
+            for (ComponentGroupsService.GroupDto group : groups) {
+                groupNameToDisplayName.put(group.groupName(), group.displayName());
+            }
+            groups.stream()
+                .sorted(Comparator.comparingInt(ComponentGroupsService.GroupDto::displayOrder))
+                .forEach(group -> totals.put(group.displayName(), BigDecimal.ZERO));
+        }
+
+        @Override
+        public void accept(EmployeeService.EmployeeDto employee, EvaluationResult result,
+                           Map<String, BigDecimal> components, BigDecimal employeeTotal) {
+            for (String component : components.keySet()) {
+                ComponentResult value = result.components().get(component);
+                String groupName = componentToGroup.getOrDefault(component, "core");
+                String displayName = groupNameToDisplayName.getOrDefault(groupName, groupName);
+                totals.merge(displayName, value.amount(), BigDecimal::add);
+            }
+        }
+
+        public Map<String, BigDecimal> totals() { return totals; }
+    }
+
+    /**
+     * One row per employee in pass order; failed employees get a zero row.
+     */
+    public static final class EmployeeRows implements Aggregator {
+        private final List<BaselineService.EmployeeSimulationResult> rows = new ArrayList<>();
+
+        @Override
+        public void accept(EmployeeService.EmployeeDto employee, EvaluationResult result,
+                           Map<String, BigDecimal> components, BigDecimal employeeTotal) {
+            rows.add(new BaselineService.EmployeeSimulationResult(
+                employee.employeeId(), employee.name(), employeeTotal, components));
+        }
+
+        @Override
+        public void failed(EmployeeService.EmployeeDto employee, Exception e) {
+            rows.add(new BaselineService.EmployeeSimulationResult(
+                employee.employeeId(), employee.name(), BigDecimal.ZERO, new LinkedHashMap<>()));
+        }
+
+        public List<BaselineService.EmployeeSimulationResult> rows() { return rows; }
+    }
+}
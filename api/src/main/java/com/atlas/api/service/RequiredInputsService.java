@@ -1,5 +1,6 @@
 package com.atlas.api.service;
 
+import com.atlas.api.tables.TableDataVersion;
 import com.atlas.engine.model.Rule;
 import com.atlas.engine.model.RuleSet;
 import com.atlas.engine.model.RuleExpression;
@@ -13,14 +14,42 @@ import java.util.regex.Pattern;
 /**
  * Service to extract required input parameters from a ruleset.
  * Required inputs are variables referenced in expressions that are not calculated by any rule.
+ *
+ * Metadata answers are cached per (tenant, ruleset version, table-data version, date window). The ruleset
+ * version is the stored content_version when the ruleset was loaded from the database, else a fingerprint.
+ * The date window is the span around the requested date in which no rule and no table row starts or
+ * ends, so any date inside it gives the same answer. Table columns and keys come from an in-memory copy
+ * of the tenant's tables (most recently used tenants only), reloaded when the table-data version changes
+ * (see TableDataVersion); the copy keeps its rows' boundary dates sorted, so a cache hit does not scan rows.
  */
 @Service
 public class RequiredInputsService {
+    private static final int MAX_CACHED_ANSWERS = 256;
+    private static final int MAX_CACHED_TENANTS = 32;
+    // effective_to of open-ended table rows (the import default)
+    private static final LocalDate OPEN_ENDED = LocalDate.of(9999, 12, 31);
+
     private final NamedParameterJdbcTemplate jdbc;
+    private final TableDataVersion tableDataVersion;
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
+    private final Map<String, TenantTables> tenantTables = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TenantTables> eldest) {
+                return size() > MAX_CACHED_TENANTS;
+            }
+        });
+    private final Map<MetadataKey, Map<String, InputMetadata>> metadataCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MetadataKey, Map<String, InputMetadata>> eldest) {
+                return size() > MAX_CACHED_ANSWERS;
+            }
+        });
 
-    public RequiredInputsService(NamedParameterJdbcTemplate jdbc) {
+    public RequiredInputsService(NamedParameterJdbcTemplate jdbc, TableDataVersion tableDataVersion) {
         this.jdbc = jdbc;
+        this.tableDataVersion = tableDataVersion;
     }
 
     /**
@@ -142,6 +171,24 @@ public class RequiredInputsService {
      * @return Map of input name to metadata
      */
     public Map<String, InputMetadata> getRequiredInputsWithMetadata(RuleSet ruleset, LocalDate onDate, String tenantId) {
+        TenantTables tables = tables(tenantId);
+        LocalDate[] window = dateWindow(ruleset, tables, onDate);
+        MetadataKey key = new MetadataKey(tenantId, rulesetVersion(ruleset), tables.version(), window[0], window[1]);
+        Map<String, InputMetadata> cached = metadataCache.get(key);
+        if (cached == null) {
+            cached = Collections.unmodifiableMap(computeRequiredInputsWithMetadata(ruleset, onDate, tables));
+            metadataCache.put(key, cached);
+        }
+        return new LinkedHashMap<>(cached);
+    }
+
+    private static String rulesetVersion(RuleSet ruleset) {
+        return ruleset.getContentVersion() != null
+            ? ruleset.getId() + "@" + ruleset.getContentVersion()
+            : RulesetFingerprint.of(ruleset);
+    }
+
+    private Map<String, InputMetadata> computeRequiredInputsWithMetadata(RuleSet ruleset, LocalDate onDate, TenantTables tables) {
         Set<String> inputs = getRequiredInputs(ruleset, onDate);
         // Always require WorkPercent as a numeric input (0-100)
         inputs.add("WorkPercent");
@@ -151,7 +198,7 @@ public class RequiredInputsService {
         for (String input : inputs) {
             try {
                 // Infer type and default value by analyzing how the component is used in expressions
-                InputMetadata metadata = inferMetadata(input, activeRules, tenantId, onDate);
+                InputMetadata metadata = inferMetadata(input, activeRules, tables, onDate);
                 result.put(input, metadata);
             } catch (Exception e) {
                 // If metadata inference fails, use default number type
@@ -168,7 +215,7 @@ public class RequiredInputsService {
      * Infer metadata for an input parameter by analyzing its usage in expressions.
      * This is dynamic - it looks at how the component is actually used in rules and queries tables if needed.
      */
-    private InputMetadata inferMetadata(String inputName, Map<String, Rule> activeRules, String tenantId, LocalDate onDate) {
+    private InputMetadata inferMetadata(String inputName, Map<String, Rule> activeRules, TenantTables tables, LocalDate onDate) {
         String label = formatLabel(inputName);
         String type = "number";
         Object defaultValue = 0;
@@ -266,7 +313,7 @@ public class RequiredInputsService {
         boolean isNumericFromTbl = false;
         if (usedInTbl && tblTableName != null && tblComponentTarget != null && tblParamIndex >= 0) {
             try {
-                TableColumnInfo columnInfo = getTableColumnInfo(tenantId, tblComponentTarget, tblTableName, tblParamIndex);
+                TableColumnInfo columnInfo = getTableColumnInfo(tables, tblComponentTarget, tblTableName, tblParamIndex);
                 if (columnInfo != null) {
                     if ("number".equalsIgnoreCase(columnInfo.type()) || columnInfo.isRange()) {
                         // Column is numeric or uses ranges - treat as number input
@@ -282,12 +329,12 @@ public class RequiredInputsService {
                         // First, collect column names from TBL usages
                         for (TblUsageInfo usage : tblUsages) {
                             try {
-                                TableColumnInfo usageColumnInfo = getTableColumnInfo(tenantId, usage.componentTarget, usage.tableName, usage.paramIndex);
+                                TableColumnInfo usageColumnInfo = getTableColumnInfo(tables, usage.componentTarget, usage.tableName, usage.paramIndex);
                                 if (usageColumnInfo != null) {
                                     // Only get values if it's a string column (not number, not range)
                                     if (!"number".equalsIgnoreCase(usageColumnInfo.type()) && !usageColumnInfo.isRange()) {
                                         columnNamesToSearch.add(usageColumnInfo.name());
-                                        Set<String> tableValues = getDistinctTableValues(tenantId, usage.componentTarget, usage.tableName, usage.paramIndex, onDate);
+                                        Set<String> tableValues = getDistinctTableValues(tables, usage.componentTarget, usage.tableName, usage.paramIndex, onDate);
                                         if (tableValues != null && !tableValues.isEmpty()) {
                                             allTableValues.addAll(tableValues);
                                         }
@@ -309,7 +356,7 @@ public class RequiredInputsService {
                         // Also search for ALL tables that have a column matching the input name (case-insensitive)
                         // This finds tables even if they're not explicitly used in TBL calls, or if column name differs
                         if (inputName != null) {
-                            Set<String> allValuesFromAllTables = getAllValuesFromAllTablesWithColumn(tenantId, inputName, onDate);
+                            Set<String> allValuesFromAllTables = getAllValuesFromAllTablesWithColumn(tables, inputName, onDate);
                             allTableValues.addAll(allValuesFromAllTables);
                         }
                         
@@ -576,211 +623,165 @@ public class RequiredInputsService {
     /**
      * Get table column information (name, type, whether it uses ranges).
      */
-    private TableColumnInfo getTableColumnInfo(String tenantId, String componentTarget, String tableName, int paramIndex) {
-        try {
-            // Get table column definition
-            String columnsJson = jdbc.query("""
-                SELECT columns_json
-                  FROM comp_table
-                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-                """,
-                Map.of("t", tenantId, "c", componentTarget, "n", tableName),
-                rs -> rs.next() ? rs.getString(1) : null);
-            
-            if (columnsJson == null) {
-                return null;
-            }
-            
-            // Parse column order and types
-            var arr = mapper.readTree(columnsJson);
-            List<com.fasterxml.jackson.databind.JsonNode> cols = new ArrayList<>();
-            arr.forEach(cols::add);
-            
-            if (paramIndex >= cols.size()) {
-                return null;
-            }
-            
-            var colNode = cols.get(paramIndex);
-            String columnName = colNode.get("name").asText();
-            String columnType = colNode.has("type") ? colNode.get("type").asText() : "string";
-            
-            // Check if any table rows use min/max for this column (indicating it's a range)
-            boolean isRange = checkIfColumnUsesRanges(tenantId, componentTarget, tableName, columnName);
-            
-            return new TableColumnInfo(columnName, columnType, isRange);
-        } catch (Exception e) {
+    private TableColumnInfo getTableColumnInfo(TenantTables tables, String componentTarget, String tableName, int paramIndex) {
+        TableDef table = tables.tables().get(new TableKey(componentTarget, tableName));
+        if (table == null || paramIndex < 0 || paramIndex >= table.columns().size()) {
             return null;
         }
+        TableColumn column = table.columns().get(paramIndex);
+        // Check if any table rows use min/max for this column (indicating it's a range)
+        boolean isRange = checkIfColumnUsesRanges(table, column.name());
+        return new TableColumnInfo(column.name(), column.type(), isRange);
     }
     
     /**
      * Check if a table column uses min/max ranges (numeric ranges) instead of exact string values.
      */
-    private boolean checkIfColumnUsesRanges(String tenantId, String componentTarget, String tableName, String columnName) {
-        try {
-            String escapedColumnName = columnName.replace("'", "''");
-            // Check if any row has this column as an object with min/max properties
-            // Also check if ALL rows use ranges (more reliable indicator)
-            String sql = String.format("""
-                SELECT 
-                    COUNT(*) FILTER (WHERE keys_json->'%s' IS NOT NULL 
-                                      AND jsonb_typeof(keys_json->'%s') = 'object'
-                                      AND keys_json->'%s' ? 'min'
-                                      AND keys_json->'%s' ? 'max') AS range_count,
-                    COUNT(*) FILTER (WHERE keys_json->'%s' IS NOT NULL) AS total_count
-                  FROM comp_table_row
-                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-            """, escapedColumnName, escapedColumnName, escapedColumnName, escapedColumnName, escapedColumnName);
-            
-            var result = jdbc.query(sql,
-                Map.of("t", tenantId, "c", componentTarget, "n", tableName),
-                rs -> {
-                    if (rs.next()) {
-                        long rangeCount = rs.getLong("range_count");
-                        long totalCount = rs.getLong("total_count");
-                        // If any row uses ranges, consider it a range column
-                        return rangeCount > 0;
-                    }
-                    return false;
-                });
-            
-            return Boolean.TRUE.equals(result);
-        } catch (Exception e) {
-            // On error, return false (assume not a range)
-            return false;
+    private boolean checkIfColumnUsesRanges(TableDef table, String columnName) {
+        // If any row uses ranges, consider it a range column
+        for (TableRow row : table.rows()) {
+            var key = row.keys().get(columnName);
+            if (key != null && key.isObject() && key.has("min") && key.has("max")) {
+                return true;
+            }
         }
+        return false;
     }
     
     /**
      * Get distinct values from a table column for a given parameter index.
      * This is used when a component is used in a TBL function call and the column is a string type.
      */
-    private Set<String> getDistinctTableValues(String tenantId, String componentTarget, String tableName, 
+    private Set<String> getDistinctTableValues(TenantTables tables, String componentTarget, String tableName,
                                                 int paramIndex, LocalDate onDate) {
-        try {
-            TableColumnInfo columnInfo = getTableColumnInfo(tenantId, componentTarget, tableName, paramIndex);
-            if (columnInfo == null) {
-                return Set.of();
-            }
-            
-            String columnName = columnInfo.name();
-            
-            // Get all distinct values for this column from table rows
-            // Use JSON extraction: keys_json->>'columnName' for text extraction
-            // Note: We need to escape the column name for SQL injection safety
-            String escapedColumnName = columnName.replace("'", "''");
-            String sql = String.format("""
-                SELECT DISTINCT keys_json->>'%s' AS value
-                  FROM comp_table_row
-                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-                   AND effective_from <= :d AND :d <= effective_to
-                   AND keys_json->>'%s' IS NOT NULL
-                """, escapedColumnName, escapedColumnName);
-            
-            List<String> distinctValues = jdbc.query(sql,
-                Map.of("t", tenantId, "c", componentTarget, "n", tableName, "d", onDate),
-                (rs, i) -> rs.getString("value"));
-            
-            Set<String> result = new HashSet<>();
-            for (String val : distinctValues) {
-                if (val != null && !val.isEmpty()) {
-                    result.add(val);
-                }
-            }
-            // Also add empty string as an option
-            result.add("");
-            
-            return result;
-        } catch (Exception e) {
-            // Return empty set on any error
+        TableColumnInfo columnInfo = getTableColumnInfo(tables, componentTarget, tableName, paramIndex);
+        if (columnInfo == null) {
             return Set.of();
         }
+        Set<String> result = new HashSet<>();
+        collectValues(tables.tables().get(new TableKey(componentTarget, tableName)), columnInfo.name(), onDate, result);
+        // Also add empty string as an option
+        result.add("");
+        return result;
     }
     
     /**
      * Get all distinct values from ALL tables that have a column matching the given name (case-insensitive).
      * This is used to find values from tables even if they're not explicitly referenced in TBL calls.
      */
-    private Set<String> getAllValuesFromAllTablesWithColumn(String tenantId, String columnName, LocalDate onDate) {
+    private Set<String> getAllValuesFromAllTablesWithColumn(TenantTables tables, String columnName, LocalDate onDate) {
         Set<String> allValues = new HashSet<>();
-        try {
-            // First, find all tables that have a column with this name (case-insensitive)
-            // We need to parse the columns_json to find matching column names
-            String sql = """
-                SELECT component_target, table_name, columns_json
-                  FROM comp_table
-                 WHERE tenant_id=:t
-                """;
-            
-            List<Map<String, String>> matchingTables = jdbc.query(sql,
-                Map.of("t", tenantId),
-                (rs, i) -> {
-                    try {
-                        String columnsJson = rs.getString("columns_json");
-                        if (columnsJson == null) return null;
-                        
-                        var arr = mapper.readTree(columnsJson);
-                        // Check if any column name matches (case-insensitive)
-                        for (var colNode : arr) {
-                            String colName = colNode.get("name").asText();
-                            if (colName.equalsIgnoreCase(columnName)) {
-                                // Found a matching column - return table info
-                                return Map.of(
-                                    "component", rs.getString("component_target"),
-                                    "table", rs.getString("table_name"),
-                                    "column", colName
-                                );
-                            }
-                        }
-                        return null;
-                    } catch (Exception e) {
-                        return null;
-                    }
-                });
-            
-            // Now get distinct values from all matching tables
-            for (Map<String, String> tableInfo : matchingTables) {
-                if (tableInfo == null) continue;
-                
-                String component = tableInfo.get("component");
-                String table = tableInfo.get("table");
-                String col = tableInfo.get("column");
-                
-                try {
-                    String escapedColumnName = col.replace("'", "''");
-                    String valueSql = String.format("""
-                        SELECT DISTINCT keys_json->>'%s' AS value
-                          FROM comp_table_row
-                         WHERE tenant_id=:t AND component_target=:c AND table_name=:n
-                           AND effective_from <= :d AND :d <= effective_to
-                           AND keys_json->>'%s' IS NOT NULL
-                        """, escapedColumnName, escapedColumnName);
-                    
-                    List<String> values = jdbc.query(valueSql,
-                        Map.of("t", tenantId, "c", component, "n", table, "d", onDate),
-                        (rs, i) -> rs.getString("value"));
-                    
-                    for (String val : values) {
-                        if (val != null && !val.isEmpty()) {
-                            allValues.add(val);
-                        }
-                    }
-                } catch (Exception e) {
-                    // Skip this table if there's an error
-                    System.err.println("Error getting values from table " + table + " component " + component + " column " + col + ": " + e.getMessage());
+        for (TableDef table : tables.tables().values()) {
+            for (TableColumn column : table.columns()) {
+                if (column.name().equalsIgnoreCase(columnName)) {
+                    // Found a matching column - collect its values
+                    collectValues(table, column.name(), onDate, allValues);
+                    break;
                 }
             }
-            
-            // Also add empty string as an option
-            allValues.add("");
-            
-        } catch (Exception e) {
-            System.err.println("Error searching for tables with column " + columnName + ": " + e.getMessage());
         }
-        
+        // Also add empty string as an option
+        allValues.add("");
         return allValues;
     }
-    
+
+    // Text of a key as keys_json->>'column' gives it, for rows effective on the date
+    private void collectValues(TableDef table, String columnName, LocalDate onDate, Set<String> into) {
+        for (TableRow row : table.rows()) {
+            if (onDate.isBefore(row.effectiveFrom()) || onDate.isAfter(row.effectiveTo())) continue;
+            var key = row.keys().get(columnName);
+            if (key == null || key.isNull()) continue;
+            String value = key.isValueNode() ? key.asText() : key.toString();
+            if (!value.isEmpty()) {
+                into.add(value);
+            }
+        }
+    }
+
+    /**
+     * The tenant's table definitions and rows, loaded once per table-data version.
+     */
+    private TenantTables tables(String tenantId) {
+        long version = tableDataVersion.current(tenantId);
+        TenantTables current = tenantTables.get(tenantId);
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        Map<TableKey, TableDef> tables = new HashMap<>();
+        jdbc.query("""
+            SELECT component_target, table_name, columns_json
+              FROM comp_table
+             WHERE tenant_id=:t
+            """, Map.of("t", tenantId), rs -> {
+            List<TableColumn> columns = new ArrayList<>();
+            try {
+                for (var colNode : mapper.readTree(rs.getString("columns_json"))) {
+                    columns.add(new TableColumn(colNode.get("name").asText(),
+                        colNode.has("type") ? colNode.get("type").asText() : "string"));
+                }
+            } catch (Exception e) {
+                System.err.println("Bad columns_json for table " + rs.getString("table_name") + ": " + e.getMessage());
+            }
+            tables.put(new TableKey(rs.getString("component_target"), rs.getString("table_name")),
+                new TableDef(List.copyOf(columns), new ArrayList<>()));
+        });
+        jdbc.query("""
+            SELECT component_target, table_name, effective_from, effective_to, keys_json
+              FROM comp_table_row
+             WHERE tenant_id=:t
+            """, Map.of("t", tenantId), rs -> {
+            TableDef table = tables.get(new TableKey(rs.getString("component_target"), rs.getString("table_name")));
+            if (table == null) return;
+            try {
+                table.rows().add(new TableRow(rs.getDate("effective_from").toLocalDate(),
+                    rs.getDate("effective_to").toLocalDate(), mapper.readTree(rs.getString("keys_json"))));
+            } catch (Exception e) {
+                // Skip rows with unreadable keys
+            }
+        });
+        // First day each row is (or stops being) effective, sorted for dateWindow
+        TreeSet<LocalDate> boundaries = new TreeSet<>();
+        for (TableDef table : tables.values()) {
+            for (TableRow row : table.rows()) {
+                boundaries.add(row.effectiveFrom());
+                if (!row.effectiveTo().equals(OPEN_ENDED)) {
+                    boundaries.add(row.effectiveTo().plusDays(1));
+                }
+            }
+        }
+        TenantTables loaded = new TenantTables(version, tables, boundaries.toArray(new LocalDate[0]));
+        tenantTables.put(tenantId, loaded);
+        return loaded;
+    }
+
+    /**
+     * [from, to) around {@code onDate} in which no active rule and no table row starts or ends.
+     */
+    private static LocalDate[] dateWindow(RuleSet ruleset, TenantTables tables, LocalDate onDate) {
+        LocalDate[] window = { LocalDate.MIN, LocalDate.MAX };
+        for (Rule rule : ruleset.getRules()) {
+            narrow(window, onDate, rule.getEffectiveFrom());
+            narrow(window, onDate, rule.getEffectiveTo() != null ? rule.getEffectiveTo().plusDays(1) : null);
+        }
+        // Nearest table boundaries on each side of the date
+        LocalDate[] boundaries = tables.boundaries();
+        int i = Arrays.binarySearch(boundaries, onDate);
+        int after = i >= 0 ? i + 1 : -i - 1;
+        if (after > 0) narrow(window, onDate, boundaries[after - 1]);
+        if (after < boundaries.length) narrow(window, onDate, boundaries[after]);
+        return window;
+    }
+
+    // A boundary is the first day something is (or stops being) effective
+    private static void narrow(LocalDate[] window, LocalDate onDate, LocalDate boundary) {
+        if (boundary == null) return;
+        if (!boundary.isAfter(onDate)) {
+            if (boundary.isAfter(window[0])) window[0] = boundary;
+        } else if (boundary.isBefore(window[1])) {
+            window[1] = boundary;
+        }
+    }
+
     /**
      * Format a CamelCase name into a readable label.
      * Example: "BaseSalary" -> "Base Salary"
@@ -789,6 +790,19 @@ public class RequiredInputsService {
         return camelCase.replaceAll("([a-z])([A-Z])", "$1 $2");
     }
     
+    private record MetadataKey(String tenantId, String rulesetVersion, long tableVersion,
+                               LocalDate windowFrom, LocalDate windowTo) {}
+
+    private record TenantTables(long version, Map<TableKey, TableDef> tables, LocalDate[] boundaries) {}
+
+    private record TableKey(String componentTarget, String tableName) {}
+
+    private record TableDef(List<TableColumn> columns, List<TableRow> rows) {}
+
+    private record TableColumn(String name, String type) {}
+
+    private record TableRow(LocalDate effectiveFrom, LocalDate effectiveTo, com.fasterxml.jackson.databind.JsonNode keys) {}
+
     /**
      * Table column information.
      */
@@ -0,0 +1,222 @@
+package com.atlas.api.service;
+
+import com.atlas.api.tables.TableDataVersion;
+import com.atlas.engine.eval.Evaluator;
+import com.atlas.engine.model.ComponentResult;
+import com.atlas.engine.model.EvalContext;
+import com.atlas.engine.model.EvaluationResult;
+import com.atlas.engine.model.RuleSet;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded memo of evaluation results in front of the evaluator.
+ *
+ * Key: (ruleset content version, tenant table-data version, local generation, employee input map, period date).
+ * The input map is part of the key as-is (equality, not just its hash), so a collision can never
+ * return another employee's result. The ruleset version covers the attached group ordering, so
+ * ordering changes miss.
+ *
+ * Each tenant has its own LRU partition with a memory quota (estimated bytes). Table writes on any
+ * instance bump the tenant's {@link TableDataVersion}, which empties its partition on the next read; writes
+ * on this instance also drop it right away. Component group changes and shadow-mode fallbacks drop every
+ * partition; rule edits change the ruleset version, so stale entries simply stop being hit and age out.
+ *
+ * Hits, misses, evictions, hit ratio and estimated size are exported as "atlas.result_cache.*".
+ */
+@Service
+public class ResultCache {
+    private final TableDataVersion tableDataVersion;
+    private final boolean enabled;
+    private final long tenantMaxBytes;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Content versions of recently seen RuleSet instances (bulk passes reuse one instance per pass)
+    private final Map<IdentityKey, String> rulesetVersions = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IdentityKey, String> eldest) {
+                return size() > 64;
+            }
+        });
+
+    public ResultCache(MeterRegistry meterRegistry, TableDataVersion tableDataVersion,
+                       @Value("${app.result-cache.enabled:true}") boolean enabled,
+                       @Value("${app.result-cache.tenant-max-bytes:33554432}") long tenantMaxBytes) {
+        this.tableDataVersion = tableDataVersion;
+        this.enabled = enabled;
+        this.tenantMaxBytes = tenantMaxBytes;
+        FunctionCounter.builder("atlas.result_cache.requests", hits, AtomicLong::get)
+            .tag("result", "hit").description("Evaluation results served from the result cache").register(meterRegistry);
+        FunctionCounter.builder("atlas.result_cache.requests", misses, AtomicLong::get)
+            .tag("result", "miss").description("Evaluations that missed the result cache").register(meterRegistry);
+        FunctionCounter.builder("atlas.result_cache.evictions", evictions, AtomicLong::get)
+            .description("Entries evicted to stay within the tenant quota").register(meterRegistry);
+        Gauge.builder("atlas.result_cache.hit_ratio", this, ResultCache::hitRatio)
+            .description("Hits / (hits + misses) since startup").register(meterRegistry);
+        Gauge.builder("atlas.result_cache.size", this, ResultCache::estimatedBytes)
+            .baseUnit("bytes").description("Estimated memory held by cached results").register(meterRegistry);
+    }
+
+    /**
+     * Evaluate through the cache. The returned result is shared: callers must not modify it.
+     */
+    public EvaluationResult evaluate(String tenantId, RuleSet ruleset, EvalContext ctx, Evaluator evaluator) {
+        if (!enabled || tenantId == null) {
+            return evaluator.evaluateAll(ruleset, ctx);
+        }
+        Partition partition = partitions.computeIfAbsent(tenantId, t -> new Partition());
+        long tableVersion = tableDataVersion.current(tenantId);
+        partition.observe(tableVersion);
+        Key key = new Key(rulesetVersion(ruleset), tableVersion, partition.generation.get(), ctx.periodDate(), ctx.inputs());
+        EvaluationResult cached = partition.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        long generation = key.generation();
+        EvaluationResult result = evaluator.evaluateAll(ruleset, ctx);
+        // Skip the put if the tenant's tables changed while evaluating
+        if (partition.generation.get() == generation && tableDataVersion.current(tenantId) == tableVersion) {
+            partition.put(new Key(key.rulesetVersion(), tableVersion, generation, key.periodDate(), new HashMap<>(ctx.inputs())),
+                result, estimateBytes(ctx, result));
+        }
+        return result;
+    }
+
+    /**
+     * Table data of a tenant changed on this instance (after the write committed): re-read its version,
+     * drop its entries and move it to a new generation.
+     */
+    public void invalidateTenant(String tenantId) {
+        tableDataVersion.forget(tenantId);
+        Partition partition = partitions.computeIfAbsent(tenantId, t -> new Partition());
+        partition.generation.incrementAndGet();
+        partition.clear();
+    }
+
+    /**
+     * Component groups (shared by all tenants) changed, or a ruleset moved to another engine.
+     */
+    public void invalidateAll() {
+        for (Partition partition : partitions.values()) {
+            partition.generation.incrementAndGet();
+            partition.clear();
+        }
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private double estimatedBytes() {
+        long bytes = 0;
+        for (Partition partition : partitions.values()) {
+            bytes += partition.bytes();
+        }
+        return bytes;
+    }
+
+    private String rulesetVersion(RuleSet ruleset) {
+        IdentityKey identity = new IdentityKey(ruleset);
+        String version = rulesetVersions.get(identity);
+        if (version == null) {
+            version = RulesetFingerprint.of(ruleset);
+            rulesetVersions.put(identity, version);
+        }
+        return version;
+    }
+
+    // Rough retained size: map entries, amounts and trace text
+    private static long estimateBytes(EvalContext ctx, EvaluationResult result) {
+        long bytes = 128 + 64L * ctx.inputs().size();
+        for (ComponentResult component : result.components().values()) {
+            bytes += 160 + 2L * component.name().length();
+            if (component.trace() != null) {
+                for (String step : component.trace().steps()) {
+                    bytes += 48 + 2L * step.length();
+                }
+                if (component.trace().finalLine() != null) {
+                    bytes += 48 + 2L * component.trace().finalLine().length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private record Key(String rulesetVersion, long tableVersion, long generation, LocalDate periodDate,
+                       Map<String, Object> inputs) {}
+
+    private record Sized(EvaluationResult result, long bytes) {}
+
+    private record IdentityKey(RuleSet ruleset) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey other && other.ruleset == ruleset;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(ruleset);
+        }
+    }
+
+    /**
+     * One tenant's LRU, bounded by estimated bytes.
+     */
+    private final class Partition {
+        private final AtomicLong generation = new AtomicLong();
+        private final LinkedHashMap<Key, Sized> entries = new LinkedHashMap<>(256, 0.75f, true);
+        private long bytes;
+        private long tableVersion = -1;
+
+        // Entries of an older table version can no longer be hit: free them
+        synchronized void observe(long version) {
+            if (version != tableVersion) {
+                tableVersion = version;
+                clear();
+            }
+        }
+
+        synchronized EvaluationResult get(Key key) {
+            Sized sized = entries.get(key);
+            return sized != null ? sized.result() : null;
+        }
+
+        synchronized void put(Key key, EvaluationResult result, long size) {
+            if (size > tenantMaxBytes) return;
+            Sized previous = entries.put(key, new Sized(result, size));
+            if (previous != null) bytes -= previous.bytes();
+            bytes += size;
+            Iterator<Sized> eldest = entries.values().iterator();
+            while (bytes > tenantMaxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().bytes();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
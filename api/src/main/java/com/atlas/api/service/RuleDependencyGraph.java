@@ -0,0 +1,220 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.Rule;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dependency graph of one ruleset, kept across validate calls and updated rule by rule.
+ *
+ * A rule depends on every ${Var} in its expression and every explicit dependsOn entry; only names that
+ * are rule targets become edges, the rest are inputs. {@link #sync} diffs the incoming rules against the
+ * graph, re-extracts only rules whose expression or dependsOn changed, and re-checks cycles around the
+ * changed nodes only: a new cycle has to use a changed edge, so it passes through a changed node, and a
+ * broken cycle belonged to a strongly connected component that contained one.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class RuleDependencyGraph {
+    // ${VarName} extractor
+    private static final Pattern VAR = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    // name -> targets that reference it (expression or dependsOn)
+    private final Map<String, Set<String>> users = new HashMap<>();
+    // name -> targets that reference it as ${name}
+    private final Map<String, Set<String>> exprUsers = new HashMap<>();
+    // ${names} that are not rule targets
+    private final Set<String> unresolved = new HashSet<>();
+    // node -> its cyclic strongly connected component
+    private final Map<String, Cycle> cycleOf = new HashMap<>();
+    private final Set<Cycle> cycles = new HashSet<>();
+
+    /**
+     * Bring the graph in line with {@code rules}. Returns the targets that were added, removed or changed.
+     */
+    Set<String> sync(List<Rule> rules) {
+        Map<String, Rule> incoming = new LinkedHashMap<>();
+        for (Rule r : rules) {
+            if (r.getTarget() != null && !r.getTarget().isBlank()) incoming.put(r.getTarget(), r);
+        }
+        Set<String> changed = new LinkedHashSet<>();
+        for (String target : List.copyOf(nodes.keySet())) {
+            if (!incoming.containsKey(target)) {
+                unlink(target, nodes.remove(target));
+                changed.add(target);
+                if (exprUsers.containsKey(target)) unresolved.add(target);
+            }
+        }
+        for (Rule r : incoming.values()) {
+            Node previous = nodes.get(r.getTarget());
+            List<String> dependsOn = r.getDependsOn() != null ? List.copyOf(r.getDependsOn()) : List.of();
+            if (previous != null && Objects.equals(previous.expression(), r.getExpression())
+                    && previous.dependsOn().equals(dependsOn)) {
+                continue;
+            }
+            if (previous != null) unlink(r.getTarget(), previous);
+            Node node = new Node(r.getExpression(), dependsOn, extractVars(r.getExpression()));
+            nodes.put(r.getTarget(), node);
+            link(r.getTarget(), node);
+            changed.add(r.getTarget());
+            unresolved.remove(r.getTarget());
+        }
+        if (!changed.isEmpty()) recheckCycles(changed);
+        return changed;
+    }
+
+    /**
+     * ${names} referenced by some rule that are not rule targets, sorted.
+     */
+    List<String> unresolvedNames() {
+        List<String> names = new ArrayList<>(unresolved);
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * One cycle per cyclic component, each as a path that starts and ends at the same target.
+     */
+    List<List<String>> cycles() {
+        List<List<String>> out = new ArrayList<>();
+        for (Cycle c : cycles) out.add(c.path());
+        out.sort(Comparator.comparing(p -> p.get(0)));
+        return out;
+    }
+
+    private void link(String target, Node node) {
+        for (String v : node.vars()) {
+            users.computeIfAbsent(v, k -> new HashSet<>()).add(target);
+            exprUsers.computeIfAbsent(v, k -> new HashSet<>()).add(target);
+            if (!nodes.containsKey(v)) unresolved.add(v);
+        }
+        for (String d : node.dependsOn()) {
+            users.computeIfAbsent(d, k -> new HashSet<>()).add(target);
+        }
+    }
+
+    private void unlink(String target, Node node) {
+        for (String v : node.vars()) {
+            remove(users, v, target);
+            if (remove(exprUsers, v, target)) unresolved.remove(v);
+        }
+        for (String d : node.dependsOn()) {
+            remove(users, d, target);
+        }
+    }
+
+    // Returns true when the name has no users left
+    private static boolean remove(Map<String, Set<String>> index, String name, String target) {
+        Set<String> set = index.get(name);
+        if (set == null) return true;
+        set.remove(target);
+        if (set.isEmpty()) {
+            index.remove(name);
+            return true;
+        }
+        return false;
+    }
+
+    private void recheckCycles(Set<String> changed) {
+        Set<String> recheck = new LinkedHashSet<>(changed);
+        for (String target : changed) {
+            drop(cycleOf.get(target), recheck);
+        }
+        for (String target : recheck) {
+            if (!nodes.containsKey(target) || cycleOf.containsKey(target)) continue;
+            Set<String> component = reachable(target, true);
+            component.retainAll(reachable(target, false));
+            if (component.size() == 1 && !successors(target).contains(target)) continue;
+            // Components merged through the changed node
+            for (String member : component) {
+                drop(cycleOf.get(member), null);
+            }
+            Cycle cycle = new Cycle(component, pathWithin(target, component));
+            cycles.add(cycle);
+            for (String member : component) cycleOf.put(member, cycle);
+        }
+    }
+
+    private void drop(Cycle cycle, Set<String> recheck) {
+        if (cycle == null || !cycles.remove(cycle)) return;
+        for (String member : cycle.members()) {
+            cycleOf.remove(member);
+            if (recheck != null) recheck.add(member);
+        }
+    }
+
+    private Set<String> successors(String target) {
+        Node node = nodes.get(target);
+        if (node == null) return Set.of();
+        Set<String> out = new LinkedHashSet<>();
+        for (String v : node.vars()) if (nodes.containsKey(v)) out.add(v);
+        for (String d : node.dependsOn()) if (nodes.containsKey(d)) out.add(d);
+        return out;
+    }
+
+    private Set<String> reachable(String start, boolean forward) {
+        Set<String> seen = new HashSet<>();
+        Deque<String> todo = new ArrayDeque<>();
+        seen.add(start);
+        todo.push(start);
+        while (!todo.isEmpty()) {
+            String n = todo.pop();
+            for (String next : forward ? successors(n) : users.getOrDefault(n, Set.of())) {
+                if (seen.add(next)) todo.push(next);
+            }
+        }
+        return seen;
+    }
+
+    // Shortest start -> ... -> start path inside the component
+    private List<String> pathWithin(String start, Set<String> component) {
+        Map<String, String> parent = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            String n = queue.poll();
+            for (String next : successors(n)) {
+                if (!component.contains(next)) continue;
+                if (next.equals(start)) {
+                    LinkedList<String> path = new LinkedList<>();
+                    path.addFirst(start);
+                    for (String p = n; p != null; p = parent.get(p)) path.addFirst(p);
+                    return List.copyOf(path);
+                }
+                if (!parent.containsKey(next)) {
+                    parent.put(next, n);
+                    queue.add(next);
+                }
+            }
+        }
+        return List.of(start, start);
+    }
+
+    private static Set<String> extractVars(String expr) {
+        if (expr == null) return Set.of();
+        Set<String> vars = new LinkedHashSet<>();
+        Matcher m = VAR.matcher(expr);
+        while (m.find()) vars.add(m.group(1));
+        return vars;
+    }
+
+    private record Node(String expression, List<String> dependsOn, Set<String> vars) {}
+
+    // Identity equality: one instance per cyclic component
+    private static final class Cycle {
+        private final Set<String> members;
+        private final List<String> path;
+
+        Cycle(Set<String> members, List<String> path) {
+            this.members = members;
+            this.path = path;
+        }
+
+        Set<String> members() { return members; }
+
+        List<String> path() { return path; }
+    }
+}
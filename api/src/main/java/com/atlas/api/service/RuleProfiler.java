@@ -0,0 +1,157 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.RuleSet;
+import com.atlas.engine.spi.EvaluationListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule profile of recent evaluations: for each (ruleset, component) the evaluation count, cumulative
+ * and max time, TBL calls and group-sum expansions.
+ *
+ * Samples go into one-minute buckets held in a ring covering the retention window. Counters are
+ * LongAdders (striped, so concurrent evaluations do not contend) and buckets are swapped in with a CAS,
+ * so recording never locks. Reports merge the buckets of the requested window.
+ */
+@Service
+public class RuleProfiler implements EvaluationListener {
+    private static final long BUCKET_MILLIS = 60_000L;
+
+    private final boolean enabled;
+    private final int retentionMinutes;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public RuleProfiler(@Value("${app.profiler.enabled:true}") boolean enabled,
+                        @Value("${app.profiler.retention-minutes:60}") int retentionMinutes) {
+        this.enabled = enabled;
+        this.retentionMinutes = Math.max(1, retentionMinutes);
+        // One spare slot so the oldest bucket of a full window is not overwritten by the current one
+        this.buckets = new AtomicReferenceArray<>(this.retentionMinutes + 1);
+    }
+
+    /**
+     * Listener to hand to the evaluator: this profiler, or {@link EvaluationListener#NONE} when disabled.
+     */
+    public EvaluationListener listener() {
+        return enabled ? this : EvaluationListener.NONE;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public int retentionMinutes() {
+        return retentionMinutes;
+    }
+
+    @Override
+    public void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {
+        Stats stats = currentBucket().stats.computeIfAbsent(
+            new Key(rules.getId() != null ? rules.getId() : "unknown", component), k -> new Stats());
+        stats.evaluations.increment();
+        stats.nanos.add(nanos);
+        stats.maxNanos.accumulate(nanos);
+        if (tableLookups > 0) stats.tableLookups.add(tableLookups);
+        if (groupSums > 0) stats.groupSums.add(groupSums);
+    }
+
+    @Override
+    public void componentFailed(RuleSet rules, String component, Exception error) {
+        currentBucket().stats.computeIfAbsent(
+            new Key(rules.getId() != null ? rules.getId() : "unknown", component), k -> new Stats()).errors.increment();
+    }
+
+    /**
+     * Hottest components of a ruleset over the last {@code windowMinutes}, by cumulative time.
+     */
+    public List<ComponentProfile> top(String rulesetId, int limit, int windowMinutes) {
+        long now = System.currentTimeMillis() / BUCKET_MILLIS;
+        long oldest = now - Math.min(Math.max(1, windowMinutes), retentionMinutes) + 1;
+        Map<String, Totals> totals = new HashMap<>();
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket == null || bucket.minute < oldest || bucket.minute > now) continue;
+            bucket.stats.forEach((key, stats) -> {
+                if (!key.rulesetId().equals(rulesetId)) return;
+                Totals t = totals.computeIfAbsent(key.component(), c -> new Totals());
+                t.evaluations += stats.evaluations.sum();
+                t.nanos += stats.nanos.sum();
+                t.maxNanos = Math.max(t.maxNanos, stats.maxNanos.get());
+                t.tableLookups += stats.tableLookups.sum();
+                t.groupSums += stats.groupSums.sum();
+                t.errors += stats.errors.sum();
+            });
+        }
+        List<ComponentProfile> out = new ArrayList<>();
+        totals.forEach((component, t) -> out.add(new ComponentProfile(
+            component,
+            t.evaluations,
+            t.nanos / 1_000_000.0,
+            t.evaluations > 0 ? t.nanos / 1_000.0 / t.evaluations : 0.0,
+            t.maxNanos / 1_000_000.0,
+            t.tableLookups,
+            t.groupSums,
+            t.errors)));
+        out.sort(Comparator.comparingDouble(ComponentProfile::totalMillis).reversed()
+            .thenComparing(ComponentProfile::component));
+        return out.size() > limit ? List.copyOf(out.subList(0, Math.max(0, limit))) : out;
+    }
+
+    private Bucket currentBucket() {
+        long minute = System.currentTimeMillis() / BUCKET_MILLIS;
+        int slot = (int) (minute % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) return fresh;
+            bucket = buckets.get(slot);
+        }
+        return bucket;
+    }
+
+    public record ComponentProfile(
+        String component,
+        long evaluations,
+        double totalMillis,
+        double avgMicros,
+        double maxMillis,
+        long tableLookups,
+        long groupSums,
+        long errors
+    ) {}
+
+    private record Key(String rulesetId, String component) {}
+
+    private static final class Bucket {
+        final long minute;
+        final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        final LongAdder tableLookups = new LongAdder();
+        final LongAdder groupSums = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private static final class Totals {
+        long evaluations;
+        long nanos;
+        long maxNanos;
+        long tableLookups;
+        long groupSums;
+        long errors;
+    }
+}
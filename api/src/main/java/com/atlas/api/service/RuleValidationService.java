@@ -8,49 +8,69 @@ import com.atlas.engine.model.RuleSet;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Lint for the rules editor: cycles, unknown variables, group references, empty rules.
+ *
+ * The editor validates on every change, so the dependency graph and parsed group references of each
+ * ruleset being edited are kept between calls (small LRU of sessions keyed by tenant and ruleset id).
+ * A call diffs the loaded rules against the session and only re-parses the rules that changed.
+ */
 @Service
 public class RuleValidationService {
+    static final int MAX_SESSIONS = 64;
 
     private final ComponentGroupsService componentGroupsService;
+    private final Map<SessionKey, Session> sessions = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SessionKey, Session> eldest) {
+                return size() > MAX_SESSIONS;
+            }
+        });
 
     public RuleValidationService(ComponentGroupsService componentGroupsService) {
         this.componentGroupsService = componentGroupsService;
     }
 
-    // ${VarName} extractor
-    private static final Pattern VAR = Pattern.compile("\\$\\{([^}]+)}");
-
+    /**
+     * One-off validation, nothing kept.
+     */
     public ValidateResponse validate(RuleSet rs, ValidateRequest req) {
+        return validate(new Session(), rs, req);
+    }
+
+    /**
+     * Validation of a ruleset open in the editor; reuses the previous call's graph for the same ruleset.
+     */
+    public ValidateResponse validate(String tenantId, String rulesetId, RuleSet rs, ValidateRequest req) {
+        Session session = sessions.computeIfAbsent(new SessionKey(tenantId, rulesetId), k -> new Session());
+        synchronized (session) {
+            return validate(session, rs, req);
+        }
+    }
+
+    boolean hasSession(String tenantId, String rulesetId) {
+        // containsKey does not count as an access, so checking does not change the eviction order
+        return sessions.containsKey(new SessionKey(tenantId, rulesetId));
+    }
+
+    private ValidateResponse validate(Session session, RuleSet rs, ValidateRequest req) {
         // Build maps
         Map<String, Rule> byTarget = new HashMap<>();
         for (Rule r : rs.getRules()) byTarget.put(r.getTarget(), r);
 
-        // Infer deps from expressions
-        Map<String, Set<String>> deps = new HashMap<>();
-        Set<String> referencedInputs = new HashSet<>();
-
-        for (Rule r : rs.getRules()) {
-            Set<String> d = new HashSet<>(Optional.ofNullable(r.getDependsOn()).orElse(List.of()));
-            for (String v : extractVars(r.getExpression())) {
-                if (byTarget.containsKey(v)) d.add(v);
-                else referencedInputs.add(v);
-            }
-            deps.put(r.getTarget(), d);
-        }
-
-        // Cycle detection
-        List<List<String>> cycles = findCycles(deps);
+        // Update the dependency graph (and its cycles) for the rules that changed
+        session.graph.sync(rs.getRules());
+        List<List<String>> cycles = session.graph.cycles();
 
         // Unknown variables (not a rule target AND not provided in sample inputs)
         Set<String> sample = req != null && req.sampleInputs() != null
                 ? req.sampleInputs().keySet()
                 : Set.of();
         List<ValidateResponse.Issue> issues = new ArrayList<>();
-        for (String v : referencedInputs) {
-            if (!byTarget.containsKey(v) && !sample.contains(v)) {
+        for (String v : session.graph.unresolvedNames()) {
+            if (!sample.contains(v)) {
                 issues.add(new ValidateResponse.Issue(
                         "<global>", "error", "Unknown variable ${" + v + "} (not a component and not in sampleInputs)"
                 ));
@@ -58,7 +78,7 @@ public class RuleValidationService {
         }
 
         // Validate group references (check if components reference groups they're not allowed to)
-        validateGroupReferences(rs, byTarget, issues, sample);
+        validateGroupReferences(rs, byTarget, issues, sample, session);
 
         // Missing target / empty expression checks
         for (Rule r : rs.getRules()) {
@@ -74,61 +94,13 @@ public class RuleValidationService {
         return new ValidateResponse(ok, issues, cycles, List.copyOf(sample));
     }
 
-    private static List<String> extractVars(String expr) {
-        if (expr == null) return List.of();
-        List<String> vars = new ArrayList<>();
-        Matcher m = VAR.matcher(expr);
-        while (m.find()) vars.add(m.group(1));
-        return vars;
-    }
-
-    private static List<List<String>> findCycles(Map<String, Set<String>> deps) {
-        List<List<String>> cycles = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> stack = new HashSet<>();
-        Deque<String> path = new ArrayDeque<>();
-
-        for (String node : deps.keySet()) {
-            dfs(node, deps, visited, stack, path, cycles);
-        }
-        return cycles;
-    }
-
-    private static void dfs(String node, Map<String, Set<String>> deps,
-                            Set<String> visited, Set<String> stack,
-                            Deque<String> path, List<List<String>> cycles) {
-        if (visited.contains(node)) return;
-        visited.add(node);
-        stack.add(node);
-        path.addLast(node);
-
-        for (String nxt : deps.getOrDefault(node, Set.of())) {
-            if (!deps.containsKey(nxt)) continue; // dependency is an input, not a rule
-            if (!visited.contains(nxt)) {
-                dfs(nxt, deps, visited, stack, path, cycles);
-            } else if (stack.contains(nxt)) {
-                // cycle found: extract from nxt to end
-                List<String> cyc = new ArrayList<>();
-                boolean on = false;
-                for (String p : path) {
-                    if (p.equals(nxt)) on = true;
-                    if (on) cyc.add(p);
-                }
-                cyc.add(nxt);
-                cycles.add(cyc);
-            }
-        }
-
-        stack.remove(node);
-        path.removeLast();
-    }
-    
     /**
      * Validates that components don't reference groups they're not allowed to.
      * Components in group N can only reference groups 1 through N.
      */
     private void validateGroupReferences(RuleSet rs, Map<String, Rule> byTarget, 
-                                        List<ValidateResponse.Issue> issues, Set<String> sample) {
+                                        List<ValidateResponse.Issue> issues, Set<String> sample,
+                                        Session session) {
         // Build component-to-group mapping
         Map<String, String> componentToGroup = new HashMap<>();
         Set<String> groupNames = new HashSet<>();
@@ -229,8 +201,7 @@ public class RuleValidationService {
                     continue; // Skip empty expressions
                 }
                 
-                RuleExpression ruleExpr = new RuleExpression(expr);
-                Set<String> dependencies = ruleExpr.extractDependencies(allComponentNames);
+                Set<String> dependencies = session.dependencies(componentName, expr, allComponentNames);
                 
                 for (String dep : dependencies) {
                     String depLower = dep.toLowerCase();
@@ -319,4 +290,31 @@ public class RuleValidationService {
             }
         }
     }
+
+    private record SessionKey(String tenantId, String rulesetId) {}
+
+    /**
+     * Validation state of one ruleset: its dependency graph and the parsed references of each rule.
+     */
+    private static final class Session {
+        private final RuleDependencyGraph graph = new RuleDependencyGraph();
+        private final Map<String, ParsedRefs> refs = new HashMap<>();
+        private Set<String> knownNames = Set.of();
+
+        // Parsing resolves names against the known components, so a different name set re-parses everything
+        Set<String> dependencies(String target, String expression, Set<String> allComponentNames) {
+            if (!knownNames.equals(allComponentNames)) {
+                refs.clear();
+                knownNames = new HashSet<>(allComponentNames);
+            }
+            ParsedRefs parsed = refs.get(target);
+            if (parsed == null || !parsed.expression().equals(expression)) {
+                parsed = new ParsedRefs(expression, new RuleExpression(expression).extractDependencies(allComponentNames));
+                refs.put(target, parsed);
+            }
+            return parsed.dependencies();
+        }
+    }
+
+    private record ParsedRefs(String expression, Set<String> dependencies) {}
 }
@@ -19,20 +19,30 @@ public class RulesServiceDb implements RulesService {
 
     public RulesServiceDb(RulesetJdbcRepo repo) { this.repo = repo; }
 
+    /**
+     * Diff-based save: only rules whose content changed are written, rules missing from {@code newRules}
+     * are deleted, and the content version is bumped in the same transaction.
+     */
     @Override
+    @Transactional
     public void replaceRules(String tenantId, String rulesetId, List<Rule> newRules) {
-        var rows = new ArrayList<Map<String,Object>>();
+        var current = new HashMap<String, Rule>();
+        for (var rule : toRules(repo.listRules(rulesetId))) {
+            current.put(rule.getTarget(), rule);
+        }
+        var upserts = new ArrayList<Map<String,Object>>();
+        var seen = new HashSet<String>();
         for (var r : newRules) {
-            var m = new LinkedHashMap<String,Object>();
-            m.put("target", r.getTarget());
-            m.put("expression", r.getExpression());
-            m.put("depends_on", Jsons.toJsonArray(r.getDependsOn()));
-            m.put("meta", Jsons.toJsonObject(r.getMeta() == null ? Map.of() : r.getMeta()));
-            m.put("effective_from", r.getEffectiveFrom());
-            m.put("effective_to", r.getEffectiveTo());
-            rows.add(m);
+            seen.add(r.getTarget());
+            if (!sameContent(current.get(r.getTarget()), r)) {
+                upserts.add(toRow(r));
+            }
         }
-        repo.replaceRules(rulesetId, rows);
+        var removed = new ArrayList<String>();
+        for (var target : current.keySet()) {
+            if (!seen.contains(target)) removed.add(target);
+        }
+        repo.applyRuleChanges(rulesetId, upserts, removed);
     }
 
     @Override
@@ -79,22 +89,13 @@ public class RulesServiceDb implements RulesService {
     public RuleSet getById(String tenantId, String id) {
         var rs = repo.findById(tenant(tenantId), id)
                 .orElseThrow(() -> new NoSuchElementException("Ruleset not found: " + id));
-        var rows = repo.listRules(id);
-        var rules = new ArrayList<Rule>();
-        for (var row : rows) {
-            rules.add(new Rule(
-                    row.target(),
-                    row.expression(),
-                    Jsons.stringArray(row.depends_on()),
-                    row.effective_from() == null ? null : row.effective_from().toLocalDate(),
-                    row.effective_to() == null ? null : row.effective_to().toLocalDate(),
-                    Jsons.map(row.meta())
-            ));
-        }
+        // Read before the rules: a write in between leaves the rules newer than the version, never older
+        long contentVersion = repo.findContentVersion(id);
+        var rules = toRules(repo.listRules(id));
         // Ensure rules are sorted by target for deterministic processing
         // (Database query already orders, but this ensures consistency)
         rules.sort(Comparator.comparing(Rule::getTarget));
-        return new RuleSet(rs.ruleset_id(), rules);
+        return new RuleSet(rs.ruleset_id(), rules, null, contentVersion);
     }
 
     public String getRulesetName(String tenantId, String rulesetId) {
@@ -132,19 +133,48 @@ public class RulesServiceDb implements RulesService {
         // Copy rules
         var rows = new java.util.ArrayList<java.util.Map<String, Object>>();
         for (Rule r : source.getRules()) {
-            var m = new java.util.LinkedHashMap<String, Object>();
-            m.put("target", r.getTarget());
-            m.put("expression", r.getExpression());
-            m.put("depends_on", Jsons.toJsonArray(r.getDependsOn()));
-            m.put("meta", Jsons.toJsonObject(r.getMeta() == null ? java.util.Map.of() : r.getMeta()));
-            m.put("effective_from", r.getEffectiveFrom());
-            m.put("effective_to", r.getEffectiveTo());
-            rows.add(m);
+            rows.add(toRow(r));
         }
         repo.replaceRules(id, rows);
 
         return id;
     }
 
+    private static List<Rule> toRules(List<RulesetJdbcRepo.RuleRow> rows) {
+        var rules = new ArrayList<Rule>();
+        for (var row : rows) {
+            rules.add(new Rule(
+                    row.target(),
+                    row.expression(),
+                    Jsons.stringArray(row.depends_on()),
+                    row.effective_from() == null ? null : row.effective_from().toLocalDate(),
+                    row.effective_to() == null ? null : row.effective_to().toLocalDate(),
+                    Jsons.map(row.meta())
+            ));
+        }
+        return rules;
+    }
+
+    private static Map<String,Object> toRow(Rule r) {
+        var m = new LinkedHashMap<String,Object>();
+        m.put("target", r.getTarget());
+        m.put("expression", r.getExpression());
+        m.put("depends_on", Jsons.toJsonArray(r.getDependsOn()));
+        m.put("meta", Jsons.toJsonObject(r.getMeta() == null ? Map.of() : r.getMeta()));
+        m.put("effective_from", r.getEffectiveFrom());
+        m.put("effective_to", r.getEffectiveTo());
+        return m;
+    }
+
+    // Stored form treats null dependsOn / meta as empty
+    private static boolean sameContent(Rule stored, Rule r) {
+        return stored != null
+                && Objects.equals(stored.getExpression(), r.getExpression())
+                && Objects.equals(stored.getDependsOn(), r.getDependsOn() == null ? List.of() : r.getDependsOn())
+                && Objects.equals(stored.getMeta(), r.getMeta() == null ? Map.of() : r.getMeta())
+                && Objects.equals(stored.getEffectiveFrom(), r.getEffectiveFrom())
+                && Objects.equals(stored.getEffectiveTo(), r.getEffectiveTo());
+    }
+
     private static String tenant(String t) { return t != null ? t : "default"; }
 }
@@ -0,0 +1,44 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Content version of a ruleset: SHA-256 over its id, rules (target, expression, dependsOn,
+ * effective dates, meta) in target order and group ordering. Two rulesets with the same
+ * fingerprint evaluate the same.
+ */
+public final class RulesetFingerprint {
+    private RulesetFingerprint() {}
+
+    public static String of(RuleSet ruleset) {
+        List<Rule> rules = new ArrayList<>(ruleset.getRules());
+        rules.sort(Comparator.comparing(Rule::getTarget));
+        StringBuilder sb = new StringBuilder(String.valueOf(ruleset.getId())).append('\n');
+        for (Rule rule : rules) {
+            sb.append(rule.getTarget()).append('|')
+              .append(rule.getExpression()).append('|')
+              .append(rule.getDependsOn()).append('|')
+              .append(rule.getEffectiveFrom()).append('|')
+              .append(rule.getEffectiveTo()).append('|')
+              .append(rule.getMeta() != null ? new TreeMap<>(rule.getMeta()) : null).append('\n');
+        }
+        // Group ordering changes the evaluation order of grouped components
+        sb.append("groups:").append(ruleset.getGroupOrdering() != null ? new TreeMap<>(ruleset.getGroupOrdering()) : null);
+        return sha256(sb.toString());
+    }
+
+    static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.eval.Evaluator;
+import com.atlas.engine.model.ComponentResult;
+import com.atlas.engine.model.EvalContext;
+import com.atlas.engine.model.EvaluationResult;
+import com.atlas.engine.model.RuleSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shadow mode for a candidate engine: the candidate serves every evaluation, and a sample
+ * (app.engine.shadow.sample-rate) is evaluated again by the reference DefaultEvaluator on a background
+ * pool and compared per component, to the cent. A ruleset whose mismatches (including candidate
+ * exceptions) exceed app.engine.shadow.max-mismatches is served by the reference engine from then on,
+ * until an admin resets it. The fallback empties the {@link ResultCache}, which would otherwise keep serving
+ * the candidate's results.
+ *
+ * Mismatches are logged as one JSON line each ("[shadow] mismatch {...}") and the latest ones are kept for
+ * the admin report. Samples are dropped, not queued without bound, when the pool falls behind. A table
+ * edited between the two evaluations can show up as a mismatch.
+ *
+ * Meters:
+ *   atlas.shadow.comparisons{result}     - sampled comparisons; result = match, mismatch or error (reference threw)
+ *   atlas.shadow.component_mismatches    - components that differed
+ *   atlas.shadow.delta                   - |candidate - reference| of differing components
+ *   atlas.shadow.candidate_failures      - candidate exceptions (answered by the reference engine)
+ *   atlas.shadow.dropped                 - samples dropped because the pool queue was full
+ *   atlas.shadow.fallback_rulesets       - rulesets currently served by the reference engine
+ */
+@Service
+public class ShadowEvaluation {
+    private static final String TOTAL = "(total)";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int maxMismatches;
+    private final int recentLimit;
+    private final ThreadPoolExecutor pool;
+    private final ResultCache resultCache;
+    private final Map<String, RulesetStats> rulesets = new ConcurrentHashMap<>();
+    private final Deque<Mismatch> recent = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSize = new AtomicInteger();
+
+    private final Counter matches;
+    private final Counter mismatches;
+    private final Counter referenceErrors;
+    private final Counter componentMismatches;
+    private final DistributionSummary deltas;
+    private final Counter candidateFailures;
+    private final Counter dropped;
+
+    public ShadowEvaluation(MeterRegistry registry, ResultCache resultCache,
+                            @Value("${app.engine.shadow.enabled:false}") boolean enabled,
+                            @Value("${app.engine.shadow.sample-rate:0.05}") double sampleRate,
+                            @Value("${app.engine.shadow.max-mismatches:0}") int maxMismatches,
+                            @Value("${app.engine.shadow.threads:2}") int threads,
+                            @Value("${app.engine.shadow.queue-capacity:1000}") int queueCapacity,
+                            @Value("${app.engine.shadow.recent-mismatches:100}") int recentLimit) {
+        this.resultCache = resultCache;
+        this.enabled = enabled;
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.maxMismatches = Math.max(0, maxMismatches);
+        this.recentLimit = Math.max(0, recentLimit);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                Thread t = new Thread(r, "shadow-eval-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.matches = comparisons(registry, "match");
+        this.mismatches = comparisons(registry, "mismatch");
+        this.referenceErrors = comparisons(registry, "error");
+        this.componentMismatches = Counter.builder("atlas.shadow.component_mismatches")
+            .description("Components whose candidate amount differed from the reference").register(registry);
+        this.deltas = DistributionSummary.builder("atlas.shadow.delta")
+            .description("Absolute difference of mismatched components").register(registry);
+        this.candidateFailures = Counter.builder("atlas.shadow.candidate_failures")
+            .description("Candidate evaluations that threw and were answered by the reference engine").register(registry);
+        this.dropped = Counter.builder("atlas.shadow.dropped")
+            .description("Sampled evaluations not compared because the shadow queue was full").register(registry);
+        Gauge.builder("atlas.shadow.fallback_rulesets", rulesets,
+                m -> m.values().stream().filter(s -> s.fallenBack).count())
+            .description("Rulesets served by the reference engine after too many mismatches").register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Evaluator that serves from {@code candidate} and shadows samples with {@code shadowReference}.
+     * {@code reference} answers fallen-back rulesets and candidate failures; {@code shadowReference} should
+     * carry no listener, so shadow work stays out of the serving metrics and profile.
+     */
+    public Evaluator wrap(Evaluator candidate, Evaluator reference, Evaluator shadowReference) {
+        return (rules, ctx) -> evaluate(candidate, reference, shadowReference, rules, ctx);
+    }
+
+    private EvaluationResult evaluate(Evaluator candidate, Evaluator reference, Evaluator shadowReference,
+                                      RuleSet rules, EvalContext ctx) {
+        RulesetStats stats = rulesets.computeIfAbsent(rulesetId(rules), RulesetStats::new);
+        if (stats.fallenBack) {
+            return reference.evaluateAll(rules, ctx);
+        }
+        // Snapshot before the candidate runs, in case it writes to the inputs
+        EvalContext snapshot = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate
+            ? new EvalContext(new HashMap<>(ctx.inputs()), ctx.periodDate())
+            : null;
+
+        EvaluationResult served;
+        try {
+            served = candidate.evaluateAll(rules, ctx);
+        } catch (RuntimeException e) {
+            candidateFailures.increment();
+            stats.candidateFailures.incrementAndGet();
+            record(stats, new Mismatch(Instant.now(), stats.rulesetId, ctx.periodDate(), List.of(), e.toString()));
+            return reference.evaluateAll(rules, ctx);
+        }
+
+        if (snapshot != null) {
+            try {
+                pool.execute(() -> compare(stats, shadowReference, rules, snapshot, served));
+            } catch (RejectedExecutionException full) {
+                dropped.increment();
+            }
+        }
+        return served;
+    }
+
+    private void compare(RulesetStats stats, Evaluator shadowReference, RuleSet rules, EvalContext ctx,
+                         EvaluationResult candidate) {
+        EvaluationResult expected;
+        try {
+            expected = shadowReference.evaluateAll(rules, ctx);
+        } catch (RuntimeException e) {
+            referenceErrors.increment();
+            return;
+        }
+        stats.comparisons.incrementAndGet();
+        List<ComponentDiff> diffs = diff(expected, candidate);
+        if (diffs.isEmpty()) {
+            matches.increment();
+            return;
+        }
+        mismatches.increment();
+        for (ComponentDiff d : diffs) {
+            if (TOTAL.equals(d.component())) continue;
+            componentMismatches.increment();
+            if (d.delta() != null) deltas.record(d.delta().abs().doubleValue());
+        }
+        record(stats, new Mismatch(Instant.now(), stats.rulesetId, ctx.periodDate(), diffs, null));
+    }
+
+    /**
+     * Components (and the total) whose amounts differ once rounded to cents; a component present on one side
+     * only is a difference too.
+     */
+    static List<ComponentDiff> diff(EvaluationResult expected, EvaluationResult actual) {
+        Set<String> names = new TreeSet<>(expected.components().keySet());
+        names.addAll(actual.components().keySet());
+        List<ComponentDiff> diffs = new ArrayList<>();
+        for (String name : names) {
+            ComponentDiff d = compare(name, amount(expected.components().get(name)), amount(actual.components().get(name)));
+            if (d != null) diffs.add(d);
+        }
+        ComponentDiff total = compare(TOTAL, expected.total(), actual.total());
+        if (total != null) diffs.add(total);
+        return diffs;
+    }
+
+    private static ComponentDiff compare(String component, BigDecimal expected, BigDecimal actual) {
+        if (expected == null && actual == null) return null;
+        if (expected != null && actual != null && cents(expected).compareTo(cents(actual)) == 0) return null;
+        BigDecimal delta = expected != null && actual != null ? actual.subtract(expected) : null;
+        return new ComponentDiff(component, expected, actual, delta);
+    }
+
+    private static BigDecimal amount(ComponentResult result) {
+        return result != null ? result.amount() : null;
+    }
+
+    private static BigDecimal cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private void record(RulesetStats stats, Mismatch mismatch) {
+        long count = stats.mismatches.incrementAndGet();
+        stats.lastMismatch = mismatch.at();
+        if (recentLimit > 0) {
+            recent.addFirst(mismatch);
+            if (recentSize.incrementAndGet() > recentLimit && recent.pollLast() != null) {
+                recentSize.decrementAndGet();
+            }
+        }
+        System.err.println("[shadow] mismatch " + Jsons.toJsonObject(mismatch.toMap()));
+        if (count > maxMismatches && !stats.fallenBack) {
+            stats.fallenBack = true;
+            // Cached results were computed by the candidate; evaluations in flight skip their put
+            resultCache.invalidateAll();
+            System.err.println("[shadow] ruleset " + stats.rulesetId + " falls back to the reference engine after "
+                + count + " mismatch(es)");
+        }
+    }
+
+    /**
+     * Per-ruleset counters and fallback state, the latest mismatches first.
+     */
+    public Map<String, Object> report() {
+        List<Map<String, Object>> perRuleset = new ArrayList<>();
+        rulesets.values().stream()
+            .sorted(Comparator.comparing(s -> s.rulesetId))
+            .forEach(s -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("rulesetId", s.rulesetId);
+                row.put("comparisons", s.comparisons.get());
+                row.put("mismatches", s.mismatches.get());
+                row.put("candidateFailures", s.candidateFailures.get());
+                row.put("fallenBack", s.fallenBack);
+                row.put("lastMismatch", s.lastMismatch != null ? s.lastMismatch.toString() : null);
+                perRuleset.add(row);
+            });
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", enabled);
+        body.put("sampleRate", sampleRate);
+        body.put("maxMismatches", maxMismatches);
+        body.put("queued", pool.getQueue().size());
+        body.put("rulesets", perRuleset);
+        body.put("recentMismatches", recent.stream().map(Mismatch::toMap).toList());
+        return body;
+    }
+
+    /**
+     * Clear a ruleset's counters and put it back on the candidate engine.
+     *
+     * @return false when the ruleset has not been seen
+     */
+    public boolean reset(String rulesetId) {
+        RulesetStats removed = rulesets.remove(rulesetId);
+        if (removed != null) {
+            System.err.println("[shadow] ruleset " + rulesetId + " reset, candidate engine serves it again");
+        }
+        return removed != null;
+    }
+
+    private static Counter comparisons(MeterRegistry registry, String result) {
+        return Counter.builder("atlas.shadow.comparisons").tag("result", result)
+            .description("Sampled evaluations compared against the reference engine").register(registry);
+    }
+
+    private static String rulesetId(RuleSet rules) {
+        return rules.getId() != null ? rules.getId() : "unknown";
+    }
+
+    public record ComponentDiff(String component, BigDecimal reference, BigDecimal candidate, BigDecimal delta) {}
+
+    /**
+     * @param error the candidate's exception, or null for a value mismatch
+     */
+    public record Mismatch(Instant at, String rulesetId, LocalDate periodDate, List<ComponentDiff> diffs, String error) {
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("at", at.toString());
+            map.put("rulesetId", rulesetId);
+            map.put("periodDate", periodDate != null ? periodDate.toString() : null);
+            if (error != null) map.put("error", error);
+            map.put("diffs", diffs.stream().map(d -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("component", d.component());
+                row.put("reference", d.reference() != null ? d.reference().toPlainString() : null);
+                row.put("candidate", d.candidate() != null ? d.candidate().toPlainString() : null);
+                row.put("delta", d.delta() != null ? d.delta().toPlainString() : null);
+                return row;
+            }).toList());
+            return map;
+        }
+    }
+
+    private static final class RulesetStats {
+        final String rulesetId;
+        final AtomicLong comparisons = new AtomicLong();
+        final AtomicLong mismatches = new AtomicLong();
+        final AtomicLong candidateFailures = new AtomicLong();
+        volatile boolean fallenBack;
+        volatile Instant lastMismatch;
+
+        RulesetStats(String rulesetId) {
+            this.rulesetId = rulesetId;
+        }
+    }
+}
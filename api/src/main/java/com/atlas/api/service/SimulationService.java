@@ -18,33 +18,36 @@ public class SimulationService {
     private final Evaluator evaluator;
     private final RulesService rules;
     private final ComponentGroupsService componentGroupsService;
+    private final ResultCache resultCache;
+    private final EvaluationMetrics metrics;
 
-    public SimulationService(Evaluator evaluator, RulesService rules, ComponentGroupsService componentGroupsService) {
+    public SimulationService(Evaluator evaluator, RulesService rules, ComponentGroupsService componentGroupsService,
+                             ResultCache resultCache, EvaluationMetrics metrics) {
         this.evaluator = evaluator;
         this.rules = rules;
         this.componentGroupsService = componentGroupsService;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
     }
 
     public SimEmployeeResponse simulateEmployee(SimEmployeeRequest req) {
         RuleSet rs = resolveRules(req.tenantId(), req.rulesetId(), req.payDay());
-        EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(req.payDay(), req.employee()));
-        EvaluationResult out = evaluator.evaluateAll(rs, ctx);
+        EvalContext ctx = Mappers.toEvalContext(req.payDay(), req.employee());
+        EvaluationResult out = resultCache.evaluate(req.tenantId(), rs, ctx, evaluator);
         return Mappers.toResponse(out);
     }
 
     public SimBulkResponse simulateBulk(SimBulkRequest req) {
         RuleSet rs = resolveRules(req.tenantId(), req.rulesetId(), req.payDay());
-        
-        // Get group ordering once for all employees
-        Map<String, Integer> groupOrdering = getGroupOrdering();
 
         List<Map<String,Object>> per = new ArrayList<>();
         Map<String, BigDecimal> totalsByComponent = new LinkedHashMap<>();
         BigDecimal grand = BigDecimal.ZERO;
 
+        long start = System.nanoTime();
         for (var emp : req.employees()) {
-            EvalContext ctx = addGroupOrdering(Mappers.toEvalContext(req.payDay(), emp), groupOrdering);
-            var out = evaluator.evaluateAll(rs, ctx);
+            EvalContext ctx = Mappers.toEvalContext(req.payDay(), emp);
+            var out = resultCache.evaluate(req.tenantId(), rs, ctx, evaluator);
             
             // Include component breakdown for each employee
             Map<String, BigDecimal> employeeComponents = new LinkedHashMap<>();
@@ -59,30 +62,21 @@ public class SimulationService {
             out.components().forEach((k,v) ->
                     totalsByComponent.merge(k, v.amount(), BigDecimal::add));
         }
+        metrics.bulkCompleted("simulate_bulk", req.employees().size(), System.nanoTime() - start);
         return new SimBulkResponse(per, totalsByComponent, grand);
     }
 
+    /**
+     * Resolve the ruleset and attach the current group ordering (cached by ComponentGroupsService).
+     */
     private RuleSet resolveRules(String tenantId, String rulesetId, LocalDate payDay) {
-        if (rulesetId != null) return rules.getById(tenantId, rulesetId);
-        var date = payDay != null ? payDay : java.time.LocalDate.now();
-        return rules.getActive(tenantId, date);
-    }
-    
-    private Map<String, Integer> getGroupOrdering() {
-        Map<String, Integer> ordering = new HashMap<>();
-        for (ComponentGroupsService.GroupDto group : componentGroupsService.getAllGroups()) {
-            ordering.put(group.groupName().toLowerCase(), group.displayOrder());
+        RuleSet rs;
+        if (rulesetId != null) {
+            rs = rules.getById(tenantId, rulesetId);
+        } else {
+            var date = payDay != null ? payDay : java.time.LocalDate.now();
+            rs = rules.getActive(tenantId, date);
         }
-        return ordering;
-    }
-    
-    private EvalContext addGroupOrdering(EvalContext ctx) {
-        return addGroupOrdering(ctx, getGroupOrdering());
-    }
-    
-    private EvalContext addGroupOrdering(EvalContext ctx, Map<String, Integer> groupOrdering) {
-        Map<String, Object> inputs = new HashMap<>(ctx.inputs());
-        inputs.put("_groupOrdering", groupOrdering);
-        return new EvalContext(inputs, ctx.periodDate());
+        return componentGroupsService.withGroupOrdering(rs);
     }
 }
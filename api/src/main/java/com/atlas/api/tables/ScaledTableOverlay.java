@@ -0,0 +1,153 @@
+package com.atlas.api.tables;
+
+import com.atlas.engine.spi.TableService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * In-memory copy of one component table whose values can be viewed scaled by a factor.
+ *
+ * The table is loaded and its keys_json parsed once (see TableServiceDb#loadScaledOverlay);
+ * each {@link #withFactor} view applies (1 + factor) at lookup time to the rows effective on
+ * the overlay date, for lookups on or after that date. No reload, no copy and no JSON parsing
+ * per candidate or per lookup. Lookups for any other table go to the base TableService,
+ * so views compose with tables that are not being changed.
+ *
+ * Matching follows TableServiceDb: range keys {min inclusive, max exclusive}, numeric keys
+ * compared with a small epsilon, multiple matches are an error and no match returns zero.
+ */
+public final class ScaledTableOverlay {
+    private static final double EPSILON = 0.0001;
+
+    private final TableService base;
+    private final String tenantId;
+    private final String componentTarget;
+    private final String tableName;
+    private final int columnCount;
+    private final List<CompiledRow> rows;
+
+    ScaledTableOverlay(TableService base, String tenantId, String componentTarget, String tableName,
+                       int columnCount, List<CompiledRow> rows) {
+        this.base = base;
+        this.tenantId = tenantId;
+        this.componentTarget = componentTarget;
+        this.tableName = tableName;
+        this.columnCount = columnCount;
+        this.rows = rows;
+    }
+
+    /**
+     * A TableService view with this table's values increased by {@code factor} (0.05 = +5%).
+     */
+    public TableService withFactor(BigDecimal factor) {
+        BigDecimal multiplier = BigDecimal.ONE.add(factor);
+        return (tId, cTarget, tName, keys, onDate) -> {
+            if (!tableName.equals(tName) || !componentTarget.equals(cTarget) || !tenantId.equals(tId)) {
+                return base.lookup(tId, cTarget, tName, keys, onDate);
+            }
+            return lookup(keys, onDate, multiplier);
+        };
+    }
+
+    private BigDecimal lookup(List<Object> keys, LocalDate onDate, BigDecimal multiplier) {
+        if (keys.size() != columnCount) {
+            throw new IllegalArgumentException("Keys size mismatch for table " + tableName + " expected " + columnCount + " got " + keys.size());
+        }
+        CompiledRow hit = null;
+        for (CompiledRow row : rows) {
+            if (onDate.isBefore(row.effectiveFrom()) || onDate.isAfter(row.effectiveTo())) continue;
+            if (row.matches(keys)) {
+                if (hit != null) throw new IllegalStateException("Multiple matches in " + tableName);
+                hit = row;
+            }
+        }
+        if (hit == null) {
+            return BigDecimal.ZERO;
+        }
+        // Increased value applies from the overlay date onward (earlier lookups see the original row)
+        return hit.scaled() && !onDate.isBefore(hit.scaleFrom()) ? hit.value().multiply(multiplier) : hit.value();
+    }
+
+    /**
+     * A table row with its keys pre-parsed in column order.
+     *
+     * @param scaled whether the row is effective on the overlay date (and so gets the factor)
+     * @param scaleFrom overlay date: first lookup date the factor applies to
+     */
+    record CompiledRow(LocalDate effectiveFrom, LocalDate effectiveTo, KeyMatcher[] keys,
+                       BigDecimal value, boolean scaled, LocalDate scaleFrom) {
+        boolean matches(List<Object> args) {
+            for (int i = 0; i < keys.length; i++) {
+                if (!keys[i].matches(args.get(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Compile one keys_json cell; returns null when the column is missing (row can never match).
+     */
+    static KeyMatcher compileKey(JsonNode keyNode) {
+        if (keyNode == null) return null;
+        if (keyNode.isObject() && (keyNode.has("min") || keyNode.has("max"))) {
+            Double min = keyNode.has("min") && !keyNode.get("min").isNull() ? keyNode.get("min").asDouble() : null;
+            Double max = keyNode.has("max") && !keyNode.get("max").isNull() ? keyNode.get("max").asDouble() : null;
+            return new RangeKey(min, max, keyNode.asText());
+        }
+        Double textAsNumber = null;
+        if (keyNode.isTextual()) {
+            try {
+                textAsNumber = Double.parseDouble(keyNode.asText());
+            } catch (NumberFormatException ignored) {
+                // Plain text key
+            }
+        }
+        return new ExactKey(keyNode.asText(), keyNode.isNumber() ? keyNode.asDouble() : null, textAsNumber);
+    }
+
+    interface KeyMatcher {
+        boolean matches(Object val);
+    }
+
+    /**
+     * Range key {min inclusive, max exclusive}; non-numeric lookups fall back to text comparison.
+     */
+    private record RangeKey(Double min, Double max, String text) implements KeyMatcher {
+        @Override
+        public boolean matches(Object val) {
+            if (!(val instanceof Number num)) {
+                return Objects.equals(text, String.valueOf(val));
+            }
+            double v = num.doubleValue();
+            if (min != null && v < min) return false;
+            return max == null || v < max;
+        }
+    }
+
+    /**
+     * Exact key: numeric comparison when either side is numeric, text comparison otherwise.
+     */
+    private record ExactKey(String text, Double number, Double textAsNumber) implements KeyMatcher {
+        @Override
+        public boolean matches(Object val) {
+            if (val instanceof Number num && number != null) {
+                return Math.abs(number - num.doubleValue()) <= EPSILON;
+            }
+            if (val instanceof Number num && textAsNumber != null) {
+                return Math.abs(textAsNumber - num.doubleValue()) <= EPSILON;
+            }
+            if (number != null && val instanceof String str) {
+                try {
+                    return Math.abs(number - Double.parseDouble(str)) <= EPSILON;
+                } catch (NumberFormatException e) {
+                    return Objects.equals(text, str);
+                }
+            }
+            return Objects.equals(text, String.valueOf(val));
+        }
+    }
+}
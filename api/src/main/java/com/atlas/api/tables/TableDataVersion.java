@@ -0,0 +1,70 @@
+package com.atlas.api.tables;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant version of the table data (comp_table and comp_table_row), stored in tenant_table_version.
+ * Every table write bumps it inside the transaction that writes the rows, so the new version becomes
+ * visible together with the new rows. Caches of values computed from table rows key on it (result
+ * cache, required-inputs metadata, invariant TBL values), so writes made through any instance are seen
+ * by all of them.
+ *
+ * Reads are remembered per tenant for app.tables.version-check-ms: a write on another instance is seen
+ * within that interval, a write on this one as soon as the writer calls {@link #forget}.
+ */
+@Service
+public class TableDataVersion {
+    private final NamedParameterJdbcTemplate jdbc;
+    private final long checkNanos;
+    private final Map<String, Checked> versions = new ConcurrentHashMap<>();
+
+    public TableDataVersion(NamedParameterJdbcTemplate jdbc,
+                            @Value("${app.tables.version-check-ms:1000}") long checkMillis) {
+        this.jdbc = jdbc;
+        this.checkNanos = TimeUnit.MILLISECONDS.toNanos(checkMillis);
+    }
+
+    /**
+     * Current version of the tenant's tables (0 if they were never written).
+     */
+    public long current(String tenantId) {
+        long now = System.nanoTime();
+        Checked checked = versions.get(tenantId);
+        if (checked != null && now - checked.at() < checkNanos) {
+            return checked.version();
+        }
+        Long version = jdbc.query(
+            "SELECT version FROM tenant_table_version WHERE tenant_id = :tenantId",
+            Map.of("tenantId", tenantId),
+            rs -> rs.next() ? rs.getLong(1) : 0L);
+        versions.put(tenantId, new Checked(version, now));
+        return version;
+    }
+
+    /**
+     * Mark the tenant's tables as changed. Call inside the transaction that writes them.
+     */
+    public void bump(String tenantId) {
+        jdbc.update("""
+            INSERT INTO tenant_table_version (tenant_id, version, updated_at)
+            VALUES (:tenantId, nextval('tenant_table_version_seq'), now())
+            ON CONFLICT (tenant_id) DO UPDATE
+            SET version = EXCLUDED.version, updated_at = now()
+            """, Map.of("tenantId", tenantId));
+    }
+
+    /**
+     * Drop the remembered version, so the next read sees a write this instance just committed.
+     */
+    public void forget(String tenantId) {
+        versions.remove(tenantId);
+    }
+
+    private record Checked(long version, long at) {}
+}
@@ -0,0 +1,486 @@
+package com.atlas.api.tables;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Writes of component tables: definitions, deletes and bulk replace of a table's rows. Each write bumps
+ * the tenant's {@link TableDataVersion} in its transaction.
+ *
+ * Bulk replace:
+ * Rows are validated one at a time as they are read (against the table's columns_json) and streamed
+ * with COPY into a transaction-local staging table; the table's rows are then swapped for the staged
+ * ones with one DELETE + INSERT ... SELECT in the same transaction, so readers see either the old or
+ * the new rows.
+ *
+ * Lookup ambiguities are rejected here instead of failing at lookup time ("Multiple matches", see
+ * TableServiceDb): two rows conflict when their effective dates overlap, their string keys are equal
+ * and every numeric key overlaps (exact value or {min inclusive, max exclusive} range). Rows with the
+ * same string keys are checked with a sweep once all rows are read, in O(n log n) for rows that do not
+ * overlap (e.g. the brackets of a range-keyed tax table).
+ */
+@Service
+public class TableImportService {
+    private static final String DEFAULT_FROM = "1900-01-01";
+    private static final String DEFAULT_TO = "9999-12-31";
+    private static final BigDecimal MAX_VALUE = new BigDecimal("1E16");  // NUMERIC(18,2)
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TableDataVersion tableDataVersion;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public TableImportService(NamedParameterJdbcTemplate jdbc, TableDataVersion tableDataVersion) {
+        this.jdbc = jdbc;
+        this.tableDataVersion = tableDataVersion;
+    }
+
+    /**
+     * Create or update a table definition.
+     *
+     * @param columnsJson JSON array of {name, type}
+     */
+    @Transactional
+    public void defineTable(String tenantId, String component, String tableName, String description, String columnsJson) {
+        jdbc.update("""
+            INSERT INTO comp_table(tenant_id, component_target, table_name, description, columns_json)
+            VALUES(:t,:c,:n,:d,CAST(:cols AS JSONB))
+            ON CONFLICT (tenant_id, component_target, table_name)
+            DO UPDATE SET description=:d, columns_json=CAST(:cols AS JSONB)
+            """, Map.of("t", tenantId, "c", component, "n", tableName, "d", description, "cols", columnsJson));
+        tableDataVersion.bump(tenantId);
+    }
+
+    /**
+     * Delete a table definition and all its rows.
+     *
+     * @return false if the table did not exist
+     */
+    @Transactional
+    public boolean deleteTable(String tenantId, String component, String tableName) {
+        Map<String, Object> params = Map.of("t", tenantId, "c", component, "n", tableName);
+        jdbc.update("""
+            DELETE FROM comp_table_row
+             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+            """, params);
+        int deleted = jdbc.update("""
+            DELETE FROM comp_table
+             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+            """, params);
+        if (deleted > 0) {
+            tableDataVersion.bump(tenantId);
+        }
+        return deleted > 0;
+    }
+
+    /**
+     * Replace the rows from a JSON body streamed as it is parsed: either {@code {"rows":[...]}} or a bare
+     * array of rows. Row shape is the one of PUT /tables/.../rows.
+     *
+     * @return number of rows imported
+     */
+    @Transactional
+    public int importRows(String tenantId, String component, String tableName, InputStream body) {
+        List<Column> columns = lockColumns(tenantId, component, tableName);
+        return load(tenantId, component, tableName, columns, sink -> {
+            try (JsonParser parser = mapper.getFactory().createParser(body)) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    readRows(parser, sink);
+                } else if (token == JsonToken.START_OBJECT) {
+                    boolean found = false;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("rows".equals(field) && value == JsonToken.START_ARRAY) {
+                            readRows(parser, sink);
+                            found = true;
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (!found) throw new IllegalArgumentException("Body has no \"rows\" array");
+                } else {
+                    throw new IllegalArgumentException("Body must be a JSON array of rows or an object with \"rows\"");
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed JSON body: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Replace the rows from an already parsed list (PUT /tables/.../rows).
+     */
+    @Transactional
+    public int replaceRows(String tenantId, String component, String tableName, List<Map<String, Object>> rows) {
+        if (rows == null) throw new IllegalArgumentException("\"rows\" is required");
+        List<Column> columns = lockColumns(tenantId, component, tableName);
+        return load(tenantId, component, tableName, columns, sink -> {
+            for (Map<String, Object> row : rows) {
+                sink.accept(mapper.valueToTree(row));
+            }
+        });
+    }
+
+    private void readRows(JsonParser parser, RowSink sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            sink.accept(mapper.readTree(parser));
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IllegalArgumentException("Rows must be JSON objects");
+        }
+    }
+
+    // Table definition, locked so concurrent imports of the same table run one after the other
+    private List<Column> lockColumns(String tenantId, String component, String tableName) {
+        String columnsJson = jdbc.query("""
+                SELECT columns_json
+                  FROM comp_table
+                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+                 FOR UPDATE
+                """,
+                Map.of("t", tenantId, "c", component, "n", tableName),
+                rs -> rs.next() ? rs.getString(1) : null);
+        if (columnsJson == null) {
+            throw new IllegalArgumentException("Table '" + tableName + "' not found for component '" + component + "'");
+        }
+        try {
+            List<Column> columns = new ArrayList<>();
+            for (JsonNode node : mapper.readTree(columnsJson)) {
+                String type = node.has("type") ? node.get("type").asText() : "string";
+                columns.add(new Column(node.get("name").asText(), "number".equalsIgnoreCase(type)));
+            }
+            return columns;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Bad columns_json for table '" + tableName + "'", e);
+        }
+    }
+
+    private int load(String tenantId, String component, String tableName, List<Column> columns, RowSource source) {
+        jdbc.update("""
+            CREATE TEMP TABLE comp_table_row_import (
+              effective_from DATE          NOT NULL,
+              effective_to   DATE          NOT NULL,
+              keys_json      JSONB         NOT NULL,
+              value          NUMERIC(18,2) NOT NULL
+            ) ON COMMIT DROP
+            """, Map.of());
+
+        int count = jdbc.getJdbcTemplate().execute((ConnectionCallback<Integer>) con -> {
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY comp_table_row_import (effective_from, effective_to, keys_json, value) FROM STDIN WITH (FORMAT csv)");
+            RowWriter writer = new RowWriter(columns, mapper, bytes -> copy.writeToCopy(bytes, 0, bytes.length));
+            try {
+                source.rows(writer);
+                writer.checkOverlaps();
+                writer.flush();
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) copy.cancelCopy();
+            }
+            return writer.count;
+        });
+
+        Map<String, Object> params = Map.of("t", tenantId, "c", component, "n", tableName);
+        jdbc.update("""
+            DELETE FROM comp_table_row
+             WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+            """, params);
+        jdbc.update("""
+            INSERT INTO comp_table_row(tenant_id, component_target, table_name,
+                                       effective_from, effective_to, keys_json, value)
+            SELECT :t, :c, :n, effective_from, effective_to, keys_json, value
+              FROM comp_table_row_import
+            """, params);
+        tableDataVersion.bump(tenantId);
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        void accept(JsonNode row);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void rows(RowSink sink);
+    }
+
+    record Column(String name, boolean numeric) {}
+
+    /**
+     * Destination of the CSV lines (the COPY stream).
+     */
+    @FunctionalInterface
+    interface CopySink {
+        void write(byte[] bytes) throws SQLException;
+    }
+
+    /**
+     * Numeric key: an exact value (point) or a range {min inclusive, max exclusive}; null = unbounded.
+     */
+    private record Interval(BigDecimal min, BigDecimal max, boolean point) {
+        // Largest value the key covers (inclusive for a point, exclusive for a range); null = unbounded
+        BigDecimal upper() {
+            return point ? min : max;
+        }
+
+        boolean overlaps(Interval other) {
+            if (point && other.point) return min.compareTo(other.min) == 0;
+            if (point) return other.contains(min);
+            if (other.point) return contains(other.min);
+            return (min == null || other.max == null || min.compareTo(other.max) < 0)
+                && (other.min == null || max == null || other.min.compareTo(max) < 0);
+        }
+
+        private boolean contains(BigDecimal v) {
+            return (min == null || v.compareTo(min) >= 0) && (max == null || v.compareTo(max) < 0);
+        }
+    }
+
+    private record Signature(int rowNumber, LocalDate from, LocalDate to, Interval[] numericKeys) {
+        boolean conflictsWith(Signature other) {
+            if (to.isBefore(other.from) || other.to.isBefore(from)) return false;
+            for (int i = 0; i < numericKeys.length; i++) {
+                if (!numericKeys[i].overlaps(other.numericKeys[i])) return false;
+            }
+            return true;
+        }
+
+        // Sweep dimension: the first numeric key, or the effective dates when there is none
+        int compareStart(Signature other) {
+            if (numericKeys.length == 0) return from.compareTo(other.from);
+            return Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())
+                .compare(numericKeys[0].min(), other.numericKeys[0].min());
+        }
+
+        int compareEnd(Signature other) {
+            if (numericKeys.length == 0) return to.compareTo(other.to);
+            return Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder())
+                .compare(numericKeys[0].upper(), other.numericKeys[0].upper());
+        }
+
+        // No row starting where {@code later} starts, or after, can overlap this one in the sweep dimension
+        boolean endsBefore(Signature later) {
+            if (numericKeys.length == 0) return to.isBefore(later.from);
+            Interval key = numericKeys[0];
+            BigDecimal start = later.numericKeys[0].min();
+            if (start == null) return false;
+            if (key.point()) return key.min().compareTo(start) < 0;
+            return key.max() != null && key.max().compareTo(start) <= 0;
+        }
+    }
+
+    /**
+     * Validates each row and writes it as a CSV line to the COPY stream; {@link #checkOverlaps} then
+     * checks the rows of each string-key group against each other. A range key with min == max is
+     * stored as the exact value, which is the lookup it stands for.
+     */
+    static final class RowWriter implements RowSink {
+        private final List<Column> columns;
+        private final ObjectMapper mapper;
+        private final CopySink copy;
+        private final Map<List<String>, List<Signature>> seen = new HashMap<>();
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_BYTES + 1024);
+        private int count;
+
+        RowWriter(List<Column> columns, ObjectMapper mapper, CopySink copy) {
+            this.columns = columns;
+            this.mapper = mapper;
+            this.copy = copy;
+        }
+
+        @Override
+        public void accept(JsonNode row) {
+            int rowNumber = count + 1;
+            if (row == null || !row.isObject()) throw invalid(rowNumber, "row must be an object");
+
+            LocalDate from = date(row, "effectiveFrom", DEFAULT_FROM, rowNumber);
+            LocalDate to = date(row, "effectiveTo", DEFAULT_TO, rowNumber);
+            if (to.isBefore(from)) throw invalid(rowNumber, "effectiveTo " + to + " is before effectiveFrom " + from);
+
+            JsonNode keys = row.get("keys");
+            if (keys == null || !keys.isObject()) throw invalid(rowNumber, "\"keys\" must be an object");
+            Set<String> known = new HashSet<>();
+            List<String> stringKeys = new ArrayList<>();
+            List<Interval> numericKeys = new ArrayList<>();
+            ObjectNode stored = null;
+            for (Column column : columns) {
+                known.add(column.name());
+                JsonNode key = keys.get(column.name());
+                if (key == null || key.isNull()) throw invalid(rowNumber, "missing key '" + column.name() + "'");
+                if (column.numeric()) {
+                    Interval interval = numericKey(key, column.name(), rowNumber);
+                    if (interval.point() && key.isObject()) {
+                        if (stored == null) stored = ((ObjectNode) keys).deepCopy();
+                        stored.set(column.name(), DecimalNode.valueOf(interval.min()));
+                    }
+                    numericKeys.add(interval);
+                } else {
+                    if (key.isObject() || key.isArray()) {
+                        throw invalid(rowNumber, "key '" + column.name() + "' must be a single value");
+                    }
+                    stringKeys.add(key.asText());
+                }
+            }
+            for (Iterator<String> names = keys.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                if (!known.contains(name)) throw invalid(rowNumber, "unknown key '" + name + "'");
+            }
+
+            JsonNode valueNode = row.get("value");
+            BigDecimal value = valueNode == null || valueNode.isNull() ? null : number(valueNode);
+            if (value == null) throw invalid(rowNumber, "\"value\" must be a number");
+            value = value.setScale(2, RoundingMode.HALF_UP);
+            if (value.abs().compareTo(MAX_VALUE) >= 0) throw invalid(rowNumber, "value " + value + " is out of range");
+
+            seen.computeIfAbsent(stringKeys, k -> new ArrayList<>())
+                .add(new Signature(rowNumber, from, to, numericKeys.toArray(new Interval[0])));
+
+            String keysJson;
+            try {
+                keysJson = mapper.writeValueAsString(stored != null ? stored : keys);
+            } catch (IOException e) {
+                throw invalid(rowNumber, "keys cannot be serialized: " + e.getMessage());
+            }
+            buffer.append(from).append(',').append(to).append(",\"")
+                .append(keysJson.replace("\"", "\"\""))
+                .append("\",").append(value.toPlainString()).append('\n');
+            count++;
+            if (buffer.length() >= COPY_BUFFER_BYTES) flush();
+        }
+
+        /**
+         * Reject the import if two rows of a group conflict (reported on the lowest-numbered row found
+         * to conflict with an earlier one).
+         */
+        void checkOverlaps() {
+            Signature[] first = null;
+            for (List<Signature> group : seen.values()) {
+                Signature[] conflict = findConflict(group);
+                if (conflict != null && (first == null || conflict[1].rowNumber() < first[1].rowNumber())) {
+                    first = conflict;
+                }
+            }
+            if (first != null) {
+                throw invalid(first[1].rowNumber(), "overlaps row " + first[0].rowNumber()
+                    + " (same keys and effective dates; a lookup would match both)");
+            }
+        }
+
+        void flush() {
+            if (buffer.length() == 0) return;
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                copy.write(bytes);
+            } catch (SQLException e) {
+                throw new IllegalStateException("COPY into staging table failed: " + e.getMessage(), e);
+            }
+            buffer.setLength(0);
+        }
+
+        private Interval numericKey(JsonNode key, String column, int rowNumber) {
+            if (key.isObject()) {
+                Set<String> fields = new HashSet<>();
+                key.fieldNames().forEachRemaining(fields::add);
+                fields.removeAll(Set.of("min", "max"));
+                if (!fields.isEmpty()) throw invalid(rowNumber, "range key '" + column + "' may only have min and max");
+                BigDecimal min = bound(key.get("min"), column, rowNumber);
+                BigDecimal max = bound(key.get("max"), column, rowNumber);
+                if (min != null && max != null) {
+                    int order = min.compareTo(max);
+                    if (order > 0) {
+                        throw invalid(rowNumber, "range key '" + column + "' is empty (min " + min + " > max " + max + ")");
+                    }
+                    // A single value entered in a range column: match it exactly
+                    if (order == 0) return new Interval(min, min, true);
+                }
+                return new Interval(min, max, false);
+            }
+            BigDecimal exact = number(key);
+            if (exact == null) throw invalid(rowNumber, "key '" + column + "' must be a number or a {min, max} range");
+            return new Interval(exact, exact, true);
+        }
+
+        private BigDecimal bound(JsonNode node, String column, int rowNumber) {
+            if (node == null || node.isNull()) return null;
+            BigDecimal value = number(node);
+            if (value == null) throw invalid(rowNumber, "range key '" + column + "' bounds must be numbers");
+            return value;
+        }
+    }
+
+    /**
+     * A conflicting pair of rows in one group (earlier row first), or null. Rows are visited in order of
+     * the sweep dimension and compared only with the rows still open in it, so rows that do not
+     * overlap there are never compared pairwise.
+     */
+    private static Signature[] findConflict(List<Signature> group) {
+        if (group.size() < 2) return null;
+        List<Signature> sorted = new ArrayList<>(group);
+        sorted.sort(Signature::compareStart);
+        PriorityQueue<Signature> open = new PriorityQueue<>(Signature::compareEnd);
+        for (Signature row : sorted) {
+            while (!open.isEmpty() && open.peek().endsBefore(row)) {
+                open.poll();
+            }
+            for (Signature other : open) {
+                if (row.conflictsWith(other)) {
+                    return row.rowNumber() < other.rowNumber()
+                        ? new Signature[] {row, other}
+                        : new Signature[] {other, row};
+                }
+            }
+            open.add(row);
+        }
+        return null;
+    }
+
+    private static BigDecimal number(JsonNode node) {
+        if (node.isNumber()) return node.decimalValue();
+        if (node.isTextual()) {
+            try {
+                return new BigDecimal(node.asText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate date(JsonNode row, String field, String defaultValue, int rowNumber) {
+        JsonNode node = row.get(field);
+        String text = node == null || node.isNull() || node.asText().isBlank() ? defaultValue : node.asText();
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw invalid(rowNumber, field + " '" + text + "' is not an ISO date (yyyy-MM-dd)");
+        }
+    }
+
+    private static IllegalArgumentException invalid(int rowNumber, String message) {
+        return new IllegalArgumentException("Row " + rowNumber + ": " + message);
+    }
+}
@@ -13,10 +13,20 @@ import java.util.*;
 @Profile("postgres")
 public class TableServiceDb implements TableService {
     private final NamedParameterJdbcTemplate jdbc;
+    private final TableDataVersion tableDataVersion;
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
 
-    public TableServiceDb(NamedParameterJdbcTemplate jdbc) {
+    public TableServiceDb(NamedParameterJdbcTemplate jdbc, TableDataVersion tableDataVersion) {
         this.jdbc = jdbc;
+        this.tableDataVersion = tableDataVersion;
+    }
+
+    /**
+     * The tenant's {@link TableDataVersion}, bumped by every table write.
+     */
+    @Override
+    public long dataVersion(String tenantId) {
+        return tableDataVersion.current(tenantId);
     }
 
     @Override
@@ -68,6 +78,56 @@ public class TableServiceDb implements TableService {
 
     private record Row(String keysJson, BigDecimal value) {}
 
+    /**
+     * Load a table once into an in-memory overlay whose values can be scaled per lookup
+     * (used by the optimizer's table-factor search). Rows effective on {@code effectiveFrom}
+     * are the ones the factor applies to; lookups for other tables go to this service.
+     */
+    public ScaledTableOverlay loadScaledOverlay(String tenantId, String componentTarget, String tableName,
+                                                LocalDate effectiveFrom) {
+        String columnsJson = jdbc.query("""
+                SELECT columns_json
+                  FROM comp_table
+                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+                """,
+                Map.of("t", tenantId, "c", componentTarget, "n", tableName),
+                rs -> rs.next() ? rs.getString(1) : null);
+
+        if (columnsJson == null) {
+            throw new IllegalArgumentException("Table '" + tableName + "' not found for component '" + componentTarget + "'");
+        }
+        List<String> cols = parseColumnOrder(columnsJson);
+
+        List<ScaledTableOverlay.CompiledRow> rows = new ArrayList<>();
+        jdbc.query("""
+                SELECT effective_from, effective_to, keys_json, value
+                  FROM comp_table_row
+                 WHERE tenant_id=:t AND component_target=:c AND table_name=:n
+                 ORDER BY effective_from, keys_json
+                """,
+                Map.of("t", tenantId, "c", componentTarget, "n", tableName),
+                rs -> {
+                    LocalDate from = rs.getDate("effective_from").toLocalDate();
+                    LocalDate to = rs.getDate("effective_to").toLocalDate();
+                    com.fasterxml.jackson.databind.JsonNode node;
+                    try {
+                        node = mapper.readTree(rs.getString("keys_json"));
+                    } catch (Exception e) {
+                        throw new IllegalArgumentException("Bad keys_json", e);
+                    }
+                    ScaledTableOverlay.KeyMatcher[] keys = new ScaledTableOverlay.KeyMatcher[cols.size()];
+                    for (int i = 0; i < cols.size(); i++) {
+                        keys[i] = ScaledTableOverlay.compileKey(node.get(cols.get(i)));
+                        if (keys[i] == null) return; // column missing: row can never match
+                    }
+                    boolean effectiveOnDate = !effectiveFrom.isBefore(from) && !effectiveFrom.isAfter(to);
+                    rows.add(new ScaledTableOverlay.CompiledRow(from, to, keys, rs.getBigDecimal("value"),
+                            effectiveOnDate, effectiveFrom));
+                });
+
+        return new ScaledTableOverlay(this, tenantId, componentTarget, tableName, cols.size(), List.copyOf(rows));
+    }
+
     private List<String> parseColumnOrder(String columnsJson) {
         try {
             var arr = mapper.readTree(columnsJson);
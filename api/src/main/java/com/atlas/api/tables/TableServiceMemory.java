@@ -31,6 +31,11 @@ public class TableServiceMemory implements TableService {
         return hit;
     }
 
+    @Override
+    public long dataVersion(String tenantId) {
+        return 0L; // rows never change
+    }
+
     private static class Row {
         final LocalDate from, to; final List<Object> keys; final BigDecimal value;
         Row(LocalDate f, LocalDate t, List<Object> k, BigDecimal v){from=f;to=t;keys=k;value=v;}
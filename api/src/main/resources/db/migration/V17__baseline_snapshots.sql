@@ -0,0 +1,28 @@
+-- Materialized baseline payroll snapshots
+-- One row per (tenant, ruleset, ruleset version, population version, as-of date).
+-- Dashboard reads (/baseline/summary, /baseline/breakdown) are served from the snapshot matching the
+-- current input versions; trend and growth are read from the snapshot history.
+CREATE TABLE IF NOT EXISTS baseline_snapshot (
+  snapshot_id        BIGSERIAL     PRIMARY KEY,
+  tenant_id          TEXT          NOT NULL,
+  ruleset_id         TEXT          NOT NULL,
+  ruleset_name       TEXT          NOT NULL,
+  ruleset_version    TEXT          NOT NULL, -- hash of rules, tenant table version (V20) and component groups
+  population_version TEXT          NOT NULL, -- hash of the tenant_population_version counter (V19)
+  as_of_date         DATE          NOT NULL,
+  active_ruleset     BOOLEAN       NOT NULL DEFAULT false, -- ruleset was the tenant's active one
+  total_payroll      NUMERIC(18,2) NOT NULL,
+  avg_per_employee   NUMERIC(18,2) NOT NULL,
+  employee_count     INTEGER       NOT NULL,
+  component_totals   JSONB         NOT NULL DEFAULT '[]'::jsonb, -- [{"key": ..., "amount": ...}] in alphabetical order of key
+  group_totals       JSONB         NOT NULL DEFAULT '[]'::jsonb, -- [{"key": ..., "amount": ...}] in display order
+  calculated_at      TIMESTAMPTZ   NOT NULL DEFAULT now(),
+  UNIQUE (tenant_id, ruleset_id, ruleset_version, population_version, as_of_date),
+  FOREIGN KEY (tenant_id) REFERENCES tenant(tenant_id) ON DELETE CASCADE
+);
+
+-- Latest snapshot for a ruleset/date, and active-ruleset history for trend and growth
+CREATE INDEX IF NOT EXISTS idx_baseline_snapshot_lookup
+  ON baseline_snapshot(tenant_id, ruleset_id, as_of_date, calculated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_baseline_snapshot_history
+  ON baseline_snapshot(tenant_id, as_of_date DESC, calculated_at DESC) WHERE active_ruleset;
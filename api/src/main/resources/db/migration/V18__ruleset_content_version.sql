@@ -0,0 +1,8 @@
+-- Ruleset content version
+-- Set in the same transaction as every rule write (full replace or diff), so caches and clients
+-- can tell that the rules of a ruleset changed without comparing them. Values come from one sequence,
+-- so a ruleset deleted and recreated under the same id never gets back a version caches may still hold.
+CREATE SEQUENCE IF NOT EXISTS ruleset_content_version_seq;
+
+ALTER TABLE ruleset
+  ADD COLUMN IF NOT EXISTS content_version BIGINT NOT NULL DEFAULT nextval('ruleset_content_version_seq');
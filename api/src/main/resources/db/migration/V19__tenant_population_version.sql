@@ -0,0 +1,8 @@
+-- Tenant population version
+-- Bumped by every employee write: once per single create/update/delete and once at the end of a
+-- bulk import, so baseline snapshots keyed on it are recomputed once per import, not per batch.
+CREATE TABLE IF NOT EXISTS tenant_population_version (
+  tenant_id   TEXT        PRIMARY KEY REFERENCES tenant(tenant_id) ON DELETE CASCADE,
+  version     BIGINT      NOT NULL DEFAULT 0,
+  updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
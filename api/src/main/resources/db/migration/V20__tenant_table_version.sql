@@ -0,0 +1,15 @@
+-- Tenant table-data version
+-- Bumped in the same transaction as every comp_table / comp_table_row write, so every instance can tell
+-- that a tenant's tables changed. Values come from one sequence: a recreated tenant never gets back a
+-- version that caches may still hold. Existing tenants start at a fresh value.
+CREATE SEQUENCE IF NOT EXISTS tenant_table_version_seq;
+
+CREATE TABLE IF NOT EXISTS tenant_table_version (
+  tenant_id   TEXT        PRIMARY KEY REFERENCES tenant(tenant_id) ON DELETE CASCADE,
+  version     BIGINT      NOT NULL,
+  updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+INSERT INTO tenant_table_version (tenant_id, version)
+SELECT tenant_id, nextval('tenant_table_version_seq') FROM tenant
+ON CONFLICT (tenant_id) DO NOTHING;
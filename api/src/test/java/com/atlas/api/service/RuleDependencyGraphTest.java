@@ -0,0 +1,264 @@
+package com.atlas.api.service;
+
+import com.atlas.engine.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The incremental graph must always agree with a graph built from scratch and with an independent
+ * strongly-connected-component computation over the same rules.
+ */
+public class RuleDependencyGraphTest {
+
+    private static final Pattern VAR = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final RuleDependencyGraph graph = new RuleDependencyGraph();
+    private final Map<String, Rule> rules = new LinkedHashMap<>();
+
+    private static Rule rule(String target, String expression, String... dependsOn) {
+        return new Rule(target, expression, List.of(dependsOn), null, null, Map.of());
+    }
+
+    // Apply the current rules and compare against a full recompute
+    private Set<String> sync() {
+        List<Rule> current = List.copyOf(rules.values());
+        Set<String> changed = graph.sync(current);
+        assertMatchesFullRecompute(current);
+        return changed;
+    }
+
+    private void put(Rule r) {
+        rules.put(r.getTarget(), r);
+    }
+
+    @Test
+    void addingRulesResolvesReferences() {
+        put(rule("Bonus", "${Base} * 0.1"));
+        assertEquals(Set.of("Bonus"), sync());
+        assertEquals(List.of("Base"), graph.unresolvedNames());
+
+        put(rule("Base", "${Salary}"));
+        assertEquals(Set.of("Base"), sync());
+        assertEquals(List.of("Salary"), graph.unresolvedNames());
+        assertEquals(Set.of(), sync());
+    }
+
+    @Test
+    void removingARuleMakesItsReferencesUnresolved() {
+        put(rule("Base", "${Salary}"));
+        put(rule("Bonus", "${Base} * 0.1"));
+        put(rule("Tax", "${Base} * 0.2"));
+        sync();
+
+        rules.remove("Base");
+        assertEquals(Set.of("Base"), sync());
+        assertEquals(List.of("Base"), graph.unresolvedNames());
+
+        // Once nothing references Base any more it is not reported
+        rules.remove("Bonus");
+        rules.remove("Tax");
+        sync();
+        assertEquals(List.of(), graph.unresolvedNames());
+    }
+
+    @Test
+    void renamingATargetMovesItsReferences() {
+        put(rule("Base", "${Salary}"));
+        put(rule("Bonus", "${Base} * 0.1"));
+        sync();
+
+        rules.remove("Base");
+        put(rule("BaseSalary", "${Salary}"));
+        assertEquals(Set.of("Base", "BaseSalary"), sync());
+        assertEquals(List.of("Base", "Salary"), graph.unresolvedNames());
+
+        put(rule("Bonus", "${BaseSalary} * 0.1"));
+        sync();
+        assertEquals(List.of("Salary"), graph.unresolvedNames());
+    }
+
+    @Test
+    void dependencyTurnsResolvedAndUnresolved() {
+        put(rule("Bonus", "${Base} + ${Extra}"));
+        sync();
+        assertEquals(List.of("Base", "Extra"), graph.unresolvedNames());
+
+        put(rule("Extra", "100"));
+        sync();
+        assertEquals(List.of("Base"), graph.unresolvedNames());
+
+        // Dropping the reference from the expression resolves it too
+        put(rule("Bonus", "${Extra}"));
+        sync();
+        assertEquals(List.of(), graph.unresolvedNames());
+
+        rules.remove("Extra");
+        sync();
+        assertEquals(List.of("Extra"), graph.unresolvedNames());
+
+        // dependsOn entries are edges, not variables: they are never reported as unresolved
+        put(rule("Bonus", "100", "Missing"));
+        sync();
+        assertEquals(List.of(), graph.unresolvedNames());
+    }
+
+    @Test
+    void cyclesMergeThroughAChangedRule() {
+        put(rule("A", "${B}"));
+        put(rule("B", "${A}"));
+        put(rule("C", "${D}"));
+        put(rule("D", "${C}"));
+        sync();
+        assertEquals(2, graph.cycles().size());
+
+        // A -> C joins the two cycles into one component once C reaches back to A
+        put(rule("A", "${B} + ${C}"));
+        sync();
+        assertEquals(2, graph.cycles().size());
+        put(rule("D", "${C} + ${A}"));
+        sync();
+        assertEquals(1, graph.cycles().size());
+    }
+
+    @Test
+    void cyclesSplitWhenALinkIsRemoved() {
+        put(rule("A", "${B} + ${C}"));
+        put(rule("B", "${A}"));
+        put(rule("C", "${D}"));
+        put(rule("D", "${C} + ${A}"));
+        sync();
+        assertEquals(1, graph.cycles().size());
+
+        put(rule("D", "${C}"));
+        sync();
+        assertEquals(2, graph.cycles().size());
+
+        // Removing a member breaks its cycle; the rest stays cyclic
+        rules.remove("B");
+        sync();
+        assertEquals(1, graph.cycles().size());
+        assertEquals(List.of("B"), graph.unresolvedNames());
+    }
+
+    @Test
+    void selfReferenceAndDependsOnCycles() {
+        put(rule("A", "${A} + 1"));
+        sync();
+        assertEquals(List.of(List.of("A", "A")), graph.cycles());
+
+        put(rule("A", "1"));
+        put(rule("B", "2", "C"));
+        put(rule("C", "3", "B"));
+        sync();
+        assertEquals(1, graph.cycles().size());
+
+        put(rule("C", "3"));
+        sync();
+        assertEquals(List.of(), graph.cycles());
+    }
+
+    @Test
+    void randomEditsMatchFullRecompute() {
+        Random random = new Random(42);
+        List<String> names = List.of("A", "B", "C", "D", "E", "F", "G", "H");
+        for (int step = 0; step < 2000; step++) {
+            String target = names.get(random.nextInt(names.size()));
+            int op = random.nextInt(10);
+            if (op < 3) {
+                rules.remove(target);
+            } else {
+                StringBuilder expression = new StringBuilder("1");
+                int refs = random.nextInt(3);
+                for (int i = 0; i < refs; i++) {
+                    expression.append(" + ${").append(random.nextInt(10) < 8
+                        ? names.get(random.nextInt(names.size()))
+                        : "Input" + random.nextInt(3)).append('}');
+                }
+                String[] dependsOn = random.nextInt(4) == 0
+                    ? new String[] {names.get(random.nextInt(names.size()))}
+                    : new String[0];
+                put(rule(target, expression.toString(), dependsOn));
+            }
+            sync();
+        }
+    }
+
+    private void assertMatchesFullRecompute(List<Rule> current) {
+        RuleDependencyGraph full = new RuleDependencyGraph();
+        full.sync(current);
+        assertEquals(full.unresolvedNames(), graph.unresolvedNames());
+        assertEquals(full.cycles().size(), graph.cycles().size());
+
+        Map<String, Set<String>> edges = edges(current);
+        assertEquals(expectedUnresolved(current), graph.unresolvedNames());
+        List<Set<String>> components = cyclicComponents(edges);
+        assertEquals(components.size(), graph.cycles().size(), "cycles " + graph.cycles() + " vs " + components);
+        Set<Set<String>> covered = new HashSet<>();
+        for (List<String> path : graph.cycles()) {
+            assertTrue(path.size() >= 2, path.toString());
+            assertEquals(path.get(0), path.get(path.size() - 1), path.toString());
+            for (int i = 0; i + 1 < path.size(); i++) {
+                assertTrue(edges.get(path.get(i)).contains(path.get(i + 1)), "no edge in " + path);
+            }
+            Set<String> component = components.stream()
+                .filter(c -> c.contains(path.get(0))).findFirst().orElse(null);
+            assertNotNull(component, "path outside any cyclic component: " + path);
+            assertTrue(component.containsAll(path), path.toString());
+            assertTrue(covered.add(component), "two paths for one component: " + path);
+        }
+    }
+
+    private static Map<String, Set<String>> edges(List<Rule> current) {
+        Map<String, Rule> byTarget = new LinkedHashMap<>();
+        for (Rule r : current) byTarget.put(r.getTarget(), r);
+        Map<String, Set<String>> edges = new LinkedHashMap<>();
+        for (Rule r : byTarget.values()) {
+            Set<String> out = new LinkedHashSet<>();
+            Matcher m = VAR.matcher(r.getExpression());
+            while (m.find()) if (byTarget.containsKey(m.group(1))) out.add(m.group(1));
+            for (String d : r.getDependsOn()) if (byTarget.containsKey(d)) out.add(d);
+            edges.put(r.getTarget(), out);
+        }
+        return edges;
+    }
+
+    private static List<String> expectedUnresolved(List<Rule> current) {
+        Set<String> targets = new HashSet<>();
+        for (Rule r : current) targets.add(r.getTarget());
+        Set<String> names = new TreeSet<>();
+        for (Rule r : current) {
+            Matcher m = VAR.matcher(r.getExpression());
+            while (m.find()) if (!targets.contains(m.group(1))) names.add(m.group(1));
+        }
+        return List.copyOf(names);
+    }
+
+    // Components with more than one node or a self-loop, by mutual reachability
+    private static List<Set<String>> cyclicComponents(Map<String, Set<String>> edges) {
+        Map<String, Set<String>> reach = new HashMap<>();
+        for (String n : edges.keySet()) {
+            Set<String> seen = new HashSet<>();
+            Deque<String> todo = new ArrayDeque<>(edges.get(n));
+            while (!todo.isEmpty()) {
+                String next = todo.pop();
+                if (seen.add(next)) todo.addAll(edges.get(next));
+            }
+            reach.put(n, seen);
+        }
+        List<Set<String>> components = new ArrayList<>();
+        Set<String> assigned = new HashSet<>();
+        for (String n : edges.keySet()) {
+            if (assigned.contains(n) || !reach.get(n).contains(n)) continue;
+            Set<String> component = new HashSet<>();
+            for (String m : reach.get(n)) if (reach.get(m).contains(n)) component.add(m);
+            assigned.addAll(component);
+            components.add(component);
+        }
+        return components;
+    }
+}
@@ -0,0 +1,72 @@
+package com.atlas.api.service;
+
+import com.atlas.api.model.dto.ValidateRequest;
+import com.atlas.api.model.dto.ValidateResponse;
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleValidationServiceTest {
+
+    // No rule carries a "group" meta, so the groups service is never consulted
+    private final RuleValidationService service = new RuleValidationService(null);
+    private final ValidateRequest request = new ValidateRequest(Map.of());
+
+    private static RuleSet ruleset(String id, Rule... rules) {
+        return new RuleSet(id, List.of(rules));
+    }
+
+    private static Rule rule(String target, String expression) {
+        return new Rule(target, expression, List.of(), null, null, Map.of());
+    }
+
+    private void open(String rulesetId) {
+        service.validate("t1", rulesetId, ruleset(rulesetId, rule("A", "${B} + 1"), rule("B", "2")), request);
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsEvicted() {
+        for (int i = 0; i < RuleValidationService.MAX_SESSIONS; i++) {
+            open("rs" + i);
+        }
+        assertTrue(service.hasSession("t1", "rs0"));
+        assertTrue(service.hasSession("t1", "rs1"));
+
+        // Touching rs0 makes rs1 the eldest
+        open("rs0");
+        open("rs-new");
+
+        assertTrue(service.hasSession("t1", "rs0"));
+        assertFalse(service.hasSession("t1", "rs1"));
+        assertTrue(service.hasSession("t1", "rs2"));
+        assertTrue(service.hasSession("t1", "rs-new"));
+    }
+
+    @Test
+    void sessionsAreKeyedByTenant() {
+        open("rs0");
+        assertTrue(service.hasSession("t1", "rs0"));
+        assertFalse(service.hasSession("t2", "rs0"));
+    }
+
+    @Test
+    void evictedSessionIsRebuiltWithTheSameResult() {
+        RuleSet cyclic = ruleset("rs0", rule("A", "${B}"), rule("B", "${A} + ${X}"));
+        ValidateResponse first = service.validate("t1", "rs0", cyclic, request);
+        for (int i = 1; i <= RuleValidationService.MAX_SESSIONS; i++) {
+            open("rs" + i);
+        }
+        assertFalse(service.hasSession("t1", "rs0"));
+
+        ValidateResponse again = service.validate("t1", "rs0", cyclic, request);
+        assertEquals(first, again);
+        assertEquals(first, service.validate(cyclic, request));
+        assertFalse(again.ok());
+        assertEquals(1, again.cycles().size());
+    }
+}
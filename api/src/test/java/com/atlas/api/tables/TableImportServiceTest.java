@@ -0,0 +1,61 @@
+package com.atlas.api.tables;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableImportServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ByteArrayOutputStream copied = new ByteArrayOutputStream();
+
+    private TableImportService.RowWriter writer(TableImportService.Column... columns) {
+        return new TableImportService.RowWriter(List.of(columns), mapper, bytes -> copied.write(bytes, 0, bytes.length));
+    }
+
+    private String csv(TableImportService.RowWriter writer) {
+        writer.checkOverlaps();
+        writer.flush();
+        return copied.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void singleNumberRangeFromSpreadsheetImportIsStoredAsExactKey() throws Exception {
+        // TableBuilder's Excel import used to send a lone number in a range column as {min: n, max: n}
+        TableImportService.RowWriter writer = writer(new TableImportService.Column("Income", true));
+        writer.accept(mapper.readTree("""
+            {"keys": {"Income": {"min": 1000, "max": 1000}}, "value": 12.5,
+             "effectiveFrom": "2024-01-01", "effectiveTo": "9999-12-31"}
+            """));
+        writer.accept(mapper.readTree("""
+            {"keys": {"Income": {"min": 0, "max": 1000}}, "value": 10}
+            """));
+
+        String csv = csv(writer);
+        assertTrue(csv.contains("2024-01-01,9999-12-31,\"{\"\"Income\"\":1000}\",12.50"), csv);
+        assertTrue(csv.contains("{\"\"min\"\":0,\"\"max\"\":1000}"), csv);
+    }
+
+    @Test
+    void exactKeyFromEqualBoundsOverlapsTheSameExactKey() throws Exception {
+        TableImportService.RowWriter writer = writer(new TableImportService.Column("Income", true));
+        writer.accept(mapper.readTree("{\"keys\": {\"Income\": {\"min\": 500, \"max\": 500}}, \"value\": 1}"));
+        writer.accept(mapper.readTree("{\"keys\": {\"Income\": 500}, \"value\": 2}"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, writer::checkOverlaps);
+        assertEquals("Row 2: overlaps row 1 (same keys and effective dates; a lookup would match both)", e.getMessage());
+    }
+
+    @Test
+    void invertedRangeIsRejected() throws Exception {
+        TableImportService.RowWriter writer = writer(new TableImportService.Column("Income", true));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> writer.accept(
+                mapper.readTree("{\"keys\": {\"Income\": {\"min\": 2000, \"max\": 1000}}, \"value\": 1}")));
+        assertEquals("Row 1: range key 'Income' is empty (min 2000 > max 1000)", e.getMessage());
+    }
+}
@@ -0,0 +1,86 @@
+package com.atlas.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Compares a JMH JSON result file against the committed baseline and exits non-zero on regressions.
+ *
+ *   java -cp bench/target/benchmarks.jar com.atlas.bench.BaselineCheck bench/result.json [maxSlowdownPct] [baseline.json]
+ *
+ * The baseline defaults to {@value #DEFAULT_BASELINE}, relative to the repository root.
+ * Scores are average times, so a regression is a score more than maxSlowdownPct (default 15) above the
+ * baseline. Benchmarks missing from either file are listed but do not fail the check.
+ */
+public final class BaselineCheck {
+    static final String DEFAULT_BASELINE = "bench/baseline/jmh-baseline.json";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: BaselineCheck <result.json> [maxSlowdownPct] [baseline.json]");
+            System.exit(2);
+        }
+        double maxSlowdown = args.length > 1 ? Double.parseDouble(args[1]) / 100.0 : 0.15;
+        File baselineFile = new File(args.length > 2 ? args[2] : DEFAULT_BASELINE);
+        if (!baselineFile.isFile()) {
+            System.err.println("baseline not found: " + baselineFile + " (run from the repository root or pass its path)");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> current = read(new File(args[0]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score base = baseline.get(entry.getKey());
+            Score now = entry.getValue();
+            if (base == null) {
+                System.out.printf("NEW        %-70s %12.3f %s%n", entry.getKey(), now.value(), now.unit());
+                continue;
+            }
+            if (!base.unit().equals(now.unit())) {
+                System.out.printf("UNIT       %-70s %s vs %s%n", entry.getKey(), base.unit(), now.unit());
+                continue;
+            }
+            double change = (now.value() - base.value()) / base.value();
+            boolean regressed = change > maxSlowdown;
+            if (regressed) regressions++;
+            System.out.printf("%-10s %-70s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                regressed ? "REGRESSED" : "ok", entry.getKey(), base.value(), now.value(), now.unit(), change * 100);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("MISSING    %s%n", key);
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than baseline by more than "
+                + Math.round(maxSlowdown * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    // benchmark name + sorted params -> primary score
+    private static Map<String, Score> read(File file) throws Exception {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                List<String> names = new ArrayList<>();
+                params.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                for (String name : names) {
+                    key.append(' ').append(name).append('=').append(params.get(name).asText());
+                }
+            }
+            JsonNode metric = run.get("primaryMetric");
+            scores.put(key.toString(), new Score(metric.get("score").asDouble(), metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private record Score(double value, String unit) {}
+}
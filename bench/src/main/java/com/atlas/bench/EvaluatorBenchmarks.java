@@ -0,0 +1,60 @@
+package com.atlas.bench;
+
+import com.atlas.engine.eval.DefaultEvaluator;
+import com.atlas.engine.eval.DependencyResolver;
+import com.atlas.engine.model.EvalContext;
+import com.atlas.engine.model.EvaluationResult;
+import com.atlas.engine.model.RuleSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-ruleset work per employee on generated rulesets (groups, toggle flags, TBL, IF/MIN/MAX/ROUND).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluatorBenchmarks {
+    private static final LocalDate PERIOD = LocalDate.of(2025, 1, 1);
+    private static final int EMPLOYEES = 16;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public SyntheticRulesets.Size size;
+
+    private RuleSet ruleset;
+    private EvalContext[] employees;
+    private DefaultEvaluator evaluator;
+    private final DependencyResolver resolver = new DependencyResolver();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ruleset = SyntheticRulesets.generate(size);
+        employees = new EvalContext[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees[i] = new EvalContext(SyntheticRulesets.employee(i), PERIOD);
+        }
+        evaluator = new DefaultEvaluator(new SyntheticTables());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateAll(Cursor cursor) {
+        EvalContext ctx = employees[cursor.next++ & (EMPLOYEES - 1)];
+        return evaluator.evaluateAll(ruleset, ctx);
+    }
+
+    @Benchmark
+    public List<String> dependencyOrder() {
+        return resolver.order(ruleset, PERIOD);
+    }
+}
@@ -0,0 +1,75 @@
+package com.atlas.bench;
+
+import com.atlas.engine.expr.DefaultEvalContext;
+import com.atlas.engine.expr.ExprEvaluator;
+import com.atlas.engine.expr.ExprNode;
+import com.atlas.engine.expr.ExprParser;
+import com.atlas.engine.expr.Functions;
+import com.atlas.engine.expr.TableLookupServiceAdapter;
+import com.atlas.engine.expr.TracingExprEvaluator;
+import com.atlas.engine.expr.Value;
+import com.atlas.engine.model.EvalContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and evaluating single expressions: plain arithmetic, functions / IF, and TBL lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmarks {
+
+    static final Map<String, String> EXPRESSIONS = Map.of(
+        "arithmetic", "(BaseSalary + Bonus) * 0.04 + BaseSalary / 12 - 150",
+        "functions", "IF YearsOfService > 5 THEN MIN(BaseSalary * 0.1, 2500) ELSE ROUND(MAX(Bonus, 100) * 1.05, 2)",
+        "table", "TBL(\"grade_rates\", Grade, Level) + TBL(\"seniority\", YearsOfService) * BaseSalary / 100");
+
+    @Param({"arithmetic", "functions", "table"})
+    public String shape;
+
+    private String expression;
+    private Set<String> componentNames;
+    private com.atlas.engine.expr.EvalContext context;
+    private final ExprEvaluator evaluator = new ExprEvaluator();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expression = EXPRESSIONS.get(shape);
+        Map<String, Object> inputs = new java.util.LinkedHashMap<>(SyntheticRulesets.employee(7));
+        inputs.put("Bonus", new BigDecimal("640"));
+        componentNames = inputs.keySet();
+        context = new DefaultEvalContext(new EvalContext(inputs, LocalDate.of(2025, 1, 1)));
+        // TBL is bound per thread; Scope.Thread state is set up on the benchmark thread
+        Functions.registerTbl(new TableLookupServiceAdapter(new SyntheticTables(), "bench", "BenchComponent",
+            LocalDate.of(2025, 1, 1)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Functions.clearTbl();
+    }
+
+    @Benchmark
+    public ExprNode parse() {
+        return new ExprParser(expression, componentNames).parse();
+    }
+
+    @Benchmark
+    public Value evaluate() {
+        return evaluator.evaluate(expression, context);
+    }
+
+    @Benchmark
+    public Value evaluateTraced() {
+        return new TracingExprEvaluator().evaluate(expression, context);
+    }
+}
@@ -0,0 +1,110 @@
+package com.atlas.bench;
+
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Reproducible rulesets shaped like real tenants: components spread over ordered groups, toggle flags
+ * (pension, incomeTax), references to earlier components, group sums, toggle group sums, TBL lookups
+ * on {@link SyntheticTables} and IF / MIN / MAX / ROUND. Same size and seed, same ruleset.
+ */
+public final class SyntheticRulesets {
+    public static final long SEED = 20240601L;
+
+    // Group order = list order (group1 = base, ...); the last group sums the toggle groups
+    static final List<String> GROUPS = List.of("base", "allowances", "bonuses", "pension", "deductions", "tax");
+
+    public enum Size {
+        SMALL(20), MEDIUM(200), LARGE(2000);
+
+        final int components;
+
+        Size(int components) {
+            this.components = components;
+        }
+    }
+
+    private SyntheticRulesets() {}
+
+    public static RuleSet generate(Size size) {
+        return generate(size.components, SEED);
+    }
+
+    public static RuleSet generate(int components, long seed) {
+        Random random = new Random(seed);
+        List<Rule> rules = new ArrayList<>(components);
+        List<String> targets = new ArrayList<>(components);
+        Map<String, Integer> groupOrdering = new LinkedHashMap<>();
+        for (int g = 0; g < GROUPS.size(); g++) {
+            groupOrdering.put(GROUPS.get(g), g + 1);
+        }
+
+        for (int i = 0; i < components; i++) {
+            int group = Math.min(GROUPS.size() - 1, i * GROUPS.size() / components);
+            String target = String.format("Comp%04d", i);
+            Set<String> refs = new TreeSet<>();
+            String expression = expression(random, group, targets, refs);
+
+            Map<String, String> meta = new LinkedHashMap<>();
+            meta.put("group", GROUPS.get(group));
+            if (group < GROUPS.size() - 1) {
+                if (random.nextInt(5) == 0) meta.put("pension", "true");
+                if (random.nextInt(3) == 0) meta.put("incomeTax", "true");
+            }
+            if (random.nextInt(4) == 0) meta.put("workPercent", "true");
+
+            rules.add(new Rule(target, expression, List.copyOf(refs), null, null, meta));
+            targets.add(target);
+        }
+        return new RuleSet("bench-" + components, rules).withGroupOrdering(groupOrdering);
+    }
+
+    /**
+     * Inputs every generated rule can read; {@code variant} picks one of a few employee profiles.
+     */
+    public static Map<String, Object> employee(int variant) {
+        Map<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("BaseSalary", new BigDecimal(8000 + 750 * (variant % 9)));
+        inputs.put("YearsOfService", new BigDecimal(variant % 31));
+        inputs.put("Grade", SyntheticTables.GRADES.get(variant % SyntheticTables.GRADES.size()));
+        inputs.put("Level", new BigDecimal(1 + variant % SyntheticTables.LEVELS));
+        inputs.put("WorkPercent", new BigDecimal(variant % 4 == 0 ? 80 : 100));
+        return inputs;
+    }
+
+    private static String expression(Random random, int group, List<String> earlier, Set<String> refs) {
+        // Last group: taxes on cumulative group sums and toggle group sums
+        if (group == GROUPS.size() - 1) {
+            return switch (random.nextInt(3)) {
+                case 0 -> "ROUND(group" + group + " * 0.1" + random.nextInt(10) + ", 2)";
+                case 1 -> "pension_group * 0.0" + (1 + random.nextInt(9)) + " + income_tax_group * 0.02";
+                default -> "MAX(0, " + GROUPS.get(group - 1) + " - " + (500 + random.nextInt(1000)) + ") * 0.05";
+            };
+        }
+        String ref = pick(random, earlier, refs);
+        String groupRef = group > 0 ? GROUPS.get(random.nextInt(group)) : null;
+        return switch (random.nextInt(7)) {
+            case 0 -> "BaseSalary * 0.0" + (1 + random.nextInt(9));
+            case 1 -> ref != null ? "(BaseSalary + " + ref + ") * 0.0" + (1 + random.nextInt(9)) : "BaseSalary * 0.02";
+            case 2 -> "TBL(\"grade_rates\", Grade, Level)" + (ref != null ? " + " + ref + " * 0.01" : "");
+            case 3 -> "TBL(\"seniority\", YearsOfService) * BaseSalary / 100";
+            case 4 -> "IF YearsOfService > " + random.nextInt(20) + " THEN " + (100 + random.nextInt(400))
+                + " ELSE " + (ref != null ? ref + " * 0.5" : "50");
+            case 5 -> groupRef != null ? "MIN(" + groupRef + " * 0.03, " + (1000 + random.nextInt(2000)) + ")"
+                : "MIN(BaseSalary * 0.03, 900)";
+            default -> "ROUND(" + (ref != null ? ref : "BaseSalary") + " * 1.0" + random.nextInt(10) + ", 2)";
+        };
+    }
+
+    // A recent earlier component (mostly local references, like real rulesets), or null for the first rule
+    private static String pick(Random random, List<String> earlier, Set<String> refs) {
+        if (earlier.isEmpty()) return null;
+        int window = Math.min(earlier.size(), 25);
+        String ref = earlier.get(earlier.size() - 1 - random.nextInt(window));
+        refs.add(ref);
+        return ref;
+    }
+}
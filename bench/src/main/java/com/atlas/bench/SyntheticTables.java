@@ -0,0 +1,105 @@
+package com.atlas.bench;
+
+import com.atlas.engine.spi.TableService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory TableService over generated tables, matching rows the way TableServiceDb does
+ * (candidate rows effective on the date scanned in order; range keys {min inclusive, max exclusive};
+ * numeric keys compared with a small epsilon; several matches are an error; no match returns zero).
+ *
+ *   grade_rates (Grade, Level)  exact keys,   GRADES x LEVELS rows
+ *   seniority   (YearsOfService) range keys,  {@code bands} consecutive bands covering 0..40 years
+ *
+ * It has no database round trip, so it measures matching cost only.
+ */
+public final class SyntheticTables implements TableService {
+    static final List<String> GRADES = List.of("A", "B", "C", "D", "E", "F", "G", "H");
+    static final int LEVELS = 12;
+    private static final double EPSILON = 0.0001;
+    private static final LocalDate FROM = LocalDate.of(2020, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2099, 12, 31);
+
+    private final Map<String, List<Row>> tables = new HashMap<>();
+
+    public SyntheticTables() {
+        this(GRADES.size(), LEVELS, 10, SyntheticRulesets.SEED);
+    }
+
+    /**
+     * @param grades number of grade values (exact table rows = grades x levels)
+     * @param levels number of level values
+     * @param bands  number of seniority bands (range table rows)
+     */
+    public SyntheticTables(int grades, int levels, int bands, long seed) {
+        Random random = new Random(seed);
+        List<Row> gradeRates = new ArrayList<>(grades * levels);
+        for (int g = 0; g < grades; g++) {
+            for (int l = 1; l <= levels; l++) {
+                gradeRates.add(new Row(new Object[] { gradeName(g), BigDecimal.valueOf(l) },
+                    BigDecimal.valueOf(100 + random.nextInt(900))));
+            }
+        }
+        tables.put("grade_rates", gradeRates);
+
+        List<Row> seniority = new ArrayList<>(bands);
+        double width = 40.0 / bands;
+        for (int b = 0; b < bands; b++) {
+            Double max = b == bands - 1 ? null : (b + 1) * width;
+            seniority.add(new Row(new Object[] { new Range(b * width, max) },
+                BigDecimal.valueOf(b).multiply(new BigDecimal("0.5"))));
+        }
+        tables.put("seniority", seniority);
+    }
+
+    public static String gradeName(int index) {
+        return index < GRADES.size() ? GRADES.get(index) : "G" + index;
+    }
+
+    @Override
+    public BigDecimal lookup(String tenantId, String componentTarget, String tableName,
+                             List<Object> keys, LocalDate onDate) {
+        List<Row> rows = tables.get(tableName);
+        if (rows == null) {
+            return BigDecimal.ZERO;
+        }
+        if (onDate.isBefore(FROM) || onDate.isAfter(TO)) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal hit = null;
+        for (Row row : rows) {
+            if (row.matches(keys)) {
+                if (hit != null) throw new IllegalStateException("Multiple matches in " + tableName);
+                hit = row.value();
+            }
+        }
+        return hit != null ? hit : BigDecimal.ZERO;
+    }
+
+    private record Range(double min, Double max) {}
+
+    private record Row(Object[] keys, BigDecimal value) {
+        boolean matches(List<Object> args) {
+            if (args.size() != keys.length) {
+                throw new IllegalArgumentException("Keys size mismatch expected " + keys.length + " got " + args.size());
+            }
+            for (int i = 0; i < keys.length; i++) {
+                Object key = keys[i];
+                Object arg = args.get(i);
+                if (key instanceof Range range) {
+                    if (!(arg instanceof Number n)) return false;
+                    double v = n.doubleValue();
+                    if (v < range.min() || (range.max() != null && v >= range.max())) return false;
+                } else if (key instanceof Number k) {
+                    if (!(arg instanceof Number n) || Math.abs(k.doubleValue() - n.doubleValue()) >= EPSILON) return false;
+                } else if (!String.valueOf(key).equals(String.valueOf(arg))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
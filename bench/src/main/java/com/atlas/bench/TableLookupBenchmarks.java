@@ -0,0 +1,62 @@
+package com.atlas.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TableService matching cost on exact-key and range-key tables of growing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableLookupBenchmarks {
+    private static final LocalDate ON = LocalDate.of(2025, 1, 1);
+    private static final int KEYS = 64;
+
+    // Exact table rows = rows (grades x 10 levels); range table = rows bands
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    private SyntheticTables tables;
+    private List<Object>[] exactKeys;
+    private List<Object>[] rangeKeys;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        int levels = 10;
+        int grades = Math.max(1, rows / levels);
+        tables = new SyntheticTables(grades, levels, rows, SyntheticRulesets.SEED);
+        Random random = new Random(SyntheticRulesets.SEED);
+        exactKeys = new List[KEYS];
+        rangeKeys = new List[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            exactKeys[i] = List.of(SyntheticTables.gradeName(random.nextInt(grades)),
+                BigDecimal.valueOf(1 + random.nextInt(levels)));
+            rangeKeys[i] = List.of(BigDecimal.valueOf(random.nextDouble() * 40));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public BigDecimal exactLookup(Cursor cursor) {
+        return tables.lookup("bench", "BenchComponent", "grade_rates", exactKeys[cursor.next++ & (KEYS - 1)], ON);
+    }
+
+    @Benchmark
+    public BigDecimal rangeLookup(Cursor cursor) {
+        return tables.lookup("bench", "BenchComponent", "seniority", rangeKeys[cursor.next++ & (KEYS - 1)], ON);
+    }
+}
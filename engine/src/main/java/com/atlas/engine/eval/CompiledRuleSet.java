@@ -0,0 +1,304 @@
+package com.atlas.engine.eval;
+
+import com.atlas.engine.expr.BinaryOpNode;
+import com.atlas.engine.expr.BooleanNode;
+import com.atlas.engine.expr.ComponentRefNode;
+import com.atlas.engine.expr.ExprNode;
+import com.atlas.engine.expr.ExprOptimizer;
+import com.atlas.engine.expr.FunctionCallNode;
+import com.atlas.engine.expr.InvariantNode;
+import com.atlas.engine.expr.NumberNode;
+import com.atlas.engine.expr.ParseCache;
+import com.atlas.engine.expr.SharedNode;
+import com.atlas.engine.expr.StringNode;
+import com.atlas.engine.expr.UnaryOpNode;
+import com.atlas.engine.expr.Value;
+import com.atlas.engine.model.Rule;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Compiled plan of a ruleset, shared by every evaluation of it through one {@link DefaultEvaluator}:
+ * <ul>
+ *   <li>rule expressions parsed and optimized once (see {@link ExprOptimizer});</li>
+ *   <li>subtrees hash-consed across all rules: structurally identical subexpressions are one node, and
+ *       those occurring more than once are {@link SharedNode}s, evaluated once per employee;</li>
+ *   <li>the values of employee-invariant subtrees, which depend only on tenant, component, period date
+ *       and table data.</li>
+ * </ul>
+ * Thread-safe.
+ */
+public class CompiledRuleSet {
+    // Bounds the invariant memo; it is cleared when full (old dates and table versions go with it)
+    private static final int MAX_INVARIANT_VALUES = 10_000;
+
+    private final int ruleCount;
+    private final int nodeCount;
+    private final int distinctNodeCount;
+    private final int invariantSubtrees;
+    private final List<SharedNode> shared = new ArrayList<>();
+    private final Map<SharedNode, Integer> occurrences = new IdentityHashMap<>();
+    private final Map<String, ExprNode> expressions = new ConcurrentHashMap<>();
+    private final Map<InvariantKey, Value> invariants = new ConcurrentHashMap<>();
+
+    public CompiledRuleSet(List<Rule> rules) {
+        Map<NodeKey, ExprNode> interned = new HashMap<>();
+        Map<String, ExprNode> roots = new LinkedHashMap<>();
+        List<ExprNode> ruleRoots = new ArrayList<>();
+        for (Rule rule : rules != null ? rules : List.<Rule>of()) {
+            String expression = rule.getExpression();
+            if (expression == null) {
+                continue;
+            }
+            if (!roots.containsKey(expression)) {
+                ExprNode root;
+                try {
+                    root = intern(compile(expression), interned);
+                } catch (RuntimeException e) {
+                    root = null; // reported when the rule is evaluated
+                }
+                roots.put(expression, root);
+            }
+            if (roots.get(expression) != null) {
+                ruleRoots.add(roots.get(expression));
+            }
+        }
+
+        // Occurrences of each distinct subtree over all rules
+        Map<ExprNode, Integer> uses = new IdentityHashMap<>();
+        int nodes = 0;
+        for (ExprNode root : ruleRoots) {
+            count(root, uses);
+            nodes += size(root);
+        }
+        Map<ExprNode, ExprNode> rewritten = new IdentityHashMap<>();
+        for (Map.Entry<String, ExprNode> entry : roots.entrySet()) {
+            if (entry.getValue() != null) {
+                expressions.put(entry.getKey(), share(entry.getValue(), uses, rewritten));
+            }
+        }
+
+        this.ruleCount = rules != null ? rules.size() : 0;
+        this.nodeCount = nodes;
+        this.distinctNodeCount = interned.size();
+        this.invariantSubtrees = (int) interned.values().stream().filter(n -> n instanceof InvariantNode).count();
+    }
+
+    /**
+     * Optimized tree of a rule expression. Expressions outside the ruleset are compiled on first use,
+     * without sharing. Parsing errors are thrown (and not remembered).
+     */
+    public ExprNode expression(String expression) {
+        ExprNode node = expressions.get(expression);
+        if (node == null) {
+            node = compile(expression);
+            expressions.putIfAbsent(expression, node);
+        }
+        return node;
+    }
+
+    /**
+     * Memo for the invariant subtrees of one component, bound with {@link InvariantNode#bind} while the
+     * component is evaluated.
+     *
+     * @param tableVersion {@link com.atlas.engine.spi.TableService#dataVersion} of the tenant, at least 0
+     */
+    public InvariantNode.Memo invariants(String tenantId, String component, LocalDate periodDate, long tableVersion) {
+        return (node, compute) -> invariant(new InvariantKey(node, tenantId, component, periodDate, tableVersion), compute);
+    }
+
+    /**
+     * Number of invariant values currently remembered.
+     */
+    public int invariantCount() {
+        return invariants.size();
+    }
+
+    /**
+     * Plan statistics: how much hash-consing shrank the rules and, per shared subexpression, how many
+     * evaluations sharing has saved so far (most saved first).
+     */
+    public PlanExplain explain() {
+        List<SharedExpression> sharedExpressions = new ArrayList<>(shared.size());
+        long evaluations = 0;
+        long reuses = 0;
+        long savedNodes = 0;
+        for (SharedNode node : shared) {
+            long saved = node.reuses() * node.size();
+            sharedExpressions.add(new SharedExpression(ExprOptimizer.render(node.getExpression()),
+                    occurrences.get(node), node.size(), node.readsTables(), node.evaluations(), node.reuses(), saved));
+            evaluations += node.evaluations();
+            reuses += node.reuses();
+            savedNodes += saved;
+        }
+        sharedExpressions.sort(Comparator.comparingLong(SharedExpression::savedNodeEvaluations).reversed()
+                .thenComparing(SharedExpression::expression));
+        return new PlanExplain(ruleCount, nodeCount, distinctNodeCount, invariantSubtrees, invariants.size(),
+                evaluations, reuses, savedNodes, sharedExpressions);
+    }
+
+    /**
+     * @param nodes             AST nodes over all rules, counting every occurrence
+     * @param distinctNodes     nodes left after hash-consing identical subtrees
+     * @param invariantSubtrees distinct subtrees computed once per tenant, component and date
+     * @param invariantValues   invariant values currently remembered
+     * @param sharedEvaluations evaluations of shared subexpressions
+     * @param reusedEvaluations evaluations saved by reusing a value computed for the same employee
+     * @param savedNodeEvaluations AST node evaluations saved (reuses times subexpression size)
+     */
+    public record PlanExplain(int rules, int nodes, int distinctNodes, int invariantSubtrees, int invariantValues,
+                              long sharedEvaluations, long reusedEvaluations, long savedNodeEvaluations,
+                              List<SharedExpression> sharedExpressions) {}
+
+    /**
+     * @param occurrences     times the subexpression appears over all rules
+     * @param componentScoped uses TBL, so the value is shared only within one component
+     */
+    public record SharedExpression(String expression, int occurrences, int size, boolean componentScoped,
+                                   long evaluations, long reuses, long savedNodeEvaluations) {}
+
+    private static ExprNode compile(String expression) {
+        // Null componentNames: references to components computed later or deleted evaluate to 0
+        return ExprOptimizer.optimize(ParseCache.parse(expression));
+    }
+
+    /**
+     * Rebuild a tree bottom-up so that structurally identical subtrees are the same instance.
+     */
+    private static ExprNode intern(ExprNode node, Map<NodeKey, ExprNode> interned) {
+        if (node instanceof BinaryOpNode binOp) {
+            ExprNode left = intern(binOp.getLeft(), interned);
+            ExprNode right = intern(binOp.getRight(), interned);
+            return interned.computeIfAbsent(new NodeKey("binary", binOp.getOperator(), List.of(left, right)),
+                    k -> new BinaryOpNode(left, binOp.getOperator(), right));
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            ExprNode operand = intern(unOp.getOperand(), interned);
+            return interned.computeIfAbsent(new NodeKey("unary", unOp.getOperator(), List.of(operand)),
+                    k -> new UnaryOpNode(unOp.getOperator(), operand));
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            List<ExprNode> args = new ArrayList<>(funcCall.getArguments().size());
+            for (ExprNode arg : funcCall.getArguments()) {
+                args.add(intern(arg, interned));
+            }
+            List<ExprNode> internedArgs = List.copyOf(args);
+            return interned.computeIfAbsent(new NodeKey("function", funcCall.getFunctionName().toUpperCase(), internedArgs),
+                    k -> new FunctionCallNode(funcCall.getFunctionName(), internedArgs));
+        }
+        if (node instanceof InvariantNode invariant) {
+            ExprNode inner = intern(invariant.getExpression(), interned);
+            return interned.computeIfAbsent(new NodeKey("invariant", null, List.of(inner)),
+                    k -> new InvariantNode(inner));
+        }
+        if (node instanceof NumberNode numNode) {
+            return interned.computeIfAbsent(new NodeKey("number", numNode.getValue(), List.of()), k -> node);
+        }
+        if (node instanceof StringNode strNode) {
+            return interned.computeIfAbsent(new NodeKey("string", strNode.getValue(), List.of()), k -> node);
+        }
+        if (node instanceof BooleanNode boolNode) {
+            return interned.computeIfAbsent(new NodeKey("boolean", boolNode.getValue(), List.of()), k -> node);
+        }
+        if (node instanceof ComponentRefNode compNode) {
+            return interned.computeIfAbsent(new NodeKey("ref", compNode.getComponentName(), List.of()), k -> node);
+        }
+        return node;
+    }
+
+    /**
+     * Count the occurrences of every subtree. The children of a repeated subtree are counted with its
+     * first occurrence only: once the subtree is shared they are evaluated as part of it, once.
+     */
+    private static void count(ExprNode node, Map<ExprNode, Integer> uses) {
+        if (uses.merge(node, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (ExprNode child : children(node)) {
+            count(child, uses);
+        }
+    }
+
+    private static int size(ExprNode node) {
+        int nodes = node instanceof InvariantNode ? 0 : 1;
+        for (ExprNode child : children(node)) {
+            nodes += size(child);
+        }
+        return nodes;
+    }
+
+    /**
+     * Rebuild a tree with every repeated, non-trivial subtree wrapped in one SharedNode. Invariant
+     * subtrees already have their own memo and are left as they are.
+     */
+    private ExprNode share(ExprNode node, Map<ExprNode, Integer> uses, Map<ExprNode, ExprNode> rewritten) {
+        ExprNode done = rewritten.get(node);
+        if (done != null) {
+            return done;
+        }
+        ExprNode result = node;
+        if (node instanceof BinaryOpNode binOp) {
+            result = new BinaryOpNode(share(binOp.getLeft(), uses, rewritten), binOp.getOperator(),
+                    share(binOp.getRight(), uses, rewritten));
+        } else if (node instanceof UnaryOpNode unOp) {
+            result = new UnaryOpNode(unOp.getOperator(), share(unOp.getOperand(), uses, rewritten));
+        } else if (node instanceof FunctionCallNode funcCall) {
+            List<ExprNode> args = new ArrayList<>(funcCall.getArguments().size());
+            for (ExprNode arg : funcCall.getArguments()) {
+                args.add(share(arg, uses, rewritten));
+            }
+            result = new FunctionCallNode(funcCall.getFunctionName(), List.copyOf(args));
+        }
+        boolean trivial = node instanceof NumberNode || node instanceof StringNode || node instanceof BooleanNode
+                || node instanceof ComponentRefNode || node instanceof InvariantNode;
+        int occurrenceCount = uses.getOrDefault(node, 0);
+        if (!trivial && occurrenceCount > 1) {
+            SharedNode sharedNode = new SharedNode(result);
+            shared.add(sharedNode);
+            occurrences.put(sharedNode, occurrenceCount);
+            result = sharedNode;
+        }
+        rewritten.put(node, result);
+        return result;
+    }
+
+    private static List<ExprNode> children(ExprNode node) {
+        if (node instanceof BinaryOpNode binOp) {
+            return List.of(binOp.getLeft(), binOp.getRight());
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return List.of(unOp.getOperand());
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            return funcCall.getArguments();
+        }
+        if (node instanceof InvariantNode invariant) {
+            return List.of(invariant.getExpression());
+        }
+        return List.of();
+    }
+
+    private Value invariant(InvariantKey key, Supplier<Value> compute) {
+        Value value = invariants.get(key);
+        if (value != null) {
+            return value;
+        }
+        // Computed outside the map: a table lookup must not hold a map lock. Racing threads may both compute.
+        value = compute.get();
+        if (invariants.size() >= MAX_INVARIANT_VALUES) {
+            invariants.clear();
+        }
+        invariants.putIfAbsent(key, value);
+        return value;
+    }
+
+    // Children are already interned, so they compare by identity
+    private record NodeKey(String kind, Object detail, List<ExprNode> children) {}
+
+    // Node identity plus everything a table lookup depends on
+    private record InvariantKey(InvariantNode node, String tenantId, String component, LocalDate periodDate,
+                                long tableVersion) {}
+}
@@ -1,8 +1,11 @@
 package com.atlas.engine.eval;
 
 import com.atlas.engine.expr.Functions;
+import com.atlas.engine.expr.InvariantNode;
+import com.atlas.engine.expr.SharedNode;
 import com.atlas.engine.expr.TableLookupServiceAdapter;
 import com.atlas.engine.expr.RestrictedGroupAwareEvalContext;
+import com.atlas.engine.expr.TracingExprEvaluator;
 import com.atlas.engine.expr.Value;
 import com.atlas.engine.model.ComponentResult;
 import com.atlas.engine.model.EvalContext;
@@ -11,6 +14,7 @@ import com.atlas.engine.model.Rule;
 import com.atlas.engine.model.RuleExpression;
 import com.atlas.engine.model.RuleSet;
 import com.atlas.engine.model.Trace;
+import com.atlas.engine.spi.EvaluationListener;
 import com.atlas.engine.spi.TableService;
 
 import java.math.BigDecimal;
@@ -21,13 +25,39 @@ public class DefaultEvaluator implements Evaluator {
 
     private final DependencyResolver resolver = new DependencyResolver();
     private final TableService tableService;
+    private final EvaluationListener listener;
+    // False for EvaluationListener.NONE: no clock reads, no table wrapper
+    private final boolean listening;
+    // Compiled plans by RuleSet instance, then by rule list content (hosts load a fresh list per request)
+    private final PlanCache plans = new PlanCache();
 
     public DefaultEvaluator(TableService tables) {
-        this.tableService = tables;
+        this(tables, EvaluationListener.NONE);
+    }
+
+    public DefaultEvaluator(TableService tables, EvaluationListener listener) {
+        this.listener = listener != null ? listener : EvaluationListener.NONE;
+        this.listening = this.listener != EvaluationListener.NONE;
+        this.tableService = listening ? timed(tables, this.listener) : tables;
     }
 
     @Override
     public EvaluationResult evaluateAll(RuleSet rules, EvalContext ctx) {
+        return evaluateAll(rules, ctx, null, null);
+    }
+
+    /**
+     * Incremental evaluation: components outside {@code affected} are taken over from
+     * {@code previous} (a result for the same employee and date) instead of being recomputed.
+     * Use {@link #downstreamOf} to compute the affected set once per ruleset change.
+     *
+     * @param previous earlier result to reuse values from, or null for a full evaluation
+     * @param affected components that must be recomputed, or null for a full evaluation
+     */
+    public EvaluationResult evaluateAll(RuleSet rules, EvalContext ctx,
+                                        EvaluationResult previous, Set<String> affected) {
+        long evaluationStart = listening ? System.nanoTime() : 0L;
+        int evaluated = 0;
         Map<String, Rule> ruleIdx = rules.activeRuleIndex(ctx.periodDate());
         List<String> order = resolver.order(rules, ctx.periodDate());
 
@@ -37,13 +67,365 @@ public class DefaultEvaluator implements Evaluator {
 
         final String tenantId = String.valueOf(values.getOrDefault("_tenantId", "default"));
         final LocalDate periodDate = ctx.periodDate();
+        CompiledRuleSet plan = plan(rules);
+        // Invariant subtrees (constant-key TBL) are computed once per plan while the tables stay unchanged
+        long tableVersion = tableService.dataVersion(tenantId);
 
-        // Build set of all component names (targets of rules)
-        // Use LinkedHashSet to preserve insertion order (deterministic)
-        Set<String> componentNames = new LinkedHashSet<>(ruleIdx.keySet());
-        componentNames.addAll(ctx.inputs().keySet());
+        GroupLayout layout = buildGroupLayout(ruleIdx, rules, values);
+        Map<String, String> componentToGroup = layout.componentToGroup;
+        Map<String, Integer> groupToNumber = layout.groupToNumber;
+        Map<String, Set<String>> toggleGroups = layout.toggleGroups;
+        Set<String> componentNames = buildComponentNames(ruleIdx, ctx.inputs(), layout);
+
+        // Subexpressions shared between rules are computed once for this employee
+        Set<String> groupNames = new HashSet<>();
+        groupToNumber.keySet().forEach(g -> groupNames.add(g.toLowerCase()));
+        toggleGroups.keySet().forEach(g -> groupNames.add(g.toLowerCase()));
+        EvaluationFrame frame = new EvaluationFrame(ruleIdx.keySet(), groupNames);
+        SharedNode.bind(frame);
+        try {
+            // Reorder components by group (group1 first, then group2, etc.) while preserving dependencies
+            order = reorderByGroup(order, componentToGroup, groupToNumber);
         
-        // Build component-to-group mapping and extract group names
+            // Read WorkPercent input (0-100). If missing or invalid, default to 100%.
+            BigDecimal workPercent = BigDecimal.ONE;
+            Object wpRaw = values.get("WorkPercent");
+            if (wpRaw instanceof Number) {
+                workPercent = BigDecimal.valueOf(((Number) wpRaw).doubleValue())
+                        .divide(BigDecimal.valueOf(100));
+            } else if (wpRaw instanceof String s && !s.isBlank()) {
+                try {
+                    workPercent = new BigDecimal(s).divide(BigDecimal.valueOf(100));
+                } catch (NumberFormatException ignored) {
+                    workPercent = BigDecimal.ONE;
+                }
+            }
+
+            for (String comp : order) {
+                Rule r = ruleIdx.get(comp);
+                if (r == null) {
+                    continue; // Skip if rule not found
+                }
+
+                // Incremental mode: reuse unaffected components from the previous result
+                if (previous != null && affected != null && !affected.contains(comp)) {
+                    ComponentResult reused = previous.components().get(comp);
+                    if (reused != null) {
+                        values.put(comp, reused.amount());
+                        frame.settle(comp);
+                        results.put(comp, reused);
+                        continue;
+                    }
+                }
+            
+                Trace trace = new Trace(comp);
+                long componentStart = listening ? System.nanoTime() : 0L;
+                evaluated++;
+
+                // Create a context that includes both inputs and calculated values
+                // EvalContext is a record, so we create a new instance with the updated values map
+                EvalContext ruleContext = new EvalContext(values, periodDate);
+
+                // Register TBL function with adapter for this rule (must be done before parsing)
+                TableLookupServiceAdapter tableAdapter = new TableLookupServiceAdapter(
+                        tableService, tenantId, comp, periodDate);
+                Functions.registerTbl(tableAdapter);
+                frame.startComponent();
+                InvariantNode.bind(tableVersion >= 0 ? plan.invariants(tenantId, comp, periodDate, tableVersion) : null);
+
+                // Create RuleExpression once and reuse it
+                RuleExpression ruleExpr = new RuleExpression(r.getExpression());
+            
+                // Determine which group this component belongs to and its group number
+                String componentGroup = componentToGroup.getOrDefault(comp, "").toLowerCase();
+                Integer componentGroupNumber = groupToNumber.get(componentGroup);
+                // If component has no group, allow all groups (use the maximum group number)
+                int maxAllowedGroupNumber = componentGroupNumber != null ? componentGroupNumber : groupToNumber.size();
+            
+                // Create restricted group-aware evaluation context
+                // Components can only reference earlier groups (not their own group to prevent circular dependencies)
+                RestrictedGroupAwareEvalContext groupAwareContext = new RestrictedGroupAwareEvalContext(
+                    ruleContext, componentToGroup, groupToNumber, maxAllowedGroupNumber, toggleGroups);
+            
+                // Trace the expression being evaluated
+                trace.step("Expression: " + r.getExpression());
+                if (componentGroupNumber != null) {
+                    trace.step("Component group: " + componentGroup + " (group" + componentGroupNumber + ")");
+                }
+
+                Exception failure = null;
+                // Trace variable values
+                try {
+                    Set<String> deps = ruleExpr.extractDependencies(componentNames);
+                    if (!deps.isEmpty()) {
+                        trace.step("Dependencies:");
+                        for (String v : deps) {
+                            // Check if it's a group or component
+                            String vLower = v.toLowerCase();
+                            if (vLower.startsWith("group") && vLower.length() > 5) {
+                                // It's a group number reference (group1, group2, etc.)
+                                try {
+                                    int groupNum = Integer.parseInt(vLower.substring(5));
+                                    if (groupNum < maxAllowedGroupNumber) {
+                                        Value groupValue = groupAwareContext.getComponent(v);
+                                        trace.step("  " + v + " (group) = " + formatValue(groupValue.asNumber()));
+                                    } else {
+                                        trace.step("  " + v + " (group) - NOT ALLOWED (would create circular dependency)");
+                                    }
+                                } catch (NumberFormatException e) {
+                                    // Not a valid group number
+                                    Object val = values.getOrDefault(v, BigDecimal.ZERO);
+                                    trace.step("  " + v + " = " + formatValue(val));
+                                }
+                            } else if (groupToNumber.containsKey(vLower)) {
+                                // It's a group name
+                                Integer groupNum = groupToNumber.get(vLower);
+                                if (groupNum != null && groupNum < maxAllowedGroupNumber) {
+                                    Value groupValue = groupAwareContext.getComponent(v);
+                                    trace.step("  " + v + " (group" + groupNum + ") = " + formatValue(groupValue.asNumber()));
+                                } else {
+                                    trace.step("  " + v + " (group) - NOT ALLOWED (would create circular dependency)");
+                                }
+                            } else {
+                                Object val = values.getOrDefault(v, BigDecimal.ZERO);
+                                trace.step("  " + v + " = " + formatValue(val));
+                            }
+                        }
+                    } else {
+                        trace.step("No dependencies (constant or input-only expression)");
+                    }
+                } catch (Exception e) {
+                    // If extraction fails, continue without tracing
+                    trace.step("Warning: Could not extract dependencies: " + e.getMessage());
+                }
+
+                // Evaluate using the new expression system with tracing
+                try {
+                    TracingExprEvaluator tracingEvaluator = new TracingExprEvaluator();
+                    BigDecimal amount = tracingEvaluator.evaluate(plan.expression(r.getExpression()), groupAwareContext).asNumber();
+                    BigDecimal finalAmount = amount;
+                
+                    // Add detailed calculation steps to trace
+                    trace.step("Calculation steps:");
+                    for (String step : tracingEvaluator.getTraceSteps()) {
+                        trace.step("  " + step);
+                    }
+
+                    // Apply WorkPercent scaling if meta flag is set
+                    if (r.getMeta() != null) {
+                        String workPercentFlag = r.getMeta().get("workPercent");
+                        if ("true".equalsIgnoreCase(workPercentFlag)) {
+                            trace.step("Applying WorkPercent scaling: " + amount.toPlainString() + " × " + workPercent.toPlainString());
+                            finalAmount = amount.multiply(workPercent);
+                            trace.step("After WorkPercent: " + finalAmount.toPlainString());
+                        }
+                    }
+                
+                    // Check for missing dependencies that evaluated to zero
+                    Set<String> deps = ruleExpr.extractDependencies(componentNames);
+                    for (String dep : deps) {
+                        // Skip group names - they're resolved dynamically by the context
+                        boolean isGroupName = false;
+                        String depLower = dep.toLowerCase();
+                        if (depLower.startsWith("group") && depLower.length() > 5) {
+                            try {
+                                Integer.parseInt(depLower.substring(5));
+                                isGroupName = true; // It's a numbered group (group1, group2, etc.)
+                            } catch (NumberFormatException ignored) {
+                                // Not a numbered group
+                            }
+                        }
+                        if (!isGroupName && groupToNumber.containsKey(depLower)) {
+                            isGroupName = true; // It's an actual group name
+                        }
+                    
+                        if (!isGroupName && !values.containsKey(dep) && !ctx.inputs().containsKey(dep)) {
+                            trace.step("WARNING: Component '" + dep + "' not found - using 0");
+                        }
+                    }
+                
+                    values.put(comp, finalAmount);
+                    frame.settle(comp);
+                    trace.done("Result: " + finalAmount.toPlainString());
+                    results.put(comp, new ComponentResult(comp, finalAmount, trace));
+                } catch (Exception e) {
+                    failure = e;
+                    // On error, set to zero and trace the error
+                    BigDecimal amount = BigDecimal.ZERO;
+                    String errorMsg = "Unknown error";
+                    try {
+                        if (e != null) {
+                            errorMsg = e.getMessage();
+                            if (errorMsg == null || errorMsg.isEmpty()) {
+                                String className = e.getClass() != null ? e.getClass().getSimpleName() : "Exception";
+                                errorMsg = className;
+                                if (e.getCause() != null) {
+                                    String causeMsg = e.getCause().getMessage();
+                                    if (causeMsg != null && !causeMsg.isEmpty()) {
+                                        errorMsg += ": " + causeMsg;
+                                    } else {
+                                        String causeClassName = e.getCause().getClass() != null ? e.getCause().getClass().getSimpleName() : "Unknown";
+                                        errorMsg += ": " + causeClassName;
+                                    }
+                                }
+                            }
+                        }
+                    } catch (Exception ex) {
+                        errorMsg = "Error formatting exception: " + (ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+                    }
+                    trace.step("ERROR: " + errorMsg);
+                    try {
+                        if (e != null && e.getCause() != null && e.getCause().getMessage() != null && !e.getCause().getMessage().equals(errorMsg)) {
+                            trace.step("Caused by: " + e.getCause().getMessage());
+                        }
+                    } catch (Exception ex) {
+                        // Ignore errors in logging cause
+                    }
+                    // Also log the stack trace for debugging
+                    if (e != null) {
+                        e.printStackTrace();
+                    }
+                    trace.done(comp + " = " + amount.toPlainString() + " (error)");
+                    values.put(comp, amount);
+                    frame.settle(comp);
+                    results.put(comp, new ComponentResult(comp, amount, trace));
+                }
+                // Reported after the rule's result is settled, so a failing listener cannot change it
+                if (listening) {
+                    long nanos = System.nanoTime() - componentStart;
+                    if (failure != null) {
+                        Exception error = failure;
+                        notifyListener(() -> listener.componentFailed(rules, comp, error));
+                    }
+                    int lookups = tableAdapter.lookupCount();
+                    int groupSums = groupAwareContext.groupSumCount();
+                    notifyListener(() -> listener.componentEvaluated(rules, comp, nanos, lookups, groupSums));
+                }
+            }
+        } finally {
+            // Pooled threads must not keep this evaluation's frame, invariants or table binding
+            InvariantNode.unbind();
+            SharedNode.unbind();
+            Functions.clearTbl();
+        }
+
+        // Calculate total by iterating in the same order as components were processed (deterministic)
+        // This ensures consistent calculation order even though addition is commutative
+        BigDecimal total = BigDecimal.ZERO;
+        for (String comp : order) {
+            ComponentResult result = results.get(comp);
+            if (result != null) {
+                total = total.add(result.amount());
+            }
+        }
+
+        if (listening) {
+            int componentsEvaluated = evaluated;
+            long nanos = System.nanoTime() - evaluationStart;
+            notifyListener(() -> listener.evaluationFinished(rules, componentsEvaluated, nanos));
+        }
+        return new EvaluationResult(results, total);
+    }
+
+    /**
+     * Compiled plan of a ruleset: optimized, hash-consed rule expressions, remembered invariant values
+     * and sharing statistics ({@link CompiledRuleSet#explain}). Built on first use and shared by all
+     * evaluations of the same rules.
+     */
+    public CompiledRuleSet plan(RuleSet rules) {
+        return plans.plan(rules);
+    }
+
+    /**
+     * Run a listener callback; a callback that throws is logged and ignored, so metrics and profiling
+     * never change evaluation results.
+     */
+    private static void notifyListener(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            System.err.println("[engine] evaluation listener failed: " + e);
+        }
+    }
+
+    /**
+     * Table service that reports every lookup (latency, value or failure) to the listener.
+     */
+    private static TableService timed(TableService tables, EvaluationListener listener) {
+        return new TableService() {
+            @Override
+            public BigDecimal lookup(String tenantId, String componentTarget, String tableName,
+                                     List<Object> keys, LocalDate onDate) {
+                long start = System.nanoTime();
+                BigDecimal value;
+                try {
+                    value = tables.lookup(tenantId, componentTarget, tableName, keys, onDate);
+                } catch (RuntimeException e) {
+                    long nanos = System.nanoTime() - start;
+                    notifyListener(() -> listener.tableLookupFailed(tenantId, componentTarget, tableName, e, nanos));
+                    throw e;
+                }
+                long nanos = System.nanoTime() - start;
+                BigDecimal found = value;
+                notifyListener(() -> listener.tableLookup(tenantId, componentTarget, tableName, keys, found, nanos));
+                return value;
+            }
+
+            @Override
+            public long dataVersion(String tenantId) {
+                return tables.dataVersion(tenantId);
+            }
+        };
+    }
+    
+    /**
+     * Compute the downstream closure of the given components: the components themselves plus every
+     * component that reads them, directly, through dependsOn, or through a group sum (group1, group name)
+     * or toggle group sum (e.g. pension_group). Depends only on the ruleset structure and group
+     * ordering, so it can be computed once and reused for every employee.
+     */
+    public Set<String> downstreamOf(RuleSet rules, EvalContext ctx, Set<String> changed) {
+        Map<String, Rule> ruleIdx = rules.activeRuleIndex(ctx.periodDate());
+        GroupLayout layout = buildGroupLayout(ruleIdx, rules, ctx.inputs());
+        Set<String> componentNames = buildComponentNames(ruleIdx, ctx.inputs(), layout);
+
+        // Reverse edges: component -> components that read it
+        Map<String, Set<String>> readers = new LinkedHashMap<>();
+        for (Rule rule : ruleIdx.values()) {
+            Set<String> reads = new LinkedHashSet<>();
+            if (rule.getDependsOn() != null) {
+                reads.addAll(rule.getDependsOn());
+            }
+            try {
+                for (String ref : new RuleExpression(rule.getExpression()).extractDependencies(componentNames)) {
+                    reads.addAll(layout.expand(ref));
+                }
+            } catch (Exception e) {
+                // Unparseable rule: treat it as reading everything so it is always recomputed
+                reads.addAll(ruleIdx.keySet());
+            }
+            for (String read : reads) {
+                readers.computeIfAbsent(read, k -> new LinkedHashSet<>()).add(rule.getTarget());
+            }
+        }
+
+        Set<String> closure = new LinkedHashSet<>(changed);
+        Deque<String> pending = new ArrayDeque<>(changed);
+        while (!pending.isEmpty()) {
+            for (String reader : readers.getOrDefault(pending.poll(), Set.of())) {
+                if (closure.add(reader)) {
+                    pending.add(reader);
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Group structure of the active rules: meta "group" membership, group numbering
+     * (from the ruleset's group ordering, the legacy _groupOrdering input, or alphabetical) and toggle groups.
+     */
+    private GroupLayout buildGroupLayout(Map<String, Rule> ruleIdx, RuleSet rules, Map<String, Object> inputs) {
         // Use LinkedHashMap to preserve insertion order (deterministic)
         Map<String, String> componentToGroup = new LinkedHashMap<>();
         // Use LinkedHashSet to preserve insertion order, then we'll sort it
@@ -88,7 +470,9 @@ public class DefaultEvaluator implements Evaluator {
         // Map group names to sequential numbers (group1, group2, etc.)
         // Use display_order from database if available, otherwise sort alphabetically
         @SuppressWarnings("unchecked")
-        Map<String, Integer> groupDisplayOrder = (Map<String, Integer>) values.get("_groupOrdering");
+        Map<String, Integer> groupDisplayOrder = rules.getGroupOrdering() != null
+                ? rules.getGroupOrdering()
+                : (Map<String, Integer>) inputs.get("_groupOrdering");
         
         List<String> sortedGroups = new ArrayList<>(groupNames);
         if (groupDisplayOrder != null && !groupDisplayOrder.isEmpty()) {
@@ -116,11 +500,21 @@ public class DefaultEvaluator implements Evaluator {
             numberToGroup.put(groupNumber, groupName);
             groupNumber++;
         }
-        
+        return new GroupLayout(componentToGroup, groupToNumber, numberToGroup, toggleGroups);
+    }
+
+    /**
+     * Names an expression may reference: rule targets, inputs, group numbers/names and toggle groups.
+     */
+    private Set<String> buildComponentNames(Map<String, Rule> ruleIdx, Map<String, Object> inputs, GroupLayout layout) {
+        // Use LinkedHashSet to preserve insertion order (deterministic)
+        Set<String> componentNames = new LinkedHashSet<>(ruleIdx.keySet());
+        componentNames.addAll(inputs.keySet());
+
         // Add group numbers (group1, group2, etc.) and group names to componentNames
-        for (int i = 1; i < groupNumber; i++) {
+        for (int i = 1; i <= layout.numberToGroup.size(); i++) {
             componentNames.add("group" + i);
-            String actualGroupName = numberToGroup.get(i);
+            String actualGroupName = layout.numberToGroup.get(i);
             if (actualGroupName != null) {
                 componentNames.add(actualGroupName);
                 // Add capitalized version
@@ -133,210 +527,56 @@ public class DefaultEvaluator implements Evaluator {
         }
         
         // Add toggle-based group names (e.g., pension_group, income_tax_group)
-        for (String toggleGroupName : toggleGroups.keySet()) {
-            componentNames.add(toggleGroupName);
-        }
-
-        // Reorder components by group (group1 first, then group2, etc.) while preserving dependencies
-        order = reorderByGroup(order, componentToGroup, groupToNumber);
-        
-        // Read WorkPercent input (0-100). If missing or invalid, default to 100%.
-        BigDecimal workPercent = BigDecimal.ONE;
-        Object wpRaw = values.get("WorkPercent");
-        if (wpRaw instanceof Number) {
-            workPercent = BigDecimal.valueOf(((Number) wpRaw).doubleValue())
-                    .divide(BigDecimal.valueOf(100));
-        } else if (wpRaw instanceof String s && !s.isBlank()) {
-            try {
-                workPercent = new BigDecimal(s).divide(BigDecimal.valueOf(100));
-            } catch (NumberFormatException ignored) {
-                workPercent = BigDecimal.ONE;
-            }
-        }
-
-        for (String comp : order) {
-            Rule r = ruleIdx.get(comp);
-            if (r == null) {
-                continue; // Skip if rule not found
-            }
-            
-            Trace trace = new Trace(comp);
+        componentNames.addAll(layout.toggleGroups.keySet());
+        return componentNames;
+    }
 
-            // Create a context that includes both inputs and calculated values
-            // EvalContext is a record, so we create a new instance with the updated values map
-            EvalContext ruleContext = new EvalContext(values, periodDate);
+    /**
+     * Group structure shared by evaluation and dependency analysis.
+     */
+    private static final class GroupLayout {
+        final Map<String, String> componentToGroup;
+        final Map<String, Integer> groupToNumber;
+        final Map<Integer, String> numberToGroup;
+        final Map<String, Set<String>> toggleGroups;
 
-            // Register TBL function with adapter for this rule (must be done before parsing)
-            TableLookupServiceAdapter tableAdapter = new TableLookupServiceAdapter(
-                    tableService, tenantId, comp, periodDate);
-            Functions.registerTbl(tableAdapter);
+        GroupLayout(Map<String, String> componentToGroup, Map<String, Integer> groupToNumber,
+                    Map<Integer, String> numberToGroup, Map<String, Set<String>> toggleGroups) {
+            this.componentToGroup = componentToGroup;
+            this.groupToNumber = groupToNumber;
+            this.numberToGroup = numberToGroup;
+            this.toggleGroups = toggleGroups;
+        }
 
-            // Create RuleExpression once and reuse it
-            RuleExpression ruleExpr = new RuleExpression(r.getExpression());
-            
-            // Determine which group this component belongs to and its group number
-            String componentGroup = componentToGroup.getOrDefault(comp, "").toLowerCase();
-            Integer componentGroupNumber = groupToNumber.get(componentGroup);
-            // If component has no group, allow all groups (use the maximum group number)
-            int maxAllowedGroupNumber = componentGroupNumber != null ? componentGroupNumber : groupToNumber.size();
-            
-            // Create restricted group-aware evaluation context
-            // Components can only reference earlier groups (not their own group to prevent circular dependencies)
-            RestrictedGroupAwareEvalContext groupAwareContext = new RestrictedGroupAwareEvalContext(
-                ruleContext, componentToGroup, groupToNumber, maxAllowedGroupNumber, toggleGroups);
-            
-            // Trace the expression being evaluated
-            trace.step("Expression: " + r.getExpression());
-            if (componentGroupNumber != null) {
-                trace.step("Component group: " + componentGroup + " (group" + componentGroupNumber + ")");
+        /**
+         * Components a reference actually reads: toggle groups and (cumulative) group sums
+         * expand to their members, anything else is a plain component.
+         */
+        Set<String> expand(String ref) {
+            String lower = ref.toLowerCase();
+            if (toggleGroups.containsKey(lower)) {
+                return toggleGroups.get(lower);
             }
-
-            // Trace variable values
-            try {
-                Set<String> deps = ruleExpr.extractDependencies(componentNames);
-                if (!deps.isEmpty()) {
-                    trace.step("Dependencies:");
-                    for (String v : deps) {
-                        // Check if it's a group or component
-                        String vLower = v.toLowerCase();
-                        if (vLower.startsWith("group") && vLower.length() > 5) {
-                            // It's a group number reference (group1, group2, etc.)
-                            try {
-                                int groupNum = Integer.parseInt(vLower.substring(5));
-                                if (groupNum < maxAllowedGroupNumber) {
-                                    Value groupValue = groupAwareContext.getComponent(v);
-                                    trace.step("  " + v + " (group) = " + formatValue(groupValue.asNumber()));
-                                } else {
-                                    trace.step("  " + v + " (group) - NOT ALLOWED (would create circular dependency)");
-                                }
-                            } catch (NumberFormatException e) {
-                                // Not a valid group number
-                                Object val = values.getOrDefault(v, BigDecimal.ZERO);
-                                trace.step("  " + v + " = " + formatValue(val));
-                            }
-                        } else if (groupToNumber.containsKey(vLower)) {
-                            // It's a group name
-                            Integer groupNum = groupToNumber.get(vLower);
-                            if (groupNum != null && groupNum < maxAllowedGroupNumber) {
-                                Value groupValue = groupAwareContext.getComponent(v);
-                                trace.step("  " + v + " (group" + groupNum + ") = " + formatValue(groupValue.asNumber()));
-                            } else {
-                                trace.step("  " + v + " (group) - NOT ALLOWED (would create circular dependency)");
-                            }
-                        } else {
-                            Object val = values.getOrDefault(v, BigDecimal.ZERO);
-                            trace.step("  " + v + " = " + formatValue(val));
-                        }
-                    }
-                } else {
-                    trace.step("No dependencies (constant or input-only expression)");
-                }
-            } catch (Exception e) {
-                // If extraction fails, continue without tracing
-                trace.step("Warning: Could not extract dependencies: " + e.getMessage());
-            }
-
-            // Evaluate using the new expression system with tracing
-            try {
-                RuleExpression.EvaluationTraceResult traceResult = ruleExpr.evaluateWithTrace(groupAwareContext, componentNames);
-                BigDecimal amount = traceResult.getValue();
-                BigDecimal finalAmount = amount;
-                
-                // Add detailed calculation steps to trace
-                trace.step("Calculation steps:");
-                for (String step : traceResult.getTraceSteps()) {
-                    trace.step("  " + step);
-                }
-
-                // Apply WorkPercent scaling if meta flag is set
-                if (r.getMeta() != null) {
-                    String workPercentFlag = r.getMeta().get("workPercent");
-                    if ("true".equalsIgnoreCase(workPercentFlag)) {
-                        trace.step("Applying WorkPercent scaling: " + amount.toPlainString() + " × " + workPercent.toPlainString());
-                        finalAmount = amount.multiply(workPercent);
-                        trace.step("After WorkPercent: " + finalAmount.toPlainString());
-                    }
-                }
-                
-                // Check for missing dependencies that evaluated to zero
-                Set<String> deps = ruleExpr.extractDependencies(componentNames);
-                for (String dep : deps) {
-                    // Skip group names - they're resolved dynamically by the context
-                    boolean isGroupName = false;
-                    String depLower = dep.toLowerCase();
-                    if (depLower.startsWith("group") && depLower.length() > 5) {
-                        try {
-                            Integer.parseInt(depLower.substring(5));
-                            isGroupName = true; // It's a numbered group (group1, group2, etc.)
-                        } catch (NumberFormatException ignored) {
-                            // Not a numbered group
-                        }
-                    }
-                    if (!isGroupName && groupToNumber.containsKey(depLower)) {
-                        isGroupName = true; // It's an actual group name
-                    }
-                    
-                    if (!isGroupName && !values.containsKey(dep) && !ctx.inputs().containsKey(dep)) {
-                        trace.step("WARNING: Component '" + dep + "' not found - using 0");
-                    }
-                }
-                
-                values.put(comp, finalAmount);
-                trace.done("Result: " + finalAmount.toPlainString());
-                results.put(comp, new ComponentResult(comp, finalAmount, trace));
-            } catch (Exception e) {
-                // On error, set to zero and trace the error
-                BigDecimal amount = BigDecimal.ZERO;
-                String errorMsg = "Unknown error";
+            Integer upTo = groupToNumber.get(lower);
+            if (upTo == null && lower.startsWith("group") && lower.length() > 5) {
                 try {
-                    if (e != null) {
-                        errorMsg = e.getMessage();
-                        if (errorMsg == null || errorMsg.isEmpty()) {
-                            String className = e.getClass() != null ? e.getClass().getSimpleName() : "Exception";
-                            errorMsg = className;
-                            if (e.getCause() != null) {
-                                String causeMsg = e.getCause().getMessage();
-                                if (causeMsg != null && !causeMsg.isEmpty()) {
-                                    errorMsg += ": " + causeMsg;
-                                } else {
-                                    String causeClassName = e.getCause().getClass() != null ? e.getCause().getClass().getSimpleName() : "Unknown";
-                                    errorMsg += ": " + causeClassName;
-                                }
-                            }
-                        }
-                    }
-                } catch (Exception ex) {
-                    errorMsg = "Error formatting exception: " + (ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
-                }
-                trace.step("ERROR: " + errorMsg);
-                try {
-                    if (e != null && e.getCause() != null && e.getCause().getMessage() != null && !e.getCause().getMessage().equals(errorMsg)) {
-                        trace.step("Caused by: " + e.getCause().getMessage());
-                    }
-                } catch (Exception ex) {
-                    // Ignore errors in logging cause
-                }
-                // Also log the stack trace for debugging
-                if (e != null) {
-                    e.printStackTrace();
+                    upTo = Integer.parseInt(lower.substring(5));
+                } catch (NumberFormatException ignored) {
+                    // Not a numbered group
                 }
-                trace.done(comp + " = " + amount.toPlainString() + " (error)");
-                values.put(comp, amount);
-                results.put(comp, new ComponentResult(comp, amount, trace));
             }
-        }
-
-        // Calculate total by iterating in the same order as components were processed (deterministic)
-        // This ensures consistent calculation order even though addition is commutative
-        BigDecimal total = BigDecimal.ZERO;
-        for (String comp : order) {
-            ComponentResult result = results.get(comp);
-            if (result != null) {
-                total = total.add(result.amount());
+            if (upTo == null) {
+                return Set.of(ref);
+            }
+            Set<String> members = new LinkedHashSet<>();
+            for (Map.Entry<String, String> entry : componentToGroup.entrySet()) {
+                Integer number = groupToNumber.get(entry.getValue());
+                if (number != null && number <= upTo) {
+                    members.add(entry.getKey());
+                }
             }
+            return members;
         }
-
-        return new EvaluationResult(results, total);
     }
     
     private String formatValue(Object val) {
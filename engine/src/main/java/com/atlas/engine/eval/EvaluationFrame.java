@@ -0,0 +1,84 @@
+package com.atlas.engine.eval;
+
+import com.atlas.engine.expr.SharedNode;
+import com.atlas.engine.expr.Value;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Values of shared subexpressions ({@link SharedNode}) during one employee evaluation.
+ * A value is reused by later components only once every name it reads is settled: an input no rule
+ * overrides, or a component already evaluated. Group and toggle-group sums depend on the component
+ * reading them, and tables belong to a component, so values reading either are reused only while the
+ * same component is being evaluated.
+ */
+final class EvaluationFrame implements SharedNode.Frame {
+    private final Set<String> ruleTargets;
+    private final Set<String> groupNames; // lowercase group and toggle group names
+    private final Set<String> settled = new HashSet<>();
+    private final Map<SharedNode, Value> values = new HashMap<>();
+    private final Map<SharedNode, Value> componentValues = new HashMap<>();
+
+    EvaluationFrame(Set<String> ruleTargets, Set<String> groupNames) {
+        this.ruleTargets = ruleTargets;
+        this.groupNames = groupNames;
+    }
+
+    /**
+     * A new component is about to be evaluated.
+     */
+    void startComponent() {
+        componentValues.clear();
+    }
+
+    /**
+     * The component has its final value for this employee.
+     */
+    void settle(String component) {
+        settled.add(component);
+    }
+
+    @Override
+    public Value lookup(SharedNode node) {
+        Value value = values.get(node);
+        return value != null ? value : componentValues.get(node);
+    }
+
+    @Override
+    public void store(SharedNode node, Value value) {
+        if (!node.readsTables() && settled(node)) {
+            values.put(node, value);
+        } else {
+            componentValues.put(node, value);
+        }
+    }
+
+    private boolean settled(SharedNode node) {
+        for (String name : node.getReferences()) {
+            if (isGroup(name) || (ruleTargets.contains(name) && !settled.contains(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same resolution as RestrictedGroupAwareEvalContext: toggle groups, group1..groupN, group names
+    private boolean isGroup(String name) {
+        String lower = name.toLowerCase();
+        if (groupNames.contains(lower)) {
+            return true;
+        }
+        if (lower.startsWith("group") && lower.length() > 5) {
+            try {
+                Integer.parseInt(lower.substring(5));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
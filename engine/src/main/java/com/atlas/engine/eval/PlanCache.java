@@ -0,0 +1,109 @@
+package com.atlas.engine.eval;
+
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled plans of one {@link DefaultEvaluator}, looked up in two steps:
+ * <ul>
+ *   <li>by RuleSet instance: an identity lookup in a concurrent map with weak keys, so every evaluation
+ *       after the first one of an instance takes no lock and does not hash the rules;</li>
+ *   <li>by rule list content, once per instance: hosts load a fresh RuleSet per request, and equal rules
+ *       share one plan. The content map is a small LRU behind a lock.</li>
+ * </ul>
+ * An instance whose rule list is replaced (setRules) is planned again; rules edited in place after an
+ * instance was evaluated are not noticed, so hosts build a new RuleSet for edited rules.
+ */
+final class PlanCache {
+    private static final int MAX_PLANS = 64;
+
+    private final Map<Object, Planned> byInstance = new ConcurrentHashMap<>();
+    private final ReferenceQueue<RuleSet> collected = new ReferenceQueue<>();
+    private final Map<List<Rule>, CompiledRuleSet> byContent = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Rule>, CompiledRuleSet> eldest) {
+                    return size() > MAX_PLANS;
+                }
+            });
+
+    CompiledRuleSet plan(RuleSet rules) {
+        List<Rule> list = rules.getRules();
+        Planned planned = byInstance.get(new Lookup(rules));
+        if (planned != null && planned.rules == list) {
+            return planned.plan;
+        }
+        CompiledRuleSet plan = byContent(list);
+        purgeCollected();
+        byInstance.put(new InstanceKey(rules, collected), new Planned(list, plan));
+        return plan;
+    }
+
+    private CompiledRuleSet byContent(List<Rule> list) {
+        List<Rule> content = list != null ? List.copyOf(list) : List.of();
+        CompiledRuleSet plan = byContent.get(content);
+        if (plan == null) {
+            // Built outside the map lock; a concurrent first evaluation may build it twice
+            CompiledRuleSet built = new CompiledRuleSet(content);
+            plan = byContent.putIfAbsent(content, built);
+            if (plan == null) {
+                plan = built;
+            }
+        }
+        return plan;
+    }
+
+    private void purgeCollected() {
+        Reference<? extends RuleSet> ref;
+        while ((ref = collected.poll()) != null) {
+            byInstance.remove(ref);
+        }
+    }
+
+    private record Planned(List<Rule> rules, CompiledRuleSet plan) {}
+
+    /**
+     * Stored key: weakly references the RuleSet, equal only to keys and lookups of the same instance.
+     */
+    private static final class InstanceKey extends WeakReference<RuleSet> {
+        private final int hash;
+
+        InstanceKey(RuleSet rules, ReferenceQueue<RuleSet> queue) {
+            super(rules, queue);
+            this.hash = System.identityHashCode(rules);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            RuleSet referent = get();
+            return referent != null && o instanceof InstanceKey other && other.get() == referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Probe key for {@code get}: the map compares it against stored keys with {@code lookup.equals(stored)}.
+     */
+    private record Lookup(RuleSet rules) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof InstanceKey key && key.get() == rules;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(rules);
+        }
+    }
+}
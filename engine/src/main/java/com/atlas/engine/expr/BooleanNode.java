@@ -10,6 +10,10 @@ public class BooleanNode implements ExprNode {
         this.value = Value.ofBoolean(value);
     }
 
+    public Value getValue() {
+        return value;
+    }
+
     @Override
     public Value evaluate(EvalContext context) {
         return value;
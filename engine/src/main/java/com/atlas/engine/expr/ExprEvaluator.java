@@ -21,9 +21,7 @@ public class ExprEvaluator {
         // This allows expressions to reference components that will be calculated later,
         // or components that may have been deleted but are still referenced.
         // Missing components will evaluate to 0 via ComponentRefNode.evaluate() -> context.getComponent().
-        ExprParser parser = new ExprParser(expression, null);
-        ExprNode node = parser.parse();
-        return node.evaluate(context);
+        return ParseCache.parse(expression).evaluate(context);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.atlas.engine.expr;
 
 /**
  * Base interface for expression AST nodes.
+ * Nodes are immutable once built, so a parsed tree can be shared between threads (see {@link ParseCache}).
  */
 public interface ExprNode {
     /**
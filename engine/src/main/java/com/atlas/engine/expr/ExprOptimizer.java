@@ -0,0 +1,216 @@
+package com.atlas.engine.expr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optimization pass over a parsed expression tree (run after {@link ExprParser#parse}).
+ * <ul>
+ *   <li>Constant folding: operators and pure functions (IF, MIN, MAX, ROUND) whose operands are all
+ *       literals are replaced by their value, e.g. {@code 12 * 1.08} becomes {@code 12.96}. Subtrees that
+ *       fail (division by zero) are left alone so the error still surfaces at evaluation time.</li>
+ *   <li>Invariant hoisting: the largest subtrees that read no component or input but do use TBL
+ *       (e.g. {@code TBL("rates", "2026") * 12}) are wrapped in an {@link InvariantNode}, so the
+ *       evaluator can compute them once per tenant, component and period date.</li>
+ * </ul>
+ * Folding uses the same arithmetic as evaluation, so results are unchanged; folded steps no longer
+ * appear in calculation traces.
+ */
+public final class ExprOptimizer {
+    // Functions without side effects or external data; TBL reads tables and is never folded
+    private static final Set<String> PURE_FUNCTIONS = Set.of("IF", "MIN", "MAX", "ROUND");
+    private static final String TABLE_FUNCTION = "TBL";
+
+    private ExprOptimizer() {
+    }
+
+    /**
+     * Fold constants, then hoist employee-invariant table subtrees.
+     */
+    public static ExprNode optimize(ExprNode root) {
+        return hoist(fold(root));
+    }
+
+    /**
+     * Replace constant subtrees by literals (bottom-up).
+     */
+    public static ExprNode fold(ExprNode node) {
+        if (node instanceof BinaryOpNode binOp) {
+            ExprNode left = fold(binOp.getLeft());
+            ExprNode right = fold(binOp.getRight());
+            ExprNode folded = new BinaryOpNode(left, binOp.getOperator(), right);
+            return isLiteral(left) && isLiteral(right) ? constant(folded) : folded;
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            ExprNode operand = fold(unOp.getOperand());
+            ExprNode folded = new UnaryOpNode(unOp.getOperator(), operand);
+            return isLiteral(operand) ? constant(folded) : folded;
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            List<ExprNode> args = new ArrayList<>(funcCall.getArguments().size());
+            boolean allLiteral = true;
+            for (ExprNode arg : funcCall.getArguments()) {
+                ExprNode folded = fold(arg);
+                allLiteral &= isLiteral(folded);
+                args.add(folded);
+            }
+            ExprNode folded = new FunctionCallNode(funcCall.getFunctionName(), List.copyOf(args));
+            boolean pure = PURE_FUNCTIONS.contains(funcCall.getFunctionName().toUpperCase());
+            return pure && allLiteral ? constant(folded) : folded;
+        }
+        return node;
+    }
+
+    /**
+     * Wrap the largest subtrees that depend only on constants and table data in {@link InvariantNode}s.
+     */
+    public static ExprNode hoist(ExprNode node) {
+        if (node instanceof InvariantNode || isLiteral(node)) {
+            return node;
+        }
+        if (isInvariant(node) && readsTables(node)) {
+            return new InvariantNode(node);
+        }
+        if (node instanceof BinaryOpNode binOp) {
+            return new BinaryOpNode(hoist(binOp.getLeft()), binOp.getOperator(), hoist(binOp.getRight()));
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return new UnaryOpNode(unOp.getOperator(), hoist(unOp.getOperand()));
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            List<ExprNode> args = new ArrayList<>(funcCall.getArguments().size());
+            for (ExprNode arg : funcCall.getArguments()) {
+                args.add(hoist(arg));
+            }
+            return new FunctionCallNode(funcCall.getFunctionName(), List.copyOf(args));
+        }
+        return node;
+    }
+
+    /**
+     * True if the subtree reads no component or input and calls only built-in functions, i.e. its value
+     * is the same for every employee on a given period date. Functions other than the built-ins count
+     * as employee-dependent.
+     */
+    public static boolean isInvariant(ExprNode node) {
+        if (isLiteral(node) || node instanceof InvariantNode) {
+            return true;
+        }
+        if (node instanceof BinaryOpNode binOp) {
+            return isInvariant(binOp.getLeft()) && isInvariant(binOp.getRight());
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return isInvariant(unOp.getOperand());
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            String name = funcCall.getFunctionName().toUpperCase();
+            if (!PURE_FUNCTIONS.contains(name) && !TABLE_FUNCTION.equals(name)) {
+                return false;
+            }
+            for (ExprNode arg : funcCall.getArguments()) {
+                if (!isInvariant(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // Component references and unknown node types depend on the employee
+        return false;
+    }
+
+    /**
+     * Expression text for a (sub)tree, e.g. for traces. Nested binary operations are parenthesized.
+     */
+    public static String render(ExprNode node) {
+        if (node instanceof NumberNode numNode) {
+            return numNode.getValue().asNumber().toPlainString();
+        }
+        if (node instanceof StringNode strNode) {
+            return "\"" + strNode.getValue().asString() + "\"";
+        }
+        if (node instanceof BooleanNode boolNode) {
+            return boolNode.getValue().asBoolean() ? "TRUE" : "FALSE";
+        }
+        if (node instanceof ComponentRefNode compNode) {
+            return compNode.getComponentName();
+        }
+        if (node instanceof InvariantNode invariant) {
+            return render(invariant.getExpression());
+        }
+        if (node instanceof SharedNode shared) {
+            return render(shared.getExpression());
+        }
+        if (node instanceof BinaryOpNode binOp) {
+            return operand(binOp.getLeft()) + " " + binOp.getOperator().getSymbol() + " " + operand(binOp.getRight());
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return unOp.getOperator() == UnaryOpNode.Operator.NOT
+                    ? "NOT " + operand(unOp.getOperand())
+                    : "-" + operand(unOp.getOperand());
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            List<String> args = new ArrayList<>();
+            for (ExprNode arg : funcCall.getArguments()) {
+                args.add(render(arg));
+            }
+            return funcCall.getFunctionName() + "(" + String.join(", ", args) + ")";
+        }
+        return String.valueOf(node);
+    }
+
+    private static String operand(ExprNode node) {
+        ExprNode inner = node;
+        while (inner instanceof InvariantNode || inner instanceof SharedNode) {
+            inner = inner instanceof InvariantNode invariant ? invariant.getExpression() : ((SharedNode) inner).getExpression();
+        }
+        return inner instanceof BinaryOpNode ? "(" + render(inner) + ")" : render(inner);
+    }
+
+    static boolean readsTables(ExprNode node) {
+        if (node instanceof InvariantNode invariant) {
+            return readsTables(invariant.getExpression());
+        }
+        if (node instanceof SharedNode shared) {
+            return shared.readsTables();
+        }
+        if (node instanceof BinaryOpNode binOp) {
+            return readsTables(binOp.getLeft()) || readsTables(binOp.getRight());
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return readsTables(unOp.getOperand());
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            if (TABLE_FUNCTION.equals(funcCall.getFunctionName().toUpperCase())) {
+                return true;
+            }
+            for (ExprNode arg : funcCall.getArguments()) {
+                if (readsTables(arg)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLiteral(ExprNode node) {
+        return node instanceof NumberNode || node instanceof StringNode || node instanceof BooleanNode;
+    }
+
+    /**
+     * Evaluate a subtree whose leaves are all literals; keep it as is if evaluation fails.
+     */
+    private static ExprNode constant(ExprNode node) {
+        Value value;
+        try {
+            value = node.evaluate(null);
+        } catch (RuntimeException e) {
+            return node;
+        }
+        return switch (value.getType()) {
+            case NUMBER -> new NumberNode(value.asNumber());
+            case BOOLEAN -> new BooleanNode(value.asBoolean());
+            case STRING -> new StringNode(value.asString());
+        };
+    }
+}
@@ -348,7 +348,7 @@ public class ExprParser {
      * Check if identifier is CamelCase (for components).
      * CamelCase: starts with uppercase, contains lowercase letters.
      */
-    private boolean isCamelCase(String name) {
+    static boolean isCamelCase(String name) {
         if (name == null || name.isEmpty()) {
             return false;
         }
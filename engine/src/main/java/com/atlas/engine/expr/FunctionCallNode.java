@@ -11,7 +11,7 @@ public class FunctionCallNode implements ExprNode {
 
     public FunctionCallNode(String functionName, List<ExprNode> arguments) {
         this.functionName = functionName;
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
     }
 
     public String getFunctionName() {
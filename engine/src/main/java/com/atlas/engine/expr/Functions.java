@@ -11,6 +11,9 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Functions {
     private static final Map<String, ExprFunction> REGISTRY = new ConcurrentHashMap<>();
+    // TBL lookups are bound per thread so concurrent evaluations (different tenants,
+    // components or table overlays) never see each other's table service
+    private static final ThreadLocal<TableLookupService> TBL_BINDING = new ThreadLocal<>();
     
     static {
         // Register built-in functions
@@ -18,6 +21,13 @@ public class Functions {
         register("MIN", new MinFunction());
         register("MAX", new MaxFunction());
         register("ROUND", new RoundFunction());
+        register("TBL", new TblFunction((tableName, keys) -> {
+            TableLookupService bound = TBL_BINDING.get();
+            if (bound == null) {
+                throw new IllegalStateException("TBL used without a table lookup service (call Functions.registerTbl first)");
+            }
+            return bound.lookup(tableName, keys);
+        }));
     }
 
     /**
@@ -27,6 +37,8 @@ public class Functions {
      */
     public static void register(String name, ExprFunction function) {
         REGISTRY.put(name.toUpperCase(), function);
+        // Parsed trees depend on which names are functions
+        ParseCache.clear();
     }
 
     /**
@@ -48,12 +60,19 @@ public class Functions {
     }
 
     /**
-     * Register TBL function with a TableLookupService.
+     * Bind the TableLookupService used by TBL on the current thread.
      * This must be called before using TBL in expressions.
      * @param tableLookupService The table lookup service
      */
     public static void registerTbl(TableLookupService tableLookupService) {
-        register("TBL", new TblFunction(tableLookupService));
+        TBL_BINDING.set(tableLookupService);
+    }
+
+    /**
+     * Remove the current thread's TBL binding (e.g. before returning a pooled thread).
+     */
+    public static void clearTbl() {
+        TBL_BINDING.remove();
     }
 }
 
@@ -0,0 +1,58 @@
+package com.atlas.engine.expr;
+
+import java.util.function.Supplier;
+
+/**
+ * AST node marking an employee-invariant subtree: it reads no component or input, only constants and
+ * table data (TBL) on the period date, so its value is the same for every employee. Inserted by
+ * {@link ExprOptimizer}; the evaluator binds a {@link Memo} per rule so the value is computed once per
+ * compiled plan and reused across the population. Without a binding the subtree is simply evaluated.
+ */
+public class InvariantNode implements ExprNode {
+    // Bound per rule like the TBL lookup service: the memo is scoped to tenant, component and period date
+    private static final ThreadLocal<Memo> MEMO = new ThreadLocal<>();
+
+    private final ExprNode expression;
+
+    public InvariantNode(ExprNode expression) {
+        this.expression = expression;
+    }
+
+    public ExprNode getExpression() {
+        return expression;
+    }
+
+    @Override
+    public Value evaluate(EvalContext context) {
+        Memo memo = MEMO.get();
+        if (memo == null) {
+            return expression.evaluate(context);
+        }
+        return memo.get(this, () -> expression.evaluate(context));
+    }
+
+    /**
+     * Bind the memo used by invariant nodes on the current thread, or null to evaluate them every time.
+     */
+    public static void bind(Memo memo) {
+        if (memo == null) {
+            MEMO.remove();
+        } else {
+            MEMO.set(memo);
+        }
+    }
+
+    /**
+     * Remove the current thread's memo binding.
+     */
+    public static void unbind() {
+        MEMO.remove();
+    }
+
+    /**
+     * Values of invariant nodes within one scope. Failed computations must not be remembered.
+     */
+    public interface Memo {
+        Value get(InvariantNode node, Supplier<Value> compute);
+    }
+}
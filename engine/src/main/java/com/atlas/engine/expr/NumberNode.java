@@ -16,6 +16,10 @@ public class NumberNode implements ExprNode {
         this.value = Value.ofNumber(value);
     }
 
+    public Value getValue() {
+        return value;
+    }
+
     @Override
     public Value evaluate(EvalContext context) {
         return value;
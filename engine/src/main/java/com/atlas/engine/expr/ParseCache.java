@@ -0,0 +1,163 @@
+package com.atlas.engine.expr;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cache of parsed expressions, keyed by expression text. Rule expressions are evaluated,
+ * validated and scanned for dependencies over and over; each distinct text is parsed once.
+ *
+ * Only the lenient tree is cached: strict parsing (a non-empty set of component names) yields the same
+ * tree and differs only in rejecting unknown CamelCase references, which is checked against the cached
+ * tree. Trees are immutable and shared between threads. Parse errors are not cached.
+ *
+ * Bounded by {@link #setMaxEntries}: when full, the least recently used tenth of the entries is evicted.
+ * Cleared whenever a function is registered, since parsing depends on the function registry.
+ */
+public final class ParseCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    // Advances on every miss; hits stamp their entry with it, which orders entries by last use
+    private static final AtomicLong CLOCK = new AtomicLong();
+    private static final AtomicBoolean EVICTING = new AtomicBoolean();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+    private static volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private ParseCache() {}
+
+    /**
+     * Parse without validating component names (references to unknown components evaluate to 0).
+     */
+    public static ExprNode parse(String expression) {
+        Entry entry = ENTRIES.get(expression);
+        if (entry != null) {
+            HITS.increment();
+            long now = CLOCK.get();
+            if (entry.lastUsed != now) {
+                entry.lastUsed = now;
+            }
+            return entry.node;
+        }
+        MISSES.increment();
+        ExprNode node = new ExprParser(expression, null).parse();
+        if (maxEntries > 0) {
+            ENTRIES.putIfAbsent(expression, new Entry(node, CLOCK.incrementAndGet()));
+            if (ENTRIES.size() > maxEntries) {
+                evict();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Parse like {@code new ExprParser(expression, componentNames).parse()}: with a non-empty set,
+     * CamelCase references outside it are rejected with "Unknown component".
+     */
+    public static ExprNode parse(String expression, Set<String> componentNames) {
+        if (componentNames == null || componentNames.isEmpty()) {
+            return parse(expression);
+        }
+        ExprNode node;
+        try {
+            node = parse(expression);
+        } catch (RuntimeException e) {
+            // Strict parsing may fail earlier, on an unknown component: report the same error
+            return new ExprParser(expression, componentNames).parse();
+        }
+        checkComponents(node, componentNames);
+        return node;
+    }
+
+    /**
+     * Maximum number of cached expressions; 0 disables caching. Shrinking evicts on the next parse.
+     */
+    public static void setMaxEntries(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Parse cache size must be at least 0: " + max);
+        }
+        maxEntries = max;
+        if (max == 0) {
+            ENTRIES.clear();
+        }
+    }
+
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    public static Stats stats() {
+        return new Stats(HITS.sum(), MISSES.sum(), EVICTIONS.sum(), ENTRIES.size(), maxEntries);
+    }
+
+    /**
+     * @param hits      parses answered from the cache
+     * @param misses    parses that ran the parser (including failed ones)
+     * @param evictions entries dropped to stay within maxEntries
+     */
+    public record Stats(long hits, long misses, long evictions, int size, int maxEntries) {}
+
+    private static void evict() {
+        // One thread trims at a time; others keep parsing while it does
+        if (!EVICTING.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int max = maxEntries;
+            int excess = ENTRIES.size() - max;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, Entry>> oldest = new ArrayList<>(ENTRIES.entrySet());
+            oldest.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+            int toRemove = Math.min(oldest.size(), excess + max / 10);
+            for (int i = 0; i < toRemove; i++) {
+                if (ENTRIES.remove(oldest.get(i).getKey(), oldest.get(i).getValue())) {
+                    EVICTIONS.increment();
+                }
+            }
+        } finally {
+            EVICTING.set(false);
+        }
+    }
+
+    /**
+     * First unknown CamelCase reference in source order, like the strict parser.
+     */
+    private static void checkComponents(ExprNode node, Set<String> componentNames) {
+        if (node instanceof ComponentRefNode compNode) {
+            String name = compNode.getComponentName();
+            if (ExprParser.isCamelCase(name) && !componentNames.contains(name)) {
+                throw new IllegalArgumentException("Unknown component: " + name);
+            }
+        } else if (node instanceof BinaryOpNode binOp) {
+            checkComponents(binOp.getLeft(), componentNames);
+            checkComponents(binOp.getRight(), componentNames);
+        } else if (node instanceof UnaryOpNode unOp) {
+            checkComponents(unOp.getOperand(), componentNames);
+        } else if (node instanceof FunctionCallNode funcCall) {
+            for (ExprNode arg : funcCall.getArguments()) {
+                checkComponents(arg, componentNames);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final ExprNode node;
+        volatile long lastUsed;
+
+        Entry(ExprNode node, long lastUsed) {
+            this.node = node;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class RestrictedGroupAwareEvalContext implements com.atlas.engine.expr.Ev
     private final Map<String, Integer> groupToNumber; // group name -> group number (1, 2, 3, ...)
     private final Map<Integer, String> numberToGroup; // group number -> group name
     private final int maxAllowedGroupNumber; // maximum group number this component can access
+    private int groupSums; // group / toggle group sums computed through this context
     // Dynamic toggle groups: key = toggle group name (e.g., "pension_group"), value = set of component names
     private final Map<String, Set<String>> toggleGroups;
     
@@ -90,6 +91,13 @@ public class RestrictedGroupAwareEvalContext implements com.atlas.engine.expr.Ev
         return baseContext.getComponent(componentName);
     }
 
+    /**
+     * Number of group and toggle group sums computed through this context so far.
+     */
+    public int groupSumCount() {
+        return groupSums;
+    }
+
     /**
      * Sum all components that are tagged with a specific toggle flag.
      * 
@@ -97,6 +105,7 @@ public class RestrictedGroupAwareEvalContext implements com.atlas.engine.expr.Ev
      * @return The sum of all components with this toggle enabled
      */
     private Value sumToggleGroup(String toggleGroupName) {
+        groupSums++;
         BigDecimal sum = BigDecimal.ZERO;
         Set<String> components = toggleGroups.get(toggleGroupName);
         if (components != null) {
@@ -115,6 +124,7 @@ public class RestrictedGroupAwareEvalContext implements com.atlas.engine.expr.Ev
      * For example, group2 includes group1 + group2, and group3 includes group1 + group2 + group3.
      */
     private Value sumGroupCumulative(int targetGroupNumber) {
+        groupSums++;
         BigDecimal sum = BigDecimal.ZERO;
         
         // Sum components from group1 up to and including the target group
@@ -0,0 +1,164 @@
+package com.atlas.engine.expr;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AST node for a subexpression that occurs more than once in a compiled ruleset (the same instance
+ * appears in every rule that uses it). While an evaluation {@link Frame} is bound, its value is
+ * computed once per employee and reused by later occurrences; without a frame it is simply evaluated.
+ * Counts evaluations and reuses for plan explain output.
+ */
+public class SharedNode implements ExprNode {
+    // Bound per employee evaluation by the evaluator
+    private static final ThreadLocal<Frame> FRAME = new ThreadLocal<>();
+
+    private final ExprNode expression;
+    private final Set<String> references;
+    private final boolean readsTables;
+    private final int size;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+
+    public SharedNode(ExprNode expression) {
+        this.expression = expression;
+        Set<String> refs = new LinkedHashSet<>();
+        collectReferences(expression, refs);
+        this.references = Collections.unmodifiableSet(refs);
+        this.readsTables = ExprOptimizer.readsTables(expression);
+        this.size = size(expression);
+    }
+
+    public ExprNode getExpression() {
+        return expression;
+    }
+
+    /**
+     * Component and input names read by the subexpression.
+     */
+    public Set<String> getReferences() {
+        return references;
+    }
+
+    /**
+     * True if the subexpression uses TBL: tables belong to a component, so its value is only shared
+     * within the component being evaluated.
+     */
+    public boolean readsTables() {
+        return readsTables;
+    }
+
+    /**
+     * Number of AST nodes in the subexpression (what one reuse saves).
+     */
+    public int size() {
+        return size;
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    public long reuses() {
+        return reuses.sum();
+    }
+
+    @Override
+    public Value evaluate(EvalContext context) {
+        Value value = cached();
+        if (value != null) {
+            return value;
+        }
+        value = expression.evaluate(context);
+        remember(value);
+        return value;
+    }
+
+    /**
+     * Value already computed for the current employee, or null.
+     */
+    public Value cached() {
+        Frame frame = FRAME.get();
+        Value value = frame != null ? frame.lookup(this) : null;
+        if (value != null) {
+            reuses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Record a freshly computed value; the frame keeps it if it can be reused.
+     */
+    public void remember(Value value) {
+        evaluations.increment();
+        Frame frame = FRAME.get();
+        if (frame != null) {
+            frame.store(this, value);
+        }
+    }
+
+    /**
+     * Bind the frame of the employee evaluation on the current thread.
+     */
+    public static void bind(Frame frame) {
+        FRAME.set(frame);
+    }
+
+    public static void unbind() {
+        FRAME.remove();
+    }
+
+    /**
+     * Values of shared subexpressions during one employee evaluation. The frame decides whether a value
+     * may be reused, e.g. only once every name it reads has its final value.
+     */
+    public interface Frame {
+        Value lookup(SharedNode node);
+
+        void store(SharedNode node, Value value);
+    }
+
+    private static void collectReferences(ExprNode node, Set<String> refs) {
+        if (node instanceof ComponentRefNode compNode) {
+            refs.add(compNode.getComponentName());
+        } else if (node instanceof BinaryOpNode binOp) {
+            collectReferences(binOp.getLeft(), refs);
+            collectReferences(binOp.getRight(), refs);
+        } else if (node instanceof UnaryOpNode unOp) {
+            collectReferences(unOp.getOperand(), refs);
+        } else if (node instanceof FunctionCallNode funcCall) {
+            for (ExprNode arg : funcCall.getArguments()) {
+                collectReferences(arg, refs);
+            }
+        } else if (node instanceof InvariantNode invariant) {
+            collectReferences(invariant.getExpression(), refs);
+        } else if (node instanceof SharedNode shared) {
+            refs.addAll(shared.getReferences());
+        }
+    }
+
+    private static int size(ExprNode node) {
+        if (node instanceof BinaryOpNode binOp) {
+            return 1 + size(binOp.getLeft()) + size(binOp.getRight());
+        }
+        if (node instanceof UnaryOpNode unOp) {
+            return 1 + size(unOp.getOperand());
+        }
+        if (node instanceof FunctionCallNode funcCall) {
+            int total = 1;
+            for (ExprNode arg : funcCall.getArguments()) {
+                total += size(arg);
+            }
+            return total;
+        }
+        if (node instanceof InvariantNode invariant) {
+            return size(invariant.getExpression());
+        }
+        if (node instanceof SharedNode shared) {
+            return shared.size();
+        }
+        return 1;
+    }
+}
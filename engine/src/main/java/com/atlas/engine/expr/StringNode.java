@@ -10,6 +10,10 @@ public class StringNode implements ExprNode {
         this.value = Value.ofString(value);
     }
 
+    public Value getValue() {
+        return value;
+    }
+
     @Override
     public Value evaluate(EvalContext context) {
         return value;
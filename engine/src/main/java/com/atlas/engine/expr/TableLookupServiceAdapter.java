@@ -15,6 +15,7 @@ public class TableLookupServiceAdapter implements TableLookupService {
     private final String tenantId;
     private final String componentTarget;
     private final LocalDate defaultDate;
+    private int lookups;
 
     public TableLookupServiceAdapter(TableService tableService, String tenantId, 
                                      String componentTarget, LocalDate defaultDate) {
@@ -26,6 +27,7 @@ public class TableLookupServiceAdapter implements TableLookupService {
 
     @Override
     public BigDecimal lookup(String tableName, List<Value> keys) {
+        lookups++;
         // Convert Value list to Object list for TableService
         List<Object> keyObjects = new ArrayList<>();
         LocalDate date = defaultDate;
@@ -56,5 +58,12 @@ public class TableLookupServiceAdapter implements TableLookupService {
         
         return tableService.lookup(tenantId, componentTarget, tableName, keyObjects, date);
     }
+
+    /**
+     * Number of lookups made through this adapter so far.
+     */
+    public int lookupCount() {
+        return lookups;
+    }
 }
 
@@ -24,9 +24,7 @@ public class TracingExprEvaluator {
             // This allows expressions to reference components that will be calculated later,
             // or components that may have been deleted but are still referenced.
             // Missing components will evaluate to 0 via ComponentRefNode.evaluate() -> context.getComponent().
-            ExprParser parser = new ExprParser(expression, null);
-            ExprNode node = parser.parse();
-            return evaluateWithTrace(node, context);
+            return evaluateWithTrace(ParseCache.parse(expression), context);
         } catch (Exception e) {
             // If evaluation fails, add error to trace and rethrow
             traceSteps.add("ERROR during evaluation: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
@@ -34,6 +32,22 @@ public class TracingExprEvaluator {
         }
     }
     
+    /**
+     * Evaluate an already parsed (and possibly optimized, see {@link ExprOptimizer}) expression with tracing.
+     * @param node The expression tree
+     * @param context The evaluation context
+     * @return The result value
+     */
+    public Value evaluate(ExprNode node, EvalContext context) {
+        traceSteps.clear();
+        try {
+            return evaluateWithTrace(node, context);
+        } catch (Exception e) {
+            traceSteps.add("ERROR during evaluation: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            throw e;
+        }
+    }
+
     /**
      * Evaluate a node with tracing, recording intermediate steps.
      */
@@ -59,6 +73,27 @@ public class TracingExprEvaluator {
             return compNode.evaluate(context);
         }
         
+        if (node instanceof InvariantNode) {
+            InvariantNode invariant = (InvariantNode) node;
+            // Possibly remembered from an earlier employee: one step instead of the inner ones
+            Value result = invariant.evaluate(context);
+            traceSteps.add(ExprOptimizer.render(invariant.getExpression()) + " = " + formatValue(result) + " (invariant)");
+            return result;
+        }
+        
+        if (node instanceof SharedNode) {
+            SharedNode shared = (SharedNode) node;
+            // Computed earlier for this employee (possibly by another component): one step
+            Value cached = shared.cached();
+            if (cached != null) {
+                traceSteps.add(ExprOptimizer.render(shared.getExpression()) + " = " + formatValue(cached) + " (shared)");
+                return cached;
+            }
+            Value result = evaluateWithTrace(shared.getExpression(), context);
+            shared.remember(result);
+            return result;
+        }
+        
         if (node instanceof BinaryOpNode) {
             BinaryOpNode binOp = (BinaryOpNode) node;
             Value leftValue = evaluateWithTrace(binOp.getLeft(), context);
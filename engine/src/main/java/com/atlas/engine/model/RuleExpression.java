@@ -1,7 +1,7 @@
 package com.atlas.engine.model;
 
 import com.atlas.engine.expr.ExprEvaluator;
-import com.atlas.engine.expr.ExprParser;
+import com.atlas.engine.expr.ParseCache;
 import com.atlas.engine.expr.Value;
 import com.atlas.engine.expr.DefaultEvalContext;
 import com.atlas.engine.expr.ExprNode;
@@ -38,8 +38,7 @@ public class RuleExpression {
     public Set<String> extractDependencies(Set<String> availableComponents) {
         try {
             // Parse the expression to build AST
-            ExprParser tempParser = new ExprParser(expression, availableComponents);
-            ExprNode root = tempParser.parse();
+            ExprNode root = ParseCache.parse(expression, availableComponents);
             
             // Extract component references from AST
             // Use LinkedHashSet to preserve order, then we'll sort for determinism
@@ -62,9 +61,8 @@ public class RuleExpression {
      */
     public Set<String> extractAllComponentReferences() {
         try {
-            // Parse the expression to build AST (use empty set for componentNames to allow all references)
-            ExprParser tempParser = new ExprParser(expression, Set.of());
-            ExprNode root = tempParser.parse();
+            // Parse the expression to build AST (lenient, to allow all references)
+            ExprNode root = ParseCache.parse(expression);
             
             // Extract component references from AST (this automatically excludes quoted strings)
             Set<String> allRefs = new LinkedHashSet<>();
@@ -149,8 +147,7 @@ public class RuleExpression {
         }
 
         try {
-            ExprParser parser = new ExprParser(expression, availableComponents);
-            parser.parse();
+            ParseCache.parse(expression, availableComponents);
             return ValidationResult.success();
         } catch (Exception e) {
             return ValidationResult.error("Parse error: " + e.getMessage());
@@ -12,6 +12,25 @@ import java.util.*;
 public class RuleSet {
     private String id;
     private List<Rule> rules;
+    // Group display order (lowercase group name -> order) supplied by the host; null = alphabetical
+    private Map<String, Integer> groupOrdering;
+    // Version of the stored rules supplied by the host (changes with every rule write); null = unknown
+    private Long contentVersion;
+
+    public RuleSet(String id, List<Rule> rules) {
+        this(id, rules, null, null);
+    }
+
+    /**
+     * Same ruleset metadata (id, group ordering) with different rules; the content version is dropped.
+     */
+    public RuleSet withRules(List<Rule> newRules) {
+        return new RuleSet(id, newRules, groupOrdering, null);
+    }
+
+    public RuleSet withGroupOrdering(Map<String, Integer> ordering) {
+        return new RuleSet(id, rules, ordering, contentVersion);
+    }
 
     public Map<String, Rule> activeRuleIndex(java.time.LocalDate date) {
         // Use LinkedHashMap to preserve insertion order (deterministic)
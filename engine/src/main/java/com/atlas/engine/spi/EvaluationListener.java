@@ -0,0 +1,91 @@
+package com.atlas.engine.spi;
+
+import com.atlas.engine.model.RuleSet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Observer of evaluator activity, for metrics and profiling. All methods default to no-ops; hosts override what they need.
+ *
+ * Callbacks run on the evaluating thread and must be cheap and must not throw; DefaultEvaluator logs and
+ * ignores a callback that does, after the result it reports is settled. With {@link #NONE} the
+ * evaluator takes no timings at all.
+ */
+public interface EvaluationListener {
+
+    EvaluationListener NONE = new EvaluationListener() {};
+
+    /**
+     * Listener that forwards every callback to each of {@code listeners}; NONE entries are dropped.
+     */
+    static EvaluationListener of(EvaluationListener... listeners) {
+        List<EvaluationListener> active = new ArrayList<>();
+        for (EvaluationListener l : listeners) {
+            if (l != null && l != NONE) active.add(l);
+        }
+        if (active.isEmpty()) return NONE;
+        if (active.size() == 1) return active.get(0);
+        return new EvaluationListener() {
+            @Override
+            public void evaluationFinished(RuleSet rules, int componentsEvaluated, long nanos) {
+                for (EvaluationListener l : active) l.evaluationFinished(rules, componentsEvaluated, nanos);
+            }
+
+            @Override
+            public void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {
+                for (EvaluationListener l : active) l.componentEvaluated(rules, component, nanos, tableLookups, groupSums);
+            }
+
+            @Override
+            public void componentFailed(RuleSet rules, String component, Exception error) {
+                for (EvaluationListener l : active) l.componentFailed(rules, component, error);
+            }
+
+            @Override
+            public void tableLookup(String tenantId, String componentTarget, String tableName, List<Object> keys,
+                                    BigDecimal value, long nanos) {
+                for (EvaluationListener l : active) l.tableLookup(tenantId, componentTarget, tableName, keys, value, nanos);
+            }
+
+            @Override
+            public void tableLookupFailed(String tenantId, String componentTarget, String tableName,
+                                          RuntimeException error, long nanos) {
+                for (EvaluationListener l : active) l.tableLookupFailed(tenantId, componentTarget, tableName, error, nanos);
+            }
+        };
+    }
+
+    /**
+     * One evaluateAll finished.
+     *
+     * @param componentsEvaluated rules actually computed (reused components in incremental mode are not counted)
+     */
+    default void evaluationFinished(RuleSet rules, int componentsEvaluated, long nanos) {}
+
+    /**
+     * One rule was computed (successfully or not).
+     *
+     * @param tableLookups TBL calls made by the rule
+     * @param groupSums    group / toggle group sums the rule expanded
+     */
+    default void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {}
+
+    /**
+     * A rule failed and its amount was set to zero.
+     */
+    default void componentFailed(RuleSet rules, String component, Exception error) {}
+
+    /**
+     * A TBL lookup returned. Table services return zero when no row matches, so zero counts as a miss.
+     */
+    default void tableLookup(String tenantId, String componentTarget, String tableName, List<Object> keys,
+                             BigDecimal value, long nanos) {}
+
+    /**
+     * A TBL lookup threw (e.g. key count mismatch, several matching rows).
+     */
+    default void tableLookupFailed(String tenantId, String componentTarget, String tableName,
+                                   RuntimeException error, long nanos) {}
+}
@@ -10,4 +10,13 @@ public interface TableService {
                       String tableName,
                       List<Object> keys,
                       LocalDate onDate);
+
+    /**
+     * Version of a tenant's table data, which must change whenever any of its rows change. While it stays
+     * the same, evaluators reuse the results of lookups with constant keys across employees.
+     * Negative (the default) means unversioned: such lookups are repeated for every evaluation.
+     */
+    default long dataVersion(String tenantId) {
+        return -1L;
+    }
 }
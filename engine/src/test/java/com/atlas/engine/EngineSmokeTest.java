@@ -2,14 +2,19 @@ package com.atlas.engine;
 
 import com.atlas.engine.eval.DefaultEvaluator;
 import com.atlas.engine.eval.Evaluator;
+import com.atlas.engine.expr.DefaultEvalContext;
+import com.atlas.engine.expr.ParseCache;
 import com.atlas.engine.model.*;
+import com.atlas.engine.spi.EvaluationListener;
 import com.atlas.engine.spi.TableService;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -47,6 +52,138 @@ public class EngineSmokeTest {
         assertAmountEquals("1775.2", result.total());
     }
 
+    @Test
+    void incrementalReevaluationMatchesFullEvaluation() {
+        List<Rule> rules = new ArrayList<>(List.of(
+                new Rule("Base", "BaseSalary", List.of(), null, null, Map.of("group", "core")),
+                new Rule("Bonus", "Base * 0.1", List.of(), null, null, Map.of("group", "core", "pension", "true")),
+                new Rule("Travel", "200", List.of(), null, null, Map.of("group", "extra")),
+                new Rule("Tax", "core * 0.2 + pension_group * 0.01", List.of(), null, null, Map.of("group", "tax"))));
+        DefaultEvaluator evaluator = new DefaultEvaluator(NOOP_TABLES);
+        EvalContext ctx = new EvalContext(Map.of("BaseSalary", new BigDecimal("10000")), LocalDate.now());
+        EvaluationResult baseline = evaluator.evaluateAll(new RuleSet("default", rules), ctx);
+
+        // Raise Base by 10%: Bonus reads it directly, Tax through the group sum; Travel is untouched
+        rules.set(0, new Rule("Base", "BaseSalary * 1.1", List.of(), null, null, Map.of("group", "core")));
+        RuleSet raised = new RuleSet("default", rules);
+        Set<String> affected = evaluator.downstreamOf(raised, ctx, Set.of("Base"));
+        assertEquals(Set.of("Base", "Bonus", "Tax"), affected);
+
+        EvaluationResult incremental = evaluator.evaluateAll(raised, ctx, baseline, affected);
+        assertSame(baseline.components().get("Travel"), incremental.components().get("Travel"));
+        assertAmountEquals(evaluator.evaluateAll(raised, ctx).total().toPlainString(), incremental.total());
+    }
+
+    @Test
+    void listenerSeesComponentsLookupsAndErrors() {
+        TableService tables = (tenant, component, name, keys, on) -> {
+            if (name.equals("broken")) throw new IllegalStateException("Multiple matches in broken");
+            return name.equals("rates") ? new BigDecimal("0.1") : BigDecimal.ZERO;
+        };
+        List<String> components = new ArrayList<>();
+        List<String> lookups = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        int[] finished = new int[1];
+        EvaluationListener listener = new EvaluationListener() {
+            @Override
+            public void evaluationFinished(RuleSet rules, int componentsEvaluated, long nanos) {
+                finished[0] = componentsEvaluated;
+            }
+
+            @Override
+            public void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {
+                components.add(component + ":" + tableLookups);
+            }
+
+            @Override
+            public void componentFailed(RuleSet rules, String component, Exception error) {
+                failed.add(component);
+            }
+
+            @Override
+            public void tableLookup(String tenantId, String componentTarget, String tableName, List<Object> keys,
+                                    BigDecimal value, long nanos) {
+                lookups.add(tableName + "=" + value.toPlainString());
+            }
+
+            @Override
+            public void tableLookupFailed(String tenantId, String componentTarget, String tableName,
+                                          RuntimeException error, long nanos) {
+                lookups.add(tableName + " failed");
+            }
+        };
+        RuleSet rs = new RuleSet("default", List.of(
+                new Rule("Rate", "TBL(\"rates\", 1)", List.of(), null, null, Map.of()),
+                new Rule("Missing", "TBL(\"empty\", 1)", List.of(), null, null, Map.of()),
+                new Rule("Broken", "TBL(\"broken\", 1)", List.of(), null, null, Map.of())));
+
+        EvaluationResult result = new DefaultEvaluator(tables, listener)
+                .evaluateAll(rs, new EvalContext(Map.of(), LocalDate.now()));
+
+        assertEquals(3, finished[0]);
+        assertEquals(Set.of("Rate:1", "Missing:1", "Broken:1"), Set.copyOf(components));
+        assertEquals(List.of("Broken"), failed);
+        assertEquals(Set.of("rates=0.1", "empty=0", "broken failed"), Set.copyOf(lookups));
+        assertAmountEquals("0", result.components().get("Broken").amount());
+    }
+
+    @Test
+    void throwingListenerDoesNotChangeResults() {
+        TableService tables = (tenant, component, name, keys, on) -> new BigDecimal("0.1");
+        List<String> failed = new ArrayList<>();
+        EvaluationListener throwing = new EvaluationListener() {
+            @Override
+            public void evaluationFinished(RuleSet rules, int componentsEvaluated, long nanos) {
+                throw new IllegalStateException("metrics down");
+            }
+
+            @Override
+            public void componentEvaluated(RuleSet rules, String component, long nanos, int tableLookups, int groupSums) {
+                throw new IllegalStateException("metrics down");
+            }
+
+            @Override
+            public void componentFailed(RuleSet rules, String component, Exception error) {
+                failed.add(component);
+            }
+
+            @Override
+            public void tableLookup(String tenantId, String componentTarget, String tableName, List<Object> keys,
+                                    BigDecimal value, long nanos) {
+                throw new IllegalStateException("metrics down");
+            }
+        };
+        RuleSet rs = new RuleSet("default", List.of(
+                new Rule("Base", "BaseSalary", List.of(), null, null, Map.of()),
+                new Rule("Rate", "TBL(\"rates\", 1)", List.of(), null, null, Map.of()),
+                new Rule("Bonus", "Base * Rate", List.of(), null, null, Map.of())));
+        EvalContext ctx = new EvalContext(Map.of("BaseSalary", new BigDecimal("10000")), LocalDate.now());
+
+        EvaluationResult observed = new DefaultEvaluator(tables, throwing).evaluateAll(rs, ctx);
+        EvaluationResult plain = new DefaultEvaluator(tables).evaluateAll(rs, ctx);
+
+        assertEquals(List.of(), failed);
+        assertAmountEquals("0.1", observed.components().get("Rate").amount());
+        assertAmountEquals("1000", observed.components().get("Bonus").amount());
+        assertAmountEquals(plain.total().toPlainString(), observed.total());
+    }
+
+    @Test
+    void tableBindingIsClearedWhenEvaluationThrows() {
+        // Errors are not caught per rule and leave evaluateAll
+        TableService tables = (tenant, component, name, keys, on) -> {
+            throw new StackOverflowError();
+        };
+        RuleSet rs = new RuleSet("default", List.of(new Rule("Rate", "TBL(\"rates\", 1)", List.of(), null, null, Map.of())));
+
+        assertThrows(StackOverflowError.class, () -> new DefaultEvaluator(tables)
+                .evaluateAll(rs, new EvalContext(Map.of(), LocalDate.now())));
+
+        RuntimeException unbound = assertThrows(RuntimeException.class, () -> ParseCache.parse("TBL(\"rates\", 1)")
+                .evaluate(new DefaultEvalContext(new EvalContext(Map.of(), LocalDate.now()))));
+        assertTrue(String.valueOf(unbound.getMessage()).contains("registerTbl"), unbound.getMessage());
+    }
+
     private static void assertAmountEquals(String expected, BigDecimal actual) {
         assertEquals(0, new BigDecimal(expected).compareTo(actual),
                 "Expected " + expected + " but was " + actual.toPlainString());
@@ -0,0 +1,128 @@
+package com.atlas.engine.eval;
+
+import com.atlas.engine.model.EvalContext;
+import com.atlas.engine.model.EvaluationResult;
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+import com.atlas.engine.spi.TableService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledRuleSetTest {
+
+    private static final TableService NOOP_TABLES = (tenant, component, name, keys, on) -> {
+        throw new IllegalStateException("TableService.lookup() should not be called in this test");
+    };
+
+    private static Rule rule(String target, String expression) {
+        return new Rule(target, expression, List.of(), null, null, Map.of());
+    }
+
+    @Test
+    void hashConsesIdenticalSubtreesAcrossRules() {
+        CompiledRuleSet plan = new CompiledRuleSet(List.of(
+                rule("A", "BaseSalary * WorkPercent / 100 * 0.1"),
+                rule("B", "BaseSalary * WorkPercent / 100 + 5"),
+                rule("C", "MAX(BaseSalary * WorkPercent / 100, 10)")));
+
+        CompiledRuleSet.PlanExplain explain = plan.explain();
+        assertEquals(3, explain.rules());
+        // 3 x (BaseSalary, WorkPercent, *, 100, /) + 0.1, *, 5, +, 10, MAX
+        assertEquals(21, explain.nodes());
+        assertEquals(11, explain.distinctNodes());
+        assertEquals(1, explain.sharedExpressions().size());
+        CompiledRuleSet.SharedExpression shared = explain.sharedExpressions().get(0);
+        assertEquals("(BaseSalary * WorkPercent) / 100", shared.expression());
+        assertEquals(3, shared.occurrences());
+        assertEquals(5, shared.size());
+        assertFalse(shared.componentScoped());
+    }
+
+    @Test
+    void sharedSubexpressionsAreEvaluatedOncePerEmployee() {
+        RuleSet rs = new RuleSet("default", List.of(
+                rule("A", "BaseSalary * WorkPercent / 100 * 0.1"),
+                rule("B", "BaseSalary * WorkPercent / 100 + 5"),
+                rule("C", "MAX(BaseSalary * WorkPercent / 100, 10)")));
+        DefaultEvaluator evaluator = new DefaultEvaluator(NOOP_TABLES);
+
+        for (int i = 1; i <= 2; i++) {
+            EvaluationResult result = evaluator.evaluateAll(rs, new EvalContext(
+                    Map.of("BaseSalary", new BigDecimal(1000 * i), "WorkPercent", new BigDecimal("50")), LocalDate.now()));
+            assertAmount(50 * i, result.components().get("A").amount());
+            assertAmount(500 * i + 5, result.components().get("B").amount());
+            assertAmount(500 * i, result.components().get("C").amount());
+        }
+
+        CompiledRuleSet.PlanExplain explain = evaluator.plan(rs).explain();
+        assertEquals(2, explain.sharedEvaluations());
+        assertEquals(4, explain.reusedEvaluations());
+        assertEquals(20, explain.savedNodeEvaluations());
+    }
+
+    @Test
+    void componentValuesAreReusedOnlyOnceFinal() {
+        // Bonus and Extra both read Base * 2; Base is a rule over BaseSalary, evaluated first
+        RuleSet rs = new RuleSet("default", List.of(
+                new Rule("Base", "BaseSalary", List.of("BaseSalary"), null, null, Map.of()),
+                new Rule("Bonus", "Base * 2 + 1", List.of("Base"), null, null, Map.of()),
+                new Rule("Extra", "Base * 2 + 3", List.of("Base"), null, null, Map.of())));
+        DefaultEvaluator evaluator = new DefaultEvaluator(NOOP_TABLES);
+
+        EvaluationResult result = evaluator.evaluateAll(rs,
+                new EvalContext(Map.of("BaseSalary", new BigDecimal("100")), LocalDate.now()));
+        assertAmount(201, result.components().get("Bonus").amount());
+        assertAmount(203, result.components().get("Extra").amount());
+        assertEquals(1, evaluator.plan(rs).explain().reusedEvaluations());
+    }
+
+    @Test
+    void tableSubexpressionsAreSharedWithinAComponentOnly() {
+        AtomicInteger lookups = new AtomicInteger();
+        // Tables belong to a component: the same TBL call reads a different table in each rule
+        TableService tables = (tenant, component, name, keys, on) -> {
+            lookups.incrementAndGet();
+            return "P".equals(component) ? new BigDecimal("10") : new BigDecimal("20");
+        };
+        RuleSet rs = new RuleSet("default", List.of(
+                rule("P", "TBL(\"rates\", Grade) * 2 + TBL(\"rates\", Grade)"),
+                rule("Q", "TBL(\"rates\", Grade) * 3")));
+        DefaultEvaluator evaluator = new DefaultEvaluator(tables);
+
+        EvaluationResult result = evaluator.evaluateAll(rs,
+                new EvalContext(Map.of("Grade", "B"), LocalDate.now()));
+        assertAmount(30, result.components().get("P").amount());
+        assertAmount(60, result.components().get("Q").amount());
+        assertEquals(2, lookups.get());
+        assertTrue(evaluator.plan(rs).explain().sharedExpressions().stream()
+                .anyMatch(CompiledRuleSet.SharedExpression::componentScoped));
+    }
+
+    @Test
+    void plansAreSharedByInstanceAndByEqualRules() {
+        DefaultEvaluator evaluator = new DefaultEvaluator(NOOP_TABLES);
+        RuleSet rs = new RuleSet("default", List.of(rule("A", "BaseSalary * 2")));
+        CompiledRuleSet plan = evaluator.plan(rs);
+
+        assertSame(plan, evaluator.plan(rs));
+        // A fresh instance with equal rules (a reload) shares the plan
+        assertSame(plan, evaluator.plan(new RuleSet("default", List.of(rule("A", "BaseSalary * 2")))));
+
+        // Replacing the rule list plans the instance again
+        rs.setRules(List.of(rule("A", "BaseSalary * 3")));
+        CompiledRuleSet replaced = evaluator.plan(rs);
+        assertNotSame(plan, replaced);
+        assertSame(replaced, evaluator.plan(rs));
+    }
+
+    private static void assertAmount(long expected, BigDecimal actual) {
+        assertEquals(0, BigDecimal.valueOf(expected).compareTo(actual), expected + " != " + actual);
+    }
+}
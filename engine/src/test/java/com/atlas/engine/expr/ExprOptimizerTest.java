@@ -0,0 +1,123 @@
+package com.atlas.engine.expr;
+
+import com.atlas.engine.eval.DefaultEvaluator;
+import com.atlas.engine.model.EvalContext;
+import com.atlas.engine.model.EvaluationResult;
+import com.atlas.engine.model.Rule;
+import com.atlas.engine.model.RuleSet;
+import com.atlas.engine.spi.TableService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExprOptimizerTest {
+
+    private static ExprNode optimize(String expression) {
+        return ExprOptimizer.optimize(new ExprParser(expression, null).parse());
+    }
+
+    @Test
+    void foldsConstantSubtrees() {
+        assertEquals("BaseSalary * 12.96", ExprOptimizer.render(optimize("BaseSalary * (12 * 1.08)")));
+        assertEquals("3.75", ExprOptimizer.render(optimize("ROUND(0.0375 * 100, 2)")));
+        assertEquals("200", ExprOptimizer.render(optimize("IF 10 > 5 THEN 200 ELSE 100")));
+        assertEquals("-5", ExprOptimizer.render(optimize("-(2 + 3)")));
+        // Left-associative: (BaseSalary * 12) * 1.08 has no constant subtree
+        assertEquals("(BaseSalary * 12) * 1.08", ExprOptimizer.render(optimize("BaseSalary * 12 * 1.08")));
+    }
+
+    @Test
+    void leavesFailingSubtreesForEvaluation() {
+        ExprNode node = optimize("BaseSalary + 1 / 0");
+        assertEquals("BaseSalary + (1 / 0)", ExprOptimizer.render(node));
+        assertThrows(ArithmeticException.class, () -> node.evaluate(context(Map.of("BaseSalary", 1))));
+    }
+
+    @Test
+    void hoistsConstantKeyTableLookups() {
+        ExprNode node = optimize("BaseSalary * TBL(\"rates\", \"2026\") * 12");
+        BinaryOpNode root = (BinaryOpNode) node;
+        BinaryOpNode inner = (BinaryOpNode) root.getLeft();
+        assertInstanceOf(InvariantNode.class, inner.getRight());
+
+        ExprNode whole = optimize("TBL(\"rates\", \"A\") * (1 + 0.5)");
+        assertInstanceOf(InvariantNode.class, whole);
+        assertEquals("TBL(\"rates\", \"A\") * 1.5", ExprOptimizer.render(whole));
+
+        // Keys read from the employee: not invariant
+        assertFalse(optimize("TBL(\"rates\", Grade)") instanceof InvariantNode);
+        assertFalse(ExprOptimizer.isInvariant(optimize("TBL(\"rates\", Grade) * 2")));
+    }
+
+    @Test
+    void optimizedTreesEvaluateLikeParsedOnes() {
+        com.atlas.engine.expr.EvalContext ctx = context(Map.of("BaseSalary", new BigDecimal("4321.5"), "Age", 41));
+        for (String expression : List.of(
+                "BaseSalary * (12 * 1.08)",
+                "ROUND(BaseSalary * (0.0375 * 100) / 7, 2)",
+                "IF Age > 30 AND 2 > 1 THEN MAX(BaseSalary, 1000 * 5) ELSE MIN(100, 50 + 25)",
+                "BaseSalary ^ 2 - (3 ^ 2) * -(1 - 4)")) {
+            ExprNode parsed = new ExprParser(expression, null).parse();
+            assertEquals(parsed.evaluate(ctx), optimize(expression).evaluate(ctx), expression);
+        }
+    }
+
+    @Test
+    void evaluatorLooksUpInvariantsOncePerPlan() {
+        AtomicInteger lookups = new AtomicInteger();
+        TableService tables = new TableService() {
+            @Override
+            public BigDecimal lookup(String tenantId, String componentTarget, String tableName,
+                                     List<Object> keys, LocalDate onDate) {
+                lookups.incrementAndGet();
+                return "A".equals(keys.get(0)) ? new BigDecimal("0.05") : new BigDecimal("0.10");
+            }
+
+            @Override
+            public long dataVersion(String tenantId) {
+                return 0L;
+            }
+        };
+        RuleSet rs = new RuleSet("default", List.of(
+                new Rule("Bonus", "BaseSalary * TBL(\"rates\", \"A\")", List.of(), null, null, Map.of()),
+                new Rule("Extra", "BaseSalary * TBL(\"rates\", Grade)", List.of(), null, null, Map.of())));
+        DefaultEvaluator evaluator = new DefaultEvaluator(tables);
+        LocalDate date = LocalDate.of(2026, 1, 31);
+
+        for (int i = 1; i <= 3; i++) {
+            EvaluationResult result = evaluator.evaluateAll(rs,
+                    new EvalContext(Map.of("BaseSalary", new BigDecimal(1000 * i), "Grade", "B"), date));
+            assertEquals(0, new BigDecimal(50 * i).compareTo(result.components().get("Bonus").amount()));
+            assertEquals(0, new BigDecimal(100 * i).compareTo(result.components().get("Extra").amount()));
+        }
+        // One lookup for the constant key, one per employee for the Grade key
+        assertEquals(4, lookups.get());
+        assertEquals(1, evaluator.plan(rs).invariantCount());
+    }
+
+    @Test
+    void unversionedTablesAreLookedUpEveryTime() {
+        AtomicInteger lookups = new AtomicInteger();
+        TableService tables = (tenant, component, name, keys, on) -> {
+            lookups.incrementAndGet();
+            return BigDecimal.ONE;
+        };
+        RuleSet rs = new RuleSet("default", List.of(
+                new Rule("Bonus", "BaseSalary * TBL(\"rates\", \"A\")", List.of(), null, null, Map.of())));
+        DefaultEvaluator evaluator = new DefaultEvaluator(tables);
+        for (int i = 0; i < 3; i++) {
+            evaluator.evaluateAll(rs, new EvalContext(Map.of("BaseSalary", BigDecimal.TEN), LocalDate.now()));
+        }
+        assertEquals(3, lookups.get());
+    }
+
+    private static com.atlas.engine.expr.EvalContext context(Map<String, Object> inputs) {
+        return new DefaultEvalContext(new EvalContext(inputs, LocalDate.now()));
+    }
+}
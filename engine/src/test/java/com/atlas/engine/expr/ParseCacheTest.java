@@ -0,0 +1,114 @@
+package com.atlas.engine.expr;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseCacheTest {
+
+    @Test
+    void repeatedTextsReuseTheParsedTree() {
+        String expression = "ParseCacheBase * 12 + 1";
+        ParseCache.Stats before = ParseCache.stats();
+        ExprNode first = ParseCache.parse(expression);
+        ExprNode second = ParseCache.parse(expression);
+        assertSame(first, second);
+
+        ParseCache.Stats after = ParseCache.stats();
+        assertEquals(1, after.misses() - before.misses());
+        assertEquals(1, after.hits() - before.hits());
+    }
+
+    @Test
+    void strictModeRejectsUnknownComponentsLikeTheParser() {
+        String expression = "IF BaseSalary > 100 THEN Bonus ELSE Extra";
+        Set<String> names = Set.of("BaseSalary", "Extra");
+        ParseCache.parse(expression); // cached leniently first
+
+        IllegalArgumentException cached = assertThrows(IllegalArgumentException.class,
+                () -> ParseCache.parse(expression, names));
+        IllegalArgumentException parsed = assertThrows(IllegalArgumentException.class,
+                () -> new ExprParser(expression, names).parse());
+        assertEquals(parsed.getMessage(), cached.getMessage());
+
+        assertSame(ParseCache.parse(expression), ParseCache.parse(expression, Set.of("BaseSalary", "Bonus", "Extra")));
+        // Lowercase group names are never validated
+        assertDoesNotThrow(() -> ParseCache.parse("earnings + Extra", names));
+    }
+
+    @Test
+    void strictErrorsMatchTheParserWhenTheTextDoesNotParse() {
+        String expression = "Unknown + (BaseSalary";
+        Set<String> names = Set.of("BaseSalary");
+        IllegalArgumentException cached = assertThrows(IllegalArgumentException.class,
+                () -> ParseCache.parse(expression, names));
+        IllegalArgumentException parsed = assertThrows(IllegalArgumentException.class,
+                () -> new ExprParser(expression, names).parse());
+        assertEquals(parsed.getMessage(), cached.getMessage());
+    }
+
+    @Test
+    void parseErrorsAreNotCached() {
+        ParseCache.Stats before = ParseCache.stats();
+        assertThrows(RuntimeException.class, () -> ParseCache.parse("ParseCacheBroken * (2 +"));
+        assertThrows(RuntimeException.class, () -> ParseCache.parse("ParseCacheBroken * (2 +"));
+        assertEquals(2, ParseCache.stats().misses() - before.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesWhenFull() {
+        ParseCache.setMaxEntries(20);
+        try {
+            ExprNode hot = ParseCache.parse("ParseCacheHot + 1");
+            long evictions = ParseCache.stats().evictions();
+            for (int i = 0; i < 100; i++) {
+                ParseCache.parse("ParseCacheCold + " + i);
+                assertSame(hot, ParseCache.parse("ParseCacheHot + 1"));
+            }
+            assertTrue(ParseCache.stats().size() <= 20);
+            assertTrue(ParseCache.stats().evictions() > evictions);
+        } finally {
+            ParseCache.setMaxEntries(ParseCache.DEFAULT_MAX_ENTRIES);
+        }
+    }
+
+    @Test
+    void sharedTreesEvaluateConcurrently() throws Exception {
+        String expression = "IF ParseCacheX > 10 THEN MAX(ParseCacheX * 2, 5) ELSE ParseCacheX + 1";
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int x = i % 20;
+                        Value value = ParseCache.parse(expression).evaluate(context(x));
+                        double expected = x > 10 ? x * 2 : x + 1;
+                        if (value.asNumber().doubleValue() != expected) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static EvalContext context(int x) {
+        return new DefaultEvalContext(new com.atlas.engine.model.EvalContext(Map.of("ParseCacheX", x), LocalDate.now()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.atlas.loadtest;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * The API under test, run from its boot jar in a child JVM (same as production, no test classpath) with a
+ * localhost-only JMX port. Server-side allocation and GC are read over JMX, so they cover only the API and
+ * not the load generator.
+ */
+final class ApiProcess implements AutoCloseable {
+    private final Process process;
+    private final String baseUrl;
+    private final Path log;
+    private JMXConnector jmx;
+    private com.sun.management.ThreadMXBean threads;
+    private List<GarbageCollectorMXBean> collectors;
+
+    private ApiProcess(Process process, String baseUrl, Path log) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+        this.log = log;
+    }
+
+    /**
+     * Starts the jar with {@code properties} as --key=value arguments and waits until the health endpoint is up.
+     */
+    static ApiProcess start(Path jar, List<String> jvmArgs, Map<String, String> properties,
+                            Path log, Duration startupTimeout) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("API jar not found: " + jar.toAbsolutePath()
+                + " (build it with: mvn -pl api -am package -DskipTests)");
+        }
+        int httpPort = freePort();
+        int jmxPort = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-Dcom.sun.management.jmxremote.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.rmi.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.host=127.0.0.1");
+        command.add("-Dcom.sun.management.jmxremote.authenticate=false");
+        command.add("-Dcom.sun.management.jmxremote.ssl=false");
+        command.add("-Djava.rmi.server.hostname=127.0.0.1");
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + httpPort);
+        command.add("--server.address=127.0.0.1");
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        ApiProcess api = new ApiProcess(process, "http://127.0.0.1:" + httpPort + "/api", log);
+        try {
+            api.awaitHealthy(startupTimeout);
+            api.connectJmx(jmxPort);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            api.close();
+            throw e;
+        }
+        return api;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Bytes allocated by all live API threads plus cumulative GC count and time. Threads that exit between two
+     * snapshots take their allocations with them; request-serving pool threads live for the whole run.
+     */
+    ServerStats stats() {
+        long[] ids = threads.getAllThreadIds();
+        long allocated = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            if (bytes > 0) allocated += bytes;
+        }
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        return new ServerStats(allocated, gcCount, gcMillis);
+    }
+
+    record ServerStats(long allocatedBytes, long gcCount, long gcMillis) {
+        ServerStats minus(ServerStats earlier) {
+            return new ServerStats(
+                Math.max(0, allocatedBytes - earlier.allocatedBytes),
+                gcCount - earlier.gcCount,
+                gcMillis - earlier.gcMillis);
+        }
+    }
+
+    private void awaitHealthy(Duration timeout) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+            .timeout(Duration.ofSeconds(5)).GET().build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("API exited with code " + process.exitValue() + " during startup, see " + log);
+            }
+            try {
+                HttpResponse<String> response = client.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) return;
+            } catch (IOException notYet) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("API not healthy after " + timeout.toSeconds() + "s, see " + log);
+    }
+
+    private void connectJmx(int port) throws IOException {
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + port + "/jmxrmi");
+        jmx = JMXConnectorFactory.connect(url);
+        MBeanServerConnection connection = jmx.getMBeanServerConnection();
+        threads = ManagementFactory.newPlatformMXBeanProxy(
+            connection, ManagementFactory.THREAD_MXBEAN_NAME, com.sun.management.ThreadMXBean.class);
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("API JVM does not support per-thread allocation accounting");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        collectors = ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (jmx != null) {
+            try {
+                jmx.close();
+            } catch (IOException ignored) {
+                // process is going away anyway
+            }
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(30, java.util.concurrent.TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
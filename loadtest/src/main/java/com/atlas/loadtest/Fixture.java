@@ -0,0 +1,220 @@
+package com.atlas.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Test data installed through the API itself: an allowlist entry for the load-test identity (admin key), a
+ * tenant, a generated ruleset saved and published in the memory RulesService, and an employee population
+ * for the optimizer. Also builds the request bodies of each workload type.
+ *
+ * Rulesets use no TBL lookups: TableServiceMemory starts empty and fails every lookup, which would only
+ * measure the error path.
+ */
+final class Fixture {
+    static final String EMAIL = "loadtest@example.com";
+    private static final List<String> DEPARTMENTS = List.of("Engineering", "Sales", "Support", "Finance", "Operations");
+
+    private final HttpClient client;
+    private final ObjectMapper json;
+    private final String baseUrl;
+    private final String token;
+    private final String tenantId;
+    private final int components;
+    private final int employees;
+    private final long seed;
+    private final LocalDate payDay = LocalDate.now();
+    private String rulesetId;
+    private BigDecimal populationBase = BigDecimal.ZERO;
+
+    Fixture(HttpClient client, ObjectMapper json, String baseUrl, String token, LoadTestConfig config) {
+        this.client = client;
+        this.json = json;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.tenantId = config.get("fixture.tenant");
+        this.components = Math.max(2, config.getInt("fixture.components", 200));
+        this.employees = Math.max(1, config.getInt("fixture.employees", 2000));
+        this.seed = Long.parseLong(config.get("fixture.seed", "20240601"));
+    }
+
+    void install(String adminKey) throws IOException, InterruptedException {
+        Map<String, Object> allowlist = new LinkedHashMap<>();
+        allowlist.put("email", EMAIL);
+        allowlist.put("mode", "MULTI_TENANT");
+        allowlist.put("role", "SYSTEM_ADMIN");
+        allowlist.put("notes", "load test");
+        allowlist.put("tenantIds", List.of());
+        expectOk(HttpRequest.newBuilder(uri("/admin/allowlist"))
+            .header("X-LIRA-ADMIN-KEY", adminKey)
+            .header("Content-Type", "application/json")
+            .POST(body(allowlist)), "create allowlist entry");
+
+        expectOk(post("/tenants", Map.of("tenantId", tenantId, "name", "Load test", "currency", "USD")), "create tenant");
+
+        Map<String, Object> ruleset = new LinkedHashMap<>();
+        ruleset.put("name", "loadtest-" + components);
+        ruleset.put("tenantId", tenantId);
+        ruleset.put("rules", rules(components, seed));
+        rulesetId = json.readTree(expectOk(post("/rulesets", ruleset), "create ruleset")).path("rulesetId").asText();
+        expectOk(post("/rulesets/" + enc(tenantId) + "/" + enc(rulesetId) + "/publish", Map.of()), "publish ruleset");
+
+        List<Map<String, Object>> population = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Map<String, Object> data = employee(i);
+            populationBase = populationBase.add((BigDecimal) data.get("base"));
+            population.add(Map.of("employeeId", String.format("LT%06d", i), "name", "Employee " + i, "data", data));
+        }
+        expectOk(post("/employees/import?tenantId=" + enc(tenantId), population), "import employees");
+    }
+
+    String rulesetId() {
+        return rulesetId;
+    }
+
+    /**
+     * Request number {@code n} of a workload. With {@code unique} every request carries employees no earlier
+     * request had; otherwise they cycle through the population.
+     */
+    HttpRequest request(Workload workload, int n) throws IOException {
+        return switch (workload.type()) {
+            case EMPLOYEE -> {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("tenantId", tenantId);
+                body.put("rulesetId", rulesetId);
+                body.put("payDay", payDay.toString());
+                body.put("employee", employeeInput(workload.unique() ? n : n % employees));
+                yield post(workload.type().path, body).build();
+            }
+            case BULK -> {
+                List<Map<String, Object>> batch = new ArrayList<>(workload.batchSize());
+                for (int i = 0; i < workload.batchSize(); i++) {
+                    int variant = n * workload.batchSize() + i;
+                    if (!workload.unique()) variant %= employees;
+                    batch.add(employeeInput(variant));
+                }
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("tenantId", tenantId);
+                body.put("rulesetId", rulesetId);
+                body.put("payDay", payDay.toString());
+                body.put("employees", batch);
+                yield post(workload.type().path, body).build();
+            }
+            case OPTIMIZER -> {
+                BigDecimal budget = populationBase
+                    .multiply(BigDecimal.valueOf(workload.extraBudgetPercent()))
+                    .divide(BigDecimal.valueOf(100))
+                    // a slightly different budget each run, so no two searches are identical
+                    .add(BigDecimal.valueOf(n % 97));
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("tenantId", tenantId);
+                body.put("rulesetId", rulesetId);
+                body.put("extraBudget", budget);
+                body.put("strategy", "FLAT_RAISE_ON_BASE");
+                body.put("targetComponent", "Base");
+                body.put("asOfDate", payDay.toString());
+                yield post(workload.type().path, body).build();
+            }
+        };
+    }
+
+    /** Employees in the request, for per-employee throughput. */
+    static int itemsPerRequest(Workload workload) {
+        return workload.type() == Workload.Type.BULK ? workload.batchSize() : 1;
+    }
+
+    // Employee data as stored (import) and as EmployeeInput fields (simulate); variant picks the values
+    static Map<String, Object> employee(int variant) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("base", BigDecimal.valueOf(600_000L + 25L * variant, 2));
+        data.put("yearsOfService", BigDecimal.valueOf(variant % 31));
+        data.put("performance", BigDecimal.valueOf(1 + variant % 5));
+        data.put("hasFamily", BigDecimal.valueOf(variant % 2));
+        data.put("isManager", BigDecimal.valueOf(variant % 7 == 0 ? 1 : 0));
+        data.put("department", DEPARTMENTS.get(variant % DEPARTMENTS.size()));
+        return data;
+    }
+
+    private static Map<String, Object> employeeInput(int variant) {
+        Map<String, Object> input = employee(variant);
+        input.put("id", "V" + variant);
+        return input;
+    }
+
+    /**
+     * Reproducible ruleset: Base, then components built from inputs and recent earlier components with
+     * arithmetic, IF, MIN, MAX and ROUND. Same size and seed, same ruleset.
+     */
+    static List<Map<String, Object>> rules(int components, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> rules = new ArrayList<>(components);
+        List<String> targets = new ArrayList<>(components);
+        rules.add(rule("Base", "BaseSalary", List.of()));
+        targets.add("Base");
+        for (int i = 1; i < components; i++) {
+            String target = String.format("Comp%04d", i);
+            String ref = targets.get(targets.size() - 1 - random.nextInt(Math.min(targets.size(), 25)));
+            String expression = switch (random.nextInt(6)) {
+                case 0 -> "BaseSalary * 0.0" + (1 + random.nextInt(9));
+                case 1 -> "(Base + " + ref + ") * 0.0" + (1 + random.nextInt(9));
+                case 2 -> "IF YearsOfService > " + random.nextInt(20) + " THEN " + (100 + random.nextInt(400))
+                    + " ELSE " + ref + " * 0.5";
+                case 3 -> "MIN(" + ref + " * 0.03, " + (1000 + random.nextInt(2000)) + ")";
+                case 4 -> "MAX(0, " + ref + " - " + (500 + random.nextInt(1000)) + ") * 0.05";
+                default -> "ROUND(" + ref + " * PerformanceRating * 0.0" + random.nextInt(10) + ", 2)";
+            };
+            List<String> dependsOn = expression.contains(ref) ? List.of(ref) : List.of();
+            rules.add(rule(target, expression, dependsOn));
+            targets.add(target);
+        }
+        return rules;
+    }
+
+    private static Map<String, Object> rule(String target, String expression, List<String> dependsOn) {
+        Map<String, Object> rule = new LinkedHashMap<>();
+        rule.put("target", target);
+        rule.put("expression", expression);
+        rule.put("dependsOn", dependsOn);
+        rule.put("meta", Map.of());
+        return rule;
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(uri(path))
+            .timeout(Duration.ofMinutes(10))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .POST(body(body));
+    }
+
+    private HttpRequest.BodyPublisher body(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body));
+    }
+
+    private String expectOk(HttpRequest.Builder request, String what) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Failed to " + what + ": HTTP " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String enc(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
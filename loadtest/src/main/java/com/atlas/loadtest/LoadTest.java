@@ -0,0 +1,108 @@
+package com.atlas.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * End-to-end load test of the API. Starts a throwaway Postgres and a stub OIDC issuer, boots the API jar
+ * with the memory profile against them, installs a fixture through the API, runs the configured workloads
+ * in order and reports latency percentiles, throughput and server allocation per workload.
+ *
+ *   java -jar loadtest/target/loadtest.jar [--config=file] [key=value ...]
+ *
+ * Exits with 1 when any measured request failed.
+ */
+public final class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load(args);
+        List<Workload> workloads = config.workloads();
+        ObjectMapper json = new ObjectMapper();
+
+        List<WorkloadResult> results = new ArrayList<>();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             StubIssuer issuer = new StubIssuer(json)) {
+            String adminKey = UUID.randomUUID().toString();
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("spring.profiles.active", "memory");
+            properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+            properties.put("app.security.mode", "oidc");
+            properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", issuer.issuer());
+            properties.put("lira.admin.key", adminKey);
+            // No background snapshot refreshes competing with the measured requests
+            properties.put("app.baseline.snapshot-refresh-seconds", "0");
+
+            System.out.println("Starting API (log: " + config.get("api.log") + ")");
+            try (ApiProcess api = ApiProcess.start(
+                    Path.of(config.get("api.jar")),
+                    config.getList("api.jvm-args").stream()
+                        .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                        .filter(arg -> !arg.isEmpty())
+                        .toList(),
+                    properties,
+                    Path.of(config.get("api.log")),
+                    Duration.ofSeconds(config.getInt("api.startup-timeout-seconds", 180)))) {
+                HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+                String token = issuer.mint("loadtest-user", Fixture.EMAIL, Duration.ofHours(12));
+
+                Fixture fixture = new Fixture(client, json, api.baseUrl(), token, config);
+                fixture.install(adminKey);
+                System.out.println("Fixture installed: tenant " + config.get("fixture.tenant")
+                    + ", ruleset " + fixture.rulesetId() + ", " + config.get("fixture.employees") + " employees");
+
+                WorkloadRunner runner = new WorkloadRunner(client, fixture, api);
+                for (Workload workload : workloads) {
+                    System.out.println("Running " + workload.name() + ": " + workload.threads() + " threads, "
+                        + workload.warmup() + " warmup + " + workload.requests() + " requests");
+                    results.add(runner.run(workload));
+                }
+            }
+        }
+
+        print(results);
+        Path report = Path.of(config.get("report.file"));
+        if (report.toAbsolutePath().getParent() != null) Files.createDirectories(report.toAbsolutePath().getParent());
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("finishedAt", Instant.now().toString());
+        document.put("javaVersion", System.getProperty("java.version"));
+        document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        document.put("settings", config.asMap());
+        document.put("results", results);
+        json.enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), document);
+        System.out.println("Report written to " + report);
+
+        int errors = results.stream().mapToInt(WorkloadResult::errors).sum();
+        if (errors > 0) {
+            results.stream().filter(r -> r.firstError() != null)
+                .forEach(r -> System.out.println(r.workload() + " first error: " + r.firstError()));
+            System.exit(1);
+        }
+    }
+
+    private static void print(List<WorkloadResult> results) {
+        System.out.println();
+        System.out.printf("%-12s %-20s %4s %7s %5s %9s %9s %8s %8s %8s %8s %9s %10s %11s %5s%n",
+            "workload", "endpoint", "thr", "reqs", "err", "req/s", "emp/s",
+            "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "alloc MB/s", "alloc B/req", "gc");
+        for (WorkloadResult r : results) {
+            System.out.printf("%-12s %-20s %4d %7d %5d %9.1f %9.1f %8.2f %8.2f %8.2f %8.2f %9.2f %10.1f %11d %5d%n",
+                r.workload(), r.endpoint(), r.threads(), r.requests(), r.errors(), r.requestsPerSecond(),
+                r.employeesPerSecond(), r.p50Millis(), r.p90Millis(), r.p99Millis(), r.p999Millis(), r.maxMillis(),
+                r.allocatedMbPerSecond(), r.allocatedBytesPerRequest(), r.gcCount());
+        }
+        System.out.println();
+    }
+}
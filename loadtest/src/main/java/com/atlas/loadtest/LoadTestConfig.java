@@ -0,0 +1,95 @@
+package com.atlas.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Settings: classpath loadtest.properties, then an optional --config=<file>, then key=value arguments.
+ */
+final class LoadTestConfig {
+    private final Properties props = new Properties();
+
+    private LoadTestConfig() {}
+
+    static LoadTestConfig load(String[] args) throws IOException {
+        LoadTestConfig config = new LoadTestConfig();
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) config.props.load(in);
+        }
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg.substring("--config=".length())))) {
+                    config.props.load(reader);
+                }
+            }
+        }
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) continue;
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            config.props.setProperty(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+        }
+        return config;
+    }
+
+    String get(String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing setting: " + key);
+        return value.trim();
+    }
+
+    String get(String key, String defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(get(key, String.valueOf(defaultValue)));
+    }
+
+    boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+
+    List<String> getList(String key) {
+        List<String> out = new ArrayList<>();
+        for (String part : get(key, "").split(",")) {
+            if (!part.isBlank()) out.add(part.trim());
+        }
+        return out;
+    }
+
+    List<Workload> workloads() {
+        List<Workload> out = new ArrayList<>();
+        for (String name : getList("workloads")) {
+            String prefix = "workload." + name + ".";
+            Workload.Type type = Workload.Type.valueOf(get(prefix + "type", name).toUpperCase(Locale.ROOT));
+            out.add(new Workload(
+                name,
+                type,
+                Math.max(1, getInt(prefix + "threads", 1)),
+                Math.max(0, getInt(prefix + "warmup", 0)),
+                Math.max(1, getInt(prefix + "requests", 1)),
+                Math.max(1, getInt(prefix + "batch-size", 100)),
+                getBoolean(prefix + "unique", true),
+                getDouble(prefix + "extra-budget-percent", 2.0)));
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("No workloads configured");
+        return out;
+    }
+
+    /** Settings as loaded, for the report. */
+    Map<String, String> asMap() {
+        Map<String, String> out = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) out.put(key, props.getProperty(key));
+        return out;
+    }
+}
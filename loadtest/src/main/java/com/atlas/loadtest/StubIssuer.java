@@ -0,0 +1,121 @@
+package com.atlas.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Minimal OIDC issuer on localhost: serves the discovery document and JWKS the API's resource server reads
+ * from {@code issuer-uri}, and mints RS256 tokens with its own key. No login flow; tokens are handed out
+ * directly by {@link #mint}.
+ */
+final class StubIssuer implements AutoCloseable {
+    private static final String KEY_ID = "loadtest";
+
+    private final ObjectMapper json;
+    private final KeyPair keys;
+    private final HttpServer server;
+    private final String issuer;
+
+    StubIssuer(ObjectMapper json) throws IOException, GeneralSecurityException {
+        this.json = json;
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        this.keys = generator.generateKeyPair();
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.issuer = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/.well-known/openid-configuration", exchange -> respond(exchange, discovery()));
+        server.createContext("/jwks", exchange -> respond(exchange, jwks()));
+        server.start();
+    }
+
+    String issuer() {
+        return issuer;
+    }
+
+    /**
+     * Signed token for {@code subject}; the API matches it to the allowlist by issuer+sub, or by email first time.
+     */
+    String mint(String subject, String email, Duration ttl) throws GeneralSecurityException, IOException {
+        Instant now = Instant.now();
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "RS256");
+        header.put("typ", "JWT");
+        header.put("kid", KEY_ID);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", issuer);
+        claims.put("sub", subject);
+        claims.put("email", email);
+        claims.put("name", "Load Test");
+        claims.put("iat", now.getEpochSecond());
+        claims.put("nbf", now.getEpochSecond() - 5);
+        claims.put("exp", now.plus(ttl).getEpochSecond());
+
+        String signingInput = base64Url(json.writeValueAsBytes(header)) + "." + base64Url(json.writeValueAsBytes(claims));
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keys.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + base64Url(signature.sign());
+    }
+
+    private Map<String, Object> discovery() {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("issuer", issuer);
+        doc.put("jwks_uri", issuer + "/jwks");
+        doc.put("authorization_endpoint", issuer + "/authorize");
+        doc.put("token_endpoint", issuer + "/token");
+        doc.put("response_types_supported", List.of("code"));
+        doc.put("subject_types_supported", List.of("public"));
+        doc.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        return doc;
+    }
+
+    private Map<String, Object> jwks() {
+        RSAPublicKey key = (RSAPublicKey) keys.getPublic();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("kid", KEY_ID);
+        jwk.put("n", base64Url(unsigned(key.getModulus())));
+        jwk.put("e", base64Url(unsigned(key.getPublicExponent())));
+        return Map.of("keys", List.of(jwk));
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = json.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // JWK integers are big-endian without the sign byte BigInteger adds
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,32 @@
+package com.atlas.loadtest;
+
+/**
+ * One closed-loop phase: {@code threads} clients each send the next request as soon as the previous one
+ * returns, first {@code warmup} unrecorded requests, then {@code requests} measured ones.
+ *
+ * @param batchSize          employees per request (bulk)
+ * @param unique             distinct inputs per request, so the result cache never answers
+ * @param extraBudgetPercent optimizer budget as a percentage of the population's base payroll
+ */
+record Workload(
+    String name,
+    Type type,
+    int threads,
+    int warmup,
+    int requests,
+    int batchSize,
+    boolean unique,
+    double extraBudgetPercent
+) {
+    enum Type {
+        EMPLOYEE("/simulate/employee"),
+        BULK("/simulate/bulk"),
+        OPTIMIZER("/optimizer/optimize");
+
+        final String path;
+
+        Type(String path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.atlas.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Measured phase of one workload. Latencies are client-observed milliseconds (nearest-rank percentiles);
+ * allocation and GC are the API JVM's, over the same phase.
+ */
+record WorkloadResult(
+    String workload,
+    String endpoint,
+    int threads,
+    int requests,
+    int errors,
+    String firstError,
+    double durationSeconds,
+    double requestsPerSecond,
+    double employeesPerSecond,
+    double meanMillis,
+    double p50Millis,
+    double p90Millis,
+    double p99Millis,
+    double p999Millis,
+    double maxMillis,
+    long allocatedBytes,
+    double allocatedMbPerSecond,
+    long allocatedBytesPerRequest,
+    long gcCount,
+    long gcMillis
+) {
+    static WorkloadResult of(Workload workload, long[] latencies, int errors, String firstError,
+                             long elapsedNanos, ApiProcess.ServerStats server) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        int completed = sorted.length;
+        long sum = 0;
+        for (long l : sorted) sum += l;
+        return new WorkloadResult(
+            workload.name(),
+            workload.type().path,
+            workload.threads(),
+            completed,
+            errors,
+            firstError,
+            seconds,
+            completed / seconds,
+            (double) completed * Fixture.itemsPerRequest(workload) / seconds,
+            completed > 0 ? sum / 1e6 / completed : 0,
+            percentile(sorted, 0.50),
+            percentile(sorted, 0.90),
+            percentile(sorted, 0.99),
+            percentile(sorted, 0.999),
+            completed > 0 ? sorted[completed - 1] / 1e6 : 0,
+            server.allocatedBytes(),
+            server.allocatedBytes() / 1024.0 / 1024.0 / seconds,
+            completed > 0 ? server.allocatedBytes() / completed : 0,
+            server.gcCount(),
+            server.gcMillis());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,104 @@
+package com.atlas.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs one workload: warmup, then the measured phase with client-side latency per request and server-side
+ * allocation / GC deltas taken around it.
+ */
+final class WorkloadRunner {
+    private final HttpClient client;
+    private final Fixture fixture;
+    private final ApiProcess api;
+
+    WorkloadRunner(HttpClient client, Fixture fixture, ApiProcess api) {
+        this.client = client;
+        this.fixture = fixture;
+        this.api = api;
+    }
+
+    WorkloadResult run(Workload workload) throws InterruptedException {
+        if (workload.warmup() > 0) {
+            phase(workload, workload.warmup(), 0);
+        }
+        ApiProcess.ServerStats before = api.stats();
+        long start = System.nanoTime();
+        Phase measured = phase(workload, workload.requests(), workload.warmup());
+        long elapsed = System.nanoTime() - start;
+        ApiProcess.ServerStats server = api.stats().minus(before);
+        return WorkloadResult.of(workload, measured.latencies(), measured.errors(), measured.firstError(), elapsed, server);
+    }
+
+    // Request numbers continue after warmup so unique workloads never repeat an input
+    private Phase phase(Workload workload, int requests, int firstRequest) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long[][] latencies = new long[workload.threads()][];
+        ExecutorService pool = Executors.newFixedThreadPool(workload.threads());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < workload.threads(); t++) {
+            int worker = t;
+            workers.add(pool.submit(() -> {
+                long[] own = new long[Math.max(16, requests / workload.threads() + 1)];
+                int count = 0;
+                for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                    HttpRequest request;
+                    try {
+                        request = fixture.request(workload, firstRequest + n);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() / 100 != 2) {
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, "HTTP " + response.statusCode() + " " + abbreviate(response.body()));
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        firstError.compareAndSet(null, e.toString());
+                    }
+                    if (count == own.length) own = Arrays.copyOf(own, own.length * 2);
+                    own[count++] = System.nanoTime() - sent;
+                }
+                latencies[worker] = Arrays.copyOf(own, count);
+                return null;
+            }));
+        }
+        pool.shutdown();
+        for (Future<?> f : workers) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                pool.shutdownNow();
+                throw new IllegalStateException("Workload " + workload.name() + " failed", e.getCause());
+            }
+        }
+
+        int total = 0;
+        for (long[] own : latencies) total += own.length;
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] own : latencies) {
+            System.arraycopy(own, 0, all, offset, own.length);
+            offset += own.length;
+        }
+        return new Phase(all, errors.get(), firstError.get());
+    }
+
+    private static String abbreviate(String body) {
+        return body == null || body.length() <= 200 ? body : body.substring(0, 200) + "...";
+    }
+
+    private record Phase(long[] latencies, int errors, String firstError) {}
+}
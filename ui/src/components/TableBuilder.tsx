@@ -320,7 +320,11 @@ export default function TableBuilder({ tenantId = 'default' }: { tenantId?: stri
 
   const handleRangeChange = (rowIndex: number, columnName: string, rangeField: 'min' | 'max', value: string) => {
     const newRows = [...rows];
-    const currentRange = newRows[rowIndex].keys[columnName] || { min: null, max: null };
+    const currentKey = newRows[rowIndex].keys[columnName];
+    // An exact key is shown as min = max; editing either bound turns it into a range
+    const currentRange = typeof currentKey === 'number'
+      ? { min: currentKey, max: currentKey }
+      : currentKey || { min: null, max: null };
     const numValue = value === '' ? null : parseFloat(value);
     newRows[rowIndex] = {
       ...newRows[rowIndex],
@@ -334,6 +338,9 @@ export default function TableBuilder({ tenantId = 'default' }: { tenantId?: stri
 
   const getRangeValue = (row: any, columnName: string, rangeField: 'min' | 'max'): string => {
     const keyValue = row.keys[columnName];
+    if (typeof keyValue === 'number') {
+      return String(keyValue);
+    }
     if (keyValue && typeof keyValue === 'object' && 'min' in keyValue && 'max' in keyValue) {
       const val = keyValue[rangeField];
       return val === null || val === undefined ? '' : String(val);
@@ -691,7 +698,8 @@ export default function TableBuilder({ tenantId = 'default' }: { tenantId?: stri
           } else {
             const num = parseFloat(value);
             if (!isNaN(num)) {
-              keys[col.name] = { min: num, max: num };
+              // A single number matches exactly (min == max would be an empty half-open range)
+              keys[col.name] = num;
             } else {
               keys[col.name] = { min: null, max: null };
             }